@@ -0,0 +1,175 @@
+package com.featureflags.client;
+
+import com.featureflags.client.model.AttributeMatch;
+import com.featureflags.client.model.TargetingRules;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable, pre-compiled form of a flag and its targeting rules.
+ * <p>
+ * Lists are turned into hash sets and attribute matches into parallel arrays once per update,
+ * so {@link #evaluate(String, Map)} only does set lookups and a hash of the user key and
+ * allocates nothing. Rules are applied in order: kill switch, deny list, allow list,
+ * attribute matches (all must hold), then the percentage rollout.
+ * <p>
+ * Rollout buckets are Murmur3 x86_32 of the user key's UTF-16 code units, seeded with the
+ * Murmur3 of the flag name, so a user stays in the same bucket across restarts and instances
+ * while different flags roll out to independent user samples.
+ */
+public final class CompiledFlag {
+
+    private static final int BUCKETS = 100;
+
+    private final String name;
+    private final boolean enabled;
+    private final long changeVersion;
+    private final boolean targetsEveryone;
+    private final Set<String> allow;
+    private final Set<String> deny;
+    private final String[] matchAttributes;
+    private final Set<String>[] matchValues;
+    private final boolean[] matchNegated;
+    private final int rolloutPercentage;
+    private final int rolloutSeed;
+
+    @SuppressWarnings("unchecked")
+    private CompiledFlag(String name, boolean enabled, TargetingRules rules, long changeVersion) {
+        this.name = name;
+        this.enabled = enabled;
+        this.changeVersion = changeVersion;
+        this.targetsEveryone = rules == null;
+        this.allow = rules != null ? toSet(rules.getAllow()) : Set.of();
+        this.deny = rules != null ? toSet(rules.getDeny()) : Set.of();
+
+        List<AttributeMatch> matches = rules != null && rules.getMatches() != null ? rules.getMatches() : List.of();
+        this.matchAttributes = new String[matches.size()];
+        this.matchValues = new Set[matches.size()];
+        this.matchNegated = new boolean[matches.size()];
+        for (int i = 0; i < matches.size(); i++) {
+            AttributeMatch match = matches.get(i);
+            matchAttributes[i] = match.getAttribute();
+            matchValues[i] = toSet(match.getValues());
+            matchNegated[i] = match.isNegate();
+        }
+
+        Integer percentage = rules != null ? rules.getRolloutPercentage() : null;
+        this.rolloutPercentage = percentage != null ? Math.max(0, Math.min(BUCKETS, percentage)) : BUCKETS;
+        this.rolloutSeed = murmur3(name, 0);
+    }
+
+    public static CompiledFlag compile(String name, boolean enabled, TargetingRules rules) {
+        return new CompiledFlag(name, enabled, rules, 0);
+    }
+
+    public static CompiledFlag compile(String name, boolean enabled, TargetingRules rules, long changeVersion) {
+        return new CompiledFlag(name, enabled, rules, changeVersion);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Store change version this state was written at, 0 when unknown
+     */
+    public long getChangeVersion() {
+        return changeVersion;
+    }
+
+    /**
+     * Global state of the flag, ignoring targeting
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Whether the flag is on for this user; userKey and attributes may be null for anonymous callers
+     */
+    public boolean evaluate(String userKey, Map<String, String> attributes) {
+        if (!enabled) {
+            return false;
+        }
+        if (targetsEveryone) {
+            return true;
+        }
+        if (userKey != null) {
+            if (deny.contains(userKey)) {
+                return false;
+            }
+            if (allow.contains(userKey)) {
+                return true;
+            }
+        }
+        for (int i = 0; i < matchAttributes.length; i++) {
+            String value = attributes != null ? attributes.get(matchAttributes[i]) : null;
+            boolean listed = value != null && matchValues[i].contains(value);
+            if (listed == matchNegated[i]) {
+                return false;
+            }
+        }
+        if (rolloutPercentage >= BUCKETS) {
+            return true;
+        }
+        return userKey != null && bucket(userKey) < rolloutPercentage;
+    }
+
+    /**
+     * Stable rollout bucket of a user for this flag, in [0, 100)
+     */
+    int bucket(String userKey) {
+        return (murmur3(userKey, rolloutSeed) & 0x7fffffff) % BUCKETS;
+    }
+
+    private static Set<String> toSet(List<String> values) {
+        return values == null || values.isEmpty() ? Set.of() : new HashSet<>(values);
+    }
+
+    /**
+     * Murmur3 x86_32 over the UTF-16 code units of value, two units per little-endian block
+     */
+    static int murmur3(CharSequence value, int seed) {
+        int h = seed;
+        int length = value.length();
+        int i = 0;
+        for (; i + 1 < length; i += 2) {
+            int k = value.charAt(i) | (value.charAt(i + 1) << 16);
+            h ^= mixK(k);
+            h = Integer.rotateLeft(h, 13) * 5 + 0xe6546b64;
+        }
+        if (i < length) {
+            h ^= mixK(value.charAt(i));
+        }
+        h ^= length * 2;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private static int mixK(int k) {
+        k *= 0xcc9e2d51;
+        k = Integer.rotateLeft(k, 15);
+        return k * 0x1b873593;
+    }
+
+    @Override
+    public String toString() {
+        return "CompiledFlag{" +
+                "name='" + name + '\'' +
+                ", enabled=" + enabled +
+                ", changeVersion=" + changeVersion +
+                ", targetsEveryone=" + targetsEveryone +
+                ", allow=" + allow.size() +
+                ", deny=" + deny.size() +
+                ", matches=" + matchAttributes.length +
+                ", rolloutPercentage=" + rolloutPercentage +
+                '}';
+    }
+}
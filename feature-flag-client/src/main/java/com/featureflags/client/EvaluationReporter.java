@@ -0,0 +1,127 @@
+package com.featureflags.client;
+
+import com.featureflags.client.model.EvaluationCount;
+import com.featureflags.client.model.EvaluationReport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Flushes the client's evaluation counters to an {@link EvaluationSink} once per fixed window.
+ * <p>
+ * Windows are aligned to multiples of the window length since the epoch, so every instance
+ * reports the same windows. Each report holds the difference between the counters' running
+ * totals and the totals of the last delivered report, so nothing is reset on the evaluation
+ * path and a failed delivery is simply folded into the next window.
+ */
+public class EvaluationReporter implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(EvaluationReporter.class);
+
+    private final FeatureFlagClient client;
+    private final EvaluationSink sink;
+    private final Duration window;
+    private final String source;
+    private final Clock clock;
+    // Held across the blocking report call, so a lock rather than a monitor that would pin a virtual thread
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private long windowStart;
+    private ScheduledExecutorService scheduler;
+
+    public EvaluationReporter(FeatureFlagClient client, EvaluationSink sink, Duration window, String source) {
+        this(client, sink, window, source, Clock.systemUTC());
+    }
+
+    EvaluationReporter(FeatureFlagClient client, EvaluationSink sink, Duration window, String source, Clock clock) {
+        this.client = client;
+        this.sink = sink;
+        this.window = window;
+        this.source = source;
+        this.clock = clock;
+        this.windowStart = clock.millis();
+    }
+
+    public void start() {
+        long windowMillis = window.toMillis();
+        long untilBoundary = windowMillis - clock.millis() % windowMillis;
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "feature-flag-telemetry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::flushQuietly, untilBoundary, windowMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Report what was counted in the current window, then flush once more on shutdown
+     */
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        flushQuietly();
+    }
+
+    /**
+     * Send the counts since the last delivered report; returns the report, or null if nothing was evaluated
+     */
+    EvaluationReport flush() {
+        flushLock.lock();
+        try {
+            return flushWindow();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private EvaluationReport flushWindow() {
+        long windowEnd = clock.millis();
+        List<FlagHandle> handles = new ArrayList<>();
+        List<EvaluationCount> counts = new ArrayList<>();
+        List<long[]> totals = new ArrayList<>();
+        for (FlagHandle handle : client.handles()) {
+            long enabled = handle.getEnabledEvaluations();
+            long disabled = handle.getDisabledEvaluations();
+            if (enabled == handle.reportedEnabled && disabled == handle.reportedDisabled) {
+                continue;
+            }
+            handles.add(handle);
+            totals.add(new long[] {enabled, disabled});
+            counts.add(new EvaluationCount(handle.getName(),
+                    enabled - handle.reportedEnabled, disabled - handle.reportedDisabled));
+        }
+        if (counts.isEmpty()) {
+            windowStart = windowEnd;
+            return null;
+        }
+
+        EvaluationReport report = new EvaluationReport(source, windowStart, windowEnd, counts);
+        sink.report(report);
+
+        for (int i = 0; i < handles.size(); i++) {
+            handles.get(i).reportedEnabled = totals.get(i)[0];
+            handles.get(i).reportedDisabled = totals.get(i)[1];
+        }
+        windowStart = windowEnd;
+        logger.debug("Reported evaluations of {} flags", counts.size());
+        return report;
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.warn("Flag evaluation report failed, counts are kept for the next window: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.featureflags.client;
+
+import com.featureflags.client.model.EvaluationReport;
+
+/**
+ * Receiver of the evaluation counts flushed by {@link EvaluationReporter}
+ */
+public interface EvaluationSink {
+
+    /**
+     * Deliver one report; throwing keeps the counts for the next flush
+     */
+    void report(EvaluationReport report);
+}
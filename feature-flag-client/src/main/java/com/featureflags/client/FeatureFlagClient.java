@@ -0,0 +1,364 @@
+package com.featureflags.client;
+
+import com.featureflags.client.model.FlagChanges;
+import com.featureflags.client.model.FlagState;
+import com.featureflags.client.model.FlagUpdateEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Local, in-memory view of the feature flags with per-user evaluation.
+ * <p>
+ * The client bootstraps from the snapshot feed of a {@link FlagSource}, applies pushed
+ * {@link FlagUpdateEvent}s as they arrive and, when a poll interval is set, catches up on
+ * missed updates through the changes feed. Reads go to an immutable {@link FlagSnapshot} and
+ * never block; writers are serialized and replace the snapshot copy-on-write, then push the new
+ * state into the {@link FlagHandle}s. Updates older than the flag's current change version,
+ * or than the version its name was deleted at, are ignored, so late or replayed events cannot
+ * roll a flag back or bring a deleted one back.
+ */
+public class FeatureFlagClient implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(FeatureFlagClient.class);
+
+    private final FlagSource flagSource;
+    private final Duration pollInterval;
+    private final ReentrantLock updateLock = new ReentrantLock();
+    private final Map<String, FlagHandle> handles = new ConcurrentHashMap<>();
+
+    private final List<FlagPropagationListener> propagationListeners = new CopyOnWriteArrayList<>();
+
+    // Change version each deleted name was removed at, until a feed version covers it; guarded by the update lock
+    private final Map<String, Long> tombstones = new HashMap<>();
+
+    private volatile FlagSnapshot snapshot = FlagSnapshot.EMPTY;
+    private volatile boolean bootstrapped;
+    private volatile long appliedVersion;
+    private volatile PropagationSample lastPropagation;
+    private ScheduledExecutorService poller;
+
+    /**
+     * Client fed only by pushed events, without a snapshot source
+     */
+    public FeatureFlagClient() {
+        this(null, null);
+    }
+
+    public FeatureFlagClient(FlagSource flagSource, Duration pollInterval) {
+        this.flagSource = flagSource;
+        this.pollInterval = pollInterval;
+    }
+
+    /**
+     * Load the initial snapshot and start polling for changes. A failed bootstrap is only
+     * logged: flags read as disabled until a later poll or pushed event succeeds.
+     */
+    public void start() {
+        if (flagSource == null) {
+            return;
+        }
+        syncQuietly();
+        if (pollInterval != null && !pollInterval.isZero() && !pollInterval.isNegative()) {
+            poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "feature-flag-sync");
+                thread.setDaemon(true);
+                return thread;
+            });
+            poller.scheduleWithFixedDelay(this::syncQuietly, pollInterval.toMillis(), pollInterval.toMillis(),
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (poller != null) {
+            poller.shutdownNow();
+        }
+    }
+
+    /**
+     * Global state of the flag; checks of existing flags are counted like handle checks
+     */
+    public boolean isEnabled(String flagName) {
+        FlagHandle handle = knownHandle(flagName);
+        return handle != null && handle.isEnabled();
+    }
+
+    public boolean isEnabled(String flagName, String userKey, Map<String, String> attributes) {
+        FlagHandle handle = knownHandle(flagName);
+        return handle != null && handle.isEnabled(userKey, attributes);
+    }
+
+    /**
+     * Handle for hot-path checks of one flag; repeated calls return the same handle
+     */
+    public FlagHandle handle(String flagName) {
+        FlagHandle handle = handles.get(flagName);
+        if (handle != null) {
+            return handle;
+        }
+        // Created under the update lock so that no snapshot swap can slip in between reading
+        // the flag's current state and registering the handle for updates
+        updateLock.lock();
+        try {
+            return handles.computeIfAbsent(flagName, name -> new FlagHandle(name, snapshot.get(name)));
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    /**
+     * Handles of every flag checked so far, for the evaluation reporter
+     */
+    Collection<FlagHandle> handles() {
+        return handles.values();
+    }
+
+    /**
+     * Handle of an existing flag; unknown names get no handle so arbitrary lookups cannot grow the map
+     */
+    private FlagHandle knownHandle(String flagName) {
+        FlagHandle handle = handles.get(flagName);
+        if (handle == null && snapshot.get(flagName) != null) {
+            handle = handle(flagName);
+        }
+        return handle;
+    }
+
+    public FlagSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Apply a pushed update; BATCH events are applied as one snapshot swap
+     */
+    public void onUpdate(FlagUpdateEvent event) {
+        if (event == null) {
+            logger.warn("Received invalid flag update event");
+            return;
+        }
+        updateLock.lock();
+        try {
+            Map<String, CompiledFlag> flags = new HashMap<>(snapshot.flags());
+            if (FlagUpdateEvent.BATCH.equals(event.getEventType()) && event.getEvents() != null) {
+                logger.info("Received flag update batch of {} events", event.getEvents().size());
+                event.getEvents().forEach(nested -> apply(flags, nested));
+            } else {
+                apply(flags, event);
+            }
+            publish(new FlagSnapshot(snapshot.getVersion(), flags));
+        } finally {
+            updateLock.unlock();
+        }
+        if (event.getVersion() != null) {
+            recordPropagation(event.getVersion(), orZero(event.getCommittedAtMicros()),
+                    orZero(event.getPublishedAtMicros()));
+        }
+    }
+
+    /**
+     * Catch up after a change notification that carries only the change version: fetch the
+     * changes feed unless that version was already applied. The commit is the publication here.
+     */
+    void onChangeNotification(long version, long committedAtMicros) {
+        if (appliedVersion < version) {
+            sync();
+        }
+        if (appliedVersion >= version) {
+            recordPropagation(version, committedAtMicros, committedAtMicros);
+        }
+    }
+
+    /**
+     * Highest store change version this client has applied, from pushed events or the feeds
+     */
+    public long getAppliedVersion() {
+        return appliedVersion;
+    }
+
+    /**
+     * Timing of the last applied pushed event, or null before the first one
+     */
+    public PropagationSample getLastPropagation() {
+        return lastPropagation;
+    }
+
+    public void addPropagationListener(FlagPropagationListener listener) {
+        propagationListeners.add(listener);
+    }
+
+    /**
+     * Fetch the changes since the last synchronized version, or the full snapshot when the
+     * client was never bootstrapped or the server has pruned changes that old
+     */
+    public void sync() {
+        if (flagSource == null) {
+            throw new IllegalStateException("No flag source configured");
+        }
+        FlagChanges changes = bootstrapped ? flagSource.fetchChangesSince(snapshot.getVersion()) : null;
+        if (changes != null) {
+            applyChanges(changes);
+            return;
+        }
+        FlagChanges full = flagSource.fetchSnapshot();
+        applySnapshot(full);
+        bootstrapped = true;
+        logger.info("Loaded {} feature flags at version {}", snapshot.size(), full.getVersion());
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (RuntimeException e) {
+            logger.warn("Feature flag sync failed: {}", e.getMessage());
+        }
+    }
+
+    void applySnapshot(FlagChanges full) {
+        updateLock.lock();
+        try {
+            Map<String, CompiledFlag> flags = new HashMap<>();
+            for (FlagState state : states(full)) {
+                flags.put(state.getName(), compile(state));
+            }
+            // Keep pushed updates and deletes that are newer than the snapshot
+            snapshot.flags().forEach((name, current) -> {
+                if (current.getChangeVersion() > full.getVersion()) {
+                    flags.put(name, current);
+                }
+            });
+            tombstones.forEach((name, deletedAt) -> {
+                if (deletedAt > full.getVersion()) {
+                    flags.remove(name);
+                }
+            });
+            publish(new FlagSnapshot(full.getVersion(), flags));
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    void applyChanges(FlagChanges changes) {
+        updateLock.lock();
+        try {
+            Map<String, CompiledFlag> flags = new HashMap<>(snapshot.flags());
+            for (FlagState state : states(changes)) {
+                if (isStale(flags, state.getName(), state.getChangeVersion())) {
+                    continue;
+                }
+                if (state.isTombstone()) {
+                    remove(flags, state.getName(), state.getChangeVersion());
+                } else {
+                    flags.put(state.getName(), compile(state));
+                }
+            }
+            publish(new FlagSnapshot(Math.max(snapshot.getVersion(), changes.getVersion()), flags));
+            if (!states(changes).isEmpty()) {
+                logger.debug("Applied {} flag changes up to version {}", states(changes).size(), changes.getVersion());
+            }
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    private void recordPropagation(long version, long committedAtMicros, long publishedAtMicros) {
+        PropagationSample sample = new PropagationSample(version, committedAtMicros, publishedAtMicros, nowMicros());
+        lastPropagation = sample;
+        for (FlagPropagationListener listener : propagationListeners) {
+            try {
+                listener.onApplied(sample);
+            } catch (RuntimeException e) {
+                logger.warn("Flag propagation listener failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    private static long orZero(Long value) {
+        return value != null ? value : 0;
+    }
+
+    private static long nowMicros() {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * 1_000_000 + now.getNano() / 1_000;
+    }
+
+    /**
+     * Swap in the next snapshot and write the new flag states into the handles; caller holds the update lock
+     */
+    private void publish(FlagSnapshot next) {
+        // The feeds never send changes at or below their version again, so older tombstones are no longer needed
+        tombstones.values().removeIf(deletedAt -> deletedAt <= next.getVersion());
+        snapshot = next;
+        appliedVersion = Math.max(appliedVersion, next.getVersion());
+        handles.forEach((name, handle) -> handle.update(next.get(name)));
+    }
+
+    private void apply(Map<String, CompiledFlag> flags, FlagUpdateEvent event) {
+        if (event == null || event.getFlagName() == null || event.getEventType() == null) {
+            logger.warn("Received invalid flag update event");
+            return;
+        }
+        long version = event.getVersion() != null ? event.getVersion() : 0;
+        if (event.getVersion() != null && isStale(flags, event.getFlagName(), version)) {
+            logger.debug("Ignoring stale flag update: {}", event);
+            return;
+        }
+
+        switch (event.getEventType()) {
+            case "DELETED":
+                appliedVersion = Math.max(appliedVersion, version);
+                remove(flags, event.getFlagName(), version);
+                logger.info("Removed feature flag: {}", event.getFlagName());
+                break;
+            case "CREATED":
+            case "UPDATED":
+            case "TOGGLED":
+                appliedVersion = Math.max(appliedVersion, version);
+                flags.put(event.getFlagName(),
+                        CompiledFlag.compile(event.getFlagName(), event.isEnabled(), event.getTargeting(), version));
+                logger.info("Updated feature flag: {} = {}", event.getFlagName(), event.isEnabled());
+                break;
+            default:
+                logger.warn("Unknown event type: {}", event.getEventType());
+        }
+    }
+
+    /**
+     * Whether a change at version is older than what was applied for the name: its current
+     * state, its deletion, or for an absent name the feed version; caller holds the update lock
+     */
+    private boolean isStale(Map<String, CompiledFlag> flags, String name, long version) {
+        CompiledFlag current = flags.get(name);
+        if (current != null) {
+            return current.getChangeVersion() > version;
+        }
+        Long deletedAt = tombstones.get(name);
+        return version <= snapshot.getVersion() || deletedAt != null && deletedAt >= version;
+    }
+
+    private void remove(Map<String, CompiledFlag> flags, String name, long version) {
+        flags.remove(name);
+        tombstones.merge(name, version, Math::max);
+    }
+
+    private static CompiledFlag compile(FlagState state) {
+        return CompiledFlag.compile(state.getName(), state.isEnabled(), state.getTargeting(), state.getChangeVersion());
+    }
+
+    private static List<FlagState> states(FlagChanges changes) {
+        return changes.getFlags() != null ? changes.getFlags() : List.of();
+    }
+}
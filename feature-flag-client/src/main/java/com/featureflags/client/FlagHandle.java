@@ -0,0 +1,83 @@
+package com.featureflags.client;
+
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Typed reference to one flag, resolved once with FeatureFlagClient.handle(name) and kept in a field.
+ * <p>
+ * The client writes the flag's state into the handle on every update, so {@link #isEnabled()} is a
+ * single volatile read with no map lookup or name hashing. A handle stays valid for the lifetime of
+ * the client: it reads false while the flag does not exist and picks the flag up again when it is
+ * re-created.
+ * <p>
+ * Every check is counted per outcome in striped {@link LongAdder}s, which do not contend
+ * between threads and allocate nothing once warmed up; {@link EvaluationReporter} reads them.
+ */
+public final class FlagHandle {
+
+    private final String name;
+
+    private volatile boolean enabled;
+    private volatile CompiledFlag flag;
+
+    private final LongAdder enabledEvaluations = new LongAdder();
+    private final LongAdder disabledEvaluations = new LongAdder();
+
+    // Totals included in the last delivered report, only touched by the reporter
+    long reportedEnabled;
+    long reportedDisabled;
+
+    FlagHandle(String name, CompiledFlag flag) {
+        this.name = name;
+        update(flag);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Global state of the flag, ignoring its targeting rules
+     */
+    public boolean isEnabled() {
+        return count(enabled);
+    }
+
+    /**
+     * Evaluate the flag's targeting rules for one user
+     */
+    public boolean isEnabled(String userKey, Map<String, String> attributes) {
+        CompiledFlag current = flag;
+        return count(current != null && current.evaluate(userKey, attributes));
+    }
+
+    long getEnabledEvaluations() {
+        return enabledEvaluations.sum();
+    }
+
+    long getDisabledEvaluations() {
+        return disabledEvaluations.sum();
+    }
+
+    private boolean count(boolean outcome) {
+        (outcome ? enabledEvaluations : disabledEvaluations).increment();
+        return outcome;
+    }
+
+    /**
+     * Called by the client, under its update lock, with the flag's new state or null once deleted
+     */
+    void update(CompiledFlag flag) {
+        this.flag = flag;
+        this.enabled = flag != null && flag.isEnabled();
+    }
+
+    @Override
+    public String toString() {
+        return "FlagHandle{" +
+                "name='" + name + '\'' +
+                ", enabled=" + enabled +
+                '}';
+    }
+}
@@ -0,0 +1,10 @@
+package com.featureflags.client;
+
+/**
+ * Notified after each pushed flag event has been applied to the client's snapshot
+ */
+@FunctionalInterface
+public interface FlagPropagationListener {
+
+    void onApplied(PropagationSample sample);
+}
@@ -0,0 +1,53 @@
+package com.featureflags.client;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable view of all flags. Updates build a new snapshot and publish it with a single
+ * volatile write, so readers never lock and always see a consistent set of flags.
+ */
+public final class FlagSnapshot {
+
+    static final FlagSnapshot EMPTY = new FlagSnapshot(0, Map.of());
+
+    private final long version;
+    private final Map<String, CompiledFlag> flags;
+
+    FlagSnapshot(long version, Map<String, CompiledFlag> flags) {
+        this.version = version;
+        this.flags = Collections.unmodifiableMap(flags);
+    }
+
+    /**
+     * Store version the snapshot was last synchronized to through the snapshot or changes feed
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public CompiledFlag get(String name) {
+        return flags.get(name);
+    }
+
+    public Set<String> names() {
+        return flags.keySet();
+    }
+
+    public int size() {
+        return flags.size();
+    }
+
+    Map<String, CompiledFlag> flags() {
+        return flags;
+    }
+
+    @Override
+    public String toString() {
+        return "FlagSnapshot{" +
+                "version=" + version +
+                ", flags=" + flags.size() +
+                '}';
+    }
+}
@@ -0,0 +1,19 @@
+package com.featureflags.client;
+
+import com.featureflags.client.model.FlagChanges;
+
+/**
+ * Pull side of the flag feed, used to bootstrap the client and to catch up on missed updates
+ */
+public interface FlagSource {
+
+    /**
+     * All flags at the current store version
+     */
+    FlagChanges fetchSnapshot();
+
+    /**
+     * Flags changed after version, or null if the server no longer has changes that old
+     */
+    FlagChanges fetchChangesSince(long version);
+}
@@ -0,0 +1,12 @@
+package com.featureflags.client;
+
+public class FlagSourceException extends RuntimeException {
+
+    public FlagSourceException(String message) {
+        super(message);
+    }
+
+    public FlagSourceException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
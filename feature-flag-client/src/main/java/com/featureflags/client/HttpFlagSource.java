@@ -0,0 +1,98 @@
+package com.featureflags.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.featureflags.client.model.EvaluationReport;
+import com.featureflags.client.model.FlagChanges;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * Reads the snapshot and changes feeds of feature-flag-service over HTTP and posts evaluation reports back.
+ * Bodies go both ways in Smile, with JSON still accepted from servers that do not offer it.
+ */
+public class HttpFlagSource implements FlagSource, EvaluationSink {
+
+    private static final int GONE = 410;
+
+    static final String SMILE_CONTENT_TYPE = "application/x-jackson-smile";
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final ObjectMapper smileMapper;
+    private final String baseUrl;
+    private final Duration requestTimeout;
+
+    public HttpFlagSource(String baseUrl, ObjectMapper objectMapper, Duration connectTimeout, Duration requestTimeout) {
+        this.httpClient = HttpClient.newBuilder().connectTimeout(connectTimeout).build();
+        this.objectMapper = objectMapper;
+        this.smileMapper = objectMapper.copyWith(new SmileFactory());
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.requestTimeout = requestTimeout;
+    }
+
+    @Override
+    public FlagChanges fetchSnapshot() {
+        return get("/api/flags/snapshot");
+    }
+
+    @Override
+    public FlagChanges fetchChangesSince(long version) {
+        return get("/api/flags/changes?since=" + version);
+    }
+
+    @Override
+    public void report(EvaluationReport report) {
+        String path = "/api/flags/evaluations";
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(requestTimeout)
+                    .header("Content-Type", SMILE_CONTENT_TYPE)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(smileMapper.writeValueAsBytes(report)))
+                    .build();
+            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() / 100 != 2) {
+                throw new FlagSourceException("POST " + path + " returned " + response.statusCode());
+            }
+        } catch (JsonProcessingException e) {
+            throw new FlagSourceException("Could not serialize " + report, e);
+        } catch (IOException e) {
+            throw new FlagSourceException("POST " + path + " failed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FlagSourceException("POST " + path + " was interrupted", e);
+        }
+    }
+
+    private FlagChanges get(String path) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(requestTimeout)
+                .header("Accept", SMILE_CONTENT_TYPE + ", application/json;q=0.9")
+                .GET()
+                .build();
+        try {
+            HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() == GONE) {
+                return null;
+            }
+            if (response.statusCode() != 200) {
+                throw new FlagSourceException("GET " + path + " returned " + response.statusCode());
+            }
+            boolean smile = response.headers().firstValue("Content-Type")
+                    .filter(contentType -> contentType.startsWith(SMILE_CONTENT_TYPE))
+                    .isPresent();
+            return (smile ? smileMapper : objectMapper).readValue(response.body(), FlagChanges.class);
+        } catch (IOException e) {
+            throw new FlagSourceException("GET " + path + " failed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FlagSourceException("GET " + path + " was interrupted", e);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.featureflags.client;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.regex.Pattern;
+
+/**
+ * Broker-less alternative to the AMQP listener: LISTENs for the change versions that
+ * feature-flag-service signals with PostgreSQL NOTIFY and catches the client up through its
+ * changes feed.
+ * <p>
+ * Notifications are received on a dedicated connection, outside any pool, by a single daemon
+ * thread. All notifications pending at once are handled with one fetch. After every (re)connect
+ * the client syncs once, because NOTIFY is not delivered to sessions that were not listening.
+ * A notification can arrive just before the service makes its version readable, so a version the
+ * changes feed did not reach yet is retried with a short, growing delay.
+ */
+public class PgNotifyFlagSubscriber implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(PgNotifyFlagSubscriber.class);
+    private static final Pattern CHANNEL_NAME = Pattern.compile("[a-z_][a-z0-9_]*");
+    private static final int RECEIVE_TIMEOUT_MS = 1000;
+    private static final int CATCH_UP_RETRY_MS = 20;
+
+    private final FeatureFlagClient client;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final String channel;
+    private final Duration reconnectDelay;
+
+    private volatile boolean running;
+    private volatile Connection connection;
+    private Thread listener;
+
+    // Notified version not applied yet, only touched by the listener thread
+    private long pendingVersion = -1;
+    private long pendingCommittedAtMicros;
+    private int retryDelayMs;
+
+    public PgNotifyFlagSubscriber(FeatureFlagClient client, String url, String username, String password,
+                                  String channel, Duration reconnectDelay) {
+        if (!CHANNEL_NAME.matcher(channel).matches()) {
+            throw new IllegalArgumentException("Invalid notification channel: " + channel);
+        }
+        this.client = client;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.channel = channel;
+        this.reconnectDelay = reconnectDelay;
+    }
+
+    public void start() {
+        running = true;
+        listener = new Thread(this::listen, "feature-flag-listen");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+        }
+        closeQuietly(connection);
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection listening = DriverManager.getConnection(url, username, password)) {
+                connection = listening;
+                try (Statement statement = listening.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                logger.info("Listening for flag changes on channel {}", channel);
+                syncQuietly();
+                PGConnection notifications = listening.unwrap(PGConnection.class);
+                while (running) {
+                    handle(notifications.getNotifications(pendingVersion < 0 ? RECEIVE_TIMEOUT_MS : retryDelayMs));
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    logger.warn("Flag change listener disconnected, reconnecting in {}: {}", reconnectDelay, e.getMessage());
+                    pause();
+                }
+            }
+        }
+    }
+
+    private void handle(PGNotification[] notifications) {
+        if (notifications == null) {
+            notifications = new PGNotification[0];
+        }
+        if (notifications.length == 0 && pendingVersion < 0) {
+            return;
+        }
+        long version = pendingVersion;
+        long committedAtMicros = pendingCommittedAtMicros;
+        for (PGNotification notification : notifications) {
+            String[] parts = notification.getParameter().split(",", 2);
+            try {
+                long notified = Long.parseLong(parts[0]);
+                if (notified > version) {
+                    version = notified;
+                    committedAtMicros = parts.length > 1 ? Long.parseLong(parts[1]) : 0;
+                }
+            } catch (NumberFormatException e) {
+                logger.warn("Ignoring malformed flag change notification: {}", notification.getParameter());
+            }
+        }
+        if (version < 0) {
+            return;
+        }
+        try {
+            client.onChangeNotification(version, committedAtMicros);
+        } catch (RuntimeException e) {
+            logger.warn("Catching up to flag change version {} failed: {}", version, e.getMessage());
+        }
+        if (client.getAppliedVersion() >= version) {
+            pendingVersion = -1;
+            return;
+        }
+        retryDelayMs = pendingVersion < 0 ? CATCH_UP_RETRY_MS : Math.min(retryDelayMs * 2, RECEIVE_TIMEOUT_MS);
+        pendingVersion = version;
+        pendingCommittedAtMicros = committedAtMicros;
+    }
+
+    private void syncQuietly() {
+        try {
+            client.sync();
+        } catch (RuntimeException e) {
+            logger.warn("Feature flag sync failed: {}", e.getMessage());
+        }
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(reconnectDelay.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            logger.debug("Closing the listen connection failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.featureflags.client;
+
+/**
+ * Timing of one pushed flag event, in epoch microseconds; commit and publish times are 0
+ * when the producer did not stamp them.
+ */
+public final class PropagationSample {
+
+    private final long version;
+    private final long committedAtMicros;
+    private final long publishedAtMicros;
+    private final long appliedAtMicros;
+
+    PropagationSample(long version, long committedAtMicros, long publishedAtMicros, long appliedAtMicros) {
+        this.version = version;
+        this.committedAtMicros = committedAtMicros;
+        this.publishedAtMicros = publishedAtMicros;
+        this.appliedAtMicros = appliedAtMicros;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public long getCommittedAtMicros() {
+        return committedAtMicros;
+    }
+
+    public long getPublishedAtMicros() {
+        return publishedAtMicros;
+    }
+
+    public long getAppliedAtMicros() {
+        return appliedAtMicros;
+    }
+
+    /**
+     * Broker and listener delay of the event, or -1 if it carries no publish time
+     */
+    public long getPublishToApplyMicros() {
+        return publishedAtMicros > 0 ? Math.max(0, appliedAtMicros - publishedAtMicros) : -1;
+    }
+
+    /**
+     * End-to-end delay from the flag write, or -1 if the event carries no commit time
+     */
+    public long getCommitToApplyMicros() {
+        return committedAtMicros > 0 ? Math.max(0, appliedAtMicros - committedAtMicros) : -1;
+    }
+
+    @Override
+    public String toString() {
+        return "PropagationSample{" +
+                "version=" + version +
+                ", publishToApplyMicros=" + getPublishToApplyMicros() +
+                ", commitToApplyMicros=" + getCommitToApplyMicros() +
+                '}';
+    }
+}
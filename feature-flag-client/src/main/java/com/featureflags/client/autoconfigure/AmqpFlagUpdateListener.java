@@ -0,0 +1,48 @@
+package com.featureflags.client.autoconfigure;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.featureflags.client.FeatureFlagClient;
+import com.featureflags.client.model.FlagUpdateEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+
+import java.io.IOException;
+
+/**
+ * Feeds flag events published to RabbitMQ into the client. Single events arrive as JSON,
+ * coalesced batches as Smile, told apart by the message content type.
+ */
+public class AmqpFlagUpdateListener {
+
+    static final String SMILE_CONTENT_TYPE = "application/x-jackson-smile";
+
+    private static final Logger logger = LoggerFactory.getLogger(AmqpFlagUpdateListener.class);
+
+    private final FeatureFlagClient featureFlagClient;
+    private final ObjectMapper jsonMapper;
+    private final ObjectMapper smileMapper;
+
+    public AmqpFlagUpdateListener(FeatureFlagClient featureFlagClient, ObjectMapper objectMapper) {
+        this.featureFlagClient = featureFlagClient;
+        this.jsonMapper = objectMapper;
+        this.smileMapper = objectMapper.copyWith(new SmileFactory());
+    }
+
+    @RabbitListener(queues = "${feature-flags.client.amqp.queue:feature-flag-updates}", returnExceptions = "true")
+    public void handleFlagUpdate(Message message) {
+        FlagUpdateEvent event;
+        try {
+            ObjectMapper mapper = SMILE_CONTENT_TYPE.equals(message.getMessageProperties().getContentType())
+                    ? smileMapper : jsonMapper;
+            event = mapper.readValue(message.getBody(), FlagUpdateEvent.class);
+        } catch (IOException e) {
+            // A message that cannot be decoded never will be, so it is dropped rather than requeued
+            logger.warn("Dropping undecodable flag update message: {}", e.getMessage());
+            return;
+        }
+        featureFlagClient.onUpdate(event);
+    }
+}
@@ -0,0 +1,131 @@
+package com.featureflags.client.autoconfigure;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.featureflags.client.EvaluationReporter;
+import com.featureflags.client.EvaluationSink;
+import com.featureflags.client.FeatureFlagClient;
+import com.featureflags.client.FlagSource;
+import com.featureflags.client.HttpFlagSource;
+import com.featureflags.client.PgNotifyFlagSubscriber;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Creates a {@link FeatureFlagClient} bootstrapped from feature-flags.client.base-url and,
+ * when Spring AMQP is present, kept current by the flag events on the update queue. With
+ * feature-flags.client.transport=pg-notify it LISTENs for change versions instead.
+ * With a base URL the client also reports its evaluation counts back to the service.
+ * With Actuator present it exports propagation metrics and the flagsync endpoint.
+ */
+@AutoConfiguration(after = JacksonAutoConfiguration.class)
+@EnableConfigurationProperties(FeatureFlagClientProperties.class)
+public class FeatureFlagClientAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnExpression("!'${feature-flags.client.base-url:}'.isBlank()")
+    public HttpFlagSource flagSource(FeatureFlagClientProperties properties, ObjectProvider<ObjectMapper> objectMapper) {
+        return new HttpFlagSource(properties.getBaseUrl(), objectMapper.getIfAvailable(ObjectMapper::new),
+                properties.getConnectTimeout(), properties.getRequestTimeout());
+    }
+
+    /**
+     * The client bootstraps and reports in the background, so it must not wait for a first lookup under lazy initialization
+     */
+    @Bean
+    static LazyInitializationExcludeFilter featureFlagClientLazyInitializationExcludeFilter() {
+        return LazyInitializationExcludeFilter.forBeanTypes(FeatureFlagClient.class, EvaluationReporter.class);
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    @ConditionalOnMissingBean
+    public FeatureFlagClient featureFlagClient(FeatureFlagClientProperties properties,
+                                               ObjectProvider<FlagSource> flagSource) {
+        return new FeatureFlagClient(flagSource.getIfAvailable(), properties.getPollInterval());
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    @ConditionalOnMissingBean
+    @ConditionalOnBean(EvaluationSink.class)
+    @ConditionalOnProperty(prefix = "feature-flags.client.telemetry", name = "enabled", matchIfMissing = true)
+    public EvaluationReporter evaluationReporter(FeatureFlagClient featureFlagClient, EvaluationSink evaluationSink,
+                                                 FeatureFlagClientProperties properties,
+                                                 @Value("${spring.application.name:unknown}") String applicationName) {
+        return new EvaluationReporter(featureFlagClient, evaluationSink, properties.getTelemetry().getWindow(),
+                applicationName);
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "org.springframework.amqp.rabbit.annotation.RabbitListener")
+    @ConditionalOnExpression("'${feature-flags.client.transport:amqp}' == 'amqp' and ${feature-flags.client.amqp.enabled:true}")
+    static class AmqpUpdatesConfiguration {
+
+        @Bean
+        static LazyInitializationExcludeFilter amqpFlagUpdateListenerLazyInitializationExcludeFilter() {
+            return LazyInitializationExcludeFilter.forBeanTypes(AmqpFlagUpdateListener.class);
+        }
+
+        @Bean
+        @ConditionalOnMissingBean
+        public AmqpFlagUpdateListener amqpFlagUpdateListener(FeatureFlagClient featureFlagClient,
+                                                             ObjectProvider<ObjectMapper> objectMapper) {
+            return new AmqpFlagUpdateListener(featureFlagClient,
+                    objectMapper.getIfAvailable(() -> new ObjectMapper().findAndRegisterModules()));
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "org.postgresql.PGConnection")
+    @ConditionalOnExpression("'${feature-flags.client.transport:amqp}' == 'pg-notify' and !'${feature-flags.client.base-url:}'.isBlank()")
+    static class PgNotifyUpdatesConfiguration {
+
+        @Bean
+        static LazyInitializationExcludeFilter pgNotifyFlagSubscriberLazyInitializationExcludeFilter() {
+            return LazyInitializationExcludeFilter.forBeanTypes(PgNotifyFlagSubscriber.class);
+        }
+
+        @Bean(initMethod = "start", destroyMethod = "close")
+        @ConditionalOnMissingBean
+        public PgNotifyFlagSubscriber pgNotifyFlagSubscriber(FeatureFlagClient featureFlagClient,
+                                                             FeatureFlagClientProperties properties) {
+            FeatureFlagClientProperties.PgNotify pgNotify = properties.getPgNotify();
+            return new PgNotifyFlagSubscriber(featureFlagClient, pgNotify.getUrl(), pgNotify.getUsername(),
+                    pgNotify.getPassword(), pgNotify.getChannel(), pgNotify.getReconnectDelay());
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+    static class PropagationMetricsConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public FlagPropagationMetrics flagPropagationMetrics(FeatureFlagClient featureFlagClient) {
+            return new FlagPropagationMetrics(featureFlagClient);
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "org.springframework.boot.actuate.endpoint.annotation.Endpoint")
+    static class FlagSyncEndpointConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        @ConditionalOnAvailableEndpoint(endpoint = FlagSyncEndpoint.class)
+        public FlagSyncEndpoint flagSyncEndpoint(FeatureFlagClient featureFlagClient) {
+            return new FlagSyncEndpoint(featureFlagClient);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.featureflags.client.autoconfigure;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the feature flag client under feature-flags.client
+ */
+@ConfigurationProperties(prefix = "feature-flags.client")
+public class FeatureFlagClientProperties {
+
+    // feature-flag-service root URL; without it the client relies on pushed events only
+    private String baseUrl;
+
+    // How often to catch up through the changes feed; zero disables polling
+    private Duration pollInterval = Duration.ofSeconds(30);
+
+    private Duration connectTimeout = Duration.ofSeconds(2);
+
+    private Duration requestTimeout = Duration.ofSeconds(5);
+
+    // How pushed updates arrive: amqp (flag events on a queue) or pg-notify (PostgreSQL NOTIFY, requires base-url)
+    private String transport = "amqp";
+
+    private final Amqp amqp = new Amqp();
+
+    private final PgNotify pgNotify = new PgNotify();
+
+    private final Telemetry telemetry = new Telemetry();
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public void setBaseUrl(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public Duration getPollInterval() {
+        return pollInterval;
+    }
+
+    public void setPollInterval(Duration pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(Duration connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public Duration getRequestTimeout() {
+        return requestTimeout;
+    }
+
+    public void setRequestTimeout(Duration requestTimeout) {
+        this.requestTimeout = requestTimeout;
+    }
+
+    public String getTransport() {
+        return transport;
+    }
+
+    public void setTransport(String transport) {
+        this.transport = transport;
+    }
+
+    public Amqp getAmqp() {
+        return amqp;
+    }
+
+    public PgNotify getPgNotify() {
+        return pgNotify;
+    }
+
+    public Telemetry getTelemetry() {
+        return telemetry;
+    }
+
+    public static class Amqp {
+
+        // Listen for pushed flag events on the queue below
+        private boolean enabled = true;
+
+        private String queue = "feature-flag-updates";
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getQueue() {
+            return queue;
+        }
+
+        public void setQueue(String queue) {
+            this.queue = queue;
+        }
+    }
+
+    public static class PgNotify {
+
+        // JDBC URL of the flag store; the listen connection is opened outside any pool
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        private String channel = "flag_changes";
+
+        private Duration reconnectDelay = Duration.ofSeconds(5);
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+
+        public String getChannel() {
+            return channel;
+        }
+
+        public void setChannel(String channel) {
+            this.channel = channel;
+        }
+
+        public Duration getReconnectDelay() {
+            return reconnectDelay;
+        }
+
+        public void setReconnectDelay(Duration reconnectDelay) {
+            this.reconnectDelay = reconnectDelay;
+        }
+    }
+
+    public static class Telemetry {
+
+        // Report evaluation counts to feature-flag-service, requires base-url
+        private boolean enabled = true;
+
+        // Length of the fixed report windows
+        private Duration window = Duration.ofSeconds(60);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getWindow() {
+            return window;
+        }
+
+        public void setWindow(Duration window) {
+            this.window = window;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.featureflags.client.autoconfigure;
+
+import com.featureflags.client.FeatureFlagClient;
+import com.featureflags.client.FlagPropagationListener;
+import com.featureflags.client.PropagationSample;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes how fast flag changes reach this instance: publish-to-apply and commit-to-apply
+ * histograms of the pushed events, and the last applied store version as a gauge.
+ */
+public class FlagPropagationMetrics implements MeterBinder, FlagPropagationListener {
+
+    private final FeatureFlagClient featureFlagClient;
+
+    private volatile Timer publishToApply;
+    private volatile Timer commitToApply;
+
+    public FlagPropagationMetrics(FeatureFlagClient featureFlagClient) {
+        this.featureFlagClient = featureFlagClient;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        publishToApply = propagationTimer(registry, "publish_to_apply");
+        commitToApply = propagationTimer(registry, "commit_to_apply");
+        Gauge.builder("feature_flags.client.applied.version", featureFlagClient, FeatureFlagClient::getAppliedVersion)
+                .description("Highest flag store change version applied by this instance")
+                .register(registry);
+        featureFlagClient.addPropagationListener(this);
+    }
+
+    @Override
+    public void onApplied(PropagationSample sample) {
+        record(publishToApply, sample.getPublishToApplyMicros());
+        record(commitToApply, sample.getCommitToApplyMicros());
+    }
+
+    private static Timer propagationTimer(MeterRegistry registry, String stage) {
+        return Timer.builder("feature_flags.client.propagation")
+                .description("Delay between a flag change and this instance applying its event")
+                .tag("stage", stage)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private static void record(Timer timer, long micros) {
+        if (timer != null && micros >= 0) {
+            timer.record(micros, TimeUnit.MICROSECONDS);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.featureflags.client.autoconfigure;
+
+import com.featureflags.client.FeatureFlagClient;
+import com.featureflags.client.PropagationSample;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * /actuator/flagsync: the flag state this replica is serving and how late its last pushed event arrived
+ */
+@Endpoint(id = "flagsync")
+public class FlagSyncEndpoint {
+
+    private final FeatureFlagClient featureFlagClient;
+
+    public FlagSyncEndpoint(FeatureFlagClient featureFlagClient) {
+        this.featureFlagClient = featureFlagClient;
+    }
+
+    @ReadOperation
+    public Map<String, Object> flagSync() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("appliedVersion", featureFlagClient.getAppliedVersion());
+        status.put("snapshotVersion", featureFlagClient.getSnapshot().getVersion());
+        status.put("flags", featureFlagClient.getSnapshot().size());
+
+        PropagationSample last = featureFlagClient.getLastPropagation();
+        if (last != null) {
+            Map<String, Object> lastEvent = new LinkedHashMap<>();
+            lastEvent.put("version", last.getVersion());
+            lastEvent.put("appliedAt", Instant.EPOCH.plus(last.getAppliedAtMicros(), ChronoUnit.MICROS).toString());
+            if (last.getPublishToApplyMicros() >= 0) {
+                lastEvent.put("publishToApplyMillis", last.getPublishToApplyMicros() / 1000.0);
+            }
+            if (last.getCommitToApplyMicros() >= 0) {
+                lastEvent.put("commitToApplyMillis", last.getCommitToApplyMicros() / 1000.0);
+            }
+            status.put("lastEvent", lastEvent);
+        }
+        return status;
+    }
+}
@@ -0,0 +1,56 @@
+package com.featureflags.client.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class AttributeMatch {
+
+    private String attribute;
+    private List<String> values;
+    private boolean negate;
+
+    // Constructors
+    public AttributeMatch() {}
+
+    public AttributeMatch(String attribute, List<String> values, boolean negate) {
+        this.attribute = attribute;
+        this.values = values;
+        this.negate = negate;
+    }
+
+    // Getters and Setters
+    public String getAttribute() {
+        return attribute;
+    }
+
+    public void setAttribute(String attribute) {
+        this.attribute = attribute;
+    }
+
+    public List<String> getValues() {
+        return values;
+    }
+
+    public void setValues(List<String> values) {
+        this.values = values;
+    }
+
+    public boolean isNegate() {
+        return negate;
+    }
+
+    public void setNegate(boolean negate) {
+        this.negate = negate;
+    }
+
+    @Override
+    public String toString() {
+        return "AttributeMatch{" +
+                "attribute='" + attribute + '\'' +
+                ", values=" + values +
+                ", negate=" + negate +
+                '}';
+    }
+}
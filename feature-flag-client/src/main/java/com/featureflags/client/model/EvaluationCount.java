@@ -0,0 +1,57 @@
+package com.featureflags.client.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * Evaluations of one flag within a report window, split by outcome
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class EvaluationCount {
+
+    private String flagName;
+    private long enabledCount;
+    private long disabledCount;
+
+    // Constructors
+    public EvaluationCount() {}
+
+    public EvaluationCount(String flagName, long enabledCount, long disabledCount) {
+        this.flagName = flagName;
+        this.enabledCount = enabledCount;
+        this.disabledCount = disabledCount;
+    }
+
+    // Getters and Setters
+    public String getFlagName() {
+        return flagName;
+    }
+
+    public void setFlagName(String flagName) {
+        this.flagName = flagName;
+    }
+
+    public long getEnabledCount() {
+        return enabledCount;
+    }
+
+    public void setEnabledCount(long enabledCount) {
+        this.enabledCount = enabledCount;
+    }
+
+    public long getDisabledCount() {
+        return disabledCount;
+    }
+
+    public void setDisabledCount(long disabledCount) {
+        this.disabledCount = disabledCount;
+    }
+
+    @Override
+    public String toString() {
+        return "EvaluationCount{" +
+                "flagName='" + flagName + '\'' +
+                ", enabledCount=" + enabledCount +
+                ", disabledCount=" + disabledCount +
+                '}';
+    }
+}
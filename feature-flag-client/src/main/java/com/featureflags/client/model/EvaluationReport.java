@@ -0,0 +1,71 @@
+package com.featureflags.client.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+
+/**
+ * Flag evaluations counted by one client between windowStart and windowEnd (epoch millis).
+ * Only flags evaluated in the window are listed.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class EvaluationReport {
+
+    private String source;
+    private long windowStart;
+    private long windowEnd;
+    private List<EvaluationCount> counts;
+
+    // Constructors
+    public EvaluationReport() {}
+
+    public EvaluationReport(String source, long windowStart, long windowEnd, List<EvaluationCount> counts) {
+        this.source = source;
+        this.windowStart = windowStart;
+        this.windowEnd = windowEnd;
+        this.counts = counts;
+    }
+
+    // Getters and Setters
+    public String getSource() {
+        return source;
+    }
+
+    public void setSource(String source) {
+        this.source = source;
+    }
+
+    public long getWindowStart() {
+        return windowStart;
+    }
+
+    public void setWindowStart(long windowStart) {
+        this.windowStart = windowStart;
+    }
+
+    public long getWindowEnd() {
+        return windowEnd;
+    }
+
+    public void setWindowEnd(long windowEnd) {
+        this.windowEnd = windowEnd;
+    }
+
+    public List<EvaluationCount> getCounts() {
+        return counts;
+    }
+
+    public void setCounts(List<EvaluationCount> counts) {
+        this.counts = counts;
+    }
+
+    @Override
+    public String toString() {
+        return "EvaluationReport{" +
+                "source='" + source + '\'' +
+                ", windowStart=" + windowStart +
+                ", windowEnd=" + windowEnd +
+                ", counts=" + (counts != null ? counts.size() : 0) +
+                '}';
+    }
+}
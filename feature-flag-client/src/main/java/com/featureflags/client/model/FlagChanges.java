@@ -0,0 +1,48 @@
+package com.featureflags.client.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+
+/**
+ * Response of the snapshot and changes feeds: flag states as of store version
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class FlagChanges {
+
+    private long version;
+    private List<FlagState> flags;
+
+    // Constructors
+    public FlagChanges() {}
+
+    public FlagChanges(long version, List<FlagState> flags) {
+        this.version = version;
+        this.flags = flags;
+    }
+
+    // Getters and Setters
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public List<FlagState> getFlags() {
+        return flags;
+    }
+
+    public void setFlags(List<FlagState> flags) {
+        this.flags = flags;
+    }
+
+    @Override
+    public String toString() {
+        return "FlagChanges{" +
+                "version=" + version +
+                ", flags=" + (flags != null ? flags.size() : 0) +
+                '}';
+    }
+}
@@ -0,0 +1,90 @@
+package com.featureflags.client.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * Flag entry of the snapshot and changes feeds; deleted is true for tombstones
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class FlagState {
+
+    private Long id;
+    private String name;
+    private boolean enabled;
+    private TargetingRules targeting;
+    private long changeVersion;
+    private Boolean deleted;
+
+    // Constructors
+    public FlagState() {}
+
+    public FlagState(String name, boolean enabled, TargetingRules targeting, long changeVersion) {
+        this.name = name;
+        this.enabled = enabled;
+        this.targeting = targeting;
+        this.changeVersion = changeVersion;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public TargetingRules getTargeting() {
+        return targeting;
+    }
+
+    public void setTargeting(TargetingRules targeting) {
+        this.targeting = targeting;
+    }
+
+    public long getChangeVersion() {
+        return changeVersion;
+    }
+
+    public void setChangeVersion(long changeVersion) {
+        this.changeVersion = changeVersion;
+    }
+
+    public Boolean getDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(Boolean deleted) {
+        this.deleted = deleted;
+    }
+
+    public boolean isTombstone() {
+        return Boolean.TRUE.equals(deleted);
+    }
+
+    @Override
+    public String toString() {
+        return "FlagState{" +
+                "name='" + name + '\'' +
+                ", enabled=" + enabled +
+                ", changeVersion=" + changeVersion +
+                (deleted != null ? ", deleted=" + deleted : "") +
+                '}';
+    }
+}
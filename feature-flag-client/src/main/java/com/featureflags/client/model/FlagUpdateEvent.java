@@ -0,0 +1,136 @@
+package com.featureflags.client.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Flag change published by feature-flag-service; BATCH events carry their changes in events
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class FlagUpdateEvent {
+
+    public static final String BATCH = "BATCH";
+
+    private String flagName;
+    private boolean enabled;
+    private String eventType;
+
+    // Per-user targeting; absent when the flag targets everyone
+    private TargetingRules targeting;
+
+    // Store change version of the write on the feature-flag-service side
+    private Long version;
+    
+    // Epoch microseconds when the change was written and when the event left for the broker
+    private Long committedAtMicros;
+    private Long publishedAtMicros;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    @JsonSerialize(using = LocalDateTimeSerializer.class)
+    private LocalDateTime timestamp;
+
+    // Nested events carried by a BATCH event
+    private List<FlagUpdateEvent> events;
+
+    // Constructors
+    public FlagUpdateEvent() {}
+
+    public FlagUpdateEvent(String flagName, boolean enabled, String eventType) {
+        this.flagName = flagName;
+        this.enabled = enabled;
+        this.eventType = eventType;
+        this.timestamp = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public String getFlagName() {
+        return flagName;
+    }
+
+    public void setFlagName(String flagName) {
+        this.flagName = flagName;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    public void setEventType(String eventType) {
+        this.eventType = eventType;
+    }
+
+    public Long getCommittedAtMicros() {
+        return committedAtMicros;
+    }
+
+    public void setCommittedAtMicros(Long committedAtMicros) {
+        this.committedAtMicros = committedAtMicros;
+    }
+
+    public Long getPublishedAtMicros() {
+        return publishedAtMicros;
+    }
+
+    public void setPublishedAtMicros(Long publishedAtMicros) {
+        this.publishedAtMicros = publishedAtMicros;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(LocalDateTime timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public TargetingRules getTargeting() {
+        return targeting;
+    }
+
+    public void setTargeting(TargetingRules targeting) {
+        this.targeting = targeting;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public List<FlagUpdateEvent> getEvents() {
+        return events;
+    }
+
+    public void setEvents(List<FlagUpdateEvent> events) {
+        this.events = events;
+    }
+
+    @Override
+    public String toString() {
+        return "FlagUpdateEvent{" +
+                "flagName='" + flagName + '\'' +
+                ", enabled=" + enabled +
+                ", eventType='" + eventType + '\'' +
+                (targeting != null ? ", targeting=" + targeting : "") +
+                ", version=" + version +
+                ", committedAtMicros=" + committedAtMicros +
+                ", publishedAtMicros=" + publishedAtMicros +
+                ", timestamp=" + timestamp +
+                (events != null ? ", events=" + events.size() : "") +
+                '}';
+    }
+}
\ No newline at end of file
@@ -0,0 +1,71 @@
+package com.featureflags.client.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+
+/**
+ * Targeting rules of a flag as published by feature-flag-service, compiled by CompiledFlag
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class TargetingRules {
+
+    private List<String> allow;
+    private List<String> deny;
+    private List<AttributeMatch> matches;
+    private Integer rolloutPercentage;
+
+    // Constructors
+    public TargetingRules() {}
+
+    public TargetingRules(List<String> allow, List<String> deny, List<AttributeMatch> matches,
+                          Integer rolloutPercentage) {
+        this.allow = allow;
+        this.deny = deny;
+        this.matches = matches;
+        this.rolloutPercentage = rolloutPercentage;
+    }
+
+    // Getters and Setters
+    public List<String> getAllow() {
+        return allow;
+    }
+
+    public void setAllow(List<String> allow) {
+        this.allow = allow;
+    }
+
+    public List<String> getDeny() {
+        return deny;
+    }
+
+    public void setDeny(List<String> deny) {
+        this.deny = deny;
+    }
+
+    public List<AttributeMatch> getMatches() {
+        return matches;
+    }
+
+    public void setMatches(List<AttributeMatch> matches) {
+        this.matches = matches;
+    }
+
+    public Integer getRolloutPercentage() {
+        return rolloutPercentage;
+    }
+
+    public void setRolloutPercentage(Integer rolloutPercentage) {
+        this.rolloutPercentage = rolloutPercentage;
+    }
+
+    @Override
+    public String toString() {
+        return "TargetingRules{" +
+                "allow=" + (allow != null ? allow.size() : 0) +
+                ", deny=" + (deny != null ? deny.size() : 0) +
+                ", matches=" + matches +
+                ", rolloutPercentage=" + rolloutPercentage +
+                '}';
+    }
+}
@@ -0,0 +1,121 @@
+package com.featureflags.client;
+
+import com.featureflags.client.model.AttributeMatch;
+import com.featureflags.client.model.TargetingRules;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompiledFlagTest {
+
+    @Test
+    void evaluate_WithoutRules_ShouldFollowGlobalState() {
+        assertTrue(CompiledFlag.compile("flag", true, null).evaluate("user-1", null));
+        assertFalse(CompiledFlag.compile("flag", false, null).evaluate("user-1", null));
+    }
+
+    @Test
+    void evaluate_WhenDisabled_ShouldIgnoreAllowList() {
+        TargetingRules rules = new TargetingRules(List.of("user-1"), null, null, null);
+
+        assertFalse(CompiledFlag.compile("flag", false, rules).evaluate("user-1", null));
+    }
+
+    @Test
+    void evaluate_ShouldApplyDenyBeforeAllowAndAllowBeforeOtherRules() {
+        TargetingRules rules = new TargetingRules(List.of("vip", "banned"), List.of("banned"),
+                List.of(new AttributeMatch("country", List.of("DE"), false)), 0);
+        CompiledFlag flag = CompiledFlag.compile("flag", true, rules);
+
+        assertTrue(flag.evaluate("vip", Map.of("country", "US")));
+        assertFalse(flag.evaluate("banned", Map.of("country", "DE")));
+        assertFalse(flag.evaluate("someone", Map.of("country", "DE")));
+    }
+
+    @Test
+    void evaluate_ShouldRequireAllAttributeMatches() {
+        TargetingRules rules = new TargetingRules(null, null, List.of(
+                new AttributeMatch("country", List.of("DE", "FR"), false),
+                new AttributeMatch("plan", List.of("free"), true)), null);
+        CompiledFlag flag = CompiledFlag.compile("flag", true, rules);
+
+        assertTrue(flag.evaluate("user-1", Map.of("country", "FR", "plan", "pro")));
+        assertTrue(flag.evaluate(null, Map.of("country", "DE")));
+        assertFalse(flag.evaluate("user-1", Map.of("country", "FR", "plan", "free")));
+        assertFalse(flag.evaluate("user-1", Map.of("country", "US", "plan", "pro")));
+        assertFalse(flag.evaluate("user-1", null));
+    }
+
+    @Test
+    void evaluate_ShouldRollOutToStableShareOfUsers() {
+        CompiledFlag flag = CompiledFlag.compile("new_search", true, new TargetingRules(null, null, null, 30));
+        CompiledFlag none = CompiledFlag.compile("new_search", true, new TargetingRules(null, null, null, 0));
+
+        int enabled = 0;
+        for (int i = 0; i < 10_000; i++) {
+            String userKey = "user-" + i;
+            if (flag.evaluate(userKey, null)) {
+                enabled++;
+            }
+            assertEquals(flag.evaluate(userKey, null), flag.evaluate(userKey, null));
+            assertFalse(none.evaluate(userKey, null));
+        }
+        assertTrue(enabled > 2_700 && enabled < 3_300, "rolled out to " + enabled);
+        assertFalse(flag.evaluate(null, null));
+    }
+
+    @Test
+    void bucket_ShouldDifferBetweenFlags() {
+        CompiledFlag first = CompiledFlag.compile("first_flag", true, new TargetingRules(null, null, null, 50));
+        CompiledFlag second = CompiledFlag.compile("second_flag", true, new TargetingRules(null, null, null, 50));
+
+        int sameBucket = 0;
+        for (int i = 0; i < 1_000; i++) {
+            if (first.bucket("user-" + i) == second.bucket("user-" + i)) {
+                sameBucket++;
+            }
+        }
+        assertTrue(sameBucket < 50, "buckets shared by " + sameBucket + " users");
+    }
+
+    @Test
+    void murmur3_ShouldMatchReferenceOverUtf16LittleEndian() {
+        assertEquals(0, CompiledFlag.murmur3("", 0));
+        assertEquals(1867108634, CompiledFlag.murmur3("a", 0));
+        assertEquals(1118836419, CompiledFlag.murmur3("abc", 0));
+        assertEquals(-1591625367, CompiledFlag.murmur3("user-42", 0));
+    }
+
+    @Test
+    void evaluate_ShouldNotAllocate() {
+        CompiledFlag flag = CompiledFlag.compile("flag", true, new TargetingRules(List.of("vip"), List.of("banned"),
+                List.of(new AttributeMatch("country", List.of("DE", "FR"), false)), 50));
+        Map<String, String> attributes = Map.of("country", "DE");
+        String[] users = new String[64];
+        for (int i = 0; i < users.length; i++) {
+            users[i] = "user-" + i;
+            users[i].hashCode();
+        }
+        for (int i = 0; i < 100_000; i++) {
+            flag.evaluate(users[i & 63], attributes);
+        }
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        int enabled = 0;
+        for (int i = 0; i < 1_000_000; i++) {
+            if (flag.evaluate(users[i & 63], attributes)) {
+                enabled++;
+            }
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertTrue(enabled > 0);
+        assertTrue(allocated < 16 * 1024, "allocated " + allocated + " bytes");
+    }
+}
@@ -0,0 +1,126 @@
+package com.featureflags.client;
+
+import com.featureflags.client.model.EvaluationCount;
+import com.featureflags.client.model.EvaluationReport;
+import com.featureflags.client.model.FlagUpdateEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EvaluationReporterTest {
+
+    private FeatureFlagClient client;
+    private RecordingSink sink;
+    private EvaluationReporter reporter;
+
+    @BeforeEach
+    void setUp() {
+        client = new FeatureFlagClient();
+        client.onUpdate(new FlagUpdateEvent("flag_one", true, "CREATED"));
+        client.onUpdate(new FlagUpdateEvent("flag_two", false, "CREATED"));
+        sink = new RecordingSink();
+        Clock clock = Clock.fixed(Instant.ofEpochMilli(60_000), ZoneOffset.UTC);
+        reporter = new EvaluationReporter(client, sink, Duration.ofMinutes(1), "movie-search-service", clock);
+    }
+
+    @Test
+    void flush_ShouldReportCountsPerFlagAndOutcome() {
+        FlagHandle flagOne = client.handle("flag_one");
+        flagOne.isEnabled();
+        flagOne.isEnabled();
+        client.isEnabled("flag_two");
+        client.isEnabled("flag_two", "user-1", Map.of());
+        client.isEnabled("unknown_flag");
+
+        EvaluationReport report = reporter.flush();
+
+        assertEquals("movie-search-service", report.getSource());
+        Map<String, EvaluationCount> counts = byFlag(report);
+        assertEquals(2, counts.size());
+        assertEquals(2, counts.get("flag_one").getEnabledCount());
+        assertEquals(0, counts.get("flag_one").getDisabledCount());
+        assertEquals(2, counts.get("flag_two").getDisabledCount());
+    }
+
+    @Test
+    void flush_ShouldOnlyReportEvaluationsSinceLastReport() {
+        client.isEnabled("flag_one");
+        reporter.flush();
+        client.isEnabled("flag_two");
+
+        EvaluationReport report = reporter.flush();
+
+        assertEquals(List.of("flag_two"), report.getCounts().stream().map(EvaluationCount::getFlagName).toList());
+        assertNull(reporter.flush());
+        assertEquals(2, sink.reports.size());
+    }
+
+    @Test
+    void flush_WhenSinkFails_ShouldKeepCountsForNextWindow() {
+        client.isEnabled("flag_one");
+        sink.failure = new FlagSourceException("connection refused");
+        assertThrows(FlagSourceException.class, reporter::flush);
+
+        sink.failure = null;
+        client.isEnabled("flag_one");
+        EvaluationReport report = reporter.flush();
+
+        assertEquals(2, byFlag(report).get("flag_one").getEnabledCount());
+    }
+
+    @Test
+    void isEnabled_ShouldNotAllocateWhileCounting() {
+        FlagHandle handle = client.handle("flag_one");
+        for (int i = 0; i < 100_000; i++) {
+            handle.isEnabled();
+            client.isEnabled("flag_two");
+        }
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        int enabled = 0;
+        for (int i = 0; i < 1_000_000; i++) {
+            if (handle.isEnabled()) {
+                enabled++;
+            }
+            if (client.isEnabled("flag_two")) {
+                enabled++;
+            }
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertEquals(1_000_000, enabled);
+        assertTrue(allocated < 16 * 1024, "allocated " + allocated + " bytes");
+    }
+
+    private static Map<String, EvaluationCount> byFlag(EvaluationReport report) {
+        return report.getCounts().stream().collect(Collectors.toMap(EvaluationCount::getFlagName, Function.identity()));
+    }
+
+    private static class RecordingSink implements EvaluationSink {
+
+        private final List<EvaluationReport> reports = new ArrayList<>();
+        private RuntimeException failure;
+
+        @Override
+        public void report(EvaluationReport report) {
+            if (failure != null) {
+                throw failure;
+            }
+            reports.add(report);
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package com.featureflags.client;
+
+import com.featureflags.client.model.AttributeMatch;
+import com.featureflags.client.model.FlagChanges;
+import com.featureflags.client.model.FlagState;
+import com.featureflags.client.model.FlagUpdateEvent;
+import com.featureflags.client.model.TargetingRules;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FeatureFlagClientTest {
+
+    private FeatureFlagClient client;
+
+    @BeforeEach
+    void setUp() {
+        client = new FeatureFlagClient();
+    }
+
+    @Test
+    void isEnabled_WhenFlagNotSet_ShouldReturnFalse() {
+        assertFalse(client.isEnabled("nonexistent_flag"));
+        assertFalse(client.isEnabled("nonexistent_flag", "user-1", Map.of()));
+    }
+
+    @Test
+    void onUpdate_WhenFlagCreated_ShouldSetFlag() {
+        FlagUpdateEvent event = new FlagUpdateEvent("test_flag", true, "CREATED");
+        event.setTimestamp(LocalDateTime.now());
+
+        client.onUpdate(event);
+
+        assertTrue(client.isEnabled("test_flag"));
+    }
+
+    @Test
+    void onUpdate_WhenFlagToggled_ShouldToggleFlag() {
+        client.onUpdate(new FlagUpdateEvent("test_flag", true, "CREATED"));
+        client.onUpdate(new FlagUpdateEvent("test_flag", false, "TOGGLED"));
+
+        assertFalse(client.isEnabled("test_flag"));
+    }
+
+    @Test
+    void onUpdate_WhenFlagDeleted_ShouldRemoveFlag() {
+        client.onUpdate(new FlagUpdateEvent("test_flag", true, "CREATED"));
+        client.onUpdate(new FlagUpdateEvent("test_flag", true, "DELETED"));
+
+        assertFalse(client.isEnabled("test_flag"));
+        assertEquals(0, client.getSnapshot().size());
+    }
+
+    @Test
+    void onUpdate_WithInvalidEvent_ShouldNotThrowException() {
+        assertDoesNotThrow(() -> {
+            client.onUpdate(null);
+            client.onUpdate(new FlagUpdateEvent(null, true, "INVALID"));
+            client.onUpdate(new FlagUpdateEvent("test_flag", true, "INVALID"));
+        });
+        assertEquals(0, client.getSnapshot().size());
+    }
+
+    @Test
+    void onUpdate_WhenBatchReceived_ShouldApplyEachEvent() {
+        FlagUpdateEvent batch = new FlagUpdateEvent();
+        batch.setEventType(FlagUpdateEvent.BATCH);
+        batch.setEvents(List.of(
+                new FlagUpdateEvent("flag_one", true, "CREATED"),
+                new FlagUpdateEvent("flag_two", false, "CREATED"),
+                new FlagUpdateEvent("flag_two", true, "TOGGLED")));
+
+        client.onUpdate(batch);
+
+        assertTrue(client.isEnabled("flag_one"));
+        assertTrue(client.isEnabled("flag_two"));
+    }
+
+    @Test
+    void onUpdate_WhenEventIsOlderThanFlag_ShouldIgnoreIt() {
+        client.onUpdate(versioned(new FlagUpdateEvent("test_flag", true, "TOGGLED"), 5));
+        client.onUpdate(versioned(new FlagUpdateEvent("test_flag", false, "TOGGLED"), 4));
+
+        assertTrue(client.isEnabled("test_flag"));
+    }
+
+    @Test
+    void onUpdate_WhenEventIsOlderThanDelete_ShouldNotRecreateFlag() {
+        client.onUpdate(versioned(new FlagUpdateEvent("test_flag", true, "CREATED"), 3));
+        client.onUpdate(versioned(new FlagUpdateEvent("test_flag", true, "DELETED"), 6));
+        client.onUpdate(versioned(new FlagUpdateEvent("test_flag", true, "UPDATED"), 5));
+
+        assertFalse(client.isEnabled("test_flag"));
+
+        client.onUpdate(versioned(new FlagUpdateEvent("test_flag", true, "CREATED"), 7));
+        assertTrue(client.isEnabled("test_flag"));
+    }
+
+    @Test
+    void onUpdate_WithTargetingRules_ShouldEvaluatePerUser() {
+        FlagUpdateEvent event = new FlagUpdateEvent("beta_search", true, "CREATED");
+        event.setTargeting(new TargetingRules(List.of("tester"), null,
+                List.of(new AttributeMatch("country", List.of("DE"), false)), null));
+
+        client.onUpdate(event);
+
+        assertTrue(client.isEnabled("beta_search"));
+        assertTrue(client.isEnabled("beta_search", "tester", Map.of()));
+        assertTrue(client.isEnabled("beta_search", "someone", Map.of("country", "DE")));
+        assertFalse(client.isEnabled("beta_search", "someone", Map.of("country", "US")));
+    }
+
+    @Test
+    void handle_ShouldReturnSameHandleFollowingUpdates() {
+        FlagHandle handle = client.handle("maintenance_mode");
+
+        assertSame(handle, client.handle("maintenance_mode"));
+        assertFalse(handle.isEnabled());
+
+        client.onUpdate(new FlagUpdateEvent("maintenance_mode", true, "CREATED"));
+
+        assertTrue(handle.isEnabled());
+    }
+
+    @Test
+    void handle_ShouldStayValidAcrossDeleteAndRecreate() {
+        client.onUpdate(new FlagUpdateEvent("beta_search", true, "CREATED"));
+        FlagHandle handle = client.handle("beta_search");
+        assertTrue(handle.isEnabled());
+
+        client.onUpdate(new FlagUpdateEvent("beta_search", true, "DELETED"));
+        assertFalse(handle.isEnabled());
+        assertFalse(handle.isEnabled("user-1", Map.of()));
+
+        FlagUpdateEvent recreated = new FlagUpdateEvent("beta_search", true, "CREATED");
+        recreated.setTargeting(new TargetingRules(List.of("tester"), null, null, 0));
+        client.onUpdate(recreated);
+
+        assertTrue(handle.isEnabled());
+        assertTrue(handle.isEnabled("tester", Map.of()));
+        assertFalse(handle.isEnabled("someone", Map.of()));
+    }
+
+    @Test
+    void handle_ShouldFollowSnapshotAndChanges() {
+        StubFlagSource source = new StubFlagSource();
+        source.snapshot = new FlagChanges(10, List.of(new FlagState("flag_one", true, null, 3)));
+        client = new FeatureFlagClient(source, Duration.ZERO);
+        FlagHandle handle = client.handle("flag_one");
+
+        client.start();
+        assertTrue(handle.isEnabled());
+
+        source.changes = new FlagChanges(11, List.of(new FlagState("flag_one", false, null, 11)));
+        client.sync();
+        assertFalse(handle.isEnabled());
+    }
+
+    @Test
+    void onUpdate_ShouldTrackAppliedVersionAndPropagationDelay() {
+        List<PropagationSample> samples = new ArrayList<>();
+        client.addPropagationListener(samples::add);
+        long now = Instant.now().toEpochMilli() * 1000;
+        FlagUpdateEvent event = versioned(new FlagUpdateEvent("test_flag", true, "TOGGLED"), 7);
+        event.setCommittedAtMicros(now - 250_000);
+        event.setPublishedAtMicros(now - 50_000);
+
+        client.onUpdate(event);
+        client.onUpdate(new FlagUpdateEvent("unversioned_flag", true, "CREATED"));
+
+        assertEquals(7, client.getAppliedVersion());
+        assertEquals(1, samples.size());
+        assertSame(samples.get(0), client.getLastPropagation());
+        assertEquals(7, samples.get(0).getVersion());
+        assertTrue(samples.get(0).getPublishToApplyMicros() >= 50_000);
+        assertTrue(samples.get(0).getCommitToApplyMicros() >= samples.get(0).getPublishToApplyMicros() + 200_000);
+    }
+
+    @Test
+    void start_ShouldBootstrapFromSnapshot() {
+        StubFlagSource source = new StubFlagSource();
+        source.snapshot = new FlagChanges(10, List.of(
+                new FlagState("flag_one", true, null, 3),
+                new FlagState("flag_two", false, null, 10)));
+        client = new FeatureFlagClient(source, Duration.ZERO);
+
+        client.start();
+
+        assertEquals(10, client.getSnapshot().getVersion());
+        assertEquals(10, client.getAppliedVersion());
+        assertTrue(client.isEnabled("flag_one"));
+        assertFalse(client.isEnabled("flag_two"));
+        assertEquals(1, source.snapshotCalls);
+    }
+
+    @Test
+    void sync_AfterBootstrap_ShouldApplyChangesAndTombstones() {
+        StubFlagSource source = new StubFlagSource();
+        source.snapshot = new FlagChanges(10, List.of(
+                new FlagState("flag_one", true, null, 3),
+                new FlagState("flag_two", false, null, 10)));
+        client = new FeatureFlagClient(source, Duration.ZERO);
+        client.start();
+
+        FlagState tombstone = new FlagState("flag_one", false, null, 12);
+        tombstone.setDeleted(true);
+        source.changes = new FlagChanges(12, List.of(new FlagState("flag_two", true, null, 11), tombstone));
+
+        client.sync();
+
+        assertEquals(List.of(10L), source.changesRequested);
+        assertEquals(12, client.getSnapshot().getVersion());
+        assertFalse(client.isEnabled("flag_one"));
+        assertTrue(client.isEnabled("flag_two"));
+        assertEquals(1, source.snapshotCalls);
+    }
+
+    @Test
+    void sync_WhenChangesAreOlderThanPushedDelete_ShouldKeepFlagDeleted() {
+        StubFlagSource source = new StubFlagSource();
+        source.snapshot = new FlagChanges(10, List.of(new FlagState("flag_one", true, null, 3)));
+        client = new FeatureFlagClient(source, Duration.ZERO);
+        client.start();
+
+        client.onUpdate(versioned(new FlagUpdateEvent("flag_one", false, "DELETED"), 12));
+        source.changes = new FlagChanges(11, List.of(new FlagState("flag_one", true, null, 11)));
+        client.sync();
+
+        assertFalse(client.isEnabled("flag_one"));
+    }
+
+    @Test
+    void sync_WhenSnapshotIsOlderThanPushedDelete_ShouldKeepFlagDeleted() {
+        StubFlagSource source = new StubFlagSource();
+        source.snapshot = new FlagChanges(10, List.of(new FlagState("flag_one", true, null, 3)));
+        client = new FeatureFlagClient(source, Duration.ZERO);
+
+        client.onUpdate(versioned(new FlagUpdateEvent("flag_one", false, "DELETED"), 11));
+        client.start();
+
+        assertFalse(client.isEnabled("flag_one"));
+    }
+
+    @Test
+    void sync_WhenChangesExpired_ShouldReloadSnapshot() {
+        StubFlagSource source = new StubFlagSource();
+        source.snapshot = new FlagChanges(10, List.of(new FlagState("flag_one", true, null, 3)));
+        client = new FeatureFlagClient(source, Duration.ZERO);
+        client.start();
+
+        source.snapshot = new FlagChanges(50, List.of(new FlagState("flag_one", false, null, 40)));
+        client.sync();
+
+        assertEquals(2, source.snapshotCalls);
+        assertEquals(50, client.getSnapshot().getVersion());
+        assertFalse(client.isEnabled("flag_one"));
+    }
+
+    @Test
+    void sync_WhenSnapshotIsOlderThanPushedEvent_ShouldKeepEvent() {
+        StubFlagSource source = new StubFlagSource();
+        source.snapshot = new FlagChanges(10, List.of(new FlagState("flag_one", false, null, 10)));
+        client = new FeatureFlagClient(source, Duration.ZERO);
+
+        client.onUpdate(versioned(new FlagUpdateEvent("flag_one", true, "TOGGLED"), 11));
+        client.start();
+
+        assertTrue(client.isEnabled("flag_one"));
+    }
+
+    @Test
+    void onChangeNotification_WhenVersionIsNew_ShouldFetchChangesAndRecordPropagation() {
+        StubFlagSource source = new StubFlagSource();
+        source.snapshot = new FlagChanges(10, List.of(new FlagState("flag_one", false, null, 10)));
+        client = new FeatureFlagClient(source, Duration.ZERO);
+        client.start();
+        long committedAt = Instant.now().toEpochMilli() * 1000 - 100_000;
+
+        source.changes = new FlagChanges(11, List.of(new FlagState("flag_one", true, null, 11)));
+        client.onChangeNotification(11, committedAt);
+
+        assertTrue(client.isEnabled("flag_one"));
+        assertEquals(List.of(10L), source.changesRequested);
+        assertEquals(11, client.getLastPropagation().getVersion());
+        assertTrue(client.getLastPropagation().getCommitToApplyMicros() >= 100_000);
+    }
+
+    @Test
+    void onChangeNotification_WhenVersionAlreadyApplied_ShouldNotFetch() {
+        StubFlagSource source = new StubFlagSource();
+        source.snapshot = new FlagChanges(12, List.of(new FlagState("flag_one", true, null, 12)));
+        client = new FeatureFlagClient(source, Duration.ZERO);
+        client.start();
+
+        client.onChangeNotification(11, 0);
+
+        assertTrue(source.changesRequested.isEmpty());
+        assertEquals(1, source.snapshotCalls);
+    }
+
+    @Test
+    void start_WhenSourceFails_ShouldKeepServingEmptySnapshot() {
+        StubFlagSource source = new StubFlagSource();
+        source.failure = new FlagSourceException("connection refused");
+        client = new FeatureFlagClient(source, Duration.ZERO);
+
+        assertDoesNotThrow(client::start);
+        assertFalse(client.isEnabled("flag_one"));
+        assertThrows(FlagSourceException.class, client::sync);
+    }
+
+    private static FlagUpdateEvent versioned(FlagUpdateEvent event, long version) {
+        event.setVersion(version);
+        return event;
+    }
+
+    private static class StubFlagSource implements FlagSource {
+
+        private FlagChanges snapshot;
+        private FlagChanges changes;
+        private RuntimeException failure;
+        private int snapshotCalls;
+        private final List<Long> changesRequested = new ArrayList<>();
+
+        @Override
+        public FlagChanges fetchSnapshot() {
+            if (failure != null) {
+                throw failure;
+            }
+            snapshotCalls++;
+            return snapshot;
+        }
+
+        @Override
+        public FlagChanges fetchChangesSince(long version) {
+            if (failure != null) {
+                throw failure;
+            }
+            changesRequested.add(version);
+            return changes;
+        }
+    }
+}
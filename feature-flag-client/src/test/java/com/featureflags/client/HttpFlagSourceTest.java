@@ -0,0 +1,95 @@
+package com.featureflags.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.featureflags.client.model.EvaluationCount;
+import com.featureflags.client.model.EvaluationReport;
+import com.featureflags.client.model.FlagChanges;
+import com.featureflags.client.model.FlagState;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpFlagSourceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final ObjectMapper smileMapper = objectMapper.copyWith(new SmileFactory());
+    private HttpServer server;
+    private HttpFlagSource source;
+
+    private volatile String responseContentType;
+    private volatile byte[] responseBody;
+    private volatile String requestAccept;
+    private volatile String requestContentType;
+    private volatile byte[] requestBody;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/flags", this::handle);
+        server.start();
+        source = new HttpFlagSource("http://127.0.0.1:" + server.getAddress().getPort() + "/", objectMapper,
+                Duration.ofSeconds(1), Duration.ofSeconds(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void fetchSnapshot_ShouldPreferSmile() throws Exception {
+        responseContentType = HttpFlagSource.SMILE_CONTENT_TYPE;
+        responseBody = smileMapper.writeValueAsBytes(new FlagChanges(4, List.of(new FlagState("flag_one", true, null, 4))));
+
+        FlagChanges snapshot = source.fetchSnapshot();
+
+        assertTrue(requestAccept.startsWith(HttpFlagSource.SMILE_CONTENT_TYPE));
+        assertEquals(4, snapshot.getVersion());
+        assertEquals("flag_one", snapshot.getFlags().get(0).getName());
+    }
+
+    @Test
+    void fetchChangesSince_WhenServerAnswersJson_ShouldDecodeJson() throws Exception {
+        responseContentType = "application/json";
+        responseBody = objectMapper.writeValueAsBytes(new FlagChanges(7, List.of()));
+
+        assertEquals(7, source.fetchChangesSince(4).getVersion());
+    }
+
+    @Test
+    void report_ShouldPostSmile() throws Exception {
+        EvaluationReport report = new EvaluationReport("movie-search-service", 0, 60_000,
+                List.of(new EvaluationCount("flag_one", 3, 1)));
+
+        source.report(report);
+
+        assertEquals(HttpFlagSource.SMILE_CONTENT_TYPE, requestContentType);
+        EvaluationReport received = smileMapper.readValue(requestBody, EvaluationReport.class);
+        assertEquals("movie-search-service", received.getSource());
+        assertEquals(3, received.getCounts().get(0).getEnabledCount());
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requestAccept = exchange.getRequestHeaders().getFirst("Accept");
+        requestContentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        requestBody = exchange.getRequestBody().readAllBytes();
+        if ("POST".equals(exchange.getRequestMethod())) {
+            exchange.sendResponseHeaders(202, -1);
+        } else {
+            exchange.getResponseHeaders().add("Content-Type", responseContentType);
+            exchange.sendResponseHeaders(200, responseBody.length);
+            exchange.getResponseBody().write(responseBody);
+        }
+        exchange.close();
+    }
+}
@@ -0,0 +1,66 @@
+package com.featureflags.client.autoconfigure;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.featureflags.client.FeatureFlagClient;
+import com.featureflags.client.model.FlagUpdateEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AmqpFlagUpdateListenerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private FeatureFlagClient client;
+    private AmqpFlagUpdateListener listener;
+
+    @BeforeEach
+    void setUp() {
+        client = new FeatureFlagClient();
+        listener = new AmqpFlagUpdateListener(client, objectMapper);
+    }
+
+    @Test
+    void handleFlagUpdate_WithJsonEvent_ShouldApplyIt() throws Exception {
+        byte[] body = objectMapper.writeValueAsBytes(new FlagUpdateEvent("flag_one", true, "CREATED"));
+
+        listener.handleFlagUpdate(message(body, MessageProperties.CONTENT_TYPE_JSON));
+
+        assertTrue(client.isEnabled("flag_one"));
+    }
+
+    @Test
+    void handleFlagUpdate_WithSmileBatch_ShouldApplyEveryEvent() throws Exception {
+        FlagUpdateEvent batch = new FlagUpdateEvent();
+        batch.setEventType(FlagUpdateEvent.BATCH);
+        batch.setEvents(List.of(
+                new FlagUpdateEvent("flag_one", true, "TOGGLED"),
+                new FlagUpdateEvent("flag_two", false, "TOGGLED")));
+        byte[] body = objectMapper.copyWith(new SmileFactory()).writeValueAsBytes(batch);
+
+        listener.handleFlagUpdate(message(body, AmqpFlagUpdateListener.SMILE_CONTENT_TYPE));
+
+        assertTrue(client.isEnabled("flag_one"));
+        assertNotNull(client.getSnapshot().get("flag_two"));
+    }
+
+    @Test
+    void handleFlagUpdate_WithUndecodableBody_ShouldDropIt() {
+        byte[] body = "not a flag event".getBytes(StandardCharsets.UTF_8);
+
+        assertDoesNotThrow(() -> listener.handleFlagUpdate(message(body, AmqpFlagUpdateListener.SMILE_CONTENT_TYPE)));
+        assertEquals(0, client.getSnapshot().size());
+    }
+
+    private static Message message(byte[] body, String contentType) {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(contentType);
+        return new Message(body, properties);
+    }
+}
@@ -0,0 +1,89 @@
+package com.featureflags.client.benchmark;
+
+import com.featureflags.client.FeatureFlagClient;
+import com.featureflags.client.FlagHandle;
+import com.featureflags.client.model.AttributeMatch;
+import com.featureflags.client.model.FlagUpdateEvent;
+import com.featureflags.client.model.TargetingRules;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Flag evaluation throughput on the client's copy-on-write snapshot, by name and through a
+ * held handle, with and without targeting rules. Not part of the regular build, run with:
+ * mvn test -Dtest=FlagEvaluationBenchmark -Dbenchmark=true
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class FlagEvaluationBenchmark {
+
+    private static final int FLAGS = 500;
+
+    private FeatureFlagClient client;
+    private FlagHandle plainHandle;
+    private FlagHandle targetedHandle;
+    private Map<String, String> attributes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        client = new FeatureFlagClient();
+        for (int i = 0; i < FLAGS; i++) {
+            client.onUpdate(new FlagUpdateEvent("flag_" + i, true, "CREATED"));
+        }
+        FlagUpdateEvent targeted = new FlagUpdateEvent("targeted_flag", true, "CREATED");
+        targeted.setTargeting(new TargetingRules(List.of("vip"), List.of("banned"),
+                List.of(new AttributeMatch("country", List.of("DE", "FR"), false)), 50));
+        client.onUpdate(targeted);
+
+        plainHandle = client.handle("flag_250");
+        targetedHandle = client.handle("targeted_flag");
+        attributes = Map.of("country", "DE");
+    }
+
+    @Benchmark
+    public boolean isEnabledByName() {
+        return client.isEnabled("flag_250");
+    }
+
+    @Benchmark
+    public boolean isEnabledByHandle() {
+        return plainHandle.isEnabled();
+    }
+
+    @Benchmark
+    public boolean evaluateTargetingByHandle() {
+        return targetedHandle.isEnabled("user-42", attributes);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void run() throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(FlagEvaluationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
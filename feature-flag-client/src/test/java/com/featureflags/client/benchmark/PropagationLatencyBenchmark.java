@@ -0,0 +1,146 @@
+package com.featureflags.client.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.featureflags.client.FeatureFlagClient;
+import com.featureflags.client.FlagHandle;
+import com.featureflags.client.HttpFlagSource;
+import com.featureflags.client.PgNotifyFlagSubscriber;
+import com.featureflags.client.autoconfigure.AmqpFlagUpdateListener;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * End-to-end flag propagation latency, from a toggle request to feature-flag-service until a
+ * client handle flips, over the AMQP path or the broker-less pg-notify path.
+ * <p>
+ * Runs against a running stack (docker compose up -d). The service must run with the matching
+ * transport, so add the pg-notify profile to feature-flag-service before measuring pg-notify.
+ * The AMQP figures include the outbox relay interval. Not part of the regular build, run with:
+ * mvn test -Dtest=PropagationLatencyBenchmark -Dbenchmark=true -Dbenchmark.transport=amqp|pg-notify
+ */
+class PropagationLatencyBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(PropagationLatencyBenchmark.class);
+    private static final String FLAG = "propagation_benchmark";
+    private static final int WARMUP_ITERATIONS = 20;
+    private static final int MEASURED_ITERATIONS = 200;
+    private static final long TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final HttpClient http = HttpClient.newHttpClient();
+    private final String baseUrl = System.getProperty("benchmark.base-url", "http://localhost:8080");
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void measure() throws Exception {
+        String transport = System.getProperty("benchmark.transport", "amqp");
+        long flagId = ensureFlag();
+        FeatureFlagClient client = new FeatureFlagClient(
+                new HttpFlagSource(baseUrl, objectMapper, Duration.ofSeconds(2), Duration.ofSeconds(5)), Duration.ZERO);
+        client.start();
+        FlagHandle handle = client.handle(FLAG);
+
+        long[] latencies = new long[MEASURED_ITERATIONS];
+        try (AutoCloseable subscription = "pg-notify".equals(transport) ? listen(client) : consume(client)) {
+            for (int i = 0; i < WARMUP_ITERATIONS + MEASURED_ITERATIONS; i++) {
+                boolean before = handle.isEnabled();
+                long start = System.nanoTime();
+                toggle(flagId);
+                while (handle.isEnabled() == before) {
+                    if (System.nanoTime() - start > TIMEOUT_NANOS) {
+                        throw new IllegalStateException("Toggle " + i + " did not reach the client over " + transport);
+                    }
+                    LockSupport.parkNanos(20_000);
+                }
+                if (i >= WARMUP_ITERATIONS) {
+                    latencies[i - WARMUP_ITERATIONS] = System.nanoTime() - start;
+                }
+            }
+        } finally {
+            client.close();
+        }
+
+        Arrays.sort(latencies);
+        logger.info(String.format("%s toggle-to-client latency over %d toggles: p50 %.2f ms, p90 %.2f ms, p99 %.2f ms, max %.2f ms",
+                transport, MEASURED_ITERATIONS, millis(latencies, 0.50), millis(latencies, 0.90),
+                millis(latencies, 0.99), latencies[latencies.length - 1] / 1e6));
+    }
+
+    private AutoCloseable consume(FeatureFlagClient client) {
+        CachingConnectionFactory connectionFactory = new CachingConnectionFactory(
+                System.getProperty("benchmark.rabbitmq.host", "localhost"));
+        connectionFactory.setUsername(System.getProperty("benchmark.rabbitmq.username", "feature_flags_user"));
+        connectionFactory.setPassword(System.getProperty("benchmark.rabbitmq.password", "feature_flags_password"));
+        // A private queue, so the benchmark does not compete with movie-search for events
+        Queue queue = new AnonymousQueue();
+        RabbitAdmin admin = new RabbitAdmin(connectionFactory);
+        admin.declareQueue(queue);
+        admin.declareBinding(BindingBuilder.bind(queue).to(new TopicExchange("feature-flags")).with("flag.update"));
+
+        AmqpFlagUpdateListener listener = new AmqpFlagUpdateListener(client, objectMapper);
+        SimpleMessageListenerContainer container = new SimpleMessageListenerContainer(connectionFactory);
+        container.setQueues(queue);
+        container.setMessageListener(listener::handleFlagUpdate);
+        container.start();
+        return () -> {
+            container.stop();
+            connectionFactory.destroy();
+        };
+    }
+
+    private AutoCloseable listen(FeatureFlagClient client) {
+        PgNotifyFlagSubscriber subscriber = new PgNotifyFlagSubscriber(client,
+                System.getProperty("benchmark.db.url", "jdbc:postgresql://localhost:5432/feature_flags"),
+                System.getProperty("benchmark.db.username", "feature_flags_user"),
+                System.getProperty("benchmark.db.password", "feature_flags_password"),
+                "flag_changes", Duration.ofSeconds(1));
+        subscriber.start();
+        return subscriber;
+    }
+
+    private long ensureFlag() throws Exception {
+        HttpResponse<String> existing = http.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/flags/name/" + FLAG))
+                .GET().build(), HttpResponse.BodyHandlers.ofString());
+        if (existing.statusCode() == 200) {
+            return objectMapper.readTree(existing.body()).get("id").asLong();
+        }
+        String body = objectMapper.writeValueAsString(objectMapper.createObjectNode()
+                .put("name", FLAG).put("enabled", false).put("description", "Propagation latency benchmark"));
+        HttpResponse<String> created = http.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/flags"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build(), HttpResponse.BodyHandlers.ofString());
+        JsonNode flag = objectMapper.readTree(created.body());
+        return flag.get("id").asLong();
+    }
+
+    private void toggle(long flagId) throws Exception {
+        HttpResponse<Void> response = http.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/flags/" + flagId + "/toggle"))
+                .method("PATCH", HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Toggle failed with status " + response.statusCode());
+        }
+    }
+
+    private static double millis(long[] sorted, double percentile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.round(percentile * sorted.length))] / 1e6;
+    }
+}
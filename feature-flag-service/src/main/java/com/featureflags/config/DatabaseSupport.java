@@ -0,0 +1,116 @@
+package com.featureflags.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Detects the connected database and applies the PostgreSQL-specific schema objects
+ * that Hibernate's ddl-auto cannot manage (extensions, expression indexes).
+ * Other databases (H2 in tests) fall back to portable queries.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class DatabaseSupport implements InitializingBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseSupport.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private boolean postgres;
+    private boolean trigramSearch;
+
+    @Autowired
+    public DatabaseSupport(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        postgres = "PostgreSQL".equalsIgnoreCase(product);
+        logger.info("Connected database: {}", product);
+
+        if (postgres) {
+            alignIdSequence();
+            trigramSearch = createTrigramIndex();
+        }
+        seedStoreVersion();
+        if (postgres) {
+            createChangeVersionSequence();
+        }
+    }
+
+    /**
+     * Create the single flag_store_version row, starting from the highest change version
+     * already recorded so that an existing store never moves backwards
+     */
+    private void seedStoreVersion() {
+        try {
+            int seeded = jdbcTemplate.update("INSERT INTO flag_store_version (id, version, tombstone_horizon) " +
+                    "SELECT 1, COALESCE(MAX(change_version), 0), 0 FROM feature_flags " +
+                    "WHERE NOT EXISTS (SELECT 1 FROM flag_store_version)");
+            if (seeded > 0) {
+                logger.info("Initialized flag store version");
+            }
+        } catch (DuplicateKeyException e) {
+            logger.debug("Flag store version was initialized by another instance");
+        }
+    }
+
+    /**
+     * Create the sequence change versions are allocated from and start it past the readable version,
+     * which on an upgrade is the last version handed out by incrementing the version row
+     */
+    private void createChangeVersionSequence() {
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS flag_change_version_seq");
+        jdbcTemplate.query("SELECT setval('flag_change_version_seq', version) FROM flag_store_version " +
+                "WHERE id = 1 AND version > (SELECT last_value FROM flag_change_version_seq)",
+                resultSet -> {
+                    logger.info("Advanced flag_change_version_seq to {}", resultSet.getLong(1));
+                });
+    }
+
+    /**
+     * Move the pooled id sequence past ids handed out by the former IDENTITY column,
+     * otherwise the first inserts after an upgrade would collide with existing rows
+     */
+    private void alignIdSequence() {
+        jdbcTemplate.query("SELECT setval('feature_flags_seq', (SELECT max(id) FROM feature_flags)) " +
+                "WHERE (SELECT max(id) FROM feature_flags) > (SELECT last_value FROM feature_flags_seq)",
+                resultSet -> {
+                    logger.info("Advanced feature_flags_seq to {}", resultSet.getLong(1));
+                });
+    }
+
+    /**
+     * Create the pg_trgm GIN index backing substring and fuzzy name search
+     */
+    private boolean createTrigramIndex() {
+        try {
+            jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_feature_flags_name_trgm " +
+                    "ON feature_flags USING gin (lower(name) gin_trgm_ops)");
+            logger.info("Trigram index on feature_flags.name is available");
+            return true;
+        } catch (Exception e) {
+            logger.warn("pg_trgm is unavailable, flag search falls back to LIKE scans: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    public boolean isPostgres() {
+        return postgres;
+    }
+
+    public boolean isTrigramSearch() {
+        return trigramSearch;
+    }
+}
@@ -0,0 +1,20 @@
+package com.featureflags.config;
+
+import com.featureflags.service.FlagEventPublisher;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Beans that still initialize at startup when spring.main.lazy-initialization is on (fast-startup
+ * profile): the schema objects must exist and the event transport must be checked before the first
+ * request. Spring Boot keeps beans with @Scheduled methods eager by itself.
+ */
+@Configuration
+public class LazyInitializationConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter eagerStartupBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(DatabaseSupport.class, FlagEventPublisher.class);
+    }
+}
@@ -70,8 +70,8 @@ public class RabbitMQConfig {
         RabbitTemplate rabbitTemplate = new RabbitTemplate(connectionFactory);
         rabbitTemplate.setMessageConverter(jsonMessageConverter);
 
-        // For reliable delivery, publisher confirms can be handled via CorrelationData futures in Spring AMQP 3+.
-        // Deprecated confirm callback removed to avoid build warnings.
+        // Publisher confirms (spring.rabbitmq.publisher-confirm-type: correlated) are consumed
+        // through CorrelationData futures by OutboxRelay.
         // See: https://docs.spring.io/spring-amqp/docs/current/reference/html/#publisher-confirms
         logger.debug("RabbitTemplate configured with JSON message converter");
 
@@ -0,0 +1,116 @@
+package com.featureflags.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to a healthy replica (round robin) and everything else to the primary.
+ * <p>
+ * Must sit behind a LazyConnectionDataSourceProxy: the read-only flag of the transaction is only
+ * known once the transaction manager has started it, after the connection has been requested.
+ * Replicas whose replay lag exceeds the threshold, or that cannot be reached, are skipped until
+ * the next {@link #refreshReplicaHealth()}; with no healthy replica reads fall back to the primary.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+
+    static final String PRIMARY = "primary";
+
+    // Zero on a primary or a caught-up standby, replay delay in seconds otherwise
+    private static final String REPLICA_LAG_SQL = "SELECT CASE WHEN NOT pg_is_in_recovery() " +
+            "OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+
+    private final Map<String, DataSource> replicas;
+    private final Duration maxReplicaLag;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    private volatile String[] healthyReplicas;
+
+    public ReadWriteRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, Duration maxReplicaLag) {
+        this.replicas = new LinkedHashMap<>(replicas);
+        this.maxReplicaLag = maxReplicaLag;
+        // No replica serves reads until its lag has been measured once
+        this.healthyReplicas = new String[0];
+
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        String[] candidates = healthyReplicas;
+        if (candidates.length == 0) {
+            return PRIMARY;
+        }
+        return candidates[Math.floorMod(nextReplica.getAndIncrement(), candidates.length)];
+    }
+
+    /**
+     * Re-measure replica lag and rebuild the set of replicas eligible for reads
+     */
+    @Scheduled(fixedDelayString = "${datasource.routing.lag-check-interval-ms:2000}")
+    public void refreshReplicaHealth() {
+        List<String> healthy = new ArrayList<>(replicas.size());
+        for (Map.Entry<String, DataSource> replica : replicas.entrySet()) {
+            double lagSeconds = measureLagSeconds(replica.getKey(), replica.getValue());
+            if (lagSeconds >= 0 && lagSeconds * 1000 <= maxReplicaLag.toMillis()) {
+                healthy.add(replica.getKey());
+            } else if (lagSeconds >= 0) {
+                logger.warn("Replica {} is {}s behind the primary, routing its reads to the primary",
+                        replica.getKey(), lagSeconds);
+            }
+        }
+        healthyReplicas = healthy.toArray(new String[0]);
+    }
+
+    /**
+     * Close the replica pools; the primary pool is a bean of its own
+     */
+    public void close() throws Exception {
+        for (DataSource replica : replicas.values()) {
+            if (replica instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    List<String> getHealthyReplicas() {
+        return List.of(healthyReplicas);
+    }
+
+    /**
+     * Replay lag in seconds, or -1 when the replica cannot be reached
+     */
+    private double measureLagSeconds(String name, DataSource replica) {
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(REPLICA_LAG_SQL)) {
+            return resultSet.next() ? resultSet.getDouble(1) : 0;
+        } catch (Exception e) {
+            logger.warn("Replica {} is unreachable, routing its reads to the primary: {}", name, e.getMessage());
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.featureflags.controller;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.util.InvalidMimeTypeException;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Accept and Accept-Encoding handling for the pre-rendered flag list bodies, which are written as
+ * bytes and so bypass the message converters' own negotiation
+ */
+final class ContentNegotiation {
+
+    private ContentNegotiation() {
+    }
+
+    /**
+     * Media type to answer with: the first of producible, in order of preference, that the best
+     * ranked Accept entry is compatible with. The first producible type when the header is absent
+     * or malformed; null when none is acceptable.
+     */
+    static MediaType select(String accept, List<MediaType> producible) {
+        if (accept == null || accept.isBlank()) {
+            return producible.get(0);
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = new ArrayList<>(MediaType.parseMediaTypes(accept));
+            // Highest quality first, then the more specific of equal quality
+            MimeTypeUtils.sortBySpecificity(accepted);
+        } catch (InvalidMediaTypeException | InvalidMimeTypeException e) {
+            return producible.get(0);
+        }
+        for (MediaType range : accepted) {
+            if (range.getQualityValue() == 0) {
+                break;
+            }
+            for (MediaType candidate : producible) {
+                if (range.isCompatibleWith(candidate) && !excluded(candidate, accepted)) {
+                    return candidate;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Whether Accept-Encoding allows gzip: listed as gzip or x-gzip, or else covered by "*", with a
+     * non-zero q-value. A q-value that cannot be parsed counts as zero.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double any = null;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parameters = element.split(";");
+            String coding = parameters[0].trim().toLowerCase(Locale.ROOT);
+            double quality = quality(parameters);
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzip = gzip == null ? quality : Math.max(gzip, quality);
+            } else if (coding.equals("*")) {
+                any = quality;
+            }
+        }
+        return (gzip != null ? gzip : any != null ? any : 0) > 0;
+    }
+
+    /**
+     * A type is excluded when the most specific Accept entry covering it has q=0: "application/json;q=0"
+     * next to a wildcard excludes JSON, "application/json" next to a wildcard with q=0 does not
+     */
+    private static boolean excluded(MediaType candidate, List<MediaType> accepted) {
+        MediaType closest = null;
+        for (MediaType range : accepted) {
+            if (range.includes(candidate) && (closest == null || specificity(range) > specificity(closest))) {
+                closest = range;
+            }
+        }
+        return closest != null && closest.getQualityValue() == 0;
+    }
+
+    private static int specificity(MediaType range) {
+        return range.isWildcardType() ? 0 : range.isWildcardSubtype() ? 1 : 2;
+    }
+
+    private static double quality(String[] parameters) {
+        for (int i = 1; i < parameters.length; i++) {
+            String parameter = parameters[i].trim();
+            if (parameter.regionMatches(true, 0, "q=", 0, 2)) {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,33 @@
+package com.featureflags.controller;
+
+import com.featureflags.dto.BulkFlagRequest;
+import com.featureflags.dto.BulkImportResult;
+import com.featureflags.service.FeatureFlagService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Custom-method style bulk endpoint. Lives outside FeatureFlagController because a
+ * "/api/flags:bulk" path cannot be expressed relative to its "/api/flags" mapping.
+ */
+@RestController
+@RequestMapping("/api")
+@CrossOrigin(origins = "*")
+public class FeatureFlagBulkController {
+
+    private final FeatureFlagService featureFlagService;
+
+    @Autowired
+    public FeatureFlagBulkController(FeatureFlagService featureFlagService) {
+        this.featureFlagService = featureFlagService;
+    }
+
+    @PostMapping("/flags:bulk")
+    public ResponseEntity<BulkImportResult> importFlags(@Valid @RequestBody BulkFlagRequest request) {
+        BulkImportResult result = featureFlagService.importFlags(request.getFlags());
+        return ResponseEntity.status(HttpStatus.CREATED).body(result);
+    }
+}
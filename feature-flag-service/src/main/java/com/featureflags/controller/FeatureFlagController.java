@@ -1,17 +1,31 @@
 package com.featureflags.controller;
 
+import com.featureflags.dto.EvaluationReportDto;
 import com.featureflags.dto.FeatureFlagDto;
+import com.featureflags.dto.FlagChangesDto;
+import com.featureflags.dto.FlagEvaluationStatsDto;
 import com.featureflags.service.FeatureFlagService;
+import com.featureflags.service.FlagEvaluationService;
+import com.featureflags.service.FlagListResponseCache;
+import com.featureflags.service.FlagListResponseCache.CachedList;
 import com.featureflags.exception.FeatureFlagNotFoundException;
 import com.featureflags.exception.DuplicateFeatureFlagException;
+import com.featureflags.exception.FeatureFlagVersionConflictException;
+import com.featureflags.exception.FlagChangesExpiredException;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.Duration;
 import java.util.List;
 
 @RestController
@@ -21,17 +35,28 @@ public class FeatureFlagController {
 
     private static final Logger logger = LoggerFactory.getLogger(FeatureFlagController.class);
 
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+    // In order of preference when the Accept header allows several
+    private static final List<MediaType> LIST_MEDIA_TYPES = List.of(MediaType.APPLICATION_JSON, SMILE,
+            MediaType.APPLICATION_CBOR);
+
     private final FeatureFlagService featureFlagService;
+    private final FlagListResponseCache flagListResponseCache;
+    private final FlagEvaluationService flagEvaluationService;
 
     @Autowired
-    public FeatureFlagController(FeatureFlagService featureFlagService) {
+    public FeatureFlagController(FeatureFlagService featureFlagService, FlagListResponseCache flagListResponseCache,
+                                 FlagEvaluationService flagEvaluationService) {
         this.featureFlagService = featureFlagService;
+        this.flagListResponseCache = flagListResponseCache;
+        this.flagEvaluationService = flagEvaluationService;
     }
 
     @GetMapping
-    public ResponseEntity<List<FeatureFlagDto>> getAllFlags() {
-        List<FeatureFlagDto> flags = featureFlagService.getAllFlags();
-        return ResponseEntity.ok(flags);
+    public ResponseEntity<byte[]> getAllFlags(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return cachedList(FlagListResponseCache.View.ALL, accept, acceptEncoding);
     }
 
     @GetMapping("/{id}")
@@ -85,17 +110,27 @@ public class FeatureFlagController {
         } catch (DuplicateFeatureFlagException e) {
             logger.warn("Duplicate feature flag name in update: {}", flagDto.getName());
             return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (FeatureFlagVersionConflictException e) {
+            logger.warn("Stale feature flag update rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getCurrentFlag());
+        } catch (OptimisticLockingFailureException e) {
+            logger.warn("Concurrent update of feature flag with id: {}", id);
+            return currentStateConflict(id);
         }
     }
 
     @PatchMapping("/{id}/toggle")
-    public ResponseEntity<FeatureFlagDto> toggleFlag(@PathVariable Long id) {
+    public ResponseEntity<FeatureFlagDto> toggleFlag(@PathVariable Long id,
+                                                     @RequestParam(required = false) Long version) {
         try {
-            FeatureFlagDto toggledFlag = featureFlagService.toggleFlag(id);
+            FeatureFlagDto toggledFlag = featureFlagService.toggleFlag(id, version);
             return ResponseEntity.ok(toggledFlag);
         } catch (FeatureFlagNotFoundException e) {
             logger.warn("Feature flag not found for toggle with id: {}", id);
             return ResponseEntity.notFound().build();
+        } catch (FeatureFlagVersionConflictException e) {
+            logger.warn("Stale feature flag toggle rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getCurrentFlag());
         }
     }
 
@@ -111,21 +146,104 @@ public class FeatureFlagController {
     }
 
     @GetMapping("/enabled")
-    public ResponseEntity<List<FeatureFlagDto>> getEnabledFlags() {
-        List<FeatureFlagDto> flags = featureFlagService.getEnabledFlags();
-        return ResponseEntity.ok(flags);
+    public ResponseEntity<byte[]> getEnabledFlags(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return cachedList(FlagListResponseCache.View.ENABLED, accept, acceptEncoding);
     }
 
     @GetMapping("/disabled")
-    public ResponseEntity<List<FeatureFlagDto>> getDisabledFlags() {
-        List<FeatureFlagDto> flags = featureFlagService.getDisabledFlags();
-        return ResponseEntity.ok(flags);
+    public ResponseEntity<byte[]> getDisabledFlags(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return cachedList(FlagListResponseCache.View.DISABLED, accept, acceptEncoding);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<FeatureFlagDto>> searchFlags(@RequestParam String name) {
-        List<FeatureFlagDto> flags = featureFlagService.searchFlagsByName(name);
-        return ResponseEntity.ok(flags);
+    public ResponseEntity<List<FeatureFlagDto>> searchFlags(@RequestParam String name,
+                                                            @RequestParam(defaultValue = "0") int page,
+                                                            @RequestParam(defaultValue = "20") int size) {
+        Page<FeatureFlagDto> flags = featureFlagService.searchFlagsByName(name, page, size);
+        return ResponseEntity.ok()
+                .header("X-Total-Count", String.valueOf(flags.getTotalElements()))
+                .body(flags.getContent());
+    }
+
+    /**
+     * All flags at the current store version; the version doubles as the ETag
+     */
+    @GetMapping("/snapshot")
+    public ResponseEntity<FlagChangesDto> getSnapshot(WebRequest request) {
+        FlagChangesDto snapshot = featureFlagService.getSnapshot();
+        String etag = "\"" + snapshot.getVersion() + "\"";
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(snapshot);
+    }
+
+    @GetMapping("/changes")
+    public ResponseEntity<FlagChangesDto> getChanges(@RequestParam long since) {
+        try {
+            return ResponseEntity.ok(featureFlagService.getChangesSince(since));
+        } catch (FlagChangesExpiredException e) {
+            logger.warn("Changes feed requested from a pruned version: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.GONE).build();
+        }
+    }
+
+    /**
+     * Evaluation counts flushed by a flag client at the end of each report window
+     */
+    @PostMapping("/evaluations")
+    public ResponseEntity<Void> reportEvaluations(@Valid @RequestBody EvaluationReportDto report) {
+        flagEvaluationService.recordReport(report);
+        return ResponseEntity.accepted().build();
+    }
+
+    /**
+     * Last evaluation time and evaluation rate of every flag over the past minutes
+     */
+    @GetMapping("/evaluations")
+    public ResponseEntity<List<FlagEvaluationStatsDto>> getEvaluationStats(
+            @RequestParam(defaultValue = "60") long minutes) {
+        if (minutes <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(flagEvaluationService.getEvaluationStats(Duration.ofMinutes(minutes)));
+    }
+
+    /**
+     * Write a pre-rendered list body in the format the client accepts; JSON is pre-compressed
+     * when the client accepts gzip
+     */
+    private ResponseEntity<byte[]> cachedList(FlagListResponseCache.View view, String accept, String acceptEncoding) {
+        MediaType mediaType = ContentNegotiation.select(accept, LIST_MEDIA_TYPES);
+        if (mediaType == null) {
+            return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE).build();
+        }
+        CachedList list = flagListResponseCache.get(view);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(mediaType)
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+        if (SMILE.equals(mediaType)) {
+            return response.body(list.getSmile());
+        }
+        if (MediaType.APPLICATION_CBOR.equals(mediaType)) {
+            return response.body(list.getCbor());
+        }
+        if (list.getGzip() != null && ContentNegotiation.acceptsGzip(acceptEncoding)) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(list.getGzip());
+        }
+        return response.body(list.getJson());
+    }
+
+    private ResponseEntity<FeatureFlagDto> currentStateConflict(Long id) {
+        try {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(featureFlagService.getFlagById(id));
+        } catch (FeatureFlagNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
     }
 
     @GetMapping("/health")
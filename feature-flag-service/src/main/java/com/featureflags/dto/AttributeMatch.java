@@ -0,0 +1,80 @@
+package com.featureflags.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Targeting condition on one context attribute: its value must (or, negated, must not) be one of values
+ */
+public class AttributeMatch {
+
+    @NotBlank(message = "Attribute name is required")
+    @Size(max = 100, message = "Attribute name must not exceed 100 characters")
+    private String attribute;
+
+    @NotEmpty(message = "Attribute match needs at least one value")
+    @Size(max = 1000, message = "Attribute match must not list more than 1000 values")
+    private List<String> values;
+
+    private boolean negate;
+
+    // Constructors
+    public AttributeMatch() {}
+
+    public AttributeMatch(String attribute, List<String> values, boolean negate) {
+        this.attribute = attribute;
+        this.values = values;
+        this.negate = negate;
+    }
+
+    // Getters and Setters
+    public String getAttribute() {
+        return attribute;
+    }
+
+    public void setAttribute(String attribute) {
+        this.attribute = attribute;
+    }
+
+    public List<String> getValues() {
+        return values;
+    }
+
+    public void setValues(List<String> values) {
+        this.values = values;
+    }
+
+    public boolean isNegate() {
+        return negate;
+    }
+
+    public void setNegate(boolean negate) {
+        this.negate = negate;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof AttributeMatch)) return false;
+        AttributeMatch that = (AttributeMatch) o;
+        return negate == that.negate && Objects.equals(attribute, that.attribute) && Objects.equals(values, that.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(attribute, values, negate);
+    }
+
+    @Override
+    public String toString() {
+        return "AttributeMatch{" +
+                "attribute='" + attribute + '\'' +
+                ", values=" + values +
+                ", negate=" + negate +
+                '}';
+    }
+}
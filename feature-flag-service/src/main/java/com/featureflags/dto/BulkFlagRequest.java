@@ -0,0 +1,29 @@
+package com.featureflags.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+public class BulkFlagRequest {
+
+    @NotEmpty(message = "At least one flag is required")
+    @Size(max = 5000, message = "A bulk import must not exceed 5000 flags")
+    private List<@Valid FeatureFlagDto> flags;
+
+    // Constructors
+    public BulkFlagRequest() {}
+
+    public BulkFlagRequest(List<FeatureFlagDto> flags) {
+        this.flags = flags;
+    }
+
+    // Getters and Setters
+    public List<FeatureFlagDto> getFlags() {
+        return flags;
+    }
+
+    public void setFlags(List<FeatureFlagDto> flags) {
+        this.flags = flags;
+    }
+}
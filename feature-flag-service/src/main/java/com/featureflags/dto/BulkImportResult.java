@@ -0,0 +1,42 @@
+package com.featureflags.dto;
+
+import java.util.List;
+
+public class BulkImportResult {
+
+    private int created;
+    private List<String> skipped;
+
+    // Constructors
+    public BulkImportResult() {}
+
+    public BulkImportResult(int created, List<String> skipped) {
+        this.created = created;
+        this.skipped = skipped;
+    }
+
+    // Getters and Setters
+    public int getCreated() {
+        return created;
+    }
+
+    public void setCreated(int created) {
+        this.created = created;
+    }
+
+    public List<String> getSkipped() {
+        return skipped;
+    }
+
+    public void setSkipped(List<String> skipped) {
+        this.skipped = skipped;
+    }
+
+    @Override
+    public String toString() {
+        return "BulkImportResult{" +
+                "created=" + created +
+                ", skipped=" + skipped +
+                '}';
+    }
+}
@@ -0,0 +1,62 @@
+package com.featureflags.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.PositiveOrZero;
+
+/**
+ * Evaluations of one flag within a report window, split by outcome
+ */
+public class EvaluationCountDto {
+
+    @NotBlank
+    private String flagName;
+
+    @PositiveOrZero
+    private long enabledCount;
+
+    @PositiveOrZero
+    private long disabledCount;
+
+    // Constructors
+    public EvaluationCountDto() {}
+
+    public EvaluationCountDto(String flagName, long enabledCount, long disabledCount) {
+        this.flagName = flagName;
+        this.enabledCount = enabledCount;
+        this.disabledCount = disabledCount;
+    }
+
+    // Getters and Setters
+    public String getFlagName() {
+        return flagName;
+    }
+
+    public void setFlagName(String flagName) {
+        this.flagName = flagName;
+    }
+
+    public long getEnabledCount() {
+        return enabledCount;
+    }
+
+    public void setEnabledCount(long enabledCount) {
+        this.enabledCount = enabledCount;
+    }
+
+    public long getDisabledCount() {
+        return disabledCount;
+    }
+
+    public void setDisabledCount(long disabledCount) {
+        this.disabledCount = disabledCount;
+    }
+
+    @Override
+    public String toString() {
+        return "EvaluationCountDto{" +
+                "flagName='" + flagName + '\'' +
+                ", enabledCount=" + enabledCount +
+                ", disabledCount=" + disabledCount +
+                '}';
+    }
+}
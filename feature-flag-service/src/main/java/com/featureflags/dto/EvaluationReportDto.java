@@ -0,0 +1,86 @@
+package com.featureflags.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Evaluation counts flushed by one flag client for the window [windowStart, windowEnd] in epoch millis
+ */
+public class EvaluationReportDto {
+
+    @NotBlank
+    private String source;
+
+    private long windowStart;
+
+    private long windowEnd;
+
+    @NotNull
+    @Size(max = 10000)
+    private List<@Valid EvaluationCountDto> counts;
+
+    // Constructors
+    public EvaluationReportDto() {}
+
+    public EvaluationReportDto(String source, long windowStart, long windowEnd, List<EvaluationCountDto> counts) {
+        this.source = source;
+        this.windowStart = windowStart;
+        this.windowEnd = windowEnd;
+        this.counts = counts;
+    }
+
+    // Getters and Setters
+    public String getSource() {
+        return source;
+    }
+
+    public void setSource(String source) {
+        this.source = source;
+    }
+
+    public long getWindowStart() {
+        return windowStart;
+    }
+
+    public void setWindowStart(long windowStart) {
+        this.windowStart = windowStart;
+    }
+
+    public long getWindowEnd() {
+        return windowEnd;
+    }
+
+    public void setWindowEnd(long windowEnd) {
+        this.windowEnd = windowEnd;
+    }
+
+    public List<EvaluationCountDto> getCounts() {
+        return counts;
+    }
+
+    public void setCounts(List<EvaluationCountDto> counts) {
+        this.counts = counts;
+    }
+
+    @JsonIgnore
+    @AssertTrue(message = "windowEnd must not precede windowStart")
+    public boolean isWindowOrdered() {
+        return windowEnd >= windowStart;
+    }
+
+    @Override
+    public String toString() {
+        return "EvaluationReportDto{" +
+                "source='" + source + '\'' +
+                ", windowStart=" + windowStart +
+                ", windowEnd=" + windowEnd +
+                ", counts=" + (counts != null ? counts.size() : 0) +
+                '}';
+    }
+}
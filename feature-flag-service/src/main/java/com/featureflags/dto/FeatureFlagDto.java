@@ -1,5 +1,6 @@
 package com.featureflags.dto;
 
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 
@@ -16,6 +17,12 @@ public class FeatureFlagDto {
     @Size(max = 500, message = "Description must not exceed 500 characters")
     private String description;
 
+    @Valid
+    private TargetingRules targeting;
+
+    // Optimistic locking version; when sent on update it must match the stored one
+    private Long version;
+
     // Constructors
     public FeatureFlagDto() {}
 
@@ -30,6 +37,17 @@ public class FeatureFlagDto {
         this.description = description;
     }
 
+    // Used by JPQL constructor expressions to read flags without hydrating entities
+    public FeatureFlagDto(Long id, String name, boolean enabled, String description, TargetingRules targeting,
+                          Long version) {
+        this.id = id;
+        this.name = name;
+        this.enabled = enabled;
+        this.description = description;
+        this.targeting = targeting;
+        this.version = version;
+    }
+
     // Getters and Setters
     public Long getId() {
         return id;
@@ -63,6 +81,22 @@ public class FeatureFlagDto {
         this.description = description;
     }
 
+    public TargetingRules getTargeting() {
+        return targeting;
+    }
+
+    public void setTargeting(TargetingRules targeting) {
+        this.targeting = targeting;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return "FeatureFlagDto{" +
@@ -70,6 +104,8 @@ public class FeatureFlagDto {
                 ", name='" + name + '\'' +
                 ", enabled=" + enabled +
                 ", description='" + description + '\'' +
+                ", targeting=" + targeting +
+                ", version=" + version +
                 '}';
     }
 }
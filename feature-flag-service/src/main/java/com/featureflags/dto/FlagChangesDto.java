@@ -0,0 +1,46 @@
+package com.featureflags.dto;
+
+import java.util.List;
+
+/**
+ * Flag states at a store version: every flag for a snapshot, or only those changed since the
+ * requested version for a delta. Clients pass version back as "since" on their next sync.
+ */
+public class FlagChangesDto {
+
+    private long version;
+    private List<FlagStateDto> flags;
+
+    // Constructors
+    public FlagChangesDto() {}
+
+    public FlagChangesDto(long version, List<FlagStateDto> flags) {
+        this.version = version;
+        this.flags = flags;
+    }
+
+    // Getters and Setters
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public List<FlagStateDto> getFlags() {
+        return flags;
+    }
+
+    public void setFlags(List<FlagStateDto> flags) {
+        this.flags = flags;
+    }
+
+    @Override
+    public String toString() {
+        return "FlagChangesDto{" +
+                "version=" + version +
+                ", flags=" + (flags != null ? flags.size() : 0) +
+                '}';
+    }
+}
@@ -0,0 +1,78 @@
+package com.featureflags.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Usage of one flag: when a client last evaluated it and how often it was evaluated over the
+ * requested period. lastEvaluatedAt is null for flags no client has reported.
+ */
+public class FlagEvaluationStatsDto {
+
+    private String flagName;
+    private LocalDateTime lastEvaluatedAt;
+    private long enabledCount;
+    private long disabledCount;
+    private double evaluationsPerMinute;
+
+    // Constructors
+    public FlagEvaluationStatsDto() {}
+
+    public FlagEvaluationStatsDto(String flagName, LocalDateTime lastEvaluatedAt, Long enabledCount, Long disabledCount) {
+        this.flagName = flagName;
+        this.lastEvaluatedAt = lastEvaluatedAt;
+        this.enabledCount = enabledCount != null ? enabledCount : 0;
+        this.disabledCount = disabledCount != null ? disabledCount : 0;
+    }
+
+    // Getters and Setters
+    public String getFlagName() {
+        return flagName;
+    }
+
+    public void setFlagName(String flagName) {
+        this.flagName = flagName;
+    }
+
+    public LocalDateTime getLastEvaluatedAt() {
+        return lastEvaluatedAt;
+    }
+
+    public void setLastEvaluatedAt(LocalDateTime lastEvaluatedAt) {
+        this.lastEvaluatedAt = lastEvaluatedAt;
+    }
+
+    public long getEnabledCount() {
+        return enabledCount;
+    }
+
+    public void setEnabledCount(long enabledCount) {
+        this.enabledCount = enabledCount;
+    }
+
+    public long getDisabledCount() {
+        return disabledCount;
+    }
+
+    public void setDisabledCount(long disabledCount) {
+        this.disabledCount = disabledCount;
+    }
+
+    public double getEvaluationsPerMinute() {
+        return evaluationsPerMinute;
+    }
+
+    public void setEvaluationsPerMinute(double evaluationsPerMinute) {
+        this.evaluationsPerMinute = evaluationsPerMinute;
+    }
+
+    @Override
+    public String toString() {
+        return "FlagEvaluationStatsDto{" +
+                "flagName='" + flagName + '\'' +
+                ", lastEvaluatedAt=" + lastEvaluatedAt +
+                ", enabledCount=" + enabledCount +
+                ", disabledCount=" + disabledCount +
+                ", evaluationsPerMinute=" + evaluationsPerMinute +
+                '}';
+    }
+}
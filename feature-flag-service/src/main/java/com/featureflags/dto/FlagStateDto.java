@@ -0,0 +1,92 @@
+package com.featureflags.dto;
+
+/**
+ * Compact flag state used by the snapshot and changes feeds; deleted flags are sent as tombstones
+ */
+public class FlagStateDto {
+
+    private Long id;
+    private String name;
+    private boolean enabled;
+    private TargetingRules targeting;
+    private long changeVersion;
+    private Boolean deleted;
+
+    // Constructors
+    public FlagStateDto() {}
+
+    public FlagStateDto(Long id, String name, boolean enabled, TargetingRules targeting, long changeVersion) {
+        this.id = id;
+        this.name = name;
+        this.enabled = enabled;
+        this.targeting = targeting;
+        this.changeVersion = changeVersion;
+    }
+
+    public static FlagStateDto tombstone(Long id, String name, long changeVersion) {
+        FlagStateDto tombstone = new FlagStateDto(id, name, false, null, changeVersion);
+        tombstone.setDeleted(true);
+        return tombstone;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public TargetingRules getTargeting() {
+        return targeting;
+    }
+
+    public void setTargeting(TargetingRules targeting) {
+        this.targeting = targeting;
+    }
+
+    public long getChangeVersion() {
+        return changeVersion;
+    }
+
+    public void setChangeVersion(long changeVersion) {
+        this.changeVersion = changeVersion;
+    }
+
+    public Boolean getDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(Boolean deleted) {
+        this.deleted = deleted;
+    }
+
+    @Override
+    public String toString() {
+        return "FlagStateDto{" +
+                "id=" + id +
+                ", name='" + name + '\'' +
+                ", enabled=" + enabled +
+                ", targeting=" + targeting +
+                ", changeVersion=" + changeVersion +
+                (deleted != null ? ", deleted=" + deleted : "") +
+                '}';
+    }
+}
@@ -1,20 +1,39 @@
 package com.featureflags.dto;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.List;
 
 public class FlagUpdateEvent {
 
+    public static final String BATCH = "BATCH";
+
     private String flagName;
     private boolean enabled;
     private String eventType;
+
+    // Targeting rules the consumers compile for per-user evaluation; absent when the flag targets everyone
+    private TargetingRules targeting;
+
+    // Store change version of the write, lets consumers discard stale or replayed events
+    private Long version;
     
+    // Epoch microseconds when the change was written and when the event left for the broker
+    private Long committedAtMicros;
+    private Long publishedAtMicros;
+
     @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
     @JsonSerialize(using = LocalDateTimeSerializer.class)
     private LocalDateTime timestamp;
 
+    // Nested events carried by a BATCH event, applied in order by consumers
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private List<FlagUpdateEvent> events;
+
     // Constructors
     public FlagUpdateEvent() {}
 
@@ -25,6 +44,22 @@ public class FlagUpdateEvent {
         this.timestamp = LocalDateTime.now();
     }
 
+    public static FlagUpdateEvent batch(List<FlagUpdateEvent> events) {
+        FlagUpdateEvent batch = new FlagUpdateEvent();
+        batch.setEventType(BATCH);
+        batch.setEvents(events);
+        batch.setTimestamp(LocalDateTime.now());
+        return batch;
+    }
+
+    /**
+     * Current wall-clock time in epoch microseconds, the resolution of the event timestamps
+     */
+    public static long nowMicros() {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * 1_000_000 + now.getNano() / 1_000;
+    }
+
     // Getters and Setters
     public String getFlagName() {
         return flagName;
@@ -50,6 +85,38 @@ public class FlagUpdateEvent {
         this.eventType = eventType;
     }
 
+    public TargetingRules getTargeting() {
+        return targeting;
+    }
+
+    public void setTargeting(TargetingRules targeting) {
+        this.targeting = targeting;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Long getCommittedAtMicros() {
+        return committedAtMicros;
+    }
+
+    public void setCommittedAtMicros(Long committedAtMicros) {
+        this.committedAtMicros = committedAtMicros;
+    }
+
+    public Long getPublishedAtMicros() {
+        return publishedAtMicros;
+    }
+
+    public void setPublishedAtMicros(Long publishedAtMicros) {
+        this.publishedAtMicros = publishedAtMicros;
+    }
+
     public LocalDateTime getTimestamp() {
         return timestamp;
     }
@@ -58,13 +125,26 @@ public class FlagUpdateEvent {
         this.timestamp = timestamp;
     }
 
+    public List<FlagUpdateEvent> getEvents() {
+        return events;
+    }
+
+    public void setEvents(List<FlagUpdateEvent> events) {
+        this.events = events;
+    }
+
     @Override
     public String toString() {
         return "FlagUpdateEvent{" +
                 "flagName='" + flagName + '\'' +
                 ", enabled=" + enabled +
                 ", eventType='" + eventType + '\'' +
+                (targeting != null ? ", targeting=" + targeting : "") +
+                ", version=" + version +
+                ", committedAtMicros=" + committedAtMicros +
+                ", publishedAtMicros=" + publishedAtMicros +
                 ", timestamp=" + timestamp +
+                (events != null ? ", events=" + events.size() : "") +
                 '}';
     }
 }
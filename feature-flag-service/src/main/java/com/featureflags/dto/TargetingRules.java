@@ -0,0 +1,100 @@
+package com.featureflags.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Per-user targeting of an enabled flag, evaluated by consumers in this order:
+ * deny list, allow list, attribute matches (all must hold), then a percentage rollout
+ * by stable hash of the user key. A disabled flag is off for everyone regardless of its rules.
+ */
+public class TargetingRules {
+
+    @Size(max = 10000, message = "Allow list must not exceed 10000 user keys")
+    private List<String> allow;
+
+    @Size(max = 10000, message = "Deny list must not exceed 10000 user keys")
+    private List<String> deny;
+
+    @Valid
+    @Size(max = 50, message = "No more than 50 attribute matches are allowed")
+    private List<AttributeMatch> matches;
+
+    // Share of matching users the flag is on for; null means all of them
+    @Min(value = 0, message = "Rollout percentage must be between 0 and 100")
+    @Max(value = 100, message = "Rollout percentage must be between 0 and 100")
+    private Integer rolloutPercentage;
+
+    // Constructors
+    public TargetingRules() {}
+
+    public TargetingRules(List<String> allow, List<String> deny, List<AttributeMatch> matches,
+                          Integer rolloutPercentage) {
+        this.allow = allow;
+        this.deny = deny;
+        this.matches = matches;
+        this.rolloutPercentage = rolloutPercentage;
+    }
+
+    // Getters and Setters
+    public List<String> getAllow() {
+        return allow;
+    }
+
+    public void setAllow(List<String> allow) {
+        this.allow = allow;
+    }
+
+    public List<String> getDeny() {
+        return deny;
+    }
+
+    public void setDeny(List<String> deny) {
+        this.deny = deny;
+    }
+
+    public List<AttributeMatch> getMatches() {
+        return matches;
+    }
+
+    public void setMatches(List<AttributeMatch> matches) {
+        this.matches = matches;
+    }
+
+    public Integer getRolloutPercentage() {
+        return rolloutPercentage;
+    }
+
+    public void setRolloutPercentage(Integer rolloutPercentage) {
+        this.rolloutPercentage = rolloutPercentage;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TargetingRules)) return false;
+        TargetingRules that = (TargetingRules) o;
+        return Objects.equals(allow, that.allow) && Objects.equals(deny, that.deny)
+                && Objects.equals(matches, that.matches) && Objects.equals(rolloutPercentage, that.rolloutPercentage);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(allow, deny, matches, rolloutPercentage);
+    }
+
+    @Override
+    public String toString() {
+        return "TargetingRules{" +
+                "allow=" + (allow != null ? allow.size() : 0) +
+                ", deny=" + (deny != null ? deny.size() : 0) +
+                ", matches=" + matches +
+                ", rolloutPercentage=" + rolloutPercentage +
+                '}';
+    }
+}
@@ -0,0 +1,20 @@
+package com.featureflags.exception;
+
+import com.featureflags.dto.FeatureFlagDto;
+
+/**
+ * Thrown when a write was based on a stale version of the flag; carries the current state.
+ */
+public class FeatureFlagVersionConflictException extends RuntimeException {
+
+    private final FeatureFlagDto currentFlag;
+
+    public FeatureFlagVersionConflictException(String message, FeatureFlagDto currentFlag) {
+        super(message);
+        this.currentFlag = currentFlag;
+    }
+
+    public FeatureFlagDto getCurrentFlag() {
+        return currentFlag;
+    }
+}
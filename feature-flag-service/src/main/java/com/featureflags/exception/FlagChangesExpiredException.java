@@ -0,0 +1,12 @@
+package com.featureflags.exception;
+
+public class FlagChangesExpiredException extends RuntimeException {
+
+    public FlagChangesExpiredException(String message) {
+        super(message);
+    }
+
+    public FlagChangesExpiredException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,39 @@
+package com.featureflags.grpc;
+
+import com.featureflags.client.CompiledFlag;
+import com.featureflags.dto.AttributeMatch;
+import com.featureflags.dto.FlagStateDto;
+import com.featureflags.dto.TargetingRules;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compiles the feed DTOs with the client library's evaluator, so gRPC evaluations bucket users exactly like the clients
+ */
+final class CompiledFlags {
+
+    private CompiledFlags() {
+    }
+
+    static CompiledFlag compile(FlagStateDto state) {
+        return CompiledFlag.compile(state.getName(), state.isEnabled(), toClient(state.getTargeting()),
+                state.getChangeVersion());
+    }
+
+    private static com.featureflags.client.model.TargetingRules toClient(TargetingRules rules) {
+        if (rules == null) {
+            return null;
+        }
+        List<com.featureflags.client.model.AttributeMatch> matches = null;
+        if (rules.getMatches() != null) {
+            matches = new ArrayList<>(rules.getMatches().size());
+            for (AttributeMatch match : rules.getMatches()) {
+                matches.add(new com.featureflags.client.model.AttributeMatch(match.getAttribute(), match.getValues(),
+                        match.isNegate()));
+            }
+        }
+        return new com.featureflags.client.model.TargetingRules(rules.getAllow(), rules.getDeny(), matches,
+                rules.getRolloutPercentage());
+    }
+}
@@ -0,0 +1,298 @@
+package com.featureflags.grpc;
+
+import com.featureflags.client.CompiledFlag;
+import com.featureflags.dto.FlagChangesDto;
+import com.featureflags.dto.FlagStateDto;
+import com.featureflags.exception.FlagChangesExpiredException;
+import com.featureflags.grpc.v1.FlagChanges;
+import com.featureflags.service.FeatureFlagService;
+import com.featureflags.service.FlagChangeVersions;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory copy of the flag store that serves the gRPC API.
+ * <p>
+ * The feed follows the store through the changes feed: every refresh reads the store version
+ * and, only when it moved, fetches the changes since the last applied version. Evaluations read
+ * the compiled flags of the current immutable {@link State}; each applied change set is offered
+ * once to every subscription. Deletions are kept as tombstones until the store's tombstone horizon
+ * passes them, so any subscriber at or after both the version the feed was loaded at and the horizon
+ * can be caught up from memory instead of the database; older ones get a snapshot, like the 410 of
+ * the REST changes feed.
+ */
+@Component
+@ConditionalOnProperty(name = "flags.grpc.enabled", havingValue = "true", matchIfMissing = true)
+public class FlagChangeFeed implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlagChangeFeed.class);
+
+    private final FeatureFlagService featureFlagService;
+    private final FlagChangeVersions flagChangeVersions;
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private final Set<FlagSubscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+    private volatile State state;
+
+    @Autowired
+    public FlagChangeFeed(FeatureFlagService featureFlagService, FlagChangeVersions flagChangeVersions) {
+        this.featureFlagService = featureFlagService;
+        this.flagChangeVersions = flagChangeVersions;
+    }
+
+    /**
+     * Current state, loading the snapshot on first use
+     */
+    State state() {
+        State current = state;
+        if (current != null) {
+            return current;
+        }
+        refresh();
+        return state;
+    }
+
+    /**
+     * Current state, null until the first load
+     */
+    State current() {
+        return state;
+    }
+
+    @Scheduled(fixedDelayString = "${flags.grpc.refresh-interval-ms:200}")
+    public void refresh() {
+        refreshLock.lock();
+        try {
+            State current = state;
+            if (current == null) {
+                state = State.load(featureFlagService.getSnapshot());
+                logger.info("gRPC flag feed loaded {} flags at version {}", state.compiled.size(), state.version);
+                subscriptions.forEach(subscription -> subscription.onChange(null));
+                return;
+            }
+            if (flagChangeVersions.current() <= current.version) {
+                return;
+            }
+            State next;
+            try {
+                next = current.apply(featureFlagService.getChangesSince(current.version))
+                        .prune(flagChangeVersions.tombstoneHorizon());
+            } catch (FlagChangesExpiredException e) {
+                next = State.load(featureFlagService.getSnapshot());
+                logger.warn("gRPC flag feed reloaded the snapshot: {}", e.getMessage());
+            }
+            state = next;
+            Delta delta = next.baseVersion == current.baseVersion
+                    ? new Delta(current.version, next.changesSince(current.version))
+                    : null;
+            for (FlagSubscription subscription : subscriptions) {
+                subscription.onChange(delta);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("gRPC flag feed refresh failed: {}", e.getMessage());
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    void register(FlagSubscription subscription) {
+        subscriptions.add(subscription);
+    }
+
+    void unregister(FlagSubscription subscription) {
+        subscriptions.remove(subscription);
+    }
+
+    /**
+     * End every subscription so clients resubscribe elsewhere before the server goes away
+     */
+    void completeAll() {
+        for (FlagSubscription subscription : subscriptions) {
+            subscription.complete();
+        }
+    }
+
+    int subscriberCount() {
+        return subscriptions.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("feature_flags.grpc.subscribers", subscriptions, Set::size)
+                .description("Open gRPC flag subscriptions")
+                .register(registry);
+    }
+
+    /**
+     * One applied change set, to be sent to subscribers that are at fromVersion
+     */
+    static final class Delta {
+
+        final long fromVersion;
+        final FlagChanges message;
+
+        Delta(long fromVersion, FlagChanges message) {
+            this.fromVersion = fromVersion;
+            this.message = message;
+        }
+    }
+
+    /**
+     * Immutable flag state at one store version. States holds live flags and the tombstones above the
+     * horizon, also ordered by change version; compiled only holds live flags.
+     */
+    static final class State {
+
+        // Ordered by change version, then name, so the changes since a version are a tail of the set
+        private static final Comparator<FlagStateDto> BY_CHANGE_VERSION = Comparator
+                .comparingLong(FlagStateDto::getChangeVersion)
+                .thenComparing(FlagStateDto::getName);
+
+        final long version;
+        final long baseVersion;
+        // Oldest version a subscriber can be caught up from with a delta
+        final long resumableVersion;
+        private final Map<String, FlagStateDto> states;
+        private final NavigableSet<FlagStateDto> byChangeVersion;
+        private final NavigableSet<FlagStateDto> tombstones;
+        private final Map<String, CompiledFlag> compiled;
+        private volatile FlagChanges snapshot;
+
+        private State(long version, long baseVersion, long resumableVersion, Map<String, FlagStateDto> states,
+                      NavigableSet<FlagStateDto> byChangeVersion, NavigableSet<FlagStateDto> tombstones,
+                      Map<String, CompiledFlag> compiled) {
+            this.version = version;
+            this.baseVersion = baseVersion;
+            this.resumableVersion = resumableVersion;
+            this.states = states;
+            this.byChangeVersion = byChangeVersion;
+            this.tombstones = tombstones;
+            this.compiled = Collections.unmodifiableMap(compiled);
+        }
+
+        static State load(FlagChangesDto snapshot) {
+            Map<String, FlagStateDto> states = new HashMap<>();
+            Map<String, CompiledFlag> compiled = new HashMap<>();
+            for (FlagStateDto flag : snapshot.getFlags()) {
+                states.put(flag.getName(), flag);
+                compiled.put(flag.getName(), CompiledFlags.compile(flag));
+            }
+            NavigableSet<FlagStateDto> byChangeVersion = new TreeSet<>(BY_CHANGE_VERSION);
+            byChangeVersion.addAll(states.values());
+            return new State(snapshot.getVersion(), snapshot.getVersion(), snapshot.getVersion(), states,
+                    byChangeVersion, new TreeSet<>(BY_CHANGE_VERSION), compiled);
+        }
+
+        /**
+         * Next state with the changes applied; only the changed flags are recompiled
+         */
+        State apply(FlagChangesDto changes) {
+            Map<String, FlagStateDto> nextStates = new HashMap<>(states);
+            NavigableSet<FlagStateDto> nextByChangeVersion = new TreeSet<>(byChangeVersion);
+            NavigableSet<FlagStateDto> nextTombstones = new TreeSet<>(tombstones);
+            Map<String, CompiledFlag> nextCompiled = new HashMap<>(compiled);
+            for (FlagStateDto flag : changes.getFlags()) {
+                FlagStateDto current = nextStates.get(flag.getName());
+                if (current != null && current.getChangeVersion() > flag.getChangeVersion()) {
+                    continue;
+                }
+                if (current != null) {
+                    nextByChangeVersion.remove(current);
+                    nextTombstones.remove(current);
+                }
+                nextStates.put(flag.getName(), flag);
+                nextByChangeVersion.add(flag);
+                if (Boolean.TRUE.equals(flag.getDeleted())) {
+                    nextTombstones.add(flag);
+                    nextCompiled.remove(flag.getName());
+                } else {
+                    nextCompiled.put(flag.getName(), CompiledFlags.compile(flag));
+                }
+            }
+            return new State(Math.max(version, changes.getVersion()), baseVersion, resumableVersion, nextStates,
+                    nextByChangeVersion, nextTombstones, nextCompiled);
+        }
+
+        /**
+         * This state without the tombstones at or below the horizon; subscribers older than it get a snapshot
+         */
+        State prune(long horizon) {
+            if (horizon <= resumableVersion) {
+                return this;
+            }
+            Map<String, FlagStateDto> nextStates = new HashMap<>(states);
+            NavigableSet<FlagStateDto> nextByChangeVersion = new TreeSet<>(byChangeVersion);
+            NavigableSet<FlagStateDto> nextTombstones = new TreeSet<>(tombstones);
+            for (FlagStateDto tombstone : tombstones.headSet(probe(horizon + 1), false)) {
+                nextStates.remove(tombstone.getName());
+                nextByChangeVersion.remove(tombstone);
+                nextTombstones.remove(tombstone);
+            }
+            return new State(version, baseVersion, horizon, nextStates, nextByChangeVersion, nextTombstones, compiled);
+        }
+
+        CompiledFlag get(String name) {
+            return compiled.get(name);
+        }
+
+        Map<String, CompiledFlag> flags() {
+            return compiled;
+        }
+
+        /**
+         * What a subscriber at sinceVersion has to apply to reach this state: the flags changed
+         * after it, or a snapshot when it is older than what this state can tell apart
+         */
+        FlagChanges changesSince(long sinceVersion) {
+            if (sinceVersion <= 0 || sinceVersion < resumableVersion || sinceVersion > version) {
+                return snapshot();
+            }
+            FlagChanges.Builder message = FlagChanges.newBuilder().setVersion(version);
+            for (FlagStateDto flag : byChangeVersion.tailSet(probe(sinceVersion + 1), true)) {
+                message.addFlags(FlagProtos.toProto(flag));
+            }
+            return message.build();
+        }
+
+        /**
+         * Sorts before every flag at the version
+         */
+        private static FlagStateDto probe(long changeVersion) {
+            return new FlagStateDto(null, "", false, null, changeVersion);
+        }
+
+        /**
+         * Live flags only; built once per state and shared by every subscriber that needs it
+         */
+        FlagChanges snapshot() {
+            FlagChanges message = snapshot;
+            if (message == null) {
+                FlagChanges.Builder builder = FlagChanges.newBuilder().setVersion(version).setSnapshot(true);
+                states.values().stream()
+                        .filter(flag -> !Boolean.TRUE.equals(flag.getDeleted()))
+                        .sorted(Comparator.comparing(FlagStateDto::getName))
+                        .forEach(flag -> builder.addFlags(FlagProtos.toProto(flag)));
+                message = builder.build();
+                snapshot = message;
+            }
+            return message;
+        }
+    }
+}
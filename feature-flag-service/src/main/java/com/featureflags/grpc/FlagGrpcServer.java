@@ -0,0 +1,101 @@
+package com.featureflags.grpc;
+
+import io.grpc.Server;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Netty HTTP/2 server of the gRPC API, next to the servlet container.
+ * <p>
+ * Subscriptions share connections as HTTP/2 streams; keepalive pings keep idle subscriptions
+ * alive through proxies and detect dead peers. On shutdown the subscriptions are completed
+ * first, so clients resubscribe to another replica while in-flight calls finish.
+ */
+@Component
+@ConditionalOnProperty(name = "flags.grpc.enabled", havingValue = "true", matchIfMissing = true)
+public class FlagGrpcServer implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlagGrpcServer.class);
+
+    private final FlagGrpcService flagGrpcService;
+    private final FlagChangeFeed flagChangeFeed;
+    private final int port;
+    private final int maxConcurrentCallsPerConnection;
+    private final long keepAliveSeconds;
+    private final long shutdownGraceSeconds;
+
+    private volatile Server server;
+
+    @Autowired
+    public FlagGrpcServer(FlagGrpcService flagGrpcService, FlagChangeFeed flagChangeFeed,
+                          @Value("${flags.grpc.port:9090}") int port,
+                          @Value("${flags.grpc.max-concurrent-calls-per-connection:10000}") int maxConcurrentCallsPerConnection,
+                          @Value("${flags.grpc.keep-alive-seconds:60}") long keepAliveSeconds,
+                          @Value("${flags.grpc.shutdown-grace-seconds:5}") long shutdownGraceSeconds) {
+        this.flagGrpcService = flagGrpcService;
+        this.flagChangeFeed = flagChangeFeed;
+        this.port = port;
+        this.maxConcurrentCallsPerConnection = maxConcurrentCallsPerConnection;
+        this.keepAliveSeconds = keepAliveSeconds;
+        this.shutdownGraceSeconds = shutdownGraceSeconds;
+    }
+
+    @Override
+    public void start() {
+        try {
+            server = NettyServerBuilder.forPort(port)
+                    .addService(flagGrpcService)
+                    .maxConcurrentCallsPerConnection(maxConcurrentCallsPerConnection)
+                    .keepAliveTime(keepAliveSeconds, TimeUnit.SECONDS)
+                    .permitKeepAliveTime(Math.min(keepAliveSeconds, 10), TimeUnit.SECONDS)
+                    .permitKeepAliveWithoutCalls(true)
+                    .build()
+                    .start();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start the gRPC server on port " + port, e);
+        }
+        logger.info("gRPC flag API listening on port {}", server.getPort());
+    }
+
+    @Override
+    public void stop() {
+        Server running = server;
+        if (running == null) {
+            return;
+        }
+        flagChangeFeed.completeAll();
+        running.shutdown();
+        try {
+            if (!running.awaitTermination(shutdownGraceSeconds, TimeUnit.SECONDS)) {
+                running.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running.shutdownNow();
+        }
+        server = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    /**
+     * Bound port, which differs from the configured one when that is 0
+     */
+    public int getPort() {
+        Server running = server;
+        return running != null ? running.getPort() : -1;
+    }
+}
@@ -0,0 +1,92 @@
+package com.featureflags.grpc;
+
+import com.featureflags.client.CompiledFlag;
+import com.featureflags.grpc.v1.BatchEvaluateRequest;
+import com.featureflags.grpc.v1.BatchEvaluateResponse;
+import com.featureflags.grpc.v1.EvaluateRequest;
+import com.featureflags.grpc.v1.EvaluateResponse;
+import com.featureflags.grpc.v1.FlagChanges;
+import com.featureflags.grpc.v1.FlagServiceGrpc;
+import com.featureflags.grpc.v1.SubscribeRequest;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * gRPC flag evaluation and subscription API, answered from the in-memory {@link FlagChangeFeed}
+ */
+@Component
+@ConditionalOnProperty(name = "flags.grpc.enabled", havingValue = "true", matchIfMissing = true)
+public class FlagGrpcService extends FlagServiceGrpc.FlagServiceImplBase {
+
+    private final FlagChangeFeed flagChangeFeed;
+
+    @Autowired
+    public FlagGrpcService(FlagChangeFeed flagChangeFeed) {
+        this.flagChangeFeed = flagChangeFeed;
+    }
+
+    @Override
+    public void evaluate(EvaluateRequest request, StreamObserver<EvaluateResponse> responseObserver) {
+        if (request.getFlagName().isEmpty()) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription("flag_name is required").asRuntimeException());
+            return;
+        }
+        FlagChangeFeed.State state = flagChangeFeed.state();
+        responseObserver.onNext(evaluate(state.get(request.getFlagName()), request.getFlagName(),
+                userKey(request.getUserKey()), request.getAttributesMap()));
+        responseObserver.onCompleted();
+    }
+
+    /**
+     * Evaluate the named flags, or all flags in name order when none are named, against one state
+     */
+    @Override
+    public void batchEvaluate(BatchEvaluateRequest request, StreamObserver<BatchEvaluateResponse> responseObserver) {
+        FlagChangeFeed.State state = flagChangeFeed.state();
+        String userKey = userKey(request.getUserKey());
+        BatchEvaluateResponse.Builder response = BatchEvaluateResponse.newBuilder().setVersion(state.version);
+        if (request.getFlagNamesCount() == 0) {
+            new TreeMap<>(state.flags()).forEach((name, flag) ->
+                    response.addResults(evaluate(flag, name, userKey, request.getAttributesMap())));
+        } else {
+            for (String name : request.getFlagNamesList()) {
+                response.addResults(evaluate(state.get(name), name, userKey, request.getAttributesMap()));
+            }
+        }
+        responseObserver.onNext(response.build());
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void subscribe(SubscribeRequest request, StreamObserver<FlagChanges> responseObserver) {
+        if (request.getSinceVersion() < 0) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription("since_version must not be negative")
+                    .asRuntimeException());
+            return;
+        }
+        new FlagSubscription((ServerCallStreamObserver<FlagChanges>) responseObserver, flagChangeFeed,
+                request.getSinceVersion()).start();
+    }
+
+    private static EvaluateResponse evaluate(CompiledFlag flag, String name, String userKey,
+                                             Map<String, String> attributes) {
+        EvaluateResponse.Builder response = EvaluateResponse.newBuilder().setFlagName(name);
+        if (flag != null) {
+            response.setFound(true)
+                    .setEnabled(flag.evaluate(userKey, attributes))
+                    .setChangeVersion(flag.getChangeVersion());
+        }
+        return response.build();
+    }
+
+    private static String userKey(String userKey) {
+        return userKey.isEmpty() ? null : userKey;
+    }
+}
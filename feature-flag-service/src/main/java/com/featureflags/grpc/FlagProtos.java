@@ -0,0 +1,54 @@
+package com.featureflags.grpc;
+
+import com.featureflags.dto.AttributeMatch;
+import com.featureflags.dto.FlagStateDto;
+import com.featureflags.dto.TargetingRules;
+import com.featureflags.grpc.v1.FlagState;
+
+/**
+ * Maps the feed DTOs to their protobuf messages
+ */
+final class FlagProtos {
+
+    private FlagProtos() {
+    }
+
+    static FlagState toProto(FlagStateDto state) {
+        FlagState.Builder builder = FlagState.newBuilder()
+                .setName(state.getName())
+                .setEnabled(state.isEnabled())
+                .setChangeVersion(state.getChangeVersion())
+                .setDeleted(Boolean.TRUE.equals(state.getDeleted()));
+        if (state.getTargeting() != null) {
+            builder.setTargeting(toProto(state.getTargeting()));
+        }
+        return builder.build();
+    }
+
+    private static com.featureflags.grpc.v1.TargetingRules toProto(TargetingRules rules) {
+        com.featureflags.grpc.v1.TargetingRules.Builder builder = com.featureflags.grpc.v1.TargetingRules.newBuilder();
+        if (rules.getAllow() != null) {
+            builder.addAllAllow(rules.getAllow());
+        }
+        if (rules.getDeny() != null) {
+            builder.addAllDeny(rules.getDeny());
+        }
+        if (rules.getMatches() != null) {
+            for (AttributeMatch match : rules.getMatches()) {
+                com.featureflags.grpc.v1.AttributeMatch.Builder matchBuilder = com.featureflags.grpc.v1.AttributeMatch.newBuilder()
+                        .setNegate(match.isNegate());
+                if (match.getAttribute() != null) {
+                    matchBuilder.setAttribute(match.getAttribute());
+                }
+                if (match.getValues() != null) {
+                    matchBuilder.addAllValues(match.getValues());
+                }
+                builder.addMatches(matchBuilder);
+            }
+        }
+        if (rules.getRolloutPercentage() != null) {
+            builder.setRolloutPercentage(rules.getRolloutPercentage());
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,142 @@
+package com.featureflags.grpc;
+
+import com.featureflags.grpc.v1.FlagChanges;
+import io.grpc.stub.ServerCallStreamObserver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * One Subscribe stream, sending only as fast as the subscriber reads.
+ * <p>
+ * Nothing is queued per subscriber: a change is written to the stream only while the transport
+ * is ready (the HTTP/2 flow-control window is open) and the subscriber is exactly at the
+ * version the change starts from. Otherwise the subscription is marked behind and, once the
+ * stream is ready again, catches up with a single message computed from the feed's current
+ * state, which coalesces everything it missed. Memory per subscriber therefore stays constant
+ * however slow it reads.
+ */
+final class FlagSubscription {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlagSubscription.class);
+
+    private final ServerCallStreamObserver<FlagChanges> observer;
+    private final FlagChangeFeed feed;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private long sentVersion;
+    private boolean started;
+    private boolean behind = true;
+    private boolean closed;
+
+    FlagSubscription(ServerCallStreamObserver<FlagChanges> observer, FlagChangeFeed feed, long sinceVersion) {
+        this.observer = observer;
+        this.feed = feed;
+        this.sentVersion = sinceVersion;
+    }
+
+    /**
+     * Register for changes, then send the initial snapshot or resume message as soon as the stream is ready
+     */
+    void start() {
+        observer.setOnCancelHandler(this::close);
+        observer.setOnReadyHandler(this::catchUp);
+        feed.register(this);
+        catchUp();
+    }
+
+    /**
+     * Offer an applied change set; null when the feed was reloaded and no delta can be given
+     */
+    void onChange(FlagChangeFeed.Delta delta) {
+        lock.lock();
+        try {
+            if (closed || (delta != null && delta.message.getVersion() <= sentVersion)) {
+                return;
+            }
+            if (delta == null || delta.fromVersion != sentVersion) {
+                behind = true;
+            }
+            if (!observer.isReady()) {
+                behind = true;
+                return;
+            }
+            if (behind) {
+                sendCatchUp();
+            } else {
+                send(delta.message);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void catchUp() {
+        lock.lock();
+        try {
+            if (!closed && behind && observer.isReady()) {
+                sendCatchUp();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void sendCatchUp() {
+        // Never loads: the feed's refresh holds its lock while offering changes to subscriptions
+        FlagChangeFeed.State state = feed.current();
+        if (state == null) {
+            return;
+        }
+        if (state.version > sentVersion || (!started && sentVersion == 0)) {
+            send(state.changesSince(sentVersion));
+        } else if (!started) {
+            // Resuming at or ahead of this replica: confirm the stream without rolling anything back
+            send(FlagChanges.newBuilder().setVersion(sentVersion).build());
+        }
+        started = true;
+        behind = false;
+    }
+
+    private void send(FlagChanges message) {
+        try {
+            observer.onNext(message);
+            sentVersion = message.getVersion();
+        } catch (RuntimeException e) {
+            logger.debug("Flag subscription closed while sending: {}", e.getMessage());
+            closeLocked();
+        }
+    }
+
+    /**
+     * End the stream normally, e.g. on shutdown
+     */
+    void complete() {
+        lock.lock();
+        try {
+            if (!closed) {
+                closeLocked();
+                observer.onCompleted();
+            }
+        } catch (RuntimeException e) {
+            logger.debug("Flag subscription already gone: {}", e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void close() {
+        lock.lock();
+        try {
+            closeLocked();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void closeLocked() {
+        closed = true;
+        feed.unregister(this);
+    }
+}
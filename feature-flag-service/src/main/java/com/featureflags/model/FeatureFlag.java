@@ -1,16 +1,20 @@
 package com.featureflags.model;
 
+import com.featureflags.dto.TargetingRules;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "feature_flags")
+@Table(name = "feature_flags", indexes = @Index(name = "idx_feature_flags_change_version", columnList = "change_version"))
 public class FeatureFlag {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "feature_flags_seq")
+    @SequenceGenerator(name = "feature_flags_seq", sequenceName = "feature_flags_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Flag name is required")
@@ -25,6 +29,20 @@ public class FeatureFlag {
     @Column(length = 500)
     private String description;
 
+    // Per-user targeting, stored as a JSON document (jsonb on PostgreSQL); null targets everyone
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "targeting")
+    private TargetingRules targeting;
+
+    // Defaulted so ddl-auto can add the column to existing rows
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
+    // Global store version of the last write to this flag, see FlagChangeVersions
+    @Column(name = "change_version", nullable = false, columnDefinition = "bigint default 0")
+    private long changeVersion;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -89,6 +107,30 @@ public class FeatureFlag {
         this.description = description;
     }
 
+    public TargetingRules getTargeting() {
+        return targeting;
+    }
+
+    public void setTargeting(TargetingRules targeting) {
+        this.targeting = targeting;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public long getChangeVersion() {
+        return changeVersion;
+    }
+
+    public void setChangeVersion(long changeVersion) {
+        this.changeVersion = changeVersion;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -112,6 +154,9 @@ public class FeatureFlag {
                 ", name='" + name + '\'' +
                 ", enabled=" + enabled +
                 ", description='" + description + '\'' +
+                ", targeting=" + targeting +
+                ", version=" + version +
+                ", changeVersion=" + changeVersion +
                 ", createdAt=" + createdAt +
                 ", updatedAt=" + updatedAt +
                 '}';
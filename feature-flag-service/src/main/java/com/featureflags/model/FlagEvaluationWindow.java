@@ -0,0 +1,120 @@
+package com.featureflags.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Evaluations of one flag reported by one client for one report window.
+ */
+@Entity
+@Table(name = "flag_evaluation_windows", indexes = {
+        @Index(name = "idx_flag_evaluation_windows_flag_name", columnList = "flag_name, window_end"),
+        @Index(name = "idx_flag_evaluation_windows_window_end", columnList = "window_end")
+})
+public class FlagEvaluationWindow {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "flag_evaluation_windows_seq")
+    @SequenceGenerator(name = "flag_evaluation_windows_seq", sequenceName = "flag_evaluation_windows_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "flag_name", nullable = false)
+    private String flagName;
+
+    @Column(nullable = false)
+    private String source;
+
+    @Column(name = "window_start", nullable = false)
+    private LocalDateTime windowStart;
+
+    @Column(name = "window_end", nullable = false)
+    private LocalDateTime windowEnd;
+
+    @Column(name = "enabled_count", nullable = false)
+    private long enabledCount;
+
+    @Column(name = "disabled_count", nullable = false)
+    private long disabledCount;
+
+    // Constructors
+    public FlagEvaluationWindow() {}
+
+    public FlagEvaluationWindow(String flagName, String source, LocalDateTime windowStart, LocalDateTime windowEnd,
+                                long enabledCount, long disabledCount) {
+        this.flagName = flagName;
+        this.source = source;
+        this.windowStart = windowStart;
+        this.windowEnd = windowEnd;
+        this.enabledCount = enabledCount;
+        this.disabledCount = disabledCount;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getFlagName() {
+        return flagName;
+    }
+
+    public void setFlagName(String flagName) {
+        this.flagName = flagName;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public void setSource(String source) {
+        this.source = source;
+    }
+
+    public LocalDateTime getWindowStart() {
+        return windowStart;
+    }
+
+    public void setWindowStart(LocalDateTime windowStart) {
+        this.windowStart = windowStart;
+    }
+
+    public LocalDateTime getWindowEnd() {
+        return windowEnd;
+    }
+
+    public void setWindowEnd(LocalDateTime windowEnd) {
+        this.windowEnd = windowEnd;
+    }
+
+    public long getEnabledCount() {
+        return enabledCount;
+    }
+
+    public void setEnabledCount(long enabledCount) {
+        this.enabledCount = enabledCount;
+    }
+
+    public long getDisabledCount() {
+        return disabledCount;
+    }
+
+    public void setDisabledCount(long disabledCount) {
+        this.disabledCount = disabledCount;
+    }
+
+    @Override
+    public String toString() {
+        return "FlagEvaluationWindow{" +
+                "flagName='" + flagName + '\'' +
+                ", source='" + source + '\'' +
+                ", windowStart=" + windowStart +
+                ", windowEnd=" + windowEnd +
+                ", enabledCount=" + enabledCount +
+                ", disabledCount=" + disabledCount +
+                '}';
+    }
+}
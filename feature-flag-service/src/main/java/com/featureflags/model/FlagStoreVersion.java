@@ -0,0 +1,60 @@
+package com.featureflags.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Single-row record of the readable change version of the flag store: a reader that sees
+ * version N also sees every change up to N. See FlagChangeVersions for how it is advanced.
+ */
+@Entity
+@Table(name = "flag_store_version")
+public class FlagStoreVersion {
+
+    public static final int SINGLETON_ID = 1;
+
+    @Id
+    private Integer id;
+
+    @Column(nullable = false)
+    private long version;
+
+    // Changes at or below this version may have lost their tombstones to pruning
+    @Column(name = "tombstone_horizon", nullable = false)
+    private long tombstoneHorizon;
+
+    // Constructors
+    public FlagStoreVersion() {}
+
+    // Getters and Setters
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public long getTombstoneHorizon() {
+        return tombstoneHorizon;
+    }
+
+    public void setTombstoneHorizon(long tombstoneHorizon) {
+        this.tombstoneHorizon = tombstoneHorizon;
+    }
+
+    @Override
+    public String toString() {
+        return "FlagStoreVersion{" +
+                "version=" + version +
+                ", tombstoneHorizon=" + tombstoneHorizon +
+                '}';
+    }
+}
@@ -0,0 +1,96 @@
+package com.featureflags.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Marker left behind by a deleted or renamed flag so the changes feed can report that the name is gone.
+ */
+@Entity
+@Table(name = "feature_flag_tombstones", indexes = @Index(name = "idx_feature_flag_tombstones_change_version", columnList = "change_version"))
+public class FlagTombstone {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "feature_flag_tombstones_seq")
+    @SequenceGenerator(name = "feature_flag_tombstones_seq", sequenceName = "feature_flag_tombstones_seq", allocationSize = 50)
+    private Long id;
+
+    // Id of the deleted or renamed flag; a flag renamed more than once leaves one tombstone per old name
+    @Column(name = "flag_id", nullable = false)
+    private Long flagId;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Column(name = "change_version", nullable = false)
+    private long changeVersion;
+
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        deletedAt = LocalDateTime.now();
+    }
+
+    // Constructors
+    public FlagTombstone() {}
+
+    public FlagTombstone(Long flagId, String name, long changeVersion) {
+        this.flagId = flagId;
+        this.name = name;
+        this.changeVersion = changeVersion;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getFlagId() {
+        return flagId;
+    }
+
+    public void setFlagId(Long flagId) {
+        this.flagId = flagId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getChangeVersion() {
+        return changeVersion;
+    }
+
+    public void setChangeVersion(long changeVersion) {
+        this.changeVersion = changeVersion;
+    }
+
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
+
+    public void setDeletedAt(LocalDateTime deletedAt) {
+        this.deletedAt = deletedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "FlagTombstone{" +
+                "id=" + id +
+                ", flagId=" + flagId +
+                ", name='" + name + '\'' +
+                ", changeVersion=" + changeVersion +
+                ", deletedAt=" + deletedAt +
+                '}';
+    }
+}
@@ -1,25 +1,137 @@
 package com.featureflags.repository;
 
+import com.featureflags.dto.FeatureFlagDto;
+import com.featureflags.dto.FlagStateDto;
 import com.featureflags.model.FeatureFlag;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface FeatureFlagRepository extends JpaRepository<FeatureFlag, Long> {
+
+    String DTO_SELECT = "SELECT new com.featureflags.dto.FeatureFlagDto(" +
+            "f.id, f.name, f.enabled, f.description, f.targeting, f.version) ";
+    String STATE_SELECT = "SELECT new com.featureflags.dto.FlagStateDto(" +
+            "f.id, f.name, f.enabled, f.targeting, f.changeVersion) ";
+    // escape() and escapeCharacter() are Spring Data's SpEL helpers for binding literal LIKE patterns
+    String NAME_CONTAINS = "LOWER(f.name) LIKE LOWER(CONCAT('%', :#{escape(#name)}, '%')) " +
+            "ESCAPE :#{escapeCharacter()}";
+    String NAME_CONTAINS_OR_SIMILAR = "(lower(f.name) LIKE '%' || lower(:#{escape(#name)}) || '%' " +
+            "ESCAPE :#{escapeCharacter()} OR lower(f.name) % lower(:name))";
+    String SUMMARY_RETURNING = "RETURNING id, name, enabled, description, " +
+            "CAST(targeting AS text) AS targeting, version";
+
     Optional<FeatureFlag> findByName(String name);
     boolean existsByName(String name);
-    List<FeatureFlag> findByEnabled(boolean enabled);
+
+    // Read projections select only the exposed columns straight into DTOs, without managed entities
+    @Query(DTO_SELECT + "FROM FeatureFlag f")
+    List<FeatureFlagDto> findAllDtos();
+
+    @Query(DTO_SELECT + "FROM FeatureFlag f WHERE f.id = :id")
+    Optional<FeatureFlagDto> findDtoById(@Param("id") Long id);
+
+    @Query(DTO_SELECT + "FROM FeatureFlag f WHERE f.name = :name")
+    Optional<FeatureFlagDto> findDtoByName(@Param("name") String name);
+
+    @Query(DTO_SELECT + "FROM FeatureFlag f WHERE f.enabled = :enabled")
+    List<FeatureFlagDto> findDtosByEnabled(@Param("enabled") boolean enabled);
+
+    @Query("SELECT f.enabled FROM FeatureFlag f WHERE f.name = :name")
+    Optional<Boolean> findEnabledByName(@Param("name") String name);
+
+    @Query(STATE_SELECT + "FROM FeatureFlag f")
+    List<FlagStateDto> findAllStates();
+
+    /**
+     * Return which of the given names already exist, in a single query
+     */
+    @Query("SELECT f.name FROM FeatureFlag f WHERE f.name IN :names")
+    List<String> findExistingNames(@Param("names") Collection<String> names);
+
+    @Query("SELECT f.name FROM FeatureFlag f ORDER BY f.name")
+    List<String> findAllNames();
+
+    /**
+     * Find feature flags by name containing the given string (case-insensitive).
+     * Portable fallback: ranks earlier and tighter matches first, but cannot use an index.
+     * The name is matched literally; %, _ and the escape character in it are escaped.
+     */
+    @Query(value = DTO_SELECT + "FROM FeatureFlag f WHERE " + NAME_CONTAINS +
+            " ORDER BY LOCATE(LOWER(:name), LOWER(f.name)), LENGTH(f.name), f.name",
+            countQuery = "SELECT COUNT(f) FROM FeatureFlag f WHERE " + NAME_CONTAINS)
+    Page<FeatureFlagDto> findByNameContainingIgnoreCase(@Param("name") String name, Pageable pageable);
+
+    /**
+     * Substring and fuzzy name search served by the pg_trgm GIN index, ranked by trigram similarity.
+     * The substring match is literal like findByNameContainingIgnoreCase.
+     */
+    @Query(value = "SELECT f.id AS id, f.name AS name, f.enabled AS enabled, f.description AS description, " +
+            "CAST(f.targeting AS text) AS targeting, f.version AS version FROM feature_flags f " +
+            "WHERE " + NAME_CONTAINS_OR_SIMILAR +
+            " ORDER BY similarity(lower(f.name), lower(:name)) DESC, f.name",
+            countQuery = "SELECT count(*) FROM feature_flags f WHERE " + NAME_CONTAINS_OR_SIMILAR,
+            nativeQuery = true)
+    Page<FeatureFlagSummary> searchByTrigram(@Param("name") String name, Pageable pageable);
+
+    /**
+     * Lock a flag's row until the transaction ends (PostgreSQL only), so that a change version taken
+     * afterwards is higher than that of every write to the flag committed before it
+     */
+    @Query(value = "SELECT id FROM feature_flags WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Optional<Long> lockById(@Param("id") Long id);
+
+    /**
+     * Flip a flag and return its new state in a single statement (PostgreSQL only).
+     * The returned columns are mapped to a projection rather than the entity: a native query cannot be
+     * {@code @Modifying} and return rows, and an entity result would resolve to any stale instance of the
+     * flag already in the persistence context instead of the updated row.
+     */
+    @Query(value = "UPDATE feature_flags SET enabled = NOT enabled, version = version + 1, " +
+            "change_version = :changeVersion, updated_at = :now WHERE id = :id " + SUMMARY_RETURNING, nativeQuery = true)
+    Optional<FeatureFlagSummary> toggleEnabledReturning(@Param("id") Long id, @Param("changeVersion") long changeVersion,
+                                                 @Param("now") LocalDateTime now);
+
+    /**
+     * Flip a flag only if it is still at the expected version (PostgreSQL only), see toggleEnabledReturning
+     */
+    @Query(value = "UPDATE feature_flags SET enabled = NOT enabled, version = version + 1, " +
+            "change_version = :changeVersion, updated_at = :now WHERE id = :id AND version = :version " +
+            SUMMARY_RETURNING, nativeQuery = true)
+    Optional<FeatureFlagSummary> toggleEnabledReturningIfVersion(@Param("id") Long id, @Param("version") Long version,
+                                                          @Param("changeVersion") long changeVersion,
+                                                          @Param("now") LocalDateTime now);
+
+    /**
+     * Portable atomic flip; the caller re-reads the row to get the new state
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE FeatureFlag f SET f.enabled = CASE WHEN f.enabled = true THEN false ELSE true END, " +
+            "f.version = f.version + 1, f.changeVersion = :changeVersion, f.updatedAt = :now WHERE f.id = :id")
+    int toggleEnabled(@Param("id") Long id, @Param("changeVersion") long changeVersion, @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE FeatureFlag f SET f.enabled = CASE WHEN f.enabled = true THEN false ELSE true END, " +
+            "f.version = f.version + 1, f.changeVersion = :changeVersion, f.updatedAt = :now " +
+            "WHERE f.id = :id AND f.version = :version")
+    int toggleEnabledIfVersion(@Param("id") Long id, @Param("version") Long version,
+                               @Param("changeVersion") long changeVersion, @Param("now") LocalDateTime now);
 
     /**
-     * Find feature flags by name containing the given string (case-insensitive)
+     * Flags written after version {@code since}, up to and including {@code upTo}
      */
-    @Query("SELECT f FROM FeatureFlag f WHERE LOWER(f.name) LIKE LOWER(CONCAT('%', :name, '%'))")
-    List<FeatureFlag> findByNameContainingIgnoreCase(@Param("name") String name);
+    @Query(STATE_SELECT + "FROM FeatureFlag f WHERE f.changeVersion > :since AND f.changeVersion <= :upTo")
+    List<FlagStateDto> findChangedBetween(@Param("since") long since, @Param("upTo") long upTo);
 
     /**
      * Count enabled feature flags
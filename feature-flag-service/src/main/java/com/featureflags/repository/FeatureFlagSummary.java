@@ -0,0 +1,20 @@
+package com.featureflags.repository;
+
+/**
+ * Interface projection for native flag queries, backed by the selected column aliases
+ */
+public interface FeatureFlagSummary {
+
+    Long getId();
+
+    String getName();
+
+    boolean getEnabled();
+
+    String getDescription();
+
+    // Targeting rules as JSON text
+    String getTargeting();
+
+    Long getVersion();
+}
@@ -0,0 +1,29 @@
+package com.featureflags.repository;
+
+import com.featureflags.dto.FlagEvaluationStatsDto;
+import com.featureflags.model.FlagEvaluationWindow;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface FlagEvaluationWindowRepository extends JpaRepository<FlagEvaluationWindow, Long> {
+
+    /**
+     * Per flag: the latest reported window end overall and the counts of windows ending after since
+     */
+    @Query("SELECT new com.featureflags.dto.FlagEvaluationStatsDto(w.flagName, MAX(w.windowEnd), " +
+            "SUM(CASE WHEN w.windowEnd > :since THEN w.enabledCount ELSE 0 END), " +
+            "SUM(CASE WHEN w.windowEnd > :since THEN w.disabledCount ELSE 0 END)) " +
+            "FROM FlagEvaluationWindow w GROUP BY w.flagName")
+    List<FlagEvaluationStatsDto> summarizeSince(@Param("since") LocalDateTime since);
+
+    @Modifying
+    @Query("DELETE FROM FlagEvaluationWindow w WHERE w.windowEnd < :cutoff")
+    int deleteEndedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
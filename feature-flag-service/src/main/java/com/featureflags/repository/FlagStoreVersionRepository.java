@@ -0,0 +1,31 @@
+package com.featureflags.repository;
+
+import com.featureflags.model.FlagStoreVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface FlagStoreVersionRepository extends JpaRepository<FlagStoreVersion, Integer> {
+
+    /**
+     * Bump the global version; the row stays locked until the calling transaction ends (non-PostgreSQL only)
+     */
+    @Modifying
+    @Query("UPDATE FlagStoreVersion v SET v.version = v.version + 1 WHERE v.id = 1")
+    int increment();
+
+    @Query("SELECT v.version FROM FlagStoreVersion v WHERE v.id = 1")
+    Optional<Long> findCurrentVersion();
+
+    @Query("SELECT v.tombstoneHorizon FROM FlagStoreVersion v WHERE v.id = 1")
+    Optional<Long> findTombstoneHorizon();
+
+    @Modifying
+    @Query("UPDATE FlagStoreVersion v SET v.tombstoneHorizon = :horizon WHERE v.id = 1 AND v.tombstoneHorizon < :horizon")
+    int raiseTombstoneHorizon(@Param("horizon") long horizon);
+}
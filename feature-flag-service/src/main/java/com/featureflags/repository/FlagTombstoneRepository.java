@@ -0,0 +1,26 @@
+package com.featureflags.repository;
+
+import com.featureflags.model.FlagTombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface FlagTombstoneRepository extends JpaRepository<FlagTombstone, Long> {
+
+    @Query("SELECT t FROM FlagTombstone t WHERE t.changeVersion > :since AND t.changeVersion <= :upTo")
+    List<FlagTombstone> findChangedBetween(@Param("since") long since, @Param("upTo") long upTo);
+
+    @Query("SELECT MAX(t.changeVersion) FROM FlagTombstone t WHERE t.deletedAt < :cutoff")
+    Optional<Long> findMaxChangeVersionDeletedBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    @Modifying
+    @Query("DELETE FROM FlagTombstone t WHERE t.changeVersion <= :version")
+    int deleteUpToVersion(@Param("version") long version);
+}
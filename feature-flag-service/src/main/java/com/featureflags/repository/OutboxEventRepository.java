@@ -0,0 +1,27 @@
+package com.featureflags.repository;
+
+import com.featureflags.model.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Find events due for (re)delivery, oldest first
+     */
+    @Query("SELECT o FROM OutboxEvent o WHERE o.nextAttemptAt <= :now ORDER BY o.id")
+    List<OutboxEvent> findReady(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Find events backing off before their next attempt, oldest first
+     */
+    @Query("SELECT o FROM OutboxEvent o WHERE o.nextAttemptAt > :now ORDER BY o.id")
+    List<OutboxEvent> findDeferred(@Param("now") LocalDateTime now, Pageable pageable);
+}
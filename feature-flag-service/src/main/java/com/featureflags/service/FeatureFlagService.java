@@ -1,19 +1,39 @@
 package com.featureflags.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.featureflags.config.DatabaseSupport;
+import com.featureflags.dto.BulkImportResult;
+import com.featureflags.dto.FlagChangesDto;
+import com.featureflags.dto.FlagStateDto;
 import com.featureflags.dto.FlagUpdateEvent;
 import com.featureflags.dto.FeatureFlagDto;
+import com.featureflags.dto.TargetingRules;
 import com.featureflags.model.FeatureFlag;
+import com.featureflags.model.FlagTombstone;
 import com.featureflags.repository.FeatureFlagRepository;
+import com.featureflags.repository.FeatureFlagSummary;
+import com.featureflags.repository.FlagTombstoneRepository;
 import com.featureflags.exception.FeatureFlagNotFoundException;
 import com.featureflags.exception.DuplicateFeatureFlagException;
+import com.featureflags.exception.FeatureFlagVersionConflictException;
+import com.featureflags.exception.FlagChangesExpiredException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -22,40 +42,48 @@ import java.util.stream.Collectors;
 public class FeatureFlagService {
 
     private static final Logger logger = LoggerFactory.getLogger(FeatureFlagService.class);
-    private static final String EXCHANGE_NAME = "feature-flags";
-    private static final String ROUTING_KEY = "flag.update";
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
 
     private final FeatureFlagRepository featureFlagRepository;
-    private final RabbitTemplate rabbitTemplate;
+    private final FlagTombstoneRepository flagTombstoneRepository;
+    private final FlagChangeVersions flagChangeVersions;
+    private final FlagEventPublisher flagEventPublisher;
+    private final DatabaseSupport databaseSupport;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public FeatureFlagService(FeatureFlagRepository featureFlagRepository, RabbitTemplate rabbitTemplate) {
+    public FeatureFlagService(FeatureFlagRepository featureFlagRepository,
+                              FlagTombstoneRepository flagTombstoneRepository,
+                              FlagChangeVersions flagChangeVersions, FlagEventPublisher flagEventPublisher,
+                              DatabaseSupport databaseSupport, ObjectMapper objectMapper) {
         this.featureFlagRepository = featureFlagRepository;
-        this.rabbitTemplate = rabbitTemplate;
+        this.flagTombstoneRepository = flagTombstoneRepository;
+        this.flagChangeVersions = flagChangeVersions;
+        this.flagEventPublisher = flagEventPublisher;
+        this.databaseSupport = databaseSupport;
+        this.objectMapper = objectMapper;
     }
 
+    @Transactional(readOnly = true)
     public List<FeatureFlagDto> getAllFlags() {
-        return featureFlagRepository.findAll()
-                .stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return featureFlagRepository.findAllDtos();
     }
 
+    @Transactional(readOnly = true)
     public FeatureFlagDto getFlagById(Long id) {
-        FeatureFlag flag = featureFlagRepository.findById(id)
+        return featureFlagRepository.findDtoById(id)
                 .orElseThrow(() -> new FeatureFlagNotFoundException("Feature flag not found with id: " + id));
-        return convertToDto(flag);
     }
 
+    @Transactional(readOnly = true)
     public FeatureFlagDto getFlagByName(String name) {
-        FeatureFlag flag = featureFlagRepository.findByName(name)
+        return featureFlagRepository.findDtoByName(name)
                 .orElseThrow(() -> new FeatureFlagNotFoundException("Feature flag not found with name: " + name));
-        return convertToDto(flag);
     }
 
+    @Transactional(readOnly = true)
     public boolean isFlagEnabled(String name) {
-        Optional<FeatureFlag> flag = featureFlagRepository.findByName(name);
-        return flag.map(FeatureFlag::isEnabled).orElse(false);
+        return featureFlagRepository.findEnabledByName(name).orElse(false);
     }
 
     public FeatureFlagDto createFlag(FeatureFlagDto flagDto) {
@@ -64,15 +92,54 @@ public class FeatureFlagService {
         }
 
         FeatureFlag flag = convertToEntity(flagDto);
+        flag.setChangeVersion(flagChangeVersions.next());
         FeatureFlag savedFlag = featureFlagRepository.save(flag);
         
         // Publish event for flag creation
-        publishFlagEvent(savedFlag.getName(), savedFlag.isEnabled(), "CREATED");
+        publishFlagEvent(savedFlag, "CREATED");
         logger.info("Feature flag created successfully: {}", savedFlag.getName());
         
         return convertToDto(savedFlag);
     }
 
+    public BulkImportResult importFlags(List<FeatureFlagDto> flagDtos) {
+        Map<String, FeatureFlagDto> newFlags = new LinkedHashMap<>();
+        List<String> skipped = new ArrayList<>();
+        for (FeatureFlagDto flagDto : flagDtos) {
+            if (newFlags.putIfAbsent(flagDto.getName(), flagDto) != null) {
+                skipped.add(flagDto.getName());
+            }
+        }
+
+        for (String existingName : featureFlagRepository.findExistingNames(newFlags.keySet())) {
+            newFlags.remove(existingName);
+            skipped.add(existingName);
+        }
+
+        if (newFlags.isEmpty()) {
+            logger.info("Bulk import created no feature flags, skipped {}", skipped.size());
+            return new BulkImportResult(0, skipped);
+        }
+
+        // The whole import is one change, so all new flags share a single version
+        long changeVersion = flagChangeVersions.next();
+        List<FeatureFlag> newEntities = newFlags.values().stream().map(this::convertToEntity).collect(Collectors.toList());
+        newEntities.forEach(flag -> flag.setChangeVersion(changeVersion));
+
+        // Sequence ids are pre-allocated, so these inserts are sent as JDBC batches on flush
+        List<FeatureFlag> savedFlags = featureFlagRepository.saveAll(newEntities);
+
+        // Publish one aggregated event instead of a message per flag
+        FlagUpdateEvent batch = FlagUpdateEvent.batch(savedFlags.stream()
+                .map(flag -> toEvent(flag, "CREATED"))
+                .collect(Collectors.toList()));
+        batch.setVersion(changeVersion);
+        publishFlagEvent(batch);
+        logger.info("Bulk import created {} feature flags, skipped {}", savedFlags.size(), skipped.size());
+
+        return new BulkImportResult(savedFlags.size(), skipped);
+    }
+
     public FeatureFlagDto updateFlag(Long id, FeatureFlagDto flagDto) {
         FeatureFlag existingFlag = featureFlagRepository.findById(id)
                 .orElseThrow(() -> new FeatureFlagNotFoundException("Feature flag not found with id: " + id));
@@ -83,32 +150,77 @@ public class FeatureFlagService {
             throw new DuplicateFeatureFlagException("Feature flag with name '" + flagDto.getName() + "' already exists");
         }
 
+        if (flagDto.getVersion() != null && !flagDto.getVersion().equals(existingFlag.getVersion())) {
+            throw new FeatureFlagVersionConflictException("Feature flag " + id + " is at version "
+                    + existingFlag.getVersion() + ", update was based on " + flagDto.getVersion(),
+                    convertToDto(existingFlag));
+        }
+
+        String previousName = existingFlag.getName();
         boolean wasEnabled = existingFlag.isEnabled();
+        TargetingRules previousTargeting = existingFlag.getTargeting();
         
         existingFlag.setName(flagDto.getName());
         existingFlag.setEnabled(flagDto.isEnabled());
         existingFlag.setDescription(flagDto.getDescription());
+        existingFlag.setTargeting(flagDto.getTargeting());
+        existingFlag.setChangeVersion(flagChangeVersions.next());
 
         FeatureFlag updatedFlag = featureFlagRepository.save(existingFlag);
-        
-        // Publish event if enabled status changed
-        if (wasEnabled != updatedFlag.isEnabled()) {
-            publishFlagEvent(updatedFlag.getName(), updatedFlag.isEnabled(), "UPDATED");
+
+        if (!previousName.equals(updatedFlag.getName())) {
+            // To clients a rename deletes the old name, so it gets a tombstone and a delete event
+            flagTombstoneRepository.save(new FlagTombstone(updatedFlag.getId(), previousName,
+                    updatedFlag.getChangeVersion()));
+            FlagUpdateEvent removed = new FlagUpdateEvent(previousName, false, "DELETED");
+            removed.setVersion(updatedFlag.getChangeVersion());
+            FlagUpdateEvent rename = FlagUpdateEvent.batch(List.of(removed, toEvent(updatedFlag, "UPDATED")));
+            rename.setVersion(updatedFlag.getChangeVersion());
+            publishFlagEvent(rename);
+            logger.info("Feature flag renamed from {} to {}", previousName, updatedFlag.getName());
+        } else if (wasEnabled != updatedFlag.isEnabled()
+                || !Objects.equals(previousTargeting, updatedFlag.getTargeting())) {
+            // Otherwise publish only if enabled status or targeting changed
+            publishFlagEvent(updatedFlag, "UPDATED");
         }
         
         return convertToDto(updatedFlag);
     }
 
     public FeatureFlagDto toggleFlag(Long id) {
-        FeatureFlag flag = featureFlagRepository.findById(id)
-                .orElseThrow(() -> new FeatureFlagNotFoundException("Feature flag not found with id: " + id));
+        return toggleFlag(id, null);
+    }
+
+    /**
+     * Flip the flag atomically in the database, optionally only if it is still at expectedVersion
+     */
+    public FeatureFlagDto toggleFlag(Long id, Long expectedVersion) {
+        LocalDateTime now = LocalDateTime.now();
+        Optional<FeatureFlag> toggled;
+        if (databaseSupport.isPostgres()) {
+            // Versions are not allocated under a shared lock here, so lock the row first: a concurrent
+            // toggle that commits earlier must also carry the lower version
+            if (featureFlagRepository.lockById(id).isEmpty()) {
+                throw new FeatureFlagNotFoundException("Feature flag not found with id: " + id);
+            }
+            long changeVersion = flagChangeVersions.next();
+            toggled = (expectedVersion == null
+                    ? featureFlagRepository.toggleEnabledReturning(id, changeVersion, now)
+                    : featureFlagRepository.toggleEnabledReturningIfVersion(id, expectedVersion, changeVersion, now))
+                    .map(summary -> convertToEntity(summary, changeVersion));
+        } else {
+            long changeVersion = flagChangeVersions.next();
+            int updated = expectedVersion == null
+                    ? featureFlagRepository.toggleEnabled(id, changeVersion, now)
+                    : featureFlagRepository.toggleEnabledIfVersion(id, expectedVersion, changeVersion, now);
+            toggled = updated == 1 ? featureFlagRepository.findById(id) : Optional.empty();
+        }
+
+        FeatureFlag updatedFlag = toggled.orElseThrow(() -> missingOrConflict(id, expectedVersion));
+
+        // Publish event for flag toggle with the state the statement produced
+        publishFlagEvent(updatedFlag, "TOGGLED");
 
-        flag.setEnabled(!flag.isEnabled());
-        FeatureFlag updatedFlag = featureFlagRepository.save(flag);
-        
-        // Publish event for flag toggle
-        publishFlagEvent(updatedFlag.getName(), updatedFlag.isEnabled(), "TOGGLED");
-        
         return convertToDto(updatedFlag);
     }
 
@@ -117,44 +229,93 @@ public class FeatureFlagService {
                 .orElseThrow(() -> new FeatureFlagNotFoundException("Feature flag not found with id: " + id));
 
         String flagName = flag.getName();
-        boolean wasEnabled = flag.isEnabled();
+        flag.setChangeVersion(flagChangeVersions.next());
         
         featureFlagRepository.delete(flag);
+        // Keep a tombstone so delta-syncing clients learn about the delete
+        flagTombstoneRepository.save(new FlagTombstone(flag.getId(), flagName, flag.getChangeVersion()));
         
         // Publish event for flag deletion
-        publishFlagEvent(flagName, wasEnabled, "DELETED");
+        publishFlagEvent(flag, "DELETED");
         logger.info("Feature flag deleted successfully: {}", flagName);
     }
 
+    @Transactional(readOnly = true)
     public List<FeatureFlagDto> getEnabledFlags() {
-        return featureFlagRepository.findByEnabled(true)
-                .stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return featureFlagRepository.findDtosByEnabled(true);
     }
 
+    @Transactional(readOnly = true)
     public List<FeatureFlagDto> getDisabledFlags() {
-        return featureFlagRepository.findByEnabled(false)
-                .stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return featureFlagRepository.findDtosByEnabled(false);
     }
 
-    public List<FeatureFlagDto> searchFlagsByName(String name) {
-        return featureFlagRepository.findByNameContainingIgnoreCase(name)
-                .stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public Page<FeatureFlagDto> searchFlagsByName(String name, int page, int size) {
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_SEARCH_PAGE_SIZE));
+        return databaseSupport.isTrigramSearch()
+                ? featureFlagRepository.searchByTrigram(name, pageable).map(this::convertToDto)
+                : featureFlagRepository.findByNameContainingIgnoreCase(name, pageable);
     }
 
-    private void publishFlagEvent(String flagName, boolean enabled, String eventType) {
-        try {
-            FlagUpdateEvent event = new FlagUpdateEvent(flagName, enabled, eventType);
-            rabbitTemplate.convertAndSend(EXCHANGE_NAME, ROUTING_KEY, event);
-        } catch (Exception e) {
-            logger.error("Failed to publish flag event for flag: {}", flagName, e);
-            //TODO: Implement retry logic
+    /**
+     * Every flag with the store version it reflects. The version is read first, so the flags
+     * are at least that recent and replaying changes since it never misses a write.
+     */
+    @Transactional(readOnly = true)
+    public FlagChangesDto getSnapshot() {
+        long version = flagChangeVersions.current();
+        return new FlagChangesDto(version, featureFlagRepository.findAllStates());
+    }
+
+    /**
+     * Flags created, updated or deleted after version {@code since}, ordered by change version
+     */
+    @Transactional(readOnly = true)
+    public FlagChangesDto getChangesSince(long since) {
+        long version = flagChangeVersions.current();
+        long horizon = flagChangeVersions.tombstoneHorizon();
+        if (since < horizon) {
+            throw new FlagChangesExpiredException("Changes since version " + since
+                    + " are no longer available, oldest resumable version is " + horizon);
+        }
+
+        List<FlagStateDto> changes = new ArrayList<>();
+        if (since < version) {
+            changes.addAll(featureFlagRepository.findChangedBetween(since, version));
+            flagTombstoneRepository.findChangedBetween(since, version)
+                    .forEach(tombstone -> changes.add(FlagStateDto.tombstone(
+                            tombstone.getFlagId(), tombstone.getName(), tombstone.getChangeVersion())));
+            changes.sort(Comparator.comparingLong(FlagStateDto::getChangeVersion));
         }
+        return new FlagChangesDto(version, changes);
+    }
+
+    private void publishFlagEvent(FeatureFlag flag, String eventType) {
+        publishFlagEvent(toEvent(flag, eventType));
+    }
+
+    private FlagUpdateEvent toEvent(FeatureFlag flag, String eventType) {
+        FlagUpdateEvent event = new FlagUpdateEvent(flag.getName(), flag.isEnabled(), eventType);
+        event.setTargeting(flag.getTargeting());
+        event.setVersion(flag.getChangeVersion());
+        return event;
+    }
+
+    /**
+     * Hand the event to the configured transport within the current transaction; subscribers see it after commit
+     */
+    private void publishFlagEvent(FlagUpdateEvent event) {
+        event.setCommittedAtMicros(FlagUpdateEvent.nowMicros());
+        flagEventPublisher.publish(event);
+    }
+
+    private RuntimeException missingOrConflict(Long id, Long expectedVersion) {
+        return featureFlagRepository.findById(id)
+                .<RuntimeException>map(current -> new FeatureFlagVersionConflictException("Feature flag " + id
+                        + " is at version " + current.getVersion() + ", expected " + expectedVersion,
+                        convertToDto(current)))
+                .orElseGet(() -> new FeatureFlagNotFoundException("Feature flag not found with id: " + id));
     }
 
     private FeatureFlagDto convertToDto(FeatureFlag flag) {
@@ -163,14 +324,45 @@ public class FeatureFlagService {
         dto.setName(flag.getName());
         dto.setEnabled(flag.isEnabled());
         dto.setDescription(flag.getDescription());
+        dto.setTargeting(flag.getTargeting());
+        dto.setVersion(flag.getVersion());
         return dto;
     }
 
+    private FeatureFlagDto convertToDto(FeatureFlagSummary summary) {
+        return new FeatureFlagDto(summary.getId(), summary.getName(), summary.getEnabled(),
+                summary.getDescription(), readTargeting(summary.getTargeting()), summary.getVersion());
+    }
+
+    private TargetingRules readTargeting(String json) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, TargetingRules.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored targeting rules are not readable", e);
+        }
+    }
+
+    /**
+     * Detached copy of a row returned by a native statement, for the event and the response only
+     */
+    private FeatureFlag convertToEntity(FeatureFlagSummary summary, long changeVersion) {
+        FeatureFlag flag = new FeatureFlag(summary.getName(), summary.getEnabled(), summary.getDescription());
+        flag.setId(summary.getId());
+        flag.setTargeting(readTargeting(summary.getTargeting()));
+        flag.setVersion(summary.getVersion());
+        flag.setChangeVersion(changeVersion);
+        return flag;
+    }
+
     private FeatureFlag convertToEntity(FeatureFlagDto dto) {
         FeatureFlag flag = new FeatureFlag();
         flag.setName(dto.getName());
         flag.setEnabled(dto.isEnabled());
         flag.setDescription(dto.getDescription());
+        flag.setTargeting(dto.getTargeting());
         return flag;
     }
 }
@@ -0,0 +1,228 @@
+package com.featureflags.service;
+
+import com.featureflags.config.DatabaseSupport;
+import com.featureflags.repository.FlagStoreVersionRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out the monotonically increasing change versions stamped on every flag write, and tracks
+ * the readable version: the highest version at which every change is committed, so a reader that
+ * sees version N also sees every change up to N.
+ * <p>
+ * On PostgreSQL writers take their version from a sequence without locking anything shared, and
+ * hold a transaction-scoped advisory lock on it until they commit or roll back. After every write,
+ * and periodically for writers that died, the readable version is raised to just below the oldest
+ * version whose lock is still held. Other databases lock the version row from next() until the
+ * writing transaction ends instead.
+ * <p>
+ * The readable version is exported as the feature_flags.store.version gauge; comparing it with
+ * the clients' feature_flags.client.applied.version shows how far each replica lags behind.
+ */
+@Component
+public class FlagChangeVersions implements MeterBinder, InitializingBean, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlagChangeVersions.class);
+
+    // Versions probed per transaction: every probe holds an advisory lock until its transaction ends,
+    // and a gap left by a long-running writer must not exhaust the shared lock table
+    private static final int ADVANCE_BATCH = 100;
+
+    private final FlagStoreVersionRepository flagStoreVersionRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final DatabaseSupport databaseSupport;
+    private final long advanceIntervalMs;
+    private final AtomicLong readableVersion = new AtomicLong();
+    private final AtomicBoolean advanceRequested = new AtomicBoolean();
+
+    // When readableVersion was last read, and whether this instance wrote since
+    private volatile long readAtNanos;
+    private volatile boolean writtenSinceRead = true;
+
+    private ScheduledExecutorService advancer;
+
+    @Autowired
+    public FlagChangeVersions(FlagStoreVersionRepository flagStoreVersionRepository, JdbcTemplate jdbcTemplate,
+                              TransactionTemplate transactionTemplate, DatabaseSupport databaseSupport,
+                              @Value("${flags.changes.advance-interval-ms:1000}") long advanceIntervalMs) {
+        this.flagStoreVersionRepository = flagStoreVersionRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.databaseSupport = databaseSupport;
+        this.advanceIntervalMs = advanceIntervalMs;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!databaseSupport.isPostgres()) {
+            return;
+        }
+        advancer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "flag-version-advance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        advancer.scheduleWithFixedDelay(this::advance, 0, advanceIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        if (advancer != null) {
+            advancer.shutdownNow();
+        }
+    }
+
+    /**
+     * Reserve the next change version; must run inside the write transaction it is stamped on
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long next() {
+        if (!databaseSupport.isPostgres()) {
+            if (flagStoreVersionRepository.increment() != 1) {
+                throw new IllegalStateException("Flag store version row is missing");
+            }
+            onCompletion(false);
+            return flagStoreVersionRepository.findCurrentVersion()
+                    .orElseThrow(() -> new IllegalStateException("Flag store version row is missing"));
+        }
+        // The version itself is the advisory lock key; the outbox relay's key is far above any version
+        while (true) {
+            Long version = jdbcTemplate.queryForObject("SELECT v FROM nextval('flag_change_version_seq') AS v, " +
+                    "LATERAL pg_advisory_xact_lock(v)", Long.class);
+            // An advance that tried the lock before it was taken has already made this version readable
+            if (version != null && version > current()) {
+                onCompletion(true);
+                return version;
+            }
+        }
+    }
+
+    /**
+     * Once the write transaction ends, make the next recent() read the version again and, on
+     * PostgreSQL, raise the readable version past the write
+     */
+    private void onCompletion(boolean advance) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                writtenSinceRead = true;
+                if (advance) {
+                    requestAdvance();
+                }
+            }
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public long current() {
+        writtenSinceRead = false;
+        long version = flagStoreVersionRepository.findCurrentVersion()
+                .orElseThrow(() -> new IllegalStateException("Flag store version row is missing"));
+        readableVersion.accumulateAndGet(version, Math::max);
+        readAtNanos = System.nanoTime();
+        return version;
+    }
+
+    /**
+     * The readable version as last seen by this instance, read again once it is older than maxAge or
+     * this instance has written since; writes through other instances show up within maxAge
+     */
+    public long recent(Duration maxAge) {
+        if (writtenSinceRead || System.nanoTime() - readAtNanos >= maxAge.toNanos()) {
+            return current();
+        }
+        return readableVersion.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("feature_flags.store.version", readableVersion, AtomicLong::doubleValue)
+                .description("Latest readable change version of the flag store, as last seen by this instance")
+                .register(registry);
+    }
+
+    @Transactional(readOnly = true)
+    public long tombstoneHorizon() {
+        return flagStoreVersionRepository.findTombstoneHorizon().orElse(0L);
+    }
+
+    /**
+     * Raise the readable version up to the oldest version still being written (PostgreSQL only)
+     */
+    public void advance() {
+        if (!databaseSupport.isPostgres()) {
+            return;
+        }
+        try {
+            // One transaction per batch, so the probe locks are released before the next batch takes its own
+            Boolean more;
+            do {
+                more = transactionTemplate.execute(status -> advanceReadableVersion());
+            } while (Boolean.TRUE.equals(more));
+        } catch (RuntimeException e) {
+            logger.warn("Advancing the readable flag store version failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Probe the next batch of versions past the readable one and raise it below the oldest still held;
+     * returns whether the batch ended below the allocated versions without finding one held
+     */
+    private boolean advanceReadableVersion() {
+        long readable = flagStoreVersionRepository.findCurrentVersion()
+                .orElseThrow(() -> new IllegalStateException("Flag store version row is missing"));
+        Long allocated = jdbcTemplate.queryForObject("SELECT CASE WHEN is_called THEN last_value " +
+                "ELSE last_value - 1 END FROM flag_change_version_seq", Long.class);
+        long upTo = Math.min(allocated != null ? allocated : readable, readable + ADVANCE_BATCH);
+        boolean more = false;
+        if (upTo > readable) {
+            // The try locks are held until this transaction ends, so a writer that had not locked its
+            // version yet waits for it and then finds the version readable already
+            Long oldestInFlight = jdbcTemplate.queryForObject("SELECT min(v) FROM generate_series(?, ?) AS v " +
+                    "WHERE NOT pg_try_advisory_xact_lock(v)", Long.class, readable + 1, upTo);
+            long next = oldestInFlight != null ? oldestInFlight - 1 : upTo;
+            if (next > readable) {
+                jdbcTemplate.update("UPDATE flag_store_version SET version = ? WHERE id = 1 AND version < ?", next, next);
+                readable = next;
+            }
+            more = oldestInFlight == null && upTo < allocated;
+        }
+        readableVersion.accumulateAndGet(readable, Math::max);
+        readAtNanos = System.nanoTime();
+        return more;
+    }
+
+    /**
+     * Advance soon on the advancer thread; requests arriving before it starts share one pass
+     */
+    private void requestAdvance() {
+        if (advancer != null && advanceRequested.compareAndSet(false, true)) {
+            advancer.execute(() -> {
+                advanceRequested.set(false);
+                advance();
+            });
+        }
+    }
+}
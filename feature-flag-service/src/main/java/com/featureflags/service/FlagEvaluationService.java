@@ -0,0 +1,98 @@
+package com.featureflags.service;
+
+import com.featureflags.dto.EvaluationCountDto;
+import com.featureflags.dto.EvaluationReportDto;
+import com.featureflags.dto.FlagEvaluationStatsDto;
+import com.featureflags.model.FlagEvaluationWindow;
+import com.featureflags.repository.FeatureFlagRepository;
+import com.featureflags.repository.FlagEvaluationWindowRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stores the evaluation counts reported by flag clients and summarizes them per flag,
+ * so flags nobody evaluates any more can be found and removed.
+ */
+@Service
+public class FlagEvaluationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlagEvaluationService.class);
+
+    private final FlagEvaluationWindowRepository flagEvaluationWindowRepository;
+    private final FeatureFlagRepository featureFlagRepository;
+    private final Duration retention;
+
+    @Autowired
+    public FlagEvaluationService(FlagEvaluationWindowRepository flagEvaluationWindowRepository,
+                                 FeatureFlagRepository featureFlagRepository,
+                                 @Value("${flags.evaluations.retention:30d}") Duration retention) {
+        this.flagEvaluationWindowRepository = flagEvaluationWindowRepository;
+        this.featureFlagRepository = featureFlagRepository;
+        this.retention = retention;
+    }
+
+    /**
+     * Store one client report as a row per flag; empty entries are skipped
+     */
+    @Transactional
+    public int recordReport(EvaluationReportDto report) {
+        LocalDateTime windowStart = toLocalDateTime(report.getWindowStart());
+        LocalDateTime windowEnd = toLocalDateTime(report.getWindowEnd());
+        List<FlagEvaluationWindow> windows = new ArrayList<>();
+        for (EvaluationCountDto count : report.getCounts()) {
+            if (count.getEnabledCount() + count.getDisabledCount() > 0) {
+                windows.add(new FlagEvaluationWindow(count.getFlagName(), report.getSource(), windowStart, windowEnd,
+                        count.getEnabledCount(), count.getDisabledCount()));
+            }
+        }
+        flagEvaluationWindowRepository.saveAll(windows);
+        logger.debug("Recorded evaluations of {} flags from {}", windows.size(), report.getSource());
+        return windows.size();
+    }
+
+    /**
+     * Usage of every existing flag over the given period, followed by names that are evaluated but no longer exist
+     */
+    @Transactional(readOnly = true)
+    public List<FlagEvaluationStatsDto> getEvaluationStats(Duration period) {
+        Map<String, FlagEvaluationStatsDto> stats = new LinkedHashMap<>();
+        for (String name : featureFlagRepository.findAllNames()) {
+            stats.put(name, new FlagEvaluationStatsDto(name, null, 0L, 0L));
+        }
+        for (FlagEvaluationStatsDto summary : flagEvaluationWindowRepository.summarizeSince(LocalDateTime.now().minus(period))) {
+            stats.put(summary.getFlagName(), summary);
+        }
+
+        double minutes = Math.max(period.toMillis() / 60_000.0, 1.0 / 60);
+        stats.values().forEach(flag ->
+                flag.setEvaluationsPerMinute((flag.getEnabledCount() + flag.getDisabledCount()) / minutes));
+        return new ArrayList<>(stats.values());
+    }
+
+    @Scheduled(fixedDelayString = "${flags.evaluations.prune-interval-ms:3600000}")
+    @Transactional
+    public void prune() {
+        int pruned = flagEvaluationWindowRepository.deleteEndedBefore(LocalDateTime.now().minus(retention));
+        if (pruned > 0) {
+            logger.info("Pruned {} flag evaluation windows", pruned);
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,41 @@
+package com.featureflags.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.featureflags.dto.FlagUpdateEvent;
+import com.featureflags.model.OutboxEvent;
+import com.featureflags.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Records flag events in the outbox table as part of the caller's transaction,
+ * so an event exists if and only if the flag change it describes was committed.
+ * {@link OutboxRelay} delivers them to the broker afterwards. This is the default transport.
+ */
+@Component
+@ConditionalOnProperty(name = "flags.propagation.transport", havingValue = "amqp", matchIfMissing = true)
+public class FlagEventOutbox implements FlagEventPublisher {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public FlagEventOutbox(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(FlagUpdateEvent event) {
+        try {
+            outboxEventRepository.save(new OutboxEvent(objectMapper.writeValueAsString(event)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize flag event: " + event, e);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.featureflags.service;
+
+import com.featureflags.dto.FlagUpdateEvent;
+
+/**
+ * Transport for flag events, selected with flags.propagation.transport.
+ * <p>
+ * Events are handed over inside the write transaction of the change they describe;
+ * implementations must only let subscribers see them once that transaction commits.
+ */
+public interface FlagEventPublisher {
+
+    void publish(FlagUpdateEvent event);
+}
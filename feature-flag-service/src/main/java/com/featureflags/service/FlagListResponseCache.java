@@ -0,0 +1,172 @@
+package com.featureflags.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.featureflags.dto.FeatureFlagDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Rendered JSON (and gzip), Smile and CBOR bodies of the flag list endpoints, keyed by the store
+ * change version.
+ * While nothing changed a read is served from memory, checked against the version this instance
+ * last read, which is at most flags.list-cache.version-max-age-ms old. The first read after a write
+ * re-renders the view, other readers of that view wait for it instead of rendering it too.
+ */
+@Component
+public class FlagListResponseCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlagListResponseCache.class);
+
+    // Below this size gzip does not pay off, matching server.compression.min-response-size
+    private static final int MIN_GZIP_SIZE = 1024;
+
+    public enum View { ALL, ENABLED, DISABLED }
+
+    private final FeatureFlagService featureFlagService;
+    private final FlagChangeVersions flagChangeVersions;
+    private final ObjectMapper objectMapper;
+    private final ObjectMapper smileMapper;
+    private final ObjectMapper cborMapper;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Duration versionMaxAge;
+
+    private final Map<View, ReentrantLock> renderLocks = new EnumMap<>(View.class);
+    private final Map<View, CachedList> cachedLists = new ConcurrentHashMap<>();
+
+    @Autowired
+    public FlagListResponseCache(FeatureFlagService featureFlagService, FlagChangeVersions flagChangeVersions,
+                                 ObjectMapper objectMapper, PlatformTransactionManager transactionManager,
+                                 @Value("${flags.list-cache.version-max-age-ms:100}") long versionMaxAgeMs) {
+        this.featureFlagService = featureFlagService;
+        this.flagChangeVersions = flagChangeVersions;
+        this.objectMapper = objectMapper;
+        this.smileMapper = objectMapper.copyWith(new SmileFactory());
+        this.cborMapper = objectMapper.copyWith(new CBORFactory());
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.versionMaxAge = Duration.ofMillis(versionMaxAgeMs);
+        for (View view : View.values()) {
+            renderLocks.put(view, new ReentrantLock());
+        }
+    }
+
+    public CachedList get(View view) {
+        long version = flagChangeVersions.recent(versionMaxAge);
+        CachedList cached = cachedLists.get(view);
+        if (cached != null && cached.getVersion() >= version) {
+            return cached;
+        }
+
+        ReentrantLock lock = renderLocks.get(view);
+        lock.lock();
+        try {
+            cached = cachedLists.get(view);
+            if (cached != null && cached.getVersion() >= version) {
+                return cached;
+            }
+            // One transaction reads both from the same database, and the list after the version,
+            // so the list is at least as new as the key it is stored under
+            Map.Entry<Long, List<FeatureFlagDto>> loaded = readOnlyTransaction.execute(status ->
+                    Map.entry(flagChangeVersions.current(), load(view)));
+            CachedList rendered = render(loaded.getKey(), loaded.getValue());
+            // A lagging replica may return an older list than the one cached
+            if (cached == null || rendered.getVersion() >= cached.getVersion()) {
+                cachedLists.put(view, rendered);
+            }
+            logger.debug("Rendered {} flag list at version {} ({} bytes)", view, rendered.getVersion(), rendered.getJson().length);
+            return rendered;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private List<FeatureFlagDto> load(View view) {
+        switch (view) {
+            case ENABLED:
+                return featureFlagService.getEnabledFlags();
+            case DISABLED:
+                return featureFlagService.getDisabledFlags();
+            default:
+                return featureFlagService.getAllFlags();
+        }
+    }
+
+    private CachedList render(long version, List<FeatureFlagDto> flags) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(flags);
+            return new CachedList(version, json, json.length >= MIN_GZIP_SIZE ? gzip(json) : null,
+                    smileMapper.writeValueAsBytes(flags), cborMapper.writeValueAsBytes(flags));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not render flag list", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Immutable rendered list; gzip is null when the body is too small to compress
+     */
+    public static final class CachedList {
+
+        private final long version;
+        private final byte[] json;
+        private final byte[] gzip;
+        private final byte[] smile;
+        private final byte[] cbor;
+
+        CachedList(long version, byte[] json, byte[] gzip, byte[] smile, byte[] cbor) {
+            this.version = version;
+            this.json = json;
+            this.gzip = gzip;
+            this.smile = smile;
+            this.cbor = cbor;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public byte[] getJson() {
+            return json;
+        }
+
+        public byte[] getGzip() {
+            return gzip;
+        }
+
+        public byte[] getSmile() {
+            return smile;
+        }
+
+        public byte[] getCbor() {
+            return cbor;
+        }
+    }
+}
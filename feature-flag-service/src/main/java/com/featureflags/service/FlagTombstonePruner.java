@@ -0,0 +1,53 @@
+package com.featureflags.service;
+
+import com.featureflags.repository.FlagStoreVersionRepository;
+import com.featureflags.repository.FlagTombstoneRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Removes delete tombstones older than the retention period and raises the tombstone horizon,
+ * so clients syncing from before it are told to reload the snapshot instead of missing deletes.
+ */
+@Component
+public class FlagTombstonePruner {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlagTombstonePruner.class);
+
+    private final FlagTombstoneRepository flagTombstoneRepository;
+    private final FlagStoreVersionRepository flagStoreVersionRepository;
+    private final Duration retention;
+
+    @Autowired
+    public FlagTombstonePruner(FlagTombstoneRepository flagTombstoneRepository,
+                               FlagStoreVersionRepository flagStoreVersionRepository,
+                               @Value("${flags.changes.tombstone-retention:7d}") Duration retention) {
+        this.flagTombstoneRepository = flagTombstoneRepository;
+        this.flagStoreVersionRepository = flagStoreVersionRepository;
+        this.retention = retention;
+    }
+
+    @Scheduled(fixedDelayString = "${flags.changes.prune-interval-ms:3600000}")
+    @Transactional
+    public void prune() {
+        Optional<Long> horizon = flagTombstoneRepository
+                .findMaxChangeVersionDeletedBefore(LocalDateTime.now().minus(retention));
+        if (horizon.isEmpty()) {
+            return;
+        }
+
+        // Raise the horizon before deleting so no reader sees the gap without the 410
+        flagStoreVersionRepository.raiseTombstoneHorizon(horizon.get());
+        int pruned = flagTombstoneRepository.deleteUpToVersion(horizon.get());
+        logger.info("Pruned {} flag tombstones up to version {}", pruned, horizon.get());
+    }
+}
@@ -0,0 +1,395 @@
+package com.featureflags.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.featureflags.config.DatabaseSupport;
+import com.featureflags.config.RabbitMQConfig;
+import com.featureflags.dto.FlagUpdateEvent;
+import com.featureflags.model.OutboxEvent;
+import com.featureflags.repository.OutboxEventRepository;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drains the flag event outbox to RabbitMQ in batches.
+ * <p>
+ * Each pass publishes a batch without waiting in between, then collects the publisher
+ * confirms: acknowledged rows are deleted, the rest are retried with exponential backoff.
+ * A retry never overtakes a newer relayed event for the same flag: once an event for a flag is
+ * confirmed, that flag is dropped from every row still waiting to be retried with an older change
+ * version. Row ids are no guide to this, as each replica allocates them from its own block.
+ * On PostgreSQL a transaction-scoped advisory lock elects a single relaying replica per pass.
+ * <p>
+ * With a coalescing window set, events are held until the oldest pending one is a window old.
+ * Only the latest state of each flag is then published, as a single Smile-encoded BATCH message,
+ * so a toggle storm costs one message per window instead of one per flip.
+ */
+@Component
+@ConditionalOnProperty(name = "outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    public static final String SMILE_CONTENT_TYPE = "application/x-jackson-smile";
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+    private static final long RELAY_LOCK_KEY = 0x666c6167726c79L; // "flagrly"
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final ObjectMapper objectMapper;
+    private final ObjectMapper smileMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final DatabaseSupport databaseSupport;
+    private final Timer commitToPublish;
+
+    private final int batchSize;
+    private final long confirmTimeoutMs;
+    private final long backoffInitialMs;
+    private final long backoffMaxMs;
+    private final long coalesceWindowMs;
+
+    @Autowired
+    public OutboxRelay(OutboxEventRepository outboxEventRepository, RabbitTemplate rabbitTemplate,
+                       ObjectMapper objectMapper, JdbcTemplate jdbcTemplate,
+                       TransactionTemplate transactionTemplate, DatabaseSupport databaseSupport,
+                       MeterRegistry meterRegistry,
+                       @Value("${outbox.relay.batch-size:100}") int batchSize,
+                       @Value("${outbox.relay.confirm-timeout-ms:5000}") long confirmTimeoutMs,
+                       @Value("${outbox.relay.backoff-initial-ms:1000}") long backoffInitialMs,
+                       @Value("${outbox.relay.backoff-max-ms:60000}") long backoffMaxMs,
+                       @Value("${outbox.relay.coalesce-window-ms:0}") long coalesceWindowMs) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.objectMapper = objectMapper;
+        this.smileMapper = objectMapper.copyWith(new SmileFactory());
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.databaseSupport = databaseSupport;
+        this.commitToPublish = Timer.builder("feature_flags.outbox.commit_to_publish")
+                .description("Time from a flag change being written to its event being handed to the broker")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.batchSize = batchSize;
+        this.confirmTimeoutMs = confirmTimeoutMs;
+        this.backoffInitialMs = backoffInitialMs;
+        this.backoffMaxMs = backoffMaxMs;
+        this.coalesceWindowMs = coalesceWindowMs;
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:500}")
+    public void relay() {
+        Integer relayed;
+        do {
+            relayed = transactionTemplate.execute(status -> relayBatch());
+        } while (relayed != null && relayed == batchSize);
+    }
+
+    /**
+     * Relay one batch; returns the number of rows taken from the outbox
+     */
+    int relayBatch() {
+        if (!acquireLeadership()) {
+            return 0;
+        }
+
+        List<OutboxEvent> batch = outboxEventRepository.findReady(LocalDateTime.now(), PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        if (coalesceWindowMs > 0) {
+            return relayCoalesced(batch);
+        }
+
+        Map<OutboxEvent, CorrelationData> pending = new LinkedHashMap<>();
+        Map<OutboxEvent, FlagUpdateEvent> events = new HashMap<>();
+        List<Long> confirmed = new ArrayList<>();
+        List<OutboxEvent> failed = new ArrayList<>();
+
+        for (OutboxEvent outboxEvent : batch) {
+            FlagUpdateEvent event;
+            try {
+                event = objectMapper.readValue(outboxEvent.getPayload(), FlagUpdateEvent.class);
+            } catch (Exception e) {
+                // Can never succeed; drop it rather than block the outbox
+                logger.error("Discarding unreadable outbox event {}", outboxEvent.getId(), e);
+                confirmed.add(outboxEvent.getId());
+                continue;
+            }
+
+            events.put(outboxEvent, event);
+            CorrelationData correlationData = new CorrelationData(String.valueOf(outboxEvent.getId()));
+            long publishedAtMicros = FlagUpdateEvent.nowMicros();
+            event.setPublishedAtMicros(publishedAtMicros);
+            if (event.getCommittedAtMicros() != null) {
+                commitToPublish.record(Math.max(0, publishedAtMicros - event.getCommittedAtMicros()), TimeUnit.MICROSECONDS);
+            }
+            try {
+                rabbitTemplate.convertAndSend(RabbitMQConfig.EXCHANGE_NAME, RabbitMQConfig.ROUTING_KEY, event, correlationData);
+                pending.put(outboxEvent, correlationData);
+            } catch (Exception e) {
+                logger.warn("Failed to publish outbox event {}: {}", outboxEvent.getId(), e.getMessage());
+                failed.add(outboxEvent);
+            }
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(confirmTimeoutMs);
+        Map<String, Long> relayed = new HashMap<>();
+        for (Map.Entry<OutboxEvent, CorrelationData> entry : pending.entrySet()) {
+            if (isConfirmed(entry.getValue(), deadline)) {
+                confirmed.add(entry.getKey().getId());
+                markRelayed(relayed, events.get(entry.getKey()));
+            } else {
+                failed.add(entry.getKey());
+            }
+        }
+
+        int relayedCount = confirmed.size();
+        List<OutboxEvent> retried = new ArrayList<>();
+        for (OutboxEvent outboxEvent : failed) {
+            if (dropSuperseded(outboxEvent, events.get(outboxEvent), relayed)) {
+                confirmed.add(outboxEvent.getId());
+            } else {
+                retried.add(outboxEvent);
+            }
+        }
+        dropSupersededRetries(relayed, confirmed);
+        retried.forEach(this::scheduleRetry);
+        if (!confirmed.isEmpty()) {
+            outboxEventRepository.deleteAllByIdInBatch(confirmed);
+        }
+
+        if (!retried.isEmpty()) {
+            logger.warn("Relayed {} flag events, {} will be retried", relayedCount, retried.size());
+        } else {
+            logger.debug("Relayed {} flag events", relayedCount);
+        }
+        return batch.size();
+    }
+
+    /**
+     * Publish the latest state per flag of the batch as one Smile message, or hold the batch
+     * while its oldest event is younger than the window and the batch is not full
+     */
+    private int relayCoalesced(List<OutboxEvent> batch) {
+        LocalDateTime oldest = batch.get(0).getCreatedAt();
+        if (batch.size() < batchSize && oldest != null
+                && oldest.isAfter(LocalDateTime.now().minusNanos(TimeUnit.MILLISECONDS.toNanos(coalesceWindowMs)))) {
+            return 0;
+        }
+
+        Map<String, FlagUpdateEvent> latest = new LinkedHashMap<>();
+        List<Long> ids = new ArrayList<>();
+        long committedAtMicros = Long.MAX_VALUE;
+        for (OutboxEvent outboxEvent : batch) {
+            ids.add(outboxEvent.getId());
+            FlagUpdateEvent event;
+            try {
+                event = objectMapper.readValue(outboxEvent.getPayload(), FlagUpdateEvent.class);
+            } catch (Exception e) {
+                logger.error("Discarding unreadable outbox event {}", outboxEvent.getId(), e);
+                continue;
+            }
+            if (event.getCommittedAtMicros() != null) {
+                committedAtMicros = Math.min(committedAtMicros, event.getCommittedAtMicros());
+            }
+            for (FlagUpdateEvent flagEvent : flagEvents(event)) {
+                if (flagEvent.getFlagName() == null) {
+                    continue;
+                }
+                if (flagEvent.getVersion() == null && event.getVersion() != null) {
+                    flagEvent.setVersion(event.getVersion());
+                }
+                latest.merge(flagEvent.getFlagName(), flagEvent, (current, next) -> isNewer(next, current) ? next : current);
+            }
+        }
+        if (latest.isEmpty()) {
+            outboxEventRepository.deleteAllByIdInBatch(ids);
+            return batch.size();
+        }
+
+        FlagUpdateEvent coalesced = FlagUpdateEvent.batch(new ArrayList<>(latest.values()));
+        coalesced.setVersion(latest.values().stream()
+                .map(FlagUpdateEvent::getVersion).filter(Objects::nonNull).max(Long::compare).orElse(null));
+        coalesced.setCommittedAtMicros(committedAtMicros != Long.MAX_VALUE ? committedAtMicros : null);
+        long publishedAtMicros = FlagUpdateEvent.nowMicros();
+        coalesced.setPublishedAtMicros(publishedAtMicros);
+        if (coalesced.getCommittedAtMicros() != null) {
+            commitToPublish.record(Math.max(0, publishedAtMicros - committedAtMicros), TimeUnit.MICROSECONDS);
+        }
+
+        CorrelationData correlationData = new CorrelationData("coalesced-" + ids.get(0) + "-" + ids.get(ids.size() - 1));
+        boolean confirmed;
+        try {
+            Message message = MessageBuilder.withBody(smileMapper.writeValueAsBytes(coalesced))
+                    .setContentType(SMILE_CONTENT_TYPE)
+                    .build();
+            rabbitTemplate.send(RabbitMQConfig.EXCHANGE_NAME, RabbitMQConfig.ROUTING_KEY, message, correlationData);
+            confirmed = isConfirmed(correlationData, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(confirmTimeoutMs));
+        } catch (Exception e) {
+            logger.warn("Failed to publish coalesced flag events: {}", e.getMessage());
+            confirmed = false;
+        }
+
+        if (confirmed) {
+            Map<String, Long> relayed = new HashMap<>();
+            latest.forEach((flagName, flagEvent) -> {
+                if (flagEvent.getVersion() != null) {
+                    relayed.put(flagName, flagEvent.getVersion());
+                }
+            });
+            dropSupersededRetries(relayed, ids);
+            outboxEventRepository.deleteAllByIdInBatch(ids);
+            logger.debug("Relayed {} flag events coalesced into {} flag states", batch.size(), latest.size());
+        } else {
+            batch.forEach(this::scheduleRetry);
+            logger.warn("Coalesced batch of {} flag events will be retried", batch.size());
+        }
+        return batch.size();
+    }
+
+    /**
+     * Remember the change version of each flag the relayed event carries, keeping the newest per flag
+     */
+    private static void markRelayed(Map<String, Long> relayed, FlagUpdateEvent event) {
+        for (FlagUpdateEvent flagEvent : flagEvents(event)) {
+            Long version = versionOf(flagEvent, event);
+            if (flagEvent.getFlagName() != null && version != null) {
+                relayed.merge(flagEvent.getFlagName(), version, Math::max);
+            }
+        }
+    }
+
+    /**
+     * Drop the flags that a relayed event has superseded from older rows waiting for a retry;
+     * rows with nothing left are added to the ids to delete
+     */
+    private void dropSupersededRetries(Map<String, Long> relayed, List<Long> toDelete) {
+        if (relayed.isEmpty()) {
+            return;
+        }
+        int dropped = 0;
+        for (OutboxEvent outboxEvent : outboxEventRepository.findDeferred(LocalDateTime.now(), PageRequest.of(0, batchSize))) {
+            FlagUpdateEvent event;
+            try {
+                event = objectMapper.readValue(outboxEvent.getPayload(), FlagUpdateEvent.class);
+            } catch (Exception e) {
+                continue;
+            }
+            if (dropSuperseded(outboxEvent, event, relayed)) {
+                toDelete.add(outboxEvent.getId());
+                dropped++;
+            }
+        }
+        if (dropped > 0) {
+            logger.debug("Dropped {} unrelayed flag events superseded by newer ones", dropped);
+        }
+    }
+
+    /**
+     * Remove the flags a relayed event with a newer or equal change version has superseded from an
+     * unrelayed row, rewriting its payload when only some are; true when nothing is left to relay.
+     * Flag events without a version are always kept.
+     */
+    private boolean dropSuperseded(OutboxEvent outboxEvent, FlagUpdateEvent event, Map<String, Long> relayed) {
+        if (event == null) {
+            return false;
+        }
+        List<FlagUpdateEvent> remaining = new ArrayList<>();
+        for (FlagUpdateEvent flagEvent : flagEvents(event)) {
+            Long newest = flagEvent.getFlagName() != null ? relayed.get(flagEvent.getFlagName()) : null;
+            Long version = versionOf(flagEvent, event);
+            if (newest == null || version == null || newest < version) {
+                remaining.add(flagEvent);
+            }
+        }
+        if (remaining.isEmpty()) {
+            return true;
+        }
+        if (remaining.size() < flagEvents(event).size()) {
+            event.setEvents(remaining);
+            try {
+                outboxEvent.setPayload(objectMapper.writeValueAsString(event));
+            } catch (Exception e) {
+                logger.warn("Could not rewrite outbox event {}: {}", outboxEvent.getId(), e.getMessage());
+            }
+        }
+        return false;
+    }
+
+    private static List<FlagUpdateEvent> flagEvents(FlagUpdateEvent event) {
+        return FlagUpdateEvent.BATCH.equals(event.getEventType()) && event.getEvents() != null
+                ? event.getEvents() : List.of(event);
+    }
+
+    /**
+     * The change version of a flag event, taken from its batch when it carries none itself
+     */
+    private static Long versionOf(FlagUpdateEvent flagEvent, FlagUpdateEvent event) {
+        return flagEvent.getVersion() != null ? flagEvent.getVersion() : event.getVersion();
+    }
+
+    private static boolean isNewer(FlagUpdateEvent candidate, FlagUpdateEvent current) {
+        if (candidate.getVersion() == null || current.getVersion() == null) {
+            return true;
+        }
+        return candidate.getVersion() >= current.getVersion();
+    }
+
+    private boolean isConfirmed(CorrelationData correlationData, long deadline) {
+        try {
+            long remaining = Math.max(0, deadline - System.nanoTime());
+            CorrelationData.Confirm confirm = correlationData.getFuture().get(remaining, TimeUnit.NANOSECONDS);
+            if (!confirm.isAck()) {
+                logger.warn("Broker nacked outbox event {}: {}", correlationData.getId(), confirm.getReason());
+            }
+            return confirm.isAck() && correlationData.getReturned() == null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            logger.warn("No publisher confirm for outbox event {}: {}", correlationData.getId(), e.toString());
+            return false;
+        }
+    }
+
+    private void scheduleRetry(OutboxEvent outboxEvent) {
+        int attempts = outboxEvent.getAttempts() + 1;
+        long delayMs = Math.min(backoffMaxMs, backoffInitialMs << Math.min(attempts - 1, 20));
+        outboxEvent.setAttempts(attempts);
+        outboxEvent.setNextAttemptAt(LocalDateTime.now().plusNanos(TimeUnit.MILLISECONDS.toNanos(delayMs)));
+    }
+
+    /**
+     * Only one replica relays at a time; the advisory lock is released when the transaction ends
+     */
+    private boolean acquireLeadership() {
+        if (!databaseSupport.isPostgres()) {
+            return true;
+        }
+        Boolean leader = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, RELAY_LOCK_KEY);
+        return Boolean.TRUE.equals(leader);
+    }
+}
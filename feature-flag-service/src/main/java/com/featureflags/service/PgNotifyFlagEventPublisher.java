@@ -0,0 +1,58 @@
+package com.featureflags.service;
+
+import com.featureflags.config.DatabaseSupport;
+import com.featureflags.dto.FlagUpdateEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Broker-less transport: signals each flag change with PostgreSQL NOTIFY on the write
+ * transaction, which the database delivers to LISTENing subscribers only when it commits.
+ * <p>
+ * The payload is just "version,committedAtMicros". Subscribers fetch the changes feed from
+ * their applied version on, so notifications never carry flag state and coalesce naturally.
+ */
+@Component
+@ConditionalOnProperty(name = "flags.propagation.transport", havingValue = "pg-notify")
+public class PgNotifyFlagEventPublisher implements FlagEventPublisher, InitializingBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(PgNotifyFlagEventPublisher.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseSupport databaseSupport;
+    private final String channel;
+
+    @Autowired
+    public PgNotifyFlagEventPublisher(JdbcTemplate jdbcTemplate, DatabaseSupport databaseSupport,
+                                      @Value("${flags.propagation.pg-notify.channel:flag_changes}") String channel) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.databaseSupport = databaseSupport;
+        this.channel = channel;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!databaseSupport.isPostgres()) {
+            throw new IllegalStateException("flags.propagation.transport=pg-notify requires PostgreSQL");
+        }
+        logger.info("Flag changes are signalled with NOTIFY on channel {}", channel);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(FlagUpdateEvent event) {
+        if (event.getVersion() == null) {
+            throw new IllegalStateException("Flag event has no change version: " + event);
+        }
+        String payload = event.getVersion() + "," + (event.getCommittedAtMicros() != null ? event.getCommittedAtMicros() : 0);
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", resultSet -> { }, channel, payload);
+    }
+}
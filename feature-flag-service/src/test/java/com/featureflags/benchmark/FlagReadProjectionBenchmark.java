@@ -0,0 +1,111 @@
+package com.featureflags.benchmark;
+
+import com.featureflags.dto.FeatureFlagDto;
+import com.featureflags.model.FeatureFlag;
+import com.featureflags.repository.FeatureFlagRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares reading 10k flags as managed entities mapped to DTOs against the DTO projections.
+ * Not part of the regular build, run with:
+ * mvn test -Dtest=FlagReadProjectionBenchmark -Dbenchmark=true -Dspring.jpa.show-sql=false
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class FlagReadProjectionBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlagReadProjectionBenchmark.class);
+    private static final int ROWS = 10_000;
+    private static final int WARMUP_ITERATIONS = 20;
+    private static final int MEASURED_ITERATIONS = 50;
+
+    @Autowired
+    private FeatureFlagRepository featureFlagRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private RabbitTemplate rabbitTemplate;
+
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        if (featureFlagRepository.count() < ROWS) {
+            List<FeatureFlag> flags = new ArrayList<>(ROWS);
+            for (int i = 0; i < ROWS; i++) {
+                flags.add(new FeatureFlag("benchmark_flag_" + i, i % 2 == 0, "Benchmark flag number " + i));
+            }
+            featureFlagRepository.saveAll(flags);
+        }
+    }
+
+    @Test
+    void compareEntityHydrationWithProjection() {
+        Result entities = measure("entities", () -> featureFlagRepository.findAll().stream()
+                .map(flag -> {
+                    FeatureFlagDto dto = new FeatureFlagDto(flag.getName(), flag.isEnabled(), flag.getDescription());
+                    dto.setId(flag.getId());
+                    dto.setVersion(flag.getVersion());
+                    return dto;
+                })
+                .collect(Collectors.toList()));
+        Result projection = measure("projection", featureFlagRepository::findAllDtos);
+
+        logger.info(String.format("Per %d rows: entities %.1f ms / %d KB, projection %.1f ms / %d KB",
+                ROWS, entities.millis, entities.allocatedKb, projection.millis, projection.allocatedKb));
+    }
+
+    private Result measure(String name, Supplier<List<FeatureFlagDto>> read) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            readOnly.execute(status -> read.get());
+        }
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            List<FeatureFlagDto> flags = readOnly.execute(status -> read.get());
+            assertEquals(ROWS, flags.size(), name);
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        return new Result(elapsed / 1_000_000.0 / MEASURED_ITERATIONS, allocated / 1024 / MEASURED_ITERATIONS);
+    }
+
+    private static final class Result {
+
+        private final double millis;
+        private final long allocatedKb;
+
+        Result(double millis, long allocatedKb) {
+            this.millis = millis;
+            this.allocatedKb = allocatedKb;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.featureflags.benchmark;
+
+import com.featureflags.dto.FeatureFlagDto;
+import com.featureflags.grpc.FlagChangeFeed;
+import com.featureflags.grpc.FlagGrpcServer;
+import com.featureflags.grpc.v1.FlagChanges;
+import com.featureflags.grpc.v1.FlagServiceGrpc;
+import com.featureflags.grpc.v1.SubscribeRequest;
+import com.featureflags.service.FeatureFlagService;
+import io.grpc.ManagedChannel;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Opens many gRPC flag subscriptions against one service instance, multiplexed over a few
+ * HTTP/2 connections, then measures the heap they hold and how long one change takes to reach
+ * all of them. The clients run in the same JVM, so the heap figure is an upper bound for the
+ * server side. Not part of the regular build, run with:
+ * mvn test -Dtest=GrpcSubscriberBenchmark -Dbenchmark=true -Dspring.jpa.show-sql=false
+ * mvn test -Dtest=GrpcSubscriberBenchmark -Dbenchmark=true -Dbenchmark.subscribers=50000 -Dbenchmark.connections=16
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "flags.grpc.max-concurrent-calls-per-connection=100000"
+})
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class GrpcSubscriberBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(GrpcSubscriberBenchmark.class);
+    private static final int FLAGS = 200;
+    private static final int ROUNDS = 5;
+
+    @Autowired
+    private FeatureFlagService featureFlagService;
+
+    @Autowired
+    private FlagGrpcServer flagGrpcServer;
+
+    @Autowired
+    private FlagChangeFeed flagChangeFeed;
+
+    @MockBean
+    private RabbitTemplate rabbitTemplate;
+
+    @Test
+    void measureSubscriberCapacity() throws Exception {
+        int subscribers = Integer.getInteger("benchmark.subscribers", 10000);
+        int connections = Integer.getInteger("benchmark.connections", 8);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < FLAGS; i++) {
+            ids.add(featureFlagService.createFlag(new FeatureFlagDto("subscriber_flag_" + i, false)).getId());
+        }
+        flagChangeFeed.refresh();
+
+        List<ManagedChannel> channels = new ArrayList<>();
+        for (int i = 0; i < connections; i++) {
+            channels.add(NettyChannelBuilder.forAddress("localhost", flagGrpcServer.getPort()).usePlaintext().build());
+        }
+        try {
+            long heapBefore = usedHeap();
+            CountingObserver observer = new CountingObserver(subscribers);
+            long openStart = System.nanoTime();
+            for (int i = 0; i < subscribers; i++) {
+                FlagServiceGrpc.newStub(channels.get(i % connections))
+                        .subscribe(SubscribeRequest.getDefaultInstance(), observer);
+            }
+            assertTrue(observer.await(60), "snapshots not received by all subscribers");
+            long openMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - openStart);
+            long heapPerSubscriber = (usedHeap() - heapBefore) / subscribers;
+
+            long[] fanOutMillis = new long[ROUNDS];
+            for (int round = 0; round < ROUNDS; round++) {
+                observer.expect(subscribers);
+                long start = System.nanoTime();
+                featureFlagService.toggleFlag(ids.get(round));
+                flagChangeFeed.refresh();
+                assertTrue(observer.await(60), "change not received by all subscribers");
+                fanOutMillis[round] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            }
+            assertEquals(0, observer.errors.get());
+
+            logger.info(String.format("%d subscribers over %d connections: opened with snapshots in %d ms, "
+                            + "~%d bytes heap per subscriber (client and server), change fan-out %s ms",
+                    subscribers, connections, openMillis, heapPerSubscriber, Arrays.toString(fanOutMillis)));
+        } finally {
+            channels.forEach(ManagedChannel::shutdownNow);
+        }
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(200);
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * Shared by all subscriptions: counts messages towards the expected total
+     */
+    private static final class CountingObserver implements StreamObserver<FlagChanges> {
+
+        private final AtomicLong errors = new AtomicLong();
+        private volatile CountDownLatch latch;
+
+        CountingObserver(int expected) {
+            expect(expected);
+        }
+
+        void expect(int expected) {
+            latch = new CountDownLatch(expected);
+        }
+
+        boolean await(long seconds) throws InterruptedException {
+            return latch.await(seconds, TimeUnit.SECONDS);
+        }
+
+        @Override
+        public void onNext(FlagChanges value) {
+            latch.countDown();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            errors.incrementAndGet();
+        }
+
+        @Override
+        public void onCompleted() {
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.featureflags.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.featureflags.dto.AttributeMatch;
+import com.featureflags.dto.FeatureFlagDto;
+import com.featureflags.dto.TargetingRules;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the JSON, Smile and CBOR bodies of a flag list: size on the wire, plain and gzipped,
+ * and CPU time to serialize and parse it. Not part of the regular build, run with:
+ * mvn test -Dtest=PayloadEncodingBenchmark -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class PayloadEncodingBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(PayloadEncodingBenchmark.class);
+    private static final int FLAGS = 500;
+    private static final int WARMUP_ITERATIONS = 2_000;
+    private static final int MEASURED_ITERATIONS = 5_000;
+
+    private final ObjectMapper jsonMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Test
+    void compareEncodings() throws IOException {
+        FeatureFlagDto[] flags = flags();
+        for (Format format : List.of(
+                new Format("json", jsonMapper),
+                new Format("smile", jsonMapper.copyWith(new SmileFactory())),
+                new Format("cbor", jsonMapper.copyWith(new CBORFactory())))) {
+            byte[] body = format.mapper.writeValueAsBytes(flags);
+            double writeMicros = cpuMicros(() -> format.mapper.writeValueAsBytes(flags));
+            double readMicros = cpuMicros(() -> format.mapper.readValue(body, FeatureFlagDto[].class));
+            assertEquals(FLAGS, format.mapper.readValue(body, FeatureFlagDto[].class).length);
+
+            logger.info(String.format("%-5s %6d bytes, %6d gzipped, write %7.1f us, read %7.1f us CPU per %d flags",
+                    format.name, body.length, gzip(body).length, writeMicros, readMicros, FLAGS));
+        }
+    }
+
+    private static FeatureFlagDto[] flags() {
+        FeatureFlagDto[] flags = new FeatureFlagDto[FLAGS];
+        for (int i = 0; i < FLAGS; i++) {
+            TargetingRules targeting = i % 4 == 0
+                    ? new TargetingRules(List.of("user-" + i), null,
+                            List.of(new AttributeMatch("country", List.of("DE", "FR"), false)), 25)
+                    : null;
+            flags[i] = new FeatureFlagDto((long) i, "benchmark_flag_" + i, i % 2 == 0,
+                    "Benchmark flag number " + i, targeting, (long) i % 7);
+        }
+        return flags;
+    }
+
+    private static double cpuMicros(Encoding encoding) throws IOException {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            encoding.run();
+        }
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long start = threads.getCurrentThreadCpuTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            encoding.run();
+        }
+        return (threads.getCurrentThreadCpuTime() - start) / 1_000.0 / MEASURED_ITERATIONS;
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            gzip.write(body);
+        }
+        return buffer.toByteArray();
+    }
+
+    private interface Encoding {
+        Object run() throws IOException;
+    }
+
+    private static final class Format {
+
+        private final String name;
+        private final ObjectMapper mapper;
+
+        Format(String name, ObjectMapper mapper) {
+            this.name = name;
+            this.mapper = mapper;
+        }
+    }
+}
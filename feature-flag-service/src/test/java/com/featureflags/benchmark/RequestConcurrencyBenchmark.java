@@ -0,0 +1,116 @@
+package com.featureflags.benchmark;
+
+import com.featureflags.model.FeatureFlag;
+import com.featureflags.repository.FeatureFlagRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closed-loop HTTP load on the flag API, 90% reads by name and 10% toggles, to compare the
+ * platform-thread mode with the virtual-thread mode. The virtual-thread run needs a Java 21
+ * build. Not part of the regular build, run with:
+ * mvn test -Dtest=RequestConcurrencyBenchmark -Dbenchmark=true -Dspring.jpa.show-sql=false
+ * mvn test -Pjdk21 -Dtest=RequestConcurrencyBenchmark -Dbenchmark=true -Dbenchmark.virtual-threads=true -Dspring.jpa.show-sql=false
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.jpa.show-sql=false",
+        "spring.threads.virtual.enabled=${benchmark.virtual-threads:false}"
+})
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class RequestConcurrencyBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestConcurrencyBenchmark.class);
+    private static final int FLAGS = 50;
+    private static final int CONCURRENCY = 400;
+    private static final long WARMUP_SECONDS = 5;
+    private static final long MEASURED_SECONDS = 20;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private FeatureFlagRepository featureFlagRepository;
+
+    @MockBean
+    private RabbitTemplate rabbitTemplate;
+
+    @Test
+    void measureThroughputAndLatency() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < FLAGS; i++) {
+            ids.add(featureFlagRepository.save(new FeatureFlag("load_flag_" + i, false, "Load test flag")).getId());
+        }
+        HttpClient http = HttpClient.newBuilder().executor(Executors.newFixedThreadPool(16)).build();
+
+        run(http, ids, TimeUnit.SECONDS.toNanos(WARMUP_SECONDS));
+        long[] latencies = run(http, ids, TimeUnit.SECONDS.toNanos(MEASURED_SECONDS));
+
+        Arrays.sort(latencies);
+        logger.info(String.format("%s threads, %d clients: %.0f req/s, p50 %.2f ms, p99 %.2f ms, max %.2f ms",
+                Boolean.getBoolean("benchmark.virtual-threads") ? "virtual" : "platform", CONCURRENCY,
+                latencies.length / (double) MEASURED_SECONDS, percentile(latencies, 0.50),
+                percentile(latencies, 0.99), latencies[latencies.length - 1] / 1e6));
+    }
+
+    private long[] run(HttpClient http, List<Long> ids, long durationNanos) throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(CONCURRENCY);
+        long deadline = System.nanoTime() + durationNanos;
+        List<Future<long[]>> results = new ArrayList<>();
+        for (int c = 0; c < CONCURRENCY; c++) {
+            results.add(clients.submit(() -> {
+                long[] samples = new long[1024];
+                int count = 0;
+                while (System.nanoTime() < deadline) {
+                    int index = ThreadLocalRandom.current().nextInt(FLAGS);
+                    HttpRequest request = ThreadLocalRandom.current().nextInt(10) == 0
+                            ? HttpRequest.newBuilder(uri("/api/flags/" + ids.get(index) + "/toggle"))
+                                    .method("PATCH", HttpRequest.BodyPublishers.noBody()).build()
+                            : HttpRequest.newBuilder(uri("/api/flags/name/load_flag_" + index)).GET().build();
+                    long start = System.nanoTime();
+                    http.send(request, HttpResponse.BodyHandlers.discarding());
+                    if (count == samples.length) {
+                        samples = Arrays.copyOf(samples, count * 2);
+                    }
+                    samples[count++] = System.nanoTime() - start;
+                }
+                return Arrays.copyOf(samples, count);
+            }));
+        }
+        List<long[]> perClient = new ArrayList<>();
+        for (Future<long[]> result : results) {
+            perClient.add(result.get());
+        }
+        clients.shutdown();
+        return perClient.stream().flatMapToLong(Arrays::stream).toArray();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.round(percentile * sorted.length))] / 1e6;
+    }
+}
@@ -0,0 +1,73 @@
+package com.featureflags.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContentNegotiationTest {
+
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+    private static final List<MediaType> PRODUCIBLE = List.of(MediaType.APPLICATION_JSON, SMILE,
+            MediaType.APPLICATION_CBOR);
+
+    @Test
+    void select_WhenAcceptIsAbsentOrMalformed_ShouldChooseThePreferredType() {
+        assertEquals(MediaType.APPLICATION_JSON, ContentNegotiation.select(null, PRODUCIBLE));
+        assertEquals(MediaType.APPLICATION_JSON, ContentNegotiation.select(" ", PRODUCIBLE));
+        assertEquals(MediaType.APPLICATION_JSON, ContentNegotiation.select("not a media type", PRODUCIBLE));
+    }
+
+    @Test
+    void select_WhenWildcardsAreAccepted_ShouldChooseThePreferredType() {
+        assertEquals(MediaType.APPLICATION_JSON, ContentNegotiation.select("*/*", PRODUCIBLE));
+        assertEquals(MediaType.APPLICATION_JSON, ContentNegotiation.select("application/*", PRODUCIBLE));
+    }
+
+    @Test
+    void select_ShouldChooseTheHighestQuality() {
+        assertEquals(MediaType.APPLICATION_CBOR,
+                ContentNegotiation.select("application/json;q=0.5, application/cbor", PRODUCIBLE));
+        assertEquals(SMILE,
+                ContentNegotiation.select("application/cbor;q=0.2, application/x-jackson-smile;q=0.8", PRODUCIBLE));
+    }
+
+    @Test
+    void select_WhenQualitiesAreEqual_ShouldPreferTheMoreSpecificEntry() {
+        assertEquals(MediaType.APPLICATION_CBOR, ContentNegotiation.select("*/*, application/cbor", PRODUCIBLE));
+        assertEquals(MediaType.APPLICATION_CBOR,
+                ContentNegotiation.select("application/*, application/cbor", PRODUCIBLE));
+    }
+
+    @Test
+    void select_WhenTheClosestEntryHasZeroQuality_ShouldExcludeTheType() {
+        assertEquals(SMILE, ContentNegotiation.select("application/json;q=0, */*", PRODUCIBLE));
+        assertEquals(MediaType.APPLICATION_JSON, ContentNegotiation.select("application/json, */*;q=0", PRODUCIBLE));
+        assertNull(ContentNegotiation.select("*/*;q=0", PRODUCIBLE));
+    }
+
+    @Test
+    void select_WhenNoTypeIsCompatible_ShouldReturnNull() {
+        assertNull(ContentNegotiation.select("text/html, application/xml", PRODUCIBLE));
+    }
+
+    @Test
+    void acceptsGzip_ShouldHonorQualityValues() {
+        assertTrue(ContentNegotiation.acceptsGzip("gzip, deflate, br"));
+        assertTrue(ContentNegotiation.acceptsGzip("deflate, x-gzip;q=0.5"));
+        assertFalse(ContentNegotiation.acceptsGzip("gzip;q=0, deflate"));
+        assertFalse(ContentNegotiation.acceptsGzip("gzip;q=zero"));
+        assertFalse(ContentNegotiation.acceptsGzip("identity"));
+        assertFalse(ContentNegotiation.acceptsGzip(null));
+    }
+
+    @Test
+    void acceptsGzip_ShouldFallBackToTheWildcardOnlyWhenGzipIsNotListed() {
+        assertTrue(ContentNegotiation.acceptsGzip("*"));
+        assertTrue(ContentNegotiation.acceptsGzip("GZIP;Q=0.1, *;q=0"));
+        assertFalse(ContentNegotiation.acceptsGzip("br, *;q=0"));
+        assertFalse(ContentNegotiation.acceptsGzip("gzip;q=0, *"));
+    }
+}
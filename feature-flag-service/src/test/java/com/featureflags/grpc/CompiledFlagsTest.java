@@ -0,0 +1,40 @@
+package com.featureflags.grpc;
+
+import com.featureflags.client.CompiledFlag;
+import com.featureflags.dto.AttributeMatch;
+import com.featureflags.dto.FlagStateDto;
+import com.featureflags.dto.TargetingRules;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompiledFlagsTest {
+
+    @Test
+    void compile_ShouldCarryEveryTargetingRuleToTheClientEvaluator() {
+        TargetingRules rules = new TargetingRules(List.of("vip", "banned"), List.of("banned"),
+                List.of(new AttributeMatch("country", List.of("DE"), false)), 0);
+        CompiledFlag flag = CompiledFlags.compile(new FlagStateDto(1L, "flag", true, rules, 7));
+
+        assertEquals(7, flag.getChangeVersion());
+        assertTrue(flag.evaluate("vip", Map.of("country", "US")));
+        assertFalse(flag.evaluate("banned", Map.of("country", "DE")));
+        assertFalse(flag.evaluate("someone", Map.of("country", "DE")));
+        assertTrue(CompiledFlags.compile(new FlagStateDto(1L, "flag", true, null, 7)).evaluate(null, null));
+    }
+
+    @Test
+    void compile_ShouldBucketUsersLikeTheClient() {
+        CompiledFlag server = CompiledFlags.compile(
+                new FlagStateDto(1L, "new_search", true, new TargetingRules(null, null, null, 30), 1));
+        CompiledFlag client = CompiledFlag.compile("new_search", true,
+                new com.featureflags.client.model.TargetingRules(null, null, null, 30), 1);
+
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals(client.evaluate("user-" + i, null), server.evaluate("user-" + i, null));
+        }
+    }
+}
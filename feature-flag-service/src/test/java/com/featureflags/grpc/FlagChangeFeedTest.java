@@ -0,0 +1,202 @@
+package com.featureflags.grpc;
+
+import com.featureflags.dto.FlagChangesDto;
+import com.featureflags.dto.FlagStateDto;
+import com.featureflags.dto.TargetingRules;
+import com.featureflags.grpc.v1.FlagChanges;
+import com.featureflags.grpc.v1.FlagState;
+import com.featureflags.service.FeatureFlagService;
+import com.featureflags.service.FlagChangeVersions;
+import io.grpc.stub.ServerCallStreamObserver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FlagChangeFeedTest {
+
+    @Mock
+    private FeatureFlagService featureFlagService;
+
+    @Mock
+    private FlagChangeVersions flagChangeVersions;
+
+    private FlagChangeFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        feed = new FlagChangeFeed(featureFlagService, flagChangeVersions);
+        when(featureFlagService.getSnapshot()).thenReturn(new FlagChangesDto(10, List.of(
+                new FlagStateDto(1L, "flag_one", true, null, 3),
+                new FlagStateDto(2L, "beta_search", true, new TargetingRules(List.of("tester"), null, null, 0), 10))));
+        feed.refresh();
+    }
+
+    @Test
+    void refresh_ShouldApplyChangesOnlyWhenVersionMoved() {
+        when(flagChangeVersions.current()).thenReturn(10L);
+        feed.refresh();
+        verify(featureFlagService, never()).getChangesSince(anyLong());
+
+        when(flagChangeVersions.current()).thenReturn(12L);
+        when(featureFlagService.getChangesSince(10)).thenReturn(new FlagChangesDto(12, List.of(
+                new FlagStateDto(1L, "flag_one", false, null, 11),
+                FlagStateDto.tombstone(2L, "beta_search", 12))));
+        feed.refresh();
+
+        FlagChangeFeed.State state = feed.state();
+        assertEquals(12, state.version);
+        assertFalse(state.get("flag_one").evaluate(null, null));
+        assertNull(state.get("beta_search"));
+        FlagChanges changes = state.changesSince(10);
+        assertFalse(changes.getSnapshot());
+        assertEquals(List.of("flag_one", "beta_search"), changes.getFlagsList().stream().map(FlagState::getName).toList());
+        assertTrue(changes.getFlags(1).getDeleted());
+        assertTrue(state.changesSince(9).getSnapshot());
+    }
+
+    @Test
+    void refresh_ShouldPruneTombstonesBelowHorizonAndSendOlderSubscribersASnapshot() {
+        when(flagChangeVersions.current()).thenReturn(12L);
+        when(featureFlagService.getChangesSince(10)).thenReturn(new FlagChangesDto(12, List.of(
+                FlagStateDto.tombstone(2L, "beta_search", 11),
+                new FlagStateDto(1L, "flag_one", false, null, 12))));
+        feed.refresh();
+        assertEquals(2, feed.state().changesSince(10).getFlagsCount());
+
+        when(flagChangeVersions.current()).thenReturn(13L);
+        when(flagChangeVersions.tombstoneHorizon()).thenReturn(11L);
+        when(featureFlagService.getChangesSince(12)).thenReturn(new FlagChangesDto(13, List.of(
+                new FlagStateDto(3L, "new_flag", true, null, 13))));
+        feed.refresh();
+
+        FlagChangeFeed.State state = feed.state();
+        assertEquals(11, state.resumableVersion);
+        assertTrue(state.changesSince(10).getSnapshot());
+        FlagChanges changes = state.changesSince(11);
+        assertFalse(changes.getSnapshot());
+        assertEquals(List.of("flag_one", "new_flag"), changes.getFlagsList().stream().map(FlagState::getName).toList());
+    }
+
+    @Test
+    void subscription_WhenReady_ShouldReceiveSnapshotThenDeltas() {
+        RecordingObserver observer = new RecordingObserver();
+        new FlagSubscription(observer, feed, 0).start();
+
+        toggleFlagOne(11);
+
+        assertEquals(2, observer.messages.size());
+        assertTrue(observer.messages.get(0).getSnapshot());
+        assertEquals(2, observer.messages.get(0).getFlagsCount());
+        assertEquals(11, observer.messages.get(1).getVersion());
+        assertFalse(observer.messages.get(1).getSnapshot());
+        assertEquals(1, feed.subscriberCount());
+    }
+
+    @Test
+    void subscription_WhenNotReady_ShouldCoalesceMissedChangesIntoOneMessage() {
+        RecordingObserver observer = new RecordingObserver();
+        new FlagSubscription(observer, feed, 10).start();
+        assertEquals(List.of(10L), observer.versions());
+
+        observer.ready = false;
+        toggleFlagOne(11);
+        toggleFlagOne(12);
+        assertEquals(1, observer.messages.size());
+
+        observer.ready = true;
+        observer.onReady.run();
+
+        assertEquals(List.of(10L, 12L), observer.versions());
+        assertEquals(1, observer.messages.get(1).getFlagsCount());
+        assertEquals(12, observer.messages.get(1).getFlags(0).getChangeVersion());
+    }
+
+    @Test
+    void subscription_WhenCancelled_ShouldUnregister() {
+        RecordingObserver observer = new RecordingObserver();
+        new FlagSubscription(observer, feed, 0).start();
+
+        observer.onCancel.run();
+        toggleFlagOne(11);
+
+        assertEquals(1, observer.messages.size());
+        assertEquals(0, feed.subscriberCount());
+    }
+
+    private void toggleFlagOne(long version) {
+        when(flagChangeVersions.current()).thenReturn(version);
+        when(featureFlagService.getChangesSince(version - 1)).thenReturn(new FlagChangesDto(version, List.of(
+                new FlagStateDto(1L, "flag_one", version % 2 == 0, null, version))));
+        feed.refresh();
+    }
+
+    private static class RecordingObserver extends ServerCallStreamObserver<FlagChanges> {
+
+        private final List<FlagChanges> messages = new ArrayList<>();
+        private boolean ready = true;
+        private Runnable onReady;
+        private Runnable onCancel;
+
+        List<Long> versions() {
+            return messages.stream().map(FlagChanges::getVersion).toList();
+        }
+
+        @Override
+        public boolean isReady() {
+            return ready;
+        }
+
+        @Override
+        public void setOnReadyHandler(Runnable onReadyHandler) {
+            onReady = onReadyHandler;
+        }
+
+        @Override
+        public void setOnCancelHandler(Runnable onCancelHandler) {
+            onCancel = onCancelHandler;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public void setCompression(String compression) {
+        }
+
+        @Override
+        public void disableAutoInboundFlowControl() {
+        }
+
+        @Override
+        public void request(int count) {
+        }
+
+        @Override
+        public void setMessageCompression(boolean enable) {
+        }
+
+        @Override
+        public void onNext(FlagChanges value) {
+            messages.add(value);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+        }
+
+        @Override
+        public void onCompleted() {
+        }
+    }
+}
@@ -1,9 +1,29 @@
 package com.featureflags.integration;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.featureflags.dto.AttributeMatch;
+import com.featureflags.dto.BulkFlagRequest;
+import com.featureflags.dto.EvaluationCountDto;
+import com.featureflags.dto.EvaluationReportDto;
 import com.featureflags.dto.FeatureFlagDto;
+import com.featureflags.dto.TargetingRules;
+import com.featureflags.grpc.FlagChangeFeed;
+import com.featureflags.grpc.FlagGrpcServer;
+import com.featureflags.grpc.v1.BatchEvaluateRequest;
+import com.featureflags.grpc.v1.BatchEvaluateResponse;
+import com.featureflags.grpc.v1.EvaluateRequest;
+import com.featureflags.grpc.v1.EvaluateResponse;
+import com.featureflags.grpc.v1.FlagChanges;
+import com.featureflags.grpc.v1.FlagServiceGrpc;
+import com.featureflags.grpc.v1.SubscribeRequest;
 import com.featureflags.model.FeatureFlag;
 import com.featureflags.repository.FeatureFlagRepository;
+import com.featureflags.repository.OutboxEventRepository;
+import io.grpc.ManagedChannel;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import io.grpc.stub.StreamObserver;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,11 +36,21 @@ import org.springframework.http.MediaType;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.Matchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @AutoConfigureMockMvc
@@ -37,6 +67,15 @@ public class FeatureFlagIntegrationTest {
     @Autowired
     private FeatureFlagRepository featureFlagRepository;
 
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private FlagGrpcServer flagGrpcServer;
+
+    @Autowired
+    private FlagChangeFeed flagChangeFeed;
+
     @MockBean
     private RabbitTemplate rabbitTemplate;
 
@@ -54,6 +93,7 @@ public class FeatureFlagIntegrationTest {
     @AfterEach
     void tearDown() {
         featureFlagRepository.deleteAll();
+        outboxEventRepository.deleteAll();
     }
 
     @Test
@@ -65,6 +105,151 @@ public class FeatureFlagIntegrationTest {
                 .andExpect(jsonPath("$[0].enabled", is(true)));
     }
 
+    @Test
+    void getAllFlags_AfterWrite_ShouldServeFreshList() throws Exception {
+        mockMvc.perform(get("/api/flags"))
+                .andExpect(jsonPath("$[0].enabled", is(true)));
+
+        mockMvc.perform(patch("/api/flags/" + testFlag.getId() + "/toggle"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/flags").header("Accept-Encoding", "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(jsonPath("$[0].enabled", is(false)));
+    }
+
+    @Test
+    void getAllFlags_ShouldCompressOnlyWhenGzipHasNonZeroQuality() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            featureFlagRepository.save(new FeatureFlag("compressible_flag_" + i, i % 2 == 0, "Large enough to be gzipped"));
+        }
+
+        mockMvc.perform(get("/api/flags").header("Accept-Encoding", "gzip;q=0, identity"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(jsonPath("$", hasSize(21)));
+        mockMvc.perform(get("/api/flags").header("Accept-Encoding", "*;q=0"))
+                .andExpect(header().doesNotExist("Content-Encoding"));
+        mockMvc.perform(get("/api/flags").header("Accept-Encoding", "br, GZIP;q=0.5"))
+                .andExpect(header().string("Content-Encoding", "gzip"));
+        mockMvc.perform(get("/api/flags").header("Accept-Encoding", "*"))
+                .andExpect(header().string("Content-Encoding", "gzip"));
+    }
+
+    @Test
+    void getAllFlags_WhenSmileAccepted_ShouldReturnSmile() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/flags")
+                        .header("Accept", "application/x-jackson-smile, application/json;q=0.9")
+                        .header("Accept-Encoding", "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"))
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andReturn();
+
+        FeatureFlagDto[] flags = objectMapper.copyWith(new SmileFactory())
+                .readValue(result.getResponse().getContentAsByteArray(), FeatureFlagDto[].class);
+        assertEquals("test_flag", flags[0].getName());
+    }
+
+    @Test
+    void getAllFlags_WhenOnlyUnsupportedTypesAccepted_ShouldReturnNotAcceptable() throws Exception {
+        mockMvc.perform(get("/api/flags").header("Accept", "text/csv"))
+                .andExpect(status().isNotAcceptable());
+    }
+
+    @Test
+    void createFlag_WithCborBody_ShouldAnswerInCbor() throws Exception {
+        ObjectMapper cborMapper = objectMapper.copyWith(new CBORFactory());
+        FeatureFlagDto newFlag = new FeatureFlagDto();
+        newFlag.setName("cbor_flag");
+        newFlag.setEnabled(true);
+
+        MvcResult result = mockMvc.perform(post("/api/flags")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(cborMapper.writeValueAsBytes(newFlag)))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn();
+
+        FeatureFlagDto created = cborMapper.readValue(result.getResponse().getContentAsByteArray(), FeatureFlagDto.class);
+        assertEquals("cbor_flag", created.getName());
+        assertTrue(featureFlagRepository.existsByName("cbor_flag"));
+
+        mockMvc.perform(get("/api/flags/" + created.getId()).accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.name", is("cbor_flag")));
+    }
+
+    @Test
+    void grpcEvaluate_ShouldAnswerFromStore() throws Exception {
+        long grpcFlagId = createGrpcFlag();
+        ManagedChannel channel = grpcChannel();
+        try {
+            FlagServiceGrpc.FlagServiceBlockingStub stub = FlagServiceGrpc.newBlockingStub(channel);
+
+            EvaluateResponse known = stub.evaluate(EvaluateRequest.newBuilder()
+                    .setFlagName("grpc_flag").setUserKey("user-1").build());
+            BatchEvaluateResponse batch = stub.batchEvaluate(BatchEvaluateRequest.newBuilder()
+                    .addFlagNames("grpc_flag").addFlagNames("missing_flag").build());
+
+            assertTrue(known.getFound());
+            assertTrue(known.getEnabled());
+            assertEquals(1, known.getChangeVersion());
+            assertTrue(grpcFlagId > 0);
+            assertEquals(2, batch.getResultsCount());
+            assertFalse(batch.getResults(1).getFound());
+            assertFalse(batch.getResults(1).getEnabled());
+        } finally {
+            channel.shutdownNow();
+        }
+    }
+
+    @Test
+    void grpcSubscribe_ShouldStreamSnapshotThenChanges() throws Exception {
+        long grpcFlagId = createGrpcFlag();
+        ManagedChannel channel = grpcChannel();
+        BlockingQueue<FlagChanges> received = new LinkedBlockingQueue<>();
+        try {
+            FlagServiceGrpc.newStub(channel).subscribe(SubscribeRequest.getDefaultInstance(), new StreamObserver<>() {
+                @Override
+                public void onNext(FlagChanges changes) {
+                    received.add(changes);
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                }
+
+                @Override
+                public void onCompleted() {
+                }
+            });
+
+            FlagChanges snapshot = received.poll(5, TimeUnit.SECONDS);
+            assertNotNull(snapshot);
+            assertTrue(snapshot.getSnapshot());
+            assertEquals(1, snapshot.getVersion());
+            assertTrue(snapshot.getFlagsList().stream().anyMatch(flag -> flag.getName().equals("grpc_flag")));
+
+            mockMvc.perform(patch("/api/flags/" + grpcFlagId + "/toggle"))
+                    .andExpect(status().isOk());
+            flagChangeFeed.refresh();
+
+            FlagChanges delta = received.poll(5, TimeUnit.SECONDS);
+            assertNotNull(delta);
+            assertFalse(delta.getSnapshot());
+            assertEquals(2, delta.getVersion());
+            assertEquals("grpc_flag", delta.getFlags(0).getName());
+            assertFalse(delta.getFlags(0).getEnabled());
+        } finally {
+            channel.shutdownNow();
+        }
+    }
+
     @Test
     void createFlag_WithValidData_ShouldCreateFlag() throws Exception {
         FeatureFlagDto newFlag = new FeatureFlagDto();
@@ -82,6 +267,37 @@ public class FeatureFlagIntegrationTest {
         assertTrue(featureFlagRepository.existsByName("new_flag"));
     }
 
+    @Test
+    void createFlag_WithTargetingRules_ShouldStoreAndPublishThem() throws Exception {
+        FeatureFlagDto newFlag = new FeatureFlagDto("rollout_flag", true);
+        newFlag.setTargeting(new TargetingRules(List.of("beta_user"), null,
+                List.of(new AttributeMatch("country", List.of("DE", "FR"), false)), 10));
+
+        mockMvc.perform(post("/api/flags")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(newFlag)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.targeting.rolloutPercentage", is(10)));
+
+        mockMvc.perform(get("/api/flags/name/rollout_flag"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.targeting.allow[0]", is("beta_user")))
+                .andExpect(jsonPath("$.targeting.matches[0].values", contains("DE", "FR")));
+
+        assertTrue(outboxEventRepository.findAll().get(0).getPayload().contains("\"rolloutPercentage\":10"));
+    }
+
+    @Test
+    void createFlag_WithInvalidRolloutPercentage_ShouldReturnBadRequest() throws Exception {
+        FeatureFlagDto newFlag = new FeatureFlagDto("rollout_flag", true);
+        newFlag.setTargeting(new TargetingRules(null, null, null, 150));
+
+        mockMvc.perform(post("/api/flags")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(newFlag)))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void createFlag_WithDuplicateName_ShouldReturnError() throws Exception {
         FeatureFlagDto duplicateFlag = new FeatureFlagDto();
@@ -120,6 +336,42 @@ public class FeatureFlagIntegrationTest {
                 .andExpect(jsonPath("$.enabled", is(true)));
     }
 
+    @Test
+    void toggleFlag_WithStaleVersion_ShouldReturnConflictWithCurrentState() throws Exception {
+        long version = testFlag.getVersion();
+        mockMvc.perform(patch("/api/flags/" + testFlag.getId() + "/toggle?version=" + version))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version", is((int) version + 1)));
+
+        mockMvc.perform(patch("/api/flags/" + testFlag.getId() + "/toggle?version=" + version))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.enabled", is(false)))
+                .andExpect(jsonPath("$.version", is((int) version + 1)));
+    }
+
+    @Test
+    void updateFlag_WithStaleVersion_ShouldReturnConflictWithCurrentState() throws Exception {
+        FeatureFlagDto staleUpdate = new FeatureFlagDto("test_flag", false, "Stale edit");
+        staleUpdate.setVersion(testFlag.getVersion() - 1);
+
+        mockMvc.perform(put("/api/flags/" + testFlag.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(staleUpdate)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.enabled", is(true)))
+                .andExpect(jsonPath("$.description", is("Test flag description")));
+    }
+
+    @Test
+    void toggleFlag_ShouldRecordEventInOutboxInsteadOfPublishing() throws Exception {
+        mockMvc.perform(patch("/api/flags/" + testFlag.getId() + "/toggle"))
+                .andExpect(status().isOk());
+
+        assertEquals(1, outboxEventRepository.count());
+        assertTrue(outboxEventRepository.findAll().get(0).getPayload().contains("\"eventType\":\"TOGGLED\""));
+        verify(rabbitTemplate, never()).convertAndSend(anyString(), anyString(), any(Object.class));
+    }
+
     @Test
     void deleteFlag_ShouldDeleteFlag() throws Exception {
         mockMvc.perform(delete("/api/flags/" + testFlag.getId()))
@@ -128,6 +380,104 @@ public class FeatureFlagIntegrationTest {
         assertFalse(featureFlagRepository.existsById(testFlag.getId()));
     }
 
+    @Test
+    void getChanges_ShouldReturnWritesAndTombstonesAfterVersion() throws Exception {
+        FeatureFlag otherFlag = featureFlagRepository.save(new FeatureFlag("other_flag", true, null));
+
+        mockMvc.perform(patch("/api/flags/" + testFlag.getId() + "/toggle"))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/flags/" + otherFlag.getId()))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/flags/changes").param("since", "0"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version", is(2)))
+                .andExpect(jsonPath("$.flags", hasSize(2)))
+                .andExpect(jsonPath("$.flags[0].name", is("test_flag")))
+                .andExpect(jsonPath("$.flags[0].enabled", is(false)))
+                .andExpect(jsonPath("$.flags[0].deleted").doesNotExist())
+                .andExpect(jsonPath("$.flags[1].name", is("other_flag")))
+                .andExpect(jsonPath("$.flags[1].deleted", is(true)));
+
+        mockMvc.perform(get("/api/flags/changes").param("since", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.flags", hasSize(1)))
+                .andExpect(jsonPath("$.flags[0].name", is("other_flag")));
+    }
+
+    @Test
+    void getChanges_AfterRename_ShouldReturnTombstoneForOldName() throws Exception {
+        FeatureFlagDto rename = new FeatureFlagDto("renamed_flag", true, "Test flag description");
+
+        mockMvc.perform(put("/api/flags/" + testFlag.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(rename)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/flags/changes").param("since", "0"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version", is(1)))
+                .andExpect(jsonPath("$.flags", hasSize(2)))
+                .andExpect(jsonPath("$.flags[?(@.name == 'renamed_flag')].deleted", hasSize(0)))
+                .andExpect(jsonPath("$.flags[?(@.name == 'test_flag')].deleted", contains(true)))
+                .andExpect(jsonPath("$.flags[?(@.name == 'test_flag')].id", contains(testFlag.getId().intValue())));
+    }
+
+    @Test
+    void getSnapshot_ShouldUseVersionAsETag() throws Exception {
+        mockMvc.perform(get("/api/flags/snapshot"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"0\""))
+                .andExpect(jsonPath("$.flags", hasSize(1)));
+
+        mockMvc.perform(get("/api/flags/snapshot").header("If-None-Match", "\"0\""))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(patch("/api/flags/" + testFlag.getId() + "/toggle"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/flags/snapshot").header("If-None-Match", "\"0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""))
+                .andExpect(jsonPath("$.flags[0].changeVersion", is(1)));
+    }
+
+    @Test
+    void reportEvaluations_ShouldExposeLastEvaluationAndRatePerFlag() throws Exception {
+        featureFlagRepository.save(new FeatureFlag("dead_flag", true, null));
+        long now = System.currentTimeMillis();
+        EvaluationReportDto report = new EvaluationReportDto("movie-search-service", now - 60_000, now,
+                List.of(new EvaluationCountDto("test_flag", 90, 30), new EvaluationCountDto("removed_flag", 0, 6)));
+
+        mockMvc.perform(post("/api/flags/evaluations")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(report)))
+                .andExpect(status().isAccepted());
+
+        mockMvc.perform(get("/api/flags/evaluations").param("minutes", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[0].flagName", is("dead_flag")))
+                .andExpect(jsonPath("$[0].lastEvaluatedAt").doesNotExist())
+                .andExpect(jsonPath("$[0].evaluationsPerMinute", is(0.0)))
+                .andExpect(jsonPath("$[1].flagName", is("test_flag")))
+                .andExpect(jsonPath("$[1].lastEvaluatedAt", notNullValue()))
+                .andExpect(jsonPath("$[1].enabledCount", is(90)))
+                .andExpect(jsonPath("$[1].evaluationsPerMinute", is(12.0)))
+                .andExpect(jsonPath("$[2].flagName", is("removed_flag")));
+    }
+
+    @Test
+    void reportEvaluations_WithReversedWindow_ShouldReturnBadRequest() throws Exception {
+        EvaluationReportDto report = new EvaluationReportDto("movie-search-service", 2_000, 1_000,
+                List.of(new EvaluationCountDto("test_flag", 1, 0)));
+
+        mockMvc.perform(post("/api/flags/evaluations")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(report)))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void getEnabledFlags_ShouldReturnOnlyEnabledFlags() throws Exception {
         // Create a disabled flag
@@ -154,4 +504,85 @@ public class FeatureFlagIntegrationTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(0)));
     }
+
+    @Test
+    void searchFlags_ShouldPaginateAndRankTighterMatchesFirst() throws Exception {
+        featureFlagRepository.save(new FeatureFlag("legacy_test_checkout", true));
+        featureFlagRepository.save(new FeatureFlag("test", false));
+
+        mockMvc.perform(get("/api/flags/search?name=test&page=0&size=2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "3"))
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].name", is("test")))
+                .andExpect(jsonPath("$[1].name", is("test_flag")));
+
+        mockMvc.perform(get("/api/flags/search?name=test&page=1&size=2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].name", is("legacy_test_checkout")));
+    }
+
+    @Test
+    void searchFlags_ShouldMatchWildcardCharactersLiterally() throws Exception {
+        featureFlagRepository.save(new FeatureFlag("rollout_100%", true));
+        featureFlagRepository.save(new FeatureFlag("rollout_1000", true));
+        featureFlagRepository.save(new FeatureFlag("testXflag", true));
+        featureFlagRepository.save(new FeatureFlag("path\\flag", true));
+
+        mockMvc.perform(get("/api/flags/search").param("name", "100%"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].name", is("rollout_100%")));
+        mockMvc.perform(get("/api/flags/search").param("name", "t_f"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].name", is("test_flag")));
+        mockMvc.perform(get("/api/flags/search").param("name", "h\\f"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].name", is("path\\flag")));
+    }
+
+    @Test
+    void importFlags_ShouldCreateNewFlagsAndSkipExistingOnes() throws Exception {
+        BulkFlagRequest request = new BulkFlagRequest(List.of(
+                new FeatureFlagDto("bulk_one", true),
+                new FeatureFlagDto("bulk_two", false),
+                new FeatureFlagDto("test_flag", false)));
+
+        mockMvc.perform(post("/api/flags:bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.created", is(2)))
+                .andExpect(jsonPath("$.skipped", contains("test_flag")));
+
+        assertTrue(featureFlagRepository.existsByName("bulk_one"));
+        assertTrue(featureFlagRepository.existsByName("bulk_two"));
+    }
+
+    @Test
+    void importFlags_WithInvalidFlag_ShouldReturnBadRequest() throws Exception {
+        BulkFlagRequest request = new BulkFlagRequest(List.of(new FeatureFlagDto("", true)));
+
+        mockMvc.perform(post("/api/flags:bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Create a flag through the API, which stamps it with change version 1, and pull it into the gRPC feed
+     */
+    private long createGrpcFlag() throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/flags")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new FeatureFlagDto("grpc_flag", true))))
+                .andExpect(status().isCreated())
+                .andReturn();
+        flagChangeFeed.refresh();
+        return objectMapper.readValue(result.getResponse().getContentAsByteArray(), FeatureFlagDto.class).getId();
+    }
+
+    private ManagedChannel grpcChannel() {
+        return NettyChannelBuilder.forAddress("localhost", flagGrpcServer.getPort()).usePlaintext().build();
+    }
 }
@@ -0,0 +1,249 @@
+package com.featureflags.integration;
+
+import com.featureflags.dto.FeatureFlagDto;
+import com.featureflags.dto.FlagUpdateEvent;
+import com.featureflags.exception.FeatureFlagVersionConflictException;
+import com.featureflags.model.FeatureFlag;
+import com.featureflags.repository.FeatureFlagRepository;
+import com.featureflags.service.FeatureFlagService;
+import com.featureflags.service.FlagChangeVersions;
+import com.featureflags.service.FlagEventPublisher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Covers the PostgreSQL-only statements against a real database.
+ * Needs Docker, so it only runs in the postgres profile: mvn test -Ppostgres
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = "flags.grpc.enabled=false")
+@ActiveProfiles("test")
+@Testcontainers
+@EnabledIfSystemProperty(named = "postgres.tests", matches = "true")
+class PostgresIntegrationTest {
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.driver-class-name", postgres::getDriverClassName);
+        registry.add("spring.jpa.database-platform", () -> "org.hibernate.dialect.PostgreSQLDialect");
+        registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.PostgreSQLDialect");
+    }
+
+    @Autowired
+    private FeatureFlagService featureFlagService;
+
+    @Autowired
+    private FeatureFlagRepository featureFlagRepository;
+
+    @Autowired
+    private FlagChangeVersions flagChangeVersions;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private RabbitTemplate rabbitTemplate;
+
+    @SpyBean
+    private FlagEventPublisher flagEventPublisher;
+
+    private FeatureFlag testFlag;
+
+    @BeforeEach
+    void setUp() {
+        featureFlagRepository.deleteAll();
+        testFlag = featureFlagRepository.save(new FeatureFlag("postgres_flag", true, "Toggled on PostgreSQL"));
+    }
+
+    @Test
+    void toggleFlag_WhenFlagIsAlreadyLoadedInTransaction_ShouldReturnUpdatedRow() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            FeatureFlag loaded = featureFlagRepository.findById(testFlag.getId()).orElseThrow();
+
+            FeatureFlagDto toggled = featureFlagService.toggleFlag(loaded.getId());
+
+            assertFalse(toggled.isEnabled());
+            assertEquals(testFlag.getVersion() + 1, toggled.getVersion());
+        });
+
+        FeatureFlag stored = featureFlagRepository.findById(testFlag.getId()).orElseThrow();
+        assertFalse(stored.isEnabled());
+        assertTrue(stored.getChangeVersion() > testFlag.getChangeVersion());
+    }
+
+    @Test
+    void toggleFlag_WithExpectedVersion_ShouldOnlyFlipTheVersionItWasBasedOn() {
+        FeatureFlagDto toggled = featureFlagService.toggleFlag(testFlag.getId(), testFlag.getVersion());
+
+        FeatureFlagVersionConflictException conflict = assertThrows(FeatureFlagVersionConflictException.class,
+                () -> featureFlagService.toggleFlag(testFlag.getId(), testFlag.getVersion()));
+
+        assertFalse(toggled.isEnabled());
+        assertEquals(toggled.getVersion(), conflict.getCurrentFlag().getVersion());
+    }
+
+    @Test
+    void searchFlagsByName_WithTrigramIndex_ShouldMatchWildcardCharactersLiterally() {
+        featureFlagRepository.save(new FeatureFlag("test_flag", true));
+        featureFlagRepository.save(new FeatureFlag("testXflag", true));
+
+        List<String> found = featureFlagService.searchFlagsByName("t_f", 0, 20).getContent().stream()
+                .map(FeatureFlagDto::getName)
+                .toList();
+
+        assertEquals(List.of("test_flag"), found);
+    }
+
+    @Test
+    void readableVersion_ShouldNotPassAWriteThatIsStillInFlight() throws Exception {
+        AtomicLong slowVersion = new AtomicLong();
+        CountDownLatch allocated = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService writer = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> slowWrite = writer.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                slowVersion.set(flagChangeVersions.next());
+                allocated.countDown();
+                awaitQuietly(release);
+            }));
+            assertTrue(allocated.await(5, TimeUnit.SECONDS));
+
+            featureFlagService.toggleFlag(testFlag.getId());
+            long toggleVersion = featureFlagRepository.findById(testFlag.getId()).orElseThrow().getChangeVersion();
+            flagChangeVersions.advance();
+
+            assertTrue(toggleVersion > slowVersion.get());
+            assertEquals(slowVersion.get() - 1, flagChangeVersions.current());
+
+            release.countDown();
+            slowWrite.get(5, TimeUnit.SECONDS);
+            flagChangeVersions.advance();
+
+            assertTrue(flagChangeVersions.current() >= toggleVersion);
+        } finally {
+            release.countDown();
+            writer.shutdownNow();
+        }
+    }
+
+    @Test
+    void readableVersion_ShouldCatchUpOnAGapWiderThanTheLockTable() throws Exception {
+        AtomicLong slowVersion = new AtomicLong();
+        CountDownLatch allocated = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService writer = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> slowWrite = writer.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                slowVersion.set(flagChangeVersions.next());
+                allocated.countDown();
+                awaitQuietly(release);
+            }));
+            assertTrue(allocated.await(5, TimeUnit.SECONDS));
+
+            // Far more versions than the default 6,400 lock slots pile up behind the slow write
+            jdbcTemplate.queryForObject("SELECT setval('flag_change_version_seq', last_value + 20000) " +
+                    "FROM flag_change_version_seq", Long.class);
+            featureFlagService.toggleFlag(testFlag.getId());
+            long toggleVersion = featureFlagRepository.findById(testFlag.getId()).orElseThrow().getChangeVersion();
+            flagChangeVersions.advance();
+
+            assertEquals(slowVersion.get() - 1, flagChangeVersions.current());
+
+            release.countDown();
+            slowWrite.get(5, TimeUnit.SECONDS);
+            flagChangeVersions.advance();
+
+            assertTrue(flagChangeVersions.current() >= toggleVersion);
+        } finally {
+            release.countDown();
+            writer.shutdownNow();
+        }
+    }
+
+    @Test
+    void concurrentToggles_ShouldPublishTheStoredStateWithTheHighestVersion() throws Exception {
+        CountDownLatch firstToggled = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService writers = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> first = writers.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                featureFlagService.toggleFlag(testFlag.getId());
+                firstToggled.countDown();
+                awaitQuietly(release);
+            }));
+            assertTrue(firstToggled.await(5, TimeUnit.SECONDS));
+            Future<?> second = writers.submit(() -> featureFlagService.toggleFlag(testFlag.getId()));
+            // The second toggle must be queued behind the first one's row lock before the first commits
+            awaitLockWait();
+            release.countDown();
+            first.get(5, TimeUnit.SECONDS);
+            second.get(5, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            writers.shutdownNow();
+        }
+
+        ArgumentCaptor<FlagUpdateEvent> events = ArgumentCaptor.forClass(FlagUpdateEvent.class);
+        verify(flagEventPublisher, times(2)).publish(events.capture());
+        FlagUpdateEvent latest = events.getAllValues().stream()
+                .max(Comparator.comparingLong(FlagUpdateEvent::getVersion))
+                .orElseThrow();
+        FeatureFlag stored = featureFlagRepository.findById(testFlag.getId()).orElseThrow();
+        assertTrue(stored.isEnabled());
+        assertEquals(stored.isEnabled(), latest.isEnabled());
+        assertEquals(stored.getChangeVersion(), latest.getVersion());
+    }
+
+    private void awaitLockWait() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (jdbcTemplate.queryForObject("SELECT count(*) FROM pg_locks WHERE NOT granted", Long.class) == 0) {
+            assertTrue(System.nanoTime() < deadline, "Second toggle never waited for the row lock");
+            Thread.sleep(10);
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,17 +1,32 @@
 package com.featureflags.service;
 
+import com.featureflags.config.DatabaseSupport;
+import com.featureflags.dto.BulkImportResult;
 import com.featureflags.dto.FeatureFlagDto;
+import com.featureflags.dto.FlagChangesDto;
+import com.featureflags.dto.FlagStateDto;
+import com.featureflags.dto.TargetingRules;
+import com.featureflags.dto.FlagUpdateEvent;
 import com.featureflags.model.FeatureFlag;
+import com.featureflags.model.FlagTombstone;
 import com.featureflags.repository.FeatureFlagRepository;
+import com.featureflags.repository.FeatureFlagSummary;
+import com.featureflags.repository.FlagTombstoneRepository;
 import com.featureflags.exception.FeatureFlagNotFoundException;
 import com.featureflags.exception.DuplicateFeatureFlagException;
+import com.featureflags.exception.FeatureFlagVersionConflictException;
+import com.featureflags.exception.FlagChangesExpiredException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
@@ -29,13 +44,23 @@ class FeatureFlagServiceTest {
     private FeatureFlagRepository featureFlagRepository;
 
     @Mock
-    private RabbitTemplate rabbitTemplate;
+    private FlagTombstoneRepository flagTombstoneRepository;
+
+    @Mock
+    private FlagChangeVersions flagChangeVersions;
+
+    @Mock
+    private FlagEventPublisher flagEventPublisher;
+
+    @Mock
+    private DatabaseSupport databaseSupport;
 
     @InjectMocks
     private FeatureFlagService featureFlagService;
 
     private FeatureFlag testFlag;
     private FeatureFlagDto testFlagDto;
+    private FeatureFlagDto testFlagView;
 
     @BeforeEach
     void setUp() {
@@ -51,41 +76,43 @@ class FeatureFlagServiceTest {
         testFlagDto.setName("test_flag");
         testFlagDto.setEnabled(true);
         testFlagDto.setDescription("Test flag description");
+
+        testFlagView = new FeatureFlagDto(1L, "test_flag", true, "Test flag description", null, 0L);
     }
 
     @Test
     void getAllFlags_ShouldReturnAllFlags() {
-        List<FeatureFlag> flags = Arrays.asList(testFlag);
-        when(featureFlagRepository.findAll()).thenReturn(flags);
+        when(featureFlagRepository.findAllDtos()).thenReturn(Arrays.asList(testFlagView));
 
         List<FeatureFlagDto> result = featureFlagService.getAllFlags();
 
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals(testFlag.getName(), result.get(0).getName());
-        verify(featureFlagRepository).findAll();
+        verify(featureFlagRepository).findAllDtos();
+        verify(featureFlagRepository, never()).findAll();
     }
 
     @Test
     void getFlagById_WhenFlagExists_ShouldReturnFlag() {
-        when(featureFlagRepository.findById(1L)).thenReturn(Optional.of(testFlag));
+        when(featureFlagRepository.findDtoById(1L)).thenReturn(Optional.of(testFlagView));
 
         FeatureFlagDto result = featureFlagService.getFlagById(1L);
 
         assertNotNull(result);
         assertEquals(testFlag.getName(), result.getName());
         assertEquals(testFlag.isEnabled(), result.isEnabled());
-        verify(featureFlagRepository).findById(1L);
+        verify(featureFlagRepository).findDtoById(1L);
     }
 
     @Test
     void getFlagById_WhenFlagDoesNotExist_ShouldThrowException() {
-        when(featureFlagRepository.findById(1L)).thenReturn(Optional.empty());
+        when(featureFlagRepository.findDtoById(1L)).thenReturn(Optional.empty());
 
         assertThrows(FeatureFlagNotFoundException.class, () -> {
             featureFlagService.getFlagById(1L);
         });
-        verify(featureFlagRepository).findById(1L);
+        verify(featureFlagRepository).findDtoById(1L);
     }
 
     @Test
@@ -132,14 +159,116 @@ class FeatureFlagServiceTest {
 
     @Test
     void toggleFlag_WhenFlagExists_ShouldToggleFlag() {
+        when(flagChangeVersions.next()).thenReturn(8L);
+        when(featureFlagRepository.toggleEnabled(eq(1L), anyLong(), any(LocalDateTime.class))).thenReturn(1);
         when(featureFlagRepository.findById(1L)).thenReturn(Optional.of(testFlag));
-        when(featureFlagRepository.save(any(FeatureFlag.class))).thenReturn(testFlag);
 
         FeatureFlagDto result = featureFlagService.toggleFlag(1L);
 
         assertNotNull(result);
-        verify(featureFlagRepository).findById(1L);
-        verify(featureFlagRepository).save(any(FeatureFlag.class));
+        verify(featureFlagRepository).toggleEnabled(eq(1L), eq(8L), any(LocalDateTime.class));
+        verify(featureFlagRepository, never()).save(any(FeatureFlag.class));
+        verify(flagEventPublisher).publish(argThat(event -> "TOGGLED".equals(event.getEventType())));
+    }
+
+    @Test
+    void toggleFlag_OnPostgres_ShouldUseSingleReturningStatement() {
+        FeatureFlagSummary toggled = mock(FeatureFlagSummary.class);
+        when(toggled.getId()).thenReturn(1L);
+        when(toggled.getName()).thenReturn("test_flag");
+        when(toggled.getEnabled()).thenReturn(false);
+        when(toggled.getVersion()).thenReturn(4L);
+        when(databaseSupport.isPostgres()).thenReturn(true);
+        when(featureFlagRepository.lockById(1L)).thenReturn(Optional.of(1L));
+        when(flagChangeVersions.next()).thenReturn(9L);
+        when(featureFlagRepository.toggleEnabledReturning(eq(1L), eq(9L), any(LocalDateTime.class)))
+                .thenReturn(Optional.of(toggled));
+
+        FeatureFlagDto result = featureFlagService.toggleFlag(1L);
+
+        assertFalse(result.isEnabled());
+        assertEquals(4L, result.getVersion());
+        verify(featureFlagRepository, never()).findById(anyLong());
+        verify(flagEventPublisher).publish(argThat(event -> !event.isEnabled() && event.getVersion() == 9L));
+        // The row lock orders concurrent toggles, so their versions must be taken under it
+        InOrder inOrder = inOrder(featureFlagRepository, flagChangeVersions);
+        inOrder.verify(featureFlagRepository).lockById(1L);
+        inOrder.verify(flagChangeVersions).next();
+    }
+
+    @Test
+    void toggleFlag_OnPostgresWhenFlagDoesNotExist_ShouldNotTakeChangeVersion() {
+        when(databaseSupport.isPostgres()).thenReturn(true);
+
+        assertThrows(FeatureFlagNotFoundException.class, () -> featureFlagService.toggleFlag(1L));
+
+        verify(featureFlagRepository).lockById(1L);
+        verify(flagChangeVersions, never()).next();
+    }
+
+    @Test
+    void toggleFlag_WithStaleVersion_ShouldThrowConflictWithCurrentState() {
+        testFlag.setVersion(4L);
+        when(featureFlagRepository.toggleEnabledIfVersion(eq(1L), eq(3L), anyLong(), any(LocalDateTime.class))).thenReturn(0);
+        when(featureFlagRepository.findById(1L)).thenReturn(Optional.of(testFlag));
+
+        FeatureFlagVersionConflictException e = assertThrows(FeatureFlagVersionConflictException.class,
+                () -> featureFlagService.toggleFlag(1L, 3L));
+
+        assertEquals(4L, e.getCurrentFlag().getVersion());
+        verify(flagEventPublisher, never()).publish(any());
+    }
+
+    @Test
+    void toggleFlag_WhenFlagDoesNotExist_ShouldThrowNotFound() {
+        when(featureFlagRepository.toggleEnabled(eq(1L), anyLong(), any(LocalDateTime.class))).thenReturn(0);
+        when(featureFlagRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(FeatureFlagNotFoundException.class, () -> featureFlagService.toggleFlag(1L));
+    }
+
+    @Test
+    void updateFlag_WhenOnlyTargetingChanges_ShouldPublishRules() {
+        FeatureFlagDto updateDto = new FeatureFlagDto("test_flag", true, "Test flag description");
+        updateDto.setTargeting(new TargetingRules(null, List.of("blocked_user"), null, 25));
+        when(featureFlagRepository.findById(1L)).thenReturn(Optional.of(testFlag));
+        when(featureFlagRepository.save(any(FeatureFlag.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        FeatureFlagDto result = featureFlagService.updateFlag(1L, updateDto);
+
+        assertEquals(25, result.getTargeting().getRolloutPercentage());
+        verify(flagEventPublisher).publish(argThat(event -> "UPDATED".equals(event.getEventType())
+                && event.getTargeting() != null && event.getTargeting().getDeny().contains("blocked_user")));
+    }
+
+    @Test
+    void updateFlag_WhenRenamed_ShouldTombstoneOldNameAndPublishDeleteAndUpdate() {
+        FeatureFlagDto updateDto = new FeatureFlagDto("renamed_flag", true, "Test flag description");
+        when(flagChangeVersions.next()).thenReturn(15L);
+        when(featureFlagRepository.findById(1L)).thenReturn(Optional.of(testFlag));
+        when(featureFlagRepository.save(any(FeatureFlag.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        featureFlagService.updateFlag(1L, updateDto);
+
+        verify(flagTombstoneRepository).save(argThat(tombstone -> tombstone.getFlagId().equals(1L)
+                && "test_flag".equals(tombstone.getName()) && tombstone.getChangeVersion() == 15L));
+        verify(flagEventPublisher).publish(argThat(event -> FlagUpdateEvent.BATCH.equals(event.getEventType())
+                && event.getEvents().size() == 2
+                && "DELETED".equals(event.getEvents().get(0).getEventType())
+                && "test_flag".equals(event.getEvents().get(0).getFlagName())
+                && "renamed_flag".equals(event.getEvents().get(1).getFlagName())
+                && Long.valueOf(15L).equals(event.getEvents().get(1).getVersion())));
+    }
+
+    @Test
+    void updateFlag_WithStaleVersion_ShouldThrowConflict() {
+        testFlag.setVersion(2L);
+        FeatureFlagDto updateDto = new FeatureFlagDto("test_flag", false);
+        updateDto.setVersion(1L);
+        when(featureFlagRepository.findById(1L)).thenReturn(Optional.of(testFlag));
+
+        assertThrows(FeatureFlagVersionConflictException.class, () -> featureFlagService.updateFlag(1L, updateDto));
+        verify(featureFlagRepository, never()).save(any());
     }
 
     @Test
@@ -152,54 +281,152 @@ class FeatureFlagServiceTest {
         verify(featureFlagRepository).delete(testFlag);
     }
 
+    @Test
+    void deleteFlag_ShouldRecordTombstoneAtNewChangeVersion() {
+        when(flagChangeVersions.next()).thenReturn(12L);
+        when(featureFlagRepository.findById(1L)).thenReturn(Optional.of(testFlag));
+
+        featureFlagService.deleteFlag(1L);
+
+        verify(flagTombstoneRepository).save(argThat(tombstone -> tombstone.getFlagId().equals(1L)
+                && "test_flag".equals(tombstone.getName()) && tombstone.getChangeVersion() == 12L));
+        verify(flagEventPublisher).publish(argThat(event -> "DELETED".equals(event.getEventType())
+                && Long.valueOf(12L).equals(event.getVersion())));
+    }
+
+    @Test
+    void getChangesSince_ShouldMergeUpdatesAndTombstonesInVersionOrder() {
+        when(flagChangeVersions.current()).thenReturn(9L);
+        when(featureFlagRepository.findChangedBetween(5L, 9L))
+                .thenReturn(List.of(new FlagStateDto(1L, "test_flag", true, null, 7L)));
+        when(flagTombstoneRepository.findChangedBetween(5L, 9L))
+                .thenReturn(List.of(new FlagTombstone(2L, "old_flag", 6L)));
+
+        FlagChangesDto changes = featureFlagService.getChangesSince(5L);
+
+        assertEquals(9L, changes.getVersion());
+        assertEquals(2, changes.getFlags().size());
+        assertEquals("old_flag", changes.getFlags().get(0).getName());
+        assertEquals(Boolean.TRUE, changes.getFlags().get(0).getDeleted());
+        assertEquals("test_flag", changes.getFlags().get(1).getName());
+        assertNull(changes.getFlags().get(1).getDeleted());
+    }
+
+    @Test
+    void getChangesSince_WhenUpToDate_ShouldNotQueryChanges() {
+        when(flagChangeVersions.current()).thenReturn(9L);
+
+        FlagChangesDto changes = featureFlagService.getChangesSince(9L);
+
+        assertTrue(changes.getFlags().isEmpty());
+        verify(featureFlagRepository, never()).findChangedBetween(anyLong(), anyLong());
+    }
+
+    @Test
+    void getChangesSince_BeforeTombstoneHorizon_ShouldThrowExpired() {
+        when(flagChangeVersions.current()).thenReturn(20L);
+        when(flagChangeVersions.tombstoneHorizon()).thenReturn(10L);
+
+        assertThrows(FlagChangesExpiredException.class, () -> featureFlagService.getChangesSince(4L));
+    }
+
     @Test
     void isFlagEnabled_WhenFlagExists_ShouldReturnStatus() {
-        when(featureFlagRepository.findByName("test_flag")).thenReturn(Optional.of(testFlag));
+        when(featureFlagRepository.findEnabledByName("test_flag")).thenReturn(Optional.of(true));
 
         boolean result = featureFlagService.isFlagEnabled("test_flag");
 
         assertTrue(result);
-        verify(featureFlagRepository).findByName("test_flag");
+        verify(featureFlagRepository).findEnabledByName("test_flag");
     }
 
     @Test
     void isFlagEnabled_WhenFlagDoesNotExist_ShouldReturnFalse() {
-        when(featureFlagRepository.findByName("nonexistent_flag")).thenReturn(Optional.empty());
+        when(featureFlagRepository.findEnabledByName("nonexistent_flag")).thenReturn(Optional.empty());
 
         boolean result = featureFlagService.isFlagEnabled("nonexistent_flag");
 
         assertFalse(result);
-        verify(featureFlagRepository).findByName("nonexistent_flag");
+        verify(featureFlagRepository).findEnabledByName("nonexistent_flag");
     }
 
     @Test
     void getEnabledFlags_ShouldReturnOnlyEnabledFlags() {
-        List<FeatureFlag> enabledFlags = Arrays.asList(testFlag);
-        when(featureFlagRepository.findByEnabled(true)).thenReturn(enabledFlags);
+        List<FeatureFlagDto> enabledFlags = Arrays.asList(testFlagView);
+        when(featureFlagRepository.findDtosByEnabled(true)).thenReturn(enabledFlags);
 
         List<FeatureFlagDto> result = featureFlagService.getEnabledFlags();
 
         assertNotNull(result);
         assertEquals(1, result.size());
         assertTrue(result.get(0).isEnabled());
-        verify(featureFlagRepository).findByEnabled(true);
+        verify(featureFlagRepository).findDtosByEnabled(true);
     }
 
     @Test
     void getDisabledFlags_ShouldReturnOnlyDisabledFlags() {
-        FeatureFlag disabledFlag = new FeatureFlag();
-        disabledFlag.setId(2L);
-        disabledFlag.setName("disabled_flag");
-        disabledFlag.setEnabled(false);
+        FeatureFlagDto disabledFlag = new FeatureFlagDto(2L, "disabled_flag", false, null, null, 0L);
         
-        List<FeatureFlag> disabledFlags = Arrays.asList(disabledFlag);
-        when(featureFlagRepository.findByEnabled(false)).thenReturn(disabledFlags);
+        List<FeatureFlagDto> disabledFlags = Arrays.asList(disabledFlag);
+        when(featureFlagRepository.findDtosByEnabled(false)).thenReturn(disabledFlags);
 
         List<FeatureFlagDto> result = featureFlagService.getDisabledFlags();
 
         assertNotNull(result);
         assertEquals(1, result.size());
         assertFalse(result.get(0).isEnabled());
-        verify(featureFlagRepository).findByEnabled(false);
+        verify(featureFlagRepository).findDtosByEnabled(false);
+    }
+
+    @Test
+    void searchFlagsByName_WhenTrigramIndexAvailable_ShouldUseTrigramSearch() {
+        Pageable pageable = PageRequest.of(0, 20);
+        when(databaseSupport.isTrigramSearch()).thenReturn(true);
+        FeatureFlagSummary summary = mock(FeatureFlagSummary.class);
+        when(summary.getName()).thenReturn("test_flag");
+        when(featureFlagRepository.searchByTrigram("test", pageable))
+                .thenReturn(new PageImpl<>(Arrays.asList(summary), pageable, 1));
+
+        Page<FeatureFlagDto> result = featureFlagService.searchFlagsByName("test", 0, 20);
+
+        assertEquals(1, result.getTotalElements());
+        assertEquals("test_flag", result.getContent().get(0).getName());
+        verify(featureFlagRepository, never()).findByNameContainingIgnoreCase(anyString(), any());
+    }
+
+    @Test
+    void searchFlagsByName_WhenTrigramIndexUnavailable_ShouldFallBackAndClampPageSize() {
+        Pageable clamped = PageRequest.of(0, 100);
+        when(databaseSupport.isTrigramSearch()).thenReturn(false);
+        when(featureFlagRepository.findByNameContainingIgnoreCase("test", clamped))
+                .thenReturn(new PageImpl<>(Arrays.asList(testFlagView), clamped, 1));
+
+        Page<FeatureFlagDto> result = featureFlagService.searchFlagsByName("test", -1, 10_000);
+
+        assertEquals(1, result.getContent().size());
+        verify(featureFlagRepository, never()).searchByTrigram(anyString(), any());
+    }
+
+    @Test
+    void importFlags_ShouldSkipDuplicatesAndPublishSingleBatchEvent() {
+        List<FeatureFlagDto> flags = Arrays.asList(
+                new FeatureFlagDto("new_flag", true),
+                new FeatureFlagDto("new_flag", false),
+                new FeatureFlagDto("test_flag", true));
+        when(featureFlagRepository.findExistingNames(anyCollection())).thenReturn(List.of("test_flag"));
+        when(featureFlagRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(flagChangeVersions.next()).thenReturn(3L);
+
+        BulkImportResult result = featureFlagService.importFlags(flags);
+
+        assertEquals(1, result.getCreated());
+        assertEquals(List.of("new_flag", "test_flag"), result.getSkipped());
+        verify(featureFlagRepository).findExistingNames(anyCollection());
+        verify(featureFlagRepository, never()).existsByName(anyString());
+        verify(flagEventPublisher, times(1)).publish(
+                argThat(event -> FlagUpdateEvent.BATCH.equals(event.getEventType())
+                        && event.getEvents().size() == 1
+                        && Long.valueOf(3L).equals(event.getEvents().get(0).getVersion())));
+        verify(flagChangeVersions, times(1)).next();
     }
 }
@@ -0,0 +1,111 @@
+package com.featureflags.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.featureflags.dto.FeatureFlagDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FlagListResponseCacheTest {
+
+    @Mock
+    private FeatureFlagService featureFlagService;
+
+    @Mock
+    private FlagChangeVersions flagChangeVersions;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private FlagListResponseCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new FlagListResponseCache(featureFlagService, flagChangeVersions, new ObjectMapper(),
+                transactionManager, 100);
+    }
+
+    @Test
+    void get_WhileVersionUnchanged_ShouldRenderOnce() {
+        when(flagChangeVersions.recent(Duration.ofMillis(100))).thenReturn(4L);
+        when(flagChangeVersions.current()).thenReturn(4L);
+        when(featureFlagService.getAllFlags()).thenReturn(List.of(new FeatureFlagDto("test_flag", true)));
+
+        FlagListResponseCache.CachedList first = cache.get(FlagListResponseCache.View.ALL);
+        FlagListResponseCache.CachedList second = cache.get(FlagListResponseCache.View.ALL);
+
+        assertSame(first, second);
+        assertTrue(new String(first.getJson(), StandardCharsets.UTF_8).contains("\"name\":\"test_flag\""));
+        verify(featureFlagService, times(1)).getAllFlags();
+        verify(flagChangeVersions, times(1)).current();
+    }
+
+    @Test
+    void get_AfterWrite_ShouldRenderAgainAndKeepViewsApart() {
+        when(flagChangeVersions.recent(any())).thenReturn(4L, 5L, 5L);
+        when(flagChangeVersions.current()).thenReturn(4L, 5L, 5L);
+        when(featureFlagService.getEnabledFlags()).thenReturn(List.of(new FeatureFlagDto("test_flag", true)));
+        when(featureFlagService.getDisabledFlags()).thenReturn(List.of());
+
+        cache.get(FlagListResponseCache.View.ENABLED);
+        FlagListResponseCache.CachedList rerendered = cache.get(FlagListResponseCache.View.ENABLED);
+        FlagListResponseCache.CachedList disabled = cache.get(FlagListResponseCache.View.DISABLED);
+
+        assertEquals(5L, rerendered.getVersion());
+        assertEquals("[]", new String(disabled.getJson(), StandardCharsets.UTF_8));
+        verify(featureFlagService, times(2)).getEnabledFlags();
+        verify(featureFlagService, never()).getAllFlags();
+    }
+
+    @Test
+    void get_ShouldStoreTheListUnderTheVersionReadInItsTransaction() {
+        when(flagChangeVersions.recent(any())).thenReturn(6L);
+        when(flagChangeVersions.current()).thenReturn(5L);
+        when(featureFlagService.getAllFlags()).thenReturn(List.of());
+
+        FlagListResponseCache.CachedList rendered = cache.get(FlagListResponseCache.View.ALL);
+
+        assertEquals(5L, rendered.getVersion());
+        verify(transactionManager).getTransaction(argThat(TransactionDefinition::isReadOnly));
+    }
+
+    @Test
+    void get_ShouldPrecompressOnlyLargeLists() throws IOException {
+        List<FeatureFlagDto> flags = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            flags.add(new FeatureFlagDto("flag_" + i, i % 2 == 0, "Flag number " + i));
+        }
+        when(flagChangeVersions.recent(any())).thenReturn(1L);
+        when(flagChangeVersions.current()).thenReturn(1L);
+        when(featureFlagService.getAllFlags()).thenReturn(flags);
+        when(featureFlagService.getEnabledFlags()).thenReturn(List.of());
+
+        FlagListResponseCache.CachedList large = cache.get(FlagListResponseCache.View.ALL);
+        FlagListResponseCache.CachedList small = cache.get(FlagListResponseCache.View.ENABLED);
+
+        assertNotNull(large.getGzip());
+        assertTrue(large.getGzip().length < large.getJson().length);
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(large.getGzip()))) {
+            assertArrayEquals(large.getJson(), gzip.readAllBytes());
+        }
+        assertNull(small.getGzip());
+    }
+}
@@ -0,0 +1,266 @@
+package com.featureflags.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.featureflags.config.DatabaseSupport;
+import com.featureflags.dto.FlagUpdateEvent;
+import com.featureflags.model.OutboxEvent;
+import com.featureflags.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private DatabaseSupport databaseSupport;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private OutboxRelay outboxRelay;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        outboxRelay = new OutboxRelay(outboxEventRepository, rabbitTemplate, objectMapper, jdbcTemplate,
+                transactionTemplate, databaseSupport, meterRegistry, 100, 200, 1000, 60000, 0);
+    }
+
+    @Test
+    void relayBatch_WhenBrokerConfirms_ShouldDeleteConfirmedRows() throws Exception {
+        OutboxEvent first = outboxEvent(1L, "flag_one");
+        OutboxEvent second = outboxEvent(2L, "flag_two");
+        when(outboxEventRepository.findReady(any(), any())).thenReturn(List.of(first, second));
+        doAnswer(invocation -> {
+            CorrelationData correlationData = invocation.getArgument(3);
+            correlationData.getFuture().complete(new CorrelationData.Confirm(true, null));
+            return null;
+        }).when(rabbitTemplate).convertAndSend(anyString(), anyString(), any(Object.class), any(CorrelationData.class));
+
+        int relayed = outboxRelay.relayBatch();
+
+        assertEquals(2, relayed);
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+        assertEquals(0, first.getAttempts());
+    }
+
+    @Test
+    void relayBatch_ShouldStampPublishTimeAndRecordCommitToPublish() throws Exception {
+        FlagUpdateEvent committed = new FlagUpdateEvent("flag_one", true, "TOGGLED");
+        committed.setCommittedAtMicros(FlagUpdateEvent.nowMicros() - 20_000);
+        OutboxEvent outboxEvent = new OutboxEvent(objectMapper.writeValueAsString(committed));
+        outboxEvent.setId(1L);
+        when(outboxEventRepository.findReady(any(), any())).thenReturn(List.of(outboxEvent));
+        ArgumentCaptor<Object> published = ArgumentCaptor.forClass(Object.class);
+        doAnswer(invocation -> {
+            CorrelationData correlationData = invocation.getArgument(3);
+            correlationData.getFuture().complete(new CorrelationData.Confirm(true, null));
+            return null;
+        }).when(rabbitTemplate).convertAndSend(anyString(), anyString(), published.capture(), any(CorrelationData.class));
+
+        outboxRelay.relayBatch();
+
+        FlagUpdateEvent event = (FlagUpdateEvent) published.getValue();
+        assertTrue(event.getPublishedAtMicros() >= event.getCommittedAtMicros() + 20_000);
+        Timer commitToPublish = meterRegistry.get("feature_flags.outbox.commit_to_publish").timer();
+        assertEquals(1, commitToPublish.count());
+        assertTrue(commitToPublish.totalTime(TimeUnit.MILLISECONDS) >= 20);
+    }
+
+    @Test
+    void relayBatch_WhenBrokerNacks_ShouldScheduleRetryWithBackoff() throws Exception {
+        OutboxEvent acked = outboxEvent(1L, "flag_one");
+        OutboxEvent nacked = outboxEvent(2L, "flag_two");
+        when(outboxEventRepository.findReady(any(), any())).thenReturn(List.of(acked, nacked));
+        doAnswer(invocation -> {
+            CorrelationData correlationData = invocation.getArgument(3);
+            boolean ack = "1".equals(correlationData.getId());
+            correlationData.getFuture().complete(new CorrelationData.Confirm(ack, ack ? null : "queue full"));
+            return null;
+        }).when(rabbitTemplate).convertAndSend(anyString(), anyString(), any(Object.class), any(CorrelationData.class));
+
+        LocalDateTime before = LocalDateTime.now();
+        outboxRelay.relayBatch();
+
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(1L));
+        assertEquals(1, nacked.getAttempts());
+        assertTrue(nacked.getNextAttemptAt().isAfter(before.plusNanos(900_000_000L)));
+    }
+
+    @Test
+    void relayBatch_WhenNewerEventForFlagIsConfirmed_ShouldNotRetryOlderOne() throws Exception {
+        OutboxEvent nacked = outboxEvent(1L, "flag_one");
+        OutboxEvent acked = outboxEvent(2L, "flag_one");
+        when(outboxEventRepository.findReady(any(), any())).thenReturn(List.of(nacked, acked));
+        doAnswer(invocation -> {
+            CorrelationData correlationData = invocation.getArgument(3);
+            boolean ack = "2".equals(correlationData.getId());
+            correlationData.getFuture().complete(new CorrelationData.Confirm(ack, ack ? null : "queue full"));
+            return null;
+        }).when(rabbitTemplate).convertAndSend(anyString(), anyString(), any(Object.class), any(CorrelationData.class));
+
+        outboxRelay.relayBatch();
+
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(2L, 1L));
+        assertEquals(0, nacked.getAttempts());
+    }
+
+    @Test
+    void relayBatch_WhenNewerEventIsConfirmed_ShouldDropItsFlagsFromDeferredRetries() throws Exception {
+        OutboxEvent deferredSingle = outboxEvent(1L, "flag_one");
+        FlagUpdateEvent created = FlagUpdateEvent.batch(List.of(
+                new FlagUpdateEvent("flag_one", true, "CREATED"),
+                new FlagUpdateEvent("flag_two", true, "CREATED")));
+        created.setVersion(2L);
+        OutboxEvent deferredBatch = new OutboxEvent(objectMapper.writeValueAsString(created));
+        deferredBatch.setId(2L);
+        OutboxEvent newer = outboxEvent(3L, "flag_one");
+        when(outboxEventRepository.findReady(any(), any())).thenReturn(List.of(newer));
+        when(outboxEventRepository.findDeferred(any(), any())).thenReturn(List.of(deferredSingle, deferredBatch));
+        doAnswer(invocation -> {
+            CorrelationData correlationData = invocation.getArgument(3);
+            correlationData.getFuture().complete(new CorrelationData.Confirm(true, null));
+            return null;
+        }).when(rabbitTemplate).convertAndSend(anyString(), anyString(), any(Object.class), any(CorrelationData.class));
+
+        outboxRelay.relayBatch();
+
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(3L, 1L));
+        FlagUpdateEvent remaining = objectMapper.readValue(deferredBatch.getPayload(), FlagUpdateEvent.class);
+        assertEquals(1, remaining.getEvents().size());
+        assertEquals("flag_two", remaining.getEvents().get(0).getFlagName());
+    }
+
+    @Test
+    void relayBatch_WhenOlderChangeHasHigherRowId_ShouldNotDropNewerDeferredRetry() throws Exception {
+        // Each replica allocates row ids from its own block, so id order says nothing about change order
+        OutboxEvent deferredNewer = versionedEvent(3L, "flag_one", false, 12);
+        OutboxEvent older = versionedEvent(51L, "flag_one", true, 11);
+        when(outboxEventRepository.findReady(any(), any())).thenReturn(List.of(older));
+        when(outboxEventRepository.findDeferred(any(), any())).thenReturn(List.of(deferredNewer));
+        doAnswer(invocation -> {
+            CorrelationData correlationData = invocation.getArgument(3);
+            correlationData.getFuture().complete(new CorrelationData.Confirm(true, null));
+            return null;
+        }).when(rabbitTemplate).convertAndSend(anyString(), anyString(), any(Object.class), any(CorrelationData.class));
+
+        outboxRelay.relayBatch();
+
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(51L));
+    }
+
+    @Test
+    void relayBatch_WhenConfirmTimesOut_ShouldKeepRowForRetry() throws Exception {
+        OutboxEvent unconfirmed = outboxEvent(1L, "flag_one");
+        when(outboxEventRepository.findReady(any(), any())).thenReturn(List.of(unconfirmed));
+
+        outboxRelay.relayBatch();
+
+        verify(outboxEventRepository, never()).deleteAllByIdInBatch(any());
+        assertEquals(1, unconfirmed.getAttempts());
+    }
+
+    @Test
+    void relayBatch_WhenAnotherReplicaHoldsTheLock_ShouldNotRelay() {
+        when(databaseSupport.isPostgres()).thenReturn(true);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), any())).thenReturn(false);
+
+        assertEquals(0, outboxRelay.relayBatch());
+        verifyNoInteractions(outboxEventRepository, rabbitTemplate);
+    }
+
+    @Test
+    void relayBatch_WithCoalescingWindow_ShouldPublishLatestStatePerFlagAsOneSmileMessage() throws Exception {
+        OutboxRelay coalescingRelay = new OutboxRelay(outboxEventRepository, rabbitTemplate, objectMapper, jdbcTemplate,
+                transactionTemplate, databaseSupport, meterRegistry, 100, 200, 1000, 60000, 1000);
+        List<OutboxEvent> storm = List.of(
+                versionedEvent(1L, "flag_one", true, 1),
+                versionedEvent(2L, "flag_one", false, 2),
+                versionedEvent(3L, "flag_two", true, 3),
+                versionedEvent(4L, "flag_one", true, 4));
+        storm.forEach(event -> event.setCreatedAt(LocalDateTime.now().minusSeconds(2)));
+        when(outboxEventRepository.findReady(any(), any())).thenReturn(storm);
+        ArgumentCaptor<Message> sent = ArgumentCaptor.forClass(Message.class);
+        doAnswer(invocation -> {
+            CorrelationData correlationData = invocation.getArgument(3);
+            correlationData.getFuture().complete(new CorrelationData.Confirm(true, null));
+            return null;
+        }).when(rabbitTemplate).send(anyString(), anyString(), sent.capture(), any(CorrelationData.class));
+
+        int relayed = coalescingRelay.relayBatch();
+
+        assertEquals(4, relayed);
+        verify(rabbitTemplate, never()).convertAndSend(anyString(), anyString(), any(Object.class), any(CorrelationData.class));
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(1L, 2L, 3L, 4L));
+        assertEquals(OutboxRelay.SMILE_CONTENT_TYPE, sent.getValue().getMessageProperties().getContentType());
+
+        FlagUpdateEvent batch = objectMapper.copyWith(new SmileFactory())
+                .readValue(sent.getValue().getBody(), FlagUpdateEvent.class);
+        assertEquals(FlagUpdateEvent.BATCH, batch.getEventType());
+        assertEquals(4L, batch.getVersion());
+        assertEquals(2, batch.getEvents().size());
+        assertEquals("flag_one", batch.getEvents().get(0).getFlagName());
+        assertTrue(batch.getEvents().get(0).isEnabled());
+        assertEquals(4L, batch.getEvents().get(0).getVersion());
+        assertEquals("flag_two", batch.getEvents().get(1).getFlagName());
+        assertNotNull(batch.getPublishedAtMicros());
+    }
+
+    @Test
+    void relayBatch_WithCoalescingWindow_ShouldHoldEventsYoungerThanWindow() throws Exception {
+        OutboxRelay coalescingRelay = new OutboxRelay(outboxEventRepository, rabbitTemplate, objectMapper, jdbcTemplate,
+                transactionTemplate, databaseSupport, meterRegistry, 100, 200, 1000, 60000, 1000);
+        OutboxEvent fresh = versionedEvent(1L, "flag_one", true, 1);
+        fresh.setCreatedAt(LocalDateTime.now());
+        when(outboxEventRepository.findReady(any(), any())).thenReturn(List.of(fresh));
+
+        assertEquals(0, coalescingRelay.relayBatch());
+        verifyNoInteractions(rabbitTemplate);
+        verify(outboxEventRepository, never()).deleteAllByIdInBatch(any());
+    }
+
+    private OutboxEvent versionedEvent(Long id, String flagName, boolean enabled, long version) throws Exception {
+        FlagUpdateEvent event = new FlagUpdateEvent(flagName, enabled, "TOGGLED");
+        event.setVersion(version);
+        OutboxEvent outboxEvent = new OutboxEvent(objectMapper.writeValueAsString(event));
+        outboxEvent.setId(id);
+        outboxEvent.setNextAttemptAt(LocalDateTime.now());
+        return outboxEvent;
+    }
+
+    private OutboxEvent outboxEvent(Long id, String flagName) throws Exception {
+        return versionedEvent(id, flagName, true, id);
+    }
+}
@@ -0,0 +1,46 @@
+package com.featureflags.service;
+
+import com.featureflags.config.DatabaseSupport;
+import com.featureflags.dto.FlagUpdateEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PgNotifyFlagEventPublisherTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private DatabaseSupport databaseSupport;
+
+    @Test
+    void publish_ShouldNotifyChangeVersionAndCommitTime() {
+        PgNotifyFlagEventPublisher publisher = new PgNotifyFlagEventPublisher(jdbcTemplate, databaseSupport, "flag_changes");
+        FlagUpdateEvent event = new FlagUpdateEvent("test_flag", true, "TOGGLED");
+        event.setVersion(42L);
+        event.setCommittedAtMicros(1_700_000_000_000_000L);
+
+        publisher.publish(event);
+
+        verify(jdbcTemplate).query(eq("SELECT pg_notify(?, ?)"), any(RowCallbackHandler.class),
+                eq("flag_changes"), eq("42,1700000000000000"));
+    }
+
+    @Test
+    void afterPropertiesSet_WithoutPostgres_ShouldFail() {
+        PgNotifyFlagEventPublisher publisher = new PgNotifyFlagEventPublisher(jdbcTemplate, databaseSupport, "flag_changes");
+        when(databaseSupport.isPostgres()).thenReturn(false);
+
+        assertThrows(IllegalStateException.class, publisher::afterPropertiesSet);
+    }
+}
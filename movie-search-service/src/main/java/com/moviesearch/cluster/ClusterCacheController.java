@@ -0,0 +1,49 @@
+package com.moviesearch.cluster;
+
+import com.moviesearch.dto.MovieSearchResponse;
+import com.moviesearch.exception.MaintenanceModeException;
+import com.moviesearch.service.MovieSearchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+/**
+ * Internal cache API answering peers for the keys this replica owns; never forwards again.
+ * Upstream answers, found or not, are passed through with 200.
+ */
+@RestController
+@RequestMapping(ClusterCacheRouter.INTERNAL_PATH)
+@ConditionalOnProperty(name = "omdb.cluster.enabled", havingValue = "true")
+public class ClusterCacheController {
+
+    private final MovieSearchService movieSearchService;
+
+    @Autowired
+    public ClusterCacheController(MovieSearchService movieSearchService) {
+        this.movieSearchService = movieSearchService;
+    }
+
+    @GetMapping("/search")
+    public Mono<ResponseEntity<MovieSearchResponse>> search(@RequestParam String title) {
+        return answer(movieSearchService.searchOwned(title));
+    }
+
+    @GetMapping("/details/{imdbId}")
+    public Mono<ResponseEntity<MovieSearchResponse>> details(@PathVariable String imdbId) {
+        return answer(movieSearchService.getOwnedMovieDetails(imdbId));
+    }
+
+    private static Mono<ResponseEntity<MovieSearchResponse>> answer(Mono<MovieSearchResponse> result) {
+        return result.map(ResponseEntity::ok)
+                .onErrorResume(MaintenanceModeException.class,
+                        error -> Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build()))
+                .onErrorResume(error -> Mono.just(ResponseEntity.status(HttpStatus.BAD_GATEWAY).build()));
+    }
+}
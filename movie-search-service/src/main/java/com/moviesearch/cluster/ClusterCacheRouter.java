@@ -0,0 +1,137 @@
+package com.moviesearch.cluster;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.moviesearch.dto.MovieSearchResponse;
+import com.moviesearch.service.SearchResultCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Routes result cache lookups to the replica owning the key.
+ * <p>
+ * A miss on a key owned by a peer is forwarded to that peer's internal cache API, which answers
+ * from its cache or calls OMDB itself. The owner never forwards again, so a request makes at most
+ * one hop even while replicas disagree about the ring. The forward timeout must exceed the OMDB
+ * timeout: a forwarder that gives up while the owner still waits for OMDB calls OMDB a second time.
+ * Peers that cannot be reached are reported to {@link ClusterMembership}, which ejects them.
+ */
+@Component
+@ConditionalOnProperty(name = "omdb.cluster.enabled", havingValue = "true")
+public class ClusterCacheRouter implements MeterBinder {
+
+    public static final String INTERNAL_PATH = "/internal/cache";
+    private static final Logger logger = LoggerFactory.getLogger(ClusterCacheRouter.class);
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    private final ClusterMembership clusterMembership;
+    private final WebClient peerClient;
+    private final Duration forwardTimeout;
+    private final LongAdder forwarded = new LongAdder();
+    private final LongAdder forwardFailures = new LongAdder();
+
+    @Autowired
+    public ClusterCacheRouter(ClusterMembership clusterMembership, WebClient.Builder webClientBuilder,
+                              @Value("${omdb.cluster.forward-timeout:6s}") Duration forwardTimeout,
+                              @Value("${omdb.api.timeout:5000ms}") Duration omdbTimeout) {
+        this.clusterMembership = clusterMembership;
+        this.peerClient = webClientBuilder.build();
+        this.forwardTimeout = forwardTimeout;
+        if (forwardTimeout.compareTo(omdbTimeout) <= 0) {
+            logger.warn("omdb.cluster.forward-timeout {} does not exceed omdb.api.timeout {}; slow OMDB calls "
+                    + "on the owner will be repeated by the forwarding replica", forwardTimeout, omdbTimeout);
+        }
+    }
+
+    /**
+     * Peer owning the search results of a title, or null when this replica owns them
+     */
+    public String searchOwner(String title) {
+        return clusterMembership.ownerOf("s:" + SearchResultCache.key(title));
+    }
+
+    /**
+     * Peer owning the details of an IMDB ID, or null when this replica owns them
+     */
+    public String detailsOwner(String imdbId) {
+        return clusterMembership.ownerOf("i:" + imdbId);
+    }
+
+    public Mono<MovieSearchResponse> search(String owner, String title) {
+        return Mono.defer(() -> forward(owner, peerClient.get().uri(owner + INTERNAL_PATH + "/search?title={title}", title)));
+    }
+
+    public Mono<MovieSearchResponse> details(String owner, String imdbId) {
+        return Mono.defer(() -> forward(owner, peerClient.get().uri(owner + INTERNAL_PATH + "/details/{imdbId}", imdbId)));
+    }
+
+    /**
+     * Top search queries with their counts from the first peer that answers on /actuator/topqueries;
+     * empty when no peer does
+     */
+    public Mono<Map<String, Long>> peerTopQueries(int limit) {
+        return Flux.fromIterable(clusterMembership.members())
+                .filter(member -> !member.equals(clusterMembership.getSelfUrl()))
+                .concatMap(peer -> peerClient.get().uri(peer + "/actuator/topqueries?limit={limit}", limit)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .retrieve()
+                        .bodyToMono(JsonNode.class)
+                        .timeout(forwardTimeout)
+                        .onErrorResume(error -> Mono.empty()))
+                .next()
+                .map(ClusterCacheRouter::readTopQueries);
+    }
+
+    private static Map<String, Long> readTopQueries(JsonNode body) {
+        Map<String, Long> top = new LinkedHashMap<>();
+        for (JsonNode query : body.path("queries")) {
+            if (query.hasNonNull("query")) {
+                top.put(query.get("query").asText(), query.path("count").asLong(1));
+            }
+        }
+        return top;
+    }
+
+    private Mono<MovieSearchResponse> forward(String owner, WebClient.RequestHeadersSpec<?> request) {
+        forwarded.increment();
+        return request.accept(SMILE, MediaType.APPLICATION_JSON)
+                .retrieve()
+                .bodyToMono(MovieSearchResponse.class)
+                .timeout(forwardTimeout)
+                .doOnNext(response -> clusterMembership.onForwardSuccess(owner))
+                .doOnError(error -> {
+                    forwardFailures.increment();
+                    // Only an unreachable peer is ejected; an error it answered with came from OMDB
+                    if (error instanceof WebClientRequestException || error instanceof TimeoutException) {
+                        clusterMembership.onForwardFailure(owner);
+                    }
+                });
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("movie_search.cluster.forwarded", forwarded, LongAdder::sum)
+                .description("Result cache misses forwarded to the owning peer")
+                .register(registry);
+        FunctionCounter.builder("movie_search.cluster.forward_failures", forwardFailures, LongAdder::sum)
+                .description("Forwards that failed and fell back to calling OMDB locally")
+                .register(registry);
+    }
+}
@@ -0,0 +1,193 @@
+package com.moviesearch.cluster;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Replicas sharing the result cache, and which of them owns a cache key.
+ * <p>
+ * Members are this replica, the configured static peers and, with broker discovery, every replica
+ * whose heartbeat was seen within the member TTL. The {@link HashRing} is rebuilt only when that
+ * set changes. Replicas may briefly disagree on the ring while a change propagates; a request
+ * forwarded to a peer is always answered there, so that only costs an extra cache miss.
+ * <p>
+ * A peer that could not be reached for several forwards in a row, static peers included, is
+ * ejected for a while: the keys it owns are served by this replica until then, instead of every
+ * request waiting for the forward timeout first.
+ */
+@Component
+@ConditionalOnProperty(name = "omdb.cluster.enabled", havingValue = "true")
+public class ClusterMembership implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterMembership.class);
+
+    private final String selfUrl;
+    private final Set<String> staticPeers;
+    private final int virtualNodes;
+    private final long memberTtlNanos;
+    private final int ejectAfterFailures;
+    private final long ejectNanos;
+    private final LongSupplier nanoClock;
+    private final Map<String, Long> lastSeen = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> forwardFailures = new ConcurrentHashMap<>();
+    private final Map<String, Long> ejectedUntil = new ConcurrentHashMap<>();
+    private final ReentrantLock ringLock = new ReentrantLock();
+
+    private volatile HashRing ring;
+
+    @Autowired
+    public ClusterMembership(@Value("${omdb.cluster.self-url}") String selfUrl,
+                             @Value("${omdb.cluster.peers:}") String[] staticPeers,
+                             @Value("${omdb.cluster.virtual-nodes:128}") int virtualNodes,
+                             @Value("${omdb.cluster.member-ttl-ms:15000}") long memberTtlMs,
+                             @Value("${omdb.cluster.eject-after-failures:3}") int ejectAfterFailures,
+                             @Value("${omdb.cluster.eject-for-ms:30000}") long ejectForMs) {
+        this(selfUrl, staticPeers, virtualNodes, memberTtlMs, ejectAfterFailures, ejectForMs, System::nanoTime);
+    }
+
+    ClusterMembership(String selfUrl, String[] staticPeers, int virtualNodes, long memberTtlMs,
+                      int ejectAfterFailures, long ejectForMs, LongSupplier nanoClock) {
+        this.selfUrl = normalize(selfUrl);
+        this.staticPeers = new HashSet<>();
+        Arrays.stream(staticPeers).map(String::trim).filter(peer -> !peer.isEmpty())
+                .forEach(peer -> this.staticPeers.add(normalize(peer)));
+        this.virtualNodes = virtualNodes;
+        this.memberTtlNanos = TimeUnit.MILLISECONDS.toNanos(memberTtlMs);
+        this.ejectAfterFailures = ejectAfterFailures;
+        this.ejectNanos = TimeUnit.MILLISECONDS.toNanos(ejectForMs);
+        this.nanoClock = nanoClock;
+        rebuild();
+    }
+
+    public String getSelfUrl() {
+        return selfUrl;
+    }
+
+    /**
+     * Base URL of the peer owning the key, or null when this replica owns it or the owner is ejected
+     */
+    public String ownerOf(String key) {
+        String owner = ring.owner(key);
+        return owner == null || owner.equals(selfUrl) || isEjected(owner) ? null : owner;
+    }
+
+    /**
+     * A forward to the peer could not be delivered; ejects it after enough failures in a row
+     */
+    public void onForwardFailure(String peer) {
+        int failures = forwardFailures.computeIfAbsent(peer, key -> new AtomicInteger()).incrementAndGet();
+        if (failures >= ejectAfterFailures && ejectedUntil.put(peer, nanoClock.getAsLong() + ejectNanos) == null) {
+            logger.warn("Cluster peer {} unreachable for {} forwards, serving its keys locally for {} s",
+                    peer, failures, TimeUnit.NANOSECONDS.toSeconds(ejectNanos));
+        }
+    }
+
+    /**
+     * A forward to the peer was answered
+     */
+    public void onForwardSuccess(String peer) {
+        AtomicInteger failures = forwardFailures.get(peer);
+        if (failures != null) {
+            failures.set(0);
+        }
+    }
+
+    private boolean isEjected(String peer) {
+        Long until = ejectedUntil.get(peer);
+        if (until == null) {
+            return false;
+        }
+        if (nanoClock.getAsLong() - until < 0) {
+            return true;
+        }
+        // Give the peer another chance; one more failure ejects it again
+        if (ejectedUntil.remove(peer, until)) {
+            forwardFailures.computeIfAbsent(peer, key -> new AtomicInteger()).set(ejectAfterFailures - 1);
+            logger.info("Cluster peer {} is no longer ejected", peer);
+        }
+        return false;
+    }
+
+    public Set<String> members() {
+        return ring.members();
+    }
+
+    /**
+     * A peer announced itself, or that it is leaving
+     */
+    public void onHeartbeat(String url, boolean leaving) {
+        String peer = normalize(url);
+        if (peer.equals(selfUrl)) {
+            return;
+        }
+        boolean changed = leaving
+                ? lastSeen.remove(peer) != null
+                : lastSeen.put(peer, nanoClock.getAsLong()) == null;
+        if (changed) {
+            logger.info("Cluster peer {} {}", peer, leaving ? "left" : "joined");
+            rebuild();
+        }
+    }
+
+    /**
+     * Drop peers whose heartbeats stopped
+     */
+    @Scheduled(fixedDelayString = "${omdb.cluster.heartbeat-interval-ms:5000}")
+    public void expireMembers() {
+        long now = nanoClock.getAsLong();
+        boolean changed = lastSeen.entrySet().removeIf(entry -> {
+            boolean expired = now - entry.getValue() > memberTtlNanos;
+            if (expired) {
+                logger.info("Cluster peer {} expired", entry.getKey());
+            }
+            return expired;
+        });
+        if (changed) {
+            rebuild();
+        }
+    }
+
+    private void rebuild() {
+        ringLock.lock();
+        try {
+            Set<String> members = new HashSet<>(staticPeers);
+            members.addAll(lastSeen.keySet());
+            members.add(selfUrl);
+            HashRing current = ring;
+            if (current == null || !current.members().equals(members)) {
+                ring = new HashRing(members, virtualNodes);
+            }
+        } finally {
+            ringLock.unlock();
+        }
+    }
+
+    private static String normalize(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("movie_search.cluster.members", this, membership -> membership.members().size())
+                .description("Replicas in the result cache hash ring, this one included")
+                .register(registry);
+    }
+}
@@ -0,0 +1,88 @@
+package com.moviesearch.cluster;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.FanoutExchange;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Broker discovery of cluster members: every replica announces its URL on a fanout exchange at
+ * each heartbeat and receives the announcements of the others on its own auto-delete queue.
+ * A replica that shuts down announces that it leaves, so the others remap its keys at once
+ * instead of after the member TTL.
+ */
+@Configuration
+@ConditionalOnExpression("${omdb.cluster.enabled:false} and '${omdb.cluster.discovery:static}' == 'rabbitmq'")
+public class RabbitClusterDiscovery {
+
+    public static final String EXCHANGE_NAME = "movie-search.cluster";
+    static final String LEAVING_HEADER = "x-cluster-leaving";
+
+    private static final Logger logger = LoggerFactory.getLogger(RabbitClusterDiscovery.class);
+
+    private final ClusterMembership clusterMembership;
+    private final RabbitTemplate rabbitTemplate;
+
+    @Autowired
+    public RabbitClusterDiscovery(ClusterMembership clusterMembership, RabbitTemplate rabbitTemplate) {
+        this.clusterMembership = clusterMembership;
+        this.rabbitTemplate = rabbitTemplate;
+    }
+
+    @Bean
+    public FanoutExchange clusterExchange() {
+        return new FanoutExchange(EXCHANGE_NAME, false, false);
+    }
+
+    @Bean
+    public Queue clusterMembersQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding clusterMembersBinding(FanoutExchange clusterExchange, Queue clusterMembersQueue) {
+        return BindingBuilder.bind(clusterMembersQueue).to(clusterExchange);
+    }
+
+    @Scheduled(fixedDelayString = "${omdb.cluster.heartbeat-interval-ms:5000}")
+    public void heartbeat() {
+        announce(false);
+    }
+
+    @RabbitListener(queues = "#{clusterMembersQueue.name}")
+    public void onAnnouncement(Message message) {
+        String url = new String(message.getBody(), StandardCharsets.UTF_8);
+        clusterMembership.onHeartbeat(url, Boolean.TRUE.equals(message.getMessageProperties().getHeader(LEAVING_HEADER)));
+    }
+
+    @PreDestroy
+    public void leave() {
+        announce(true);
+    }
+
+    private void announce(boolean leaving) {
+        Message message = MessageBuilder.withBody(clusterMembership.getSelfUrl().getBytes(StandardCharsets.UTF_8))
+                .setHeader(LEAVING_HEADER, leaving)
+                .build();
+        try {
+            rabbitTemplate.send(EXCHANGE_NAME, "", message);
+        } catch (RuntimeException e) {
+            logger.warn("Could not announce cluster membership: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.moviesearch.controller;
+
+import com.moviesearch.service.QueryFrequencyTracker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * /actuator/topqueries: the most frequent search queries of the sliding window, with their estimated counts
+ */
+@Component
+@Endpoint(id = "topqueries")
+public class TopQueriesEndpoint {
+
+    private final QueryFrequencyTracker queryFrequencyTracker;
+
+    @Autowired
+    public TopQueriesEndpoint(QueryFrequencyTracker queryFrequencyTracker) {
+        this.queryFrequencyTracker = queryFrequencyTracker;
+    }
+
+    @ReadOperation
+    public Map<String, Object> topQueries(@Nullable Integer limit) {
+        Map<String, Object> top = new LinkedHashMap<>();
+        top.put("window", queryFrequencyTracker.getWindow().toString());
+        top.put("queries", queryFrequencyTracker.top(limit != null ? limit : 20));
+        return top;
+    }
+}
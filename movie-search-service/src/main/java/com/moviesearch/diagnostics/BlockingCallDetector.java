@@ -0,0 +1,90 @@
+package com.moviesearch.diagnostics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.blockhound.BlockHound;
+import reactor.blockhound.BlockingMethod;
+import reactor.blockhound.BlockingOperationError;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Detects blocking calls on threads that must never block, the Reactor Netty event loops and the
+ * Reactor parallel scheduler, with BlockHound.
+ * <p>
+ * BlockHound instruments the JDK once per JVM and cannot be removed, so detection is opt-in and
+ * meant for tests and staging. On JDK 13+ the JVM needs {@code -XX:+AllowRedefinitionToAddDeleteMethods};
+ * without it detection stays off and a warning is logged. Logging to the console is allowed, but
+ * writing to a file appender on one of these threads is reported like any other blocking call.
+ */
+final class BlockingCallDetector {
+
+    private static final Logger logger = LoggerFactory.getLogger(BlockingCallDetector.class);
+
+    private static final AtomicBoolean installed = new AtomicBoolean();
+    private static final LongAdder detected = new LongAdder();
+    private static final ThreadLocal<Boolean> reporting = ThreadLocal.withInitial(() -> false);
+
+    /**
+     * What to do with a blocking call on a non-blocking thread
+     */
+    enum Mode {
+        /** No detection */
+        OFF,
+        /** Count it and log it with its stack trace */
+        LOG,
+        /** Count it and fail the calling operation with a {@link BlockingOperationError} */
+        FAIL
+    }
+
+    private BlockingCallDetector() {
+    }
+
+    /**
+     * Install detection unless it is off or already installed; the mode of the first install stays
+     */
+    static boolean install(Mode mode) {
+        if (mode == Mode.OFF || !installed.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            BlockHound.install(builder -> builder
+                    .disallowBlockingCallsInside("ch.qos.logback.core.FileAppender", "writeOut")
+                    .blockingMethodCallback(method -> onBlockingCall(method, mode)));
+            logger.info("Blocking call detection installed, blocking calls on non-blocking threads will {}",
+                    mode == Mode.FAIL ? "fail" : "be logged");
+            return true;
+        } catch (IllegalStateException e) {
+            installed.set(false);
+            logger.warn("Could not install blocking call detection: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    static boolean isInstalled() {
+        return installed.get();
+    }
+
+    static long detected() {
+        return detected.sum();
+    }
+
+    private static void onBlockingCall(BlockingMethod method, Mode mode) {
+        detected.increment();
+        if (mode == Mode.FAIL) {
+            throw new BlockingOperationError(method);
+        }
+        // The log call itself may block with a file appender, which must not report again
+        if (reporting.get()) {
+            return;
+        }
+        reporting.set(true);
+        try {
+            logger.warn("Blocking call {} on non-blocking thread {}", method, Thread.currentThread().getName(),
+                    new BlockingOperationError(method));
+        } finally {
+            reporting.set(false);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.moviesearch.diagnostics;
+
+import org.springframework.boot.context.event.ApplicationEnvironmentPreparedEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.env.ConfigurableEnvironment;
+
+/**
+ * Sets up the Reactor diagnostics that have to be in place before the first event loop or
+ * scheduler thread starts: blocking call detection ({@code omdb.diagnostics.blocking-calls})
+ * and scheduler queue tracking ({@code omdb.diagnostics.metrics.enabled}).
+ * <p>
+ * Registered in META-INF/spring.factories, so it runs once the configuration is read but before
+ * the application context is created, in the application and in Spring Boot tests alike.
+ */
+public class DiagnosticsInitializer implements ApplicationListener<ApplicationEnvironmentPreparedEvent> {
+
+    @Override
+    public void onApplicationEvent(ApplicationEnvironmentPreparedEvent event) {
+        ConfigurableEnvironment environment = event.getEnvironment();
+        if (environment.getProperty("omdb.diagnostics.metrics.enabled", Boolean.class, true)) {
+            SchedulerQueues.track();
+        }
+        BlockingCallDetector.install(environment.getProperty("omdb.diagnostics.blocking-calls",
+                BlockingCallDetector.Mode.class, BlockingCallDetector.Mode.OFF));
+    }
+}
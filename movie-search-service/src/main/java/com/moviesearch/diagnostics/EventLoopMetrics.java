@@ -0,0 +1,48 @@
+package com.moviesearch.diagnostics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.SingleThreadEventExecutor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.netty.http.HttpResources;
+import reactor.netty.resources.LoopResources;
+
+/**
+ * Backlog of the threads serving requests: tasks waiting on each Reactor Netty event loop and on
+ * the Reactor schedulers. A growing backlog on one loop while the others are idle points at a
+ * blocking or slow call on that loop; {@link PipelineMetrics} tells which pipeline it was in.
+ */
+@Component
+@ConditionalOnProperty(name = "omdb.diagnostics.metrics.enabled", havingValue = "true", matchIfMissing = true)
+public class EventLoopMetrics implements MeterBinder {
+
+    private static final String[] SCHEDULERS = {"parallel", "boundedElastic"};
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        // The loops shared by the WebFlux server and the OMDB WebClient
+        int loop = 0;
+        for (EventExecutor executor : HttpResources.get().onServer(LoopResources.DEFAULT_NATIVE)) {
+            if (executor instanceof SingleThreadEventExecutor eventLoop) {
+                Gauge.builder("movie_search.event_loop.pending_tasks", eventLoop, SingleThreadEventExecutor::pendingTasks)
+                        .description("Tasks waiting to run on a Reactor Netty event loop")
+                        .tag("loop", Integer.toString(loop++))
+                        .register(registry);
+            }
+        }
+        for (String scheduler : SCHEDULERS) {
+            Gauge.builder("movie_search.scheduler.queued_tasks", () -> SchedulerQueues.queued(scheduler))
+                    .description("Tasks of a Reactor scheduler that are due but wait for a thread")
+                    .tag("scheduler", scheduler)
+                    .register(registry);
+        }
+        FunctionCounter.builder("movie_search.diagnostics.blocking_calls", BlockingCallDetector.class,
+                        detector -> BlockingCallDetector.detected())
+                .description("Blocking calls detected on non-blocking threads, with omdb.diagnostics.blocking-calls on")
+                .register(registry);
+    }
+}
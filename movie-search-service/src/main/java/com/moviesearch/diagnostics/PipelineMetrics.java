@@ -0,0 +1,31 @@
+package com.moviesearch.diagnostics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.observability.micrometer.Micrometer;
+import reactor.core.publisher.Mono;
+
+/**
+ * Times Reactor pipelines with Reactor's Micrometer listener. Each timed pipeline reports
+ * {@code movie_search.pipeline.flow.duration} (subscription to completion, by status and exception)
+ * and {@code movie_search.pipeline.onNext.delay} (subscription to value), tagged with the pipeline name.
+ */
+@Component
+@ConditionalOnProperty(name = "omdb.diagnostics.metrics.enabled", havingValue = "true", matchIfMissing = true)
+public class PipelineMetrics {
+
+    static final String METRIC_PREFIX = "movie_search.pipeline";
+
+    private final MeterRegistry registry;
+
+    @Autowired
+    public PipelineMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public <T> Mono<T> timed(Mono<T> pipeline, String name) {
+        return pipeline.name(METRIC_PREFIX).tag("pipeline", name).tap(Micrometer.metrics(registry));
+    }
+}
@@ -0,0 +1,87 @@
+package com.moviesearch.diagnostics;
+
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The executors behind the Reactor schedulers, by scheduler name, to tell how many tasks wait for a thread.
+ * <p>
+ * Executors are collected with a Reactor executor decorator, which only sees executors created
+ * after {@link #track()}; it therefore runs before the application context, see {@link DiagnosticsInitializer}.
+ * Bounded elastic executors come and go, so they are held weakly.
+ */
+final class SchedulerQueues {
+
+    private static final String DECORATOR_KEY = "movie_search.scheduler_queues";
+
+    private static final AtomicBoolean tracking = new AtomicBoolean();
+    private static final Map<ThreadPoolExecutor, String> executors = new WeakHashMap<>();
+    private static final ReentrantLock lock = new ReentrantLock();
+
+    private SchedulerQueues() {
+    }
+
+    static void track() {
+        if (tracking.compareAndSet(false, true)) {
+            Schedulers.addExecutorServiceDecorator(DECORATOR_KEY, SchedulerQueues::register);
+        }
+    }
+
+    private static ScheduledExecutorService register(Scheduler scheduler, ScheduledExecutorService executor) {
+        if (executor instanceof ThreadPoolExecutor pool) {
+            lock.lock();
+            try {
+                executors.put(pool, nameOf(scheduler));
+            } finally {
+                lock.unlock();
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * Tasks of the scheduler that are due but not running yet; scheduled tasks such as timeouts
+     * only count once their delay has passed
+     */
+    static int queued(String scheduler) {
+        int queued = 0;
+        lock.lock();
+        try {
+            for (Map.Entry<ThreadPoolExecutor, String> entry : executors.entrySet()) {
+                if (entry.getValue().equals(scheduler) && !entry.getKey().isShutdown()) {
+                    for (Runnable task : entry.getKey().getQueue()) {
+                        if (!(task instanceof Delayed delayed) || delayed.getDelay(TimeUnit.NANOSECONDS) <= 0) {
+                            queued++;
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        return queued;
+    }
+
+    /**
+     * The name a scheduler was created with: "parallel" for {@code parallel(4,"parallel")}
+     */
+    static String nameOf(Scheduler scheduler) {
+        String description = scheduler.toString();
+        int start = description.indexOf('"');
+        int end = start >= 0 ? description.indexOf('"', start + 1) : -1;
+        if (end > start) {
+            return description.substring(start + 1, end);
+        }
+        int parenthesis = description.indexOf('(');
+        return parenthesis > 0 ? description.substring(0, parenthesis) : description;
+    }
+}
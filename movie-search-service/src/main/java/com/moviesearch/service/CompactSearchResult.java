@@ -0,0 +1,366 @@
+package com.moviesearch.service;
+
+import com.moviesearch.dto.Movie;
+import com.moviesearch.dto.MovieSearchResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Compact, immutable cache form of a {@link MovieSearchResponse}, decoded back to new DTOs on each read.
+ * <p>
+ * Instead of five strings per movie, the movies of an entry are stored column-wise in a few
+ * primitive arrays: titles and poster suffixes in one UTF-8 byte arena, the year range as two
+ * shorts, the type as an enum ordinal, the IMDB ID as its number and digit count, and the poster
+ * URL prefix as an index into a dictionary shared by all entries. Values that do not fit these
+ * forms are kept as strings on the side, so decoding always gives back the original values.
+ */
+public final class CompactSearchResult {
+
+    private static final char YEAR_DASH = '–';
+    private static final short NO_YEAR = 0;
+    private static final short OPEN_END = -1;
+
+    private static final byte NO_TYPE = 0;
+    private static final byte IRREGULAR = -1;
+
+    private static final short NO_POSTER = -1;
+    private static final short NOT_AVAILABLE = -2;
+    private static final short NO_PREFIX = -3;
+
+    private static final int FIELDS = 3;
+    private static final int YEAR = 0;
+    private static final int TYPE = 1;
+    private static final int IMDB_ID = 2;
+
+    private static final PosterPrefixes POSTER_PREFIXES = new PosterPrefixes(4096);
+
+    private final byte[] arena;
+    private final int[] offsets;
+    private final short[] years;
+    private final byte[] types;
+    private final int[] imdbNumbers;
+    private final byte[] imdbDigits;
+    private final short[] posterPrefixes;
+    private final String[] irregular;
+    private final int count;
+    private final boolean hasSearch;
+    private final String totalResults;
+    private final String response;
+    private final String error;
+
+    private CompactSearchResult(Builder builder, int count) {
+        this.arena = builder.arena.toByteArray();
+        this.offsets = builder.offsets;
+        this.years = builder.years;
+        this.types = builder.types;
+        this.imdbNumbers = builder.imdbNumbers;
+        this.imdbDigits = builder.imdbDigits;
+        this.posterPrefixes = builder.posterPrefixes;
+        this.irregular = builder.irregular;
+        this.count = count;
+        this.hasSearch = builder.hasSearch;
+        this.totalResults = builder.totalResults;
+        this.response = builder.response;
+        this.error = builder.error;
+    }
+
+    public static CompactSearchResult encode(MovieSearchResponse result) {
+        List<Movie> movies = result.getSearch();
+        int count = movies != null ? movies.size() : 0;
+        Builder builder = new Builder(count);
+        builder.hasSearch = movies != null;
+        builder.totalResults = result.getTotalResults();
+        builder.response = result.getResponse();
+        builder.error = result.getError();
+        for (int i = 0; i < count; i++) {
+            builder.add(i, movies.get(i));
+        }
+        return new CompactSearchResult(builder, count);
+    }
+
+    public MovieSearchResponse decode() {
+        List<Movie> movies = null;
+        if (hasSearch) {
+            movies = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                movies.add(new Movie(string(2 * i), year(i), imdbId(i), type(i), poster(i)));
+            }
+        }
+        MovieSearchResponse result = new MovieSearchResponse(movies, totalResults, response);
+        result.setError(error);
+        return result;
+    }
+
+    private String string(int slot) {
+        int start = offsets[slot];
+        if (start < 0) {
+            return null;
+        }
+        int end = Math.abs(offsets[slot + 1]) - 1;
+        return new String(arena, start - 1, end - start + 1, StandardCharsets.UTF_8);
+    }
+
+    private String year(int i) {
+        short start = years[2 * i];
+        short end = years[2 * i + 1];
+        if (start == NO_YEAR) {
+            return end == NO_YEAR ? null : irregular[i * FIELDS + YEAR];
+        }
+        if (end == start) {
+            return Short.toString(start);
+        }
+        return end == OPEN_END ? start + String.valueOf(YEAR_DASH) : start + String.valueOf(YEAR_DASH) + end;
+    }
+
+    private String type(int i) {
+        byte type = types[i];
+        if (type == NO_TYPE) {
+            return null;
+        }
+        return type == IRREGULAR ? irregular[i * FIELDS + TYPE] : MovieType.values()[type - 1].value;
+    }
+
+    private String imdbId(int i) {
+        byte digits = imdbDigits[i];
+        if (digits == 0) {
+            return null;
+        }
+        if (digits == IRREGULAR) {
+            return irregular[i * FIELDS + IMDB_ID];
+        }
+        StringBuilder id = new StringBuilder(2 + digits).append("tt");
+        String number = Integer.toString(imdbNumbers[i]);
+        for (int pad = number.length(); pad < digits; pad++) {
+            id.append('0');
+        }
+        return id.append(number).toString();
+    }
+
+    private String poster(int i) {
+        short prefix = posterPrefixes[i];
+        if (prefix == NO_POSTER) {
+            return null;
+        }
+        if (prefix == NOT_AVAILABLE) {
+            return "N/A";
+        }
+        String suffix = string(2 * i + 1);
+        return prefix == NO_PREFIX ? suffix : POSTER_PREFIXES.get(prefix) + suffix;
+    }
+
+    /**
+     * The values OMDB uses for a result's type
+     */
+    enum MovieType {
+        MOVIE("movie"), SERIES("series"), EPISODE("episode"), GAME("game");
+
+        final String value;
+
+        MovieType(String value) {
+            this.value = value;
+        }
+
+        static MovieType of(String value) {
+            for (MovieType type : values()) {
+                if (type.value.equals(value)) {
+                    return type;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Collects one entry's columns; the arena offsets are stored 1-based, negative for null strings
+     */
+    private static final class Builder {
+
+        private final ByteArrayOutputStream arena = new ByteArrayOutputStream();
+        private final int[] offsets;
+        private final short[] years;
+        private final byte[] types;
+        private final int[] imdbNumbers;
+        private final byte[] imdbDigits;
+        private final short[] posterPrefixes;
+        private final int count;
+        private String[] irregular;
+        private boolean hasSearch;
+        private String totalResults;
+        private String response;
+        private String error;
+
+        Builder(int count) {
+            this.count = count;
+            this.offsets = new int[2 * count + 1];
+            this.years = new short[2 * count];
+            this.types = new byte[count];
+            this.imdbNumbers = new int[count];
+            this.imdbDigits = new byte[count];
+            this.posterPrefixes = new short[count];
+            this.offsets[2 * count] = 1;
+        }
+
+        void add(int i, Movie movie) {
+            putString(2 * i, movie.getTitle());
+            putYear(i, movie.getYear());
+            putType(i, movie.getType());
+            putImdbId(i, movie.getImdbId());
+            putPoster(i, movie.getPoster());
+            offsets[2 * count] = arena.size() + 1;
+        }
+
+        private void putString(int slot, String value) {
+            int start = arena.size() + 1;
+            if (value == null) {
+                offsets[slot] = -start;
+                return;
+            }
+            offsets[slot] = start;
+            arena.writeBytes(value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        private void putYear(int i, String year) {
+            if (year == null) {
+                return;
+            }
+            short start = parseYear(year, 0);
+            if (start > 0 && year.length() == 4) {
+                years[2 * i] = start;
+                years[2 * i + 1] = start;
+            } else if (start > 0 && year.length() == 5 && year.charAt(4) == YEAR_DASH) {
+                years[2 * i] = start;
+                years[2 * i + 1] = OPEN_END;
+            } else if (start > 0 && year.length() == 9 && year.charAt(4) == YEAR_DASH
+                    && parseYear(year, 5) > 0 && parseYear(year, 5) != start) {
+                years[2 * i] = start;
+                years[2 * i + 1] = parseYear(year, 5);
+            } else {
+                years[2 * i + 1] = 1;
+                irregular(i, YEAR, year);
+            }
+        }
+
+        private void putType(int i, String type) {
+            if (type == null) {
+                return;
+            }
+            MovieType known = MovieType.of(type);
+            if (known != null) {
+                types[i] = (byte) (known.ordinal() + 1);
+            } else {
+                types[i] = IRREGULAR;
+                irregular(i, TYPE, type);
+            }
+        }
+
+        private void putImdbId(int i, String imdbId) {
+            if (imdbId == null) {
+                return;
+            }
+            int digits = imdbId.length() - 2;
+            if (imdbId.startsWith("tt") && digits >= 1 && digits <= 9 && isDigits(imdbId, 2)) {
+                imdbNumbers[i] = Integer.parseInt(imdbId, 2, imdbId.length(), 10);
+                imdbDigits[i] = (byte) digits;
+            } else {
+                imdbDigits[i] = IRREGULAR;
+                irregular(i, IMDB_ID, imdbId);
+            }
+        }
+
+        private void putPoster(int i, String poster) {
+            if (poster == null) {
+                posterPrefixes[i] = NO_POSTER;
+                putString(2 * i + 1, null);
+                return;
+            }
+            if (poster.equals("N/A")) {
+                posterPrefixes[i] = NOT_AVAILABLE;
+                putString(2 * i + 1, null);
+                return;
+            }
+            int split = poster.lastIndexOf('/') + 1;
+            int prefix = split > 0 ? POSTER_PREFIXES.idOf(poster.substring(0, split)) : -1;
+            if (prefix >= 0) {
+                posterPrefixes[i] = (short) prefix;
+                putString(2 * i + 1, poster.substring(split));
+            } else {
+                posterPrefixes[i] = NO_PREFIX;
+                putString(2 * i + 1, poster);
+            }
+        }
+
+        private void irregular(int i, int field, String value) {
+            if (irregular == null) {
+                irregular = new String[count * FIELDS];
+            }
+            irregular[i * FIELDS + field] = value;
+        }
+
+        private static short parseYear(String year, int from) {
+            if (year.length() < from + 4 || !isDigits(year.substring(from, from + 4), 0) || year.charAt(from) == '0') {
+                return 0;
+            }
+            return (short) Integer.parseInt(year, from, from + 4, 10);
+        }
+
+        private static boolean isDigits(String value, int from) {
+            for (int i = from; i < value.length(); i++) {
+                if (value.charAt(i) < '0' || value.charAt(i) > '9') {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Poster URL prefixes shared by all entries; bounded, and never shrinks, so ids stay valid for the JVM's lifetime
+     */
+    static final class PosterPrefixes {
+
+        private final int capacity;
+        private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+        private final List<String> prefixes = new CopyOnWriteArrayList<>();
+        private final ReentrantLock lock = new ReentrantLock();
+
+        PosterPrefixes(int capacity) {
+            this.capacity = capacity;
+        }
+
+        /**
+         * Id of the prefix, added if there is room; -1 when the dictionary is full
+         */
+        int idOf(String prefix) {
+            Integer id = ids.get(prefix);
+            if (id != null) {
+                return id;
+            }
+            lock.lock();
+            try {
+                id = ids.get(prefix);
+                if (id == null) {
+                    if (prefixes.size() >= capacity) {
+                        return -1;
+                    }
+                    id = prefixes.size();
+                    prefixes.add(prefix);
+                    ids.put(prefix, id);
+                }
+                return id;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        String get(int id) {
+            return prefixes.get(id);
+        }
+    }
+}
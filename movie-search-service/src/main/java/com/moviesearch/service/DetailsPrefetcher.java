@@ -0,0 +1,210 @@
+package com.moviesearch.service;
+
+import com.moviesearch.dto.Movie;
+import com.moviesearch.dto.MovieSearchResponse;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Loads the details of the top results of a successful search into the {@link MovieDetailsCache}
+ * in the background, so the click that usually follows is served without an OMDB call.
+ * <p>
+ * Prefetching never competes with user requests: it only runs with a free in-flight slot and
+ * while the per-minute budget lasts, and skips instead of queueing otherwise. Any OMDB response
+ * that signals pressure (429, 5xx, a timeout or a failed connection), whether to a user request
+ * or a prefetch, pauses prefetching for a while.
+ */
+@Component
+@ConditionalOnProperty(name = "omdb.prefetch.enabled", havingValue = "true", matchIfMissing = true)
+public class DetailsPrefetcher implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(DetailsPrefetcher.class);
+    private static final long BUDGET_WINDOW_NANOS = Duration.ofMinutes(1).toNanos();
+
+    private final MovieDetailsCache detailsCache;
+    private final int topN;
+    private final int budgetPerMinute;
+    private final long pauseNanos;
+    private final LongSupplier nanoClock;
+    private final Semaphore inFlightSlots;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+    private final long budgetOrigin;
+    // Budget minute since budgetOrigin in the high 32 bits, prefetches taken in it in the low 32 bits
+    private final AtomicLong budget = new AtomicLong();
+
+    private volatile long pausedUntil;
+
+    @Autowired
+    public DetailsPrefetcher(MovieDetailsCache detailsCache,
+                             @Value("${omdb.prefetch.top-n:3}") int topN,
+                             @Value("${omdb.prefetch.max-in-flight:2}") int maxInFlight,
+                             @Value("${omdb.prefetch.budget-per-minute:60}") int budgetPerMinute,
+                             @Value("${omdb.prefetch.pause-after-pressure:30s}") Duration pauseAfterPressure) {
+        this(detailsCache, topN, maxInFlight, budgetPerMinute, pauseAfterPressure, System::nanoTime);
+    }
+
+    DetailsPrefetcher(MovieDetailsCache detailsCache, int topN, int maxInFlight, int budgetPerMinute,
+                      Duration pauseAfterPressure, LongSupplier nanoClock) {
+        this.detailsCache = detailsCache;
+        this.topN = topN;
+        this.budgetPerMinute = budgetPerMinute;
+        this.pauseNanos = pauseAfterPressure.toNanos();
+        this.nanoClock = nanoClock;
+        this.inFlightSlots = new Semaphore(maxInFlight);
+        this.budgetOrigin = nanoClock.getAsLong();
+    }
+
+    /**
+     * Start loading the details of the first results of a search that are not cached yet
+     */
+    public void prefetch(MovieSearchResponse results, Function<String, Mono<MovieSearchResponse>> loader) {
+        prefetch(results, imdbId -> true, loader);
+    }
+
+    /**
+     * Like {@link #prefetch(MovieSearchResponse, Function)}, limited to the IMDB IDs accepted by the filter
+     */
+    public void prefetch(MovieSearchResponse results, Predicate<String> filter,
+                         Function<String, Mono<MovieSearchResponse>> loader) {
+        if (!results.isSuccess() || results.getSearch() == null) {
+            return;
+        }
+        results.getSearch().stream()
+                .map(Movie::getImdbId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .limit(topN)
+                .filter(filter)
+                .forEach(imdbId -> prefetch(imdbId, loader));
+    }
+
+    private void prefetch(String imdbId, Function<String, Mono<MovieSearchResponse>> loader) {
+        if (detailsCache.contains(imdbId)) {
+            count("cached");
+            return;
+        }
+        if (!inFlight.add(imdbId)) {
+            count("in_flight");
+            return;
+        }
+        if (isPaused()) {
+            inFlight.remove(imdbId);
+            count("paused");
+            return;
+        }
+        if (!inFlightSlots.tryAcquire()) {
+            inFlight.remove(imdbId);
+            count("busy");
+            return;
+        }
+        if (!takeBudget()) {
+            inFlightSlots.release();
+            inFlight.remove(imdbId);
+            count("over_budget");
+            return;
+        }
+        loader.apply(imdbId)
+                .doFinally(signal -> {
+                    inFlightSlots.release();
+                    inFlight.remove(imdbId);
+                })
+                .subscribe(details -> {
+                    if (details.isSuccess()) {
+                        detailsCache.putPrefetched(imdbId, details);
+                    }
+                    count("loaded");
+                }, error -> {
+                    count("failed");
+                    onOutboundError(error);
+                });
+    }
+
+    /**
+     * Pause prefetching when an OMDB call failed in a way that more calls would make worse
+     */
+    public void onOutboundError(Throwable error) {
+        if (isPressure(error)) {
+            if (!isPaused()) {
+                logger.info("Pausing details prefetch for {} s after OMDB pressure: {}",
+                        Duration.ofNanos(pauseNanos).toSeconds(), error.getMessage());
+            }
+            pausedUntil = nanoClock.getAsLong() + pauseNanos;
+        }
+    }
+
+    boolean isPaused() {
+        return nanoClock.getAsLong() - pausedUntil < 0;
+    }
+
+    long outcome(String outcome) {
+        LongAdder counter = outcomes.get(outcome);
+        return counter != null ? counter.sum() : 0;
+    }
+
+    /**
+     * Take one prefetch from the budget of the current minute; runs on the event loop, so it never locks
+     */
+    private boolean takeBudget() {
+        long window = (nanoClock.getAsLong() - budgetOrigin) / BUDGET_WINDOW_NANOS;
+        while (true) {
+            long current = budget.get();
+            // A thread that read the clock earlier must not move the window back
+            long currentWindow = Math.max(window, current >>> 32);
+            int used = (current >>> 32) == currentWindow ? (int) current : 0;
+            if (used >= budgetPerMinute) {
+                return false;
+            }
+            if (budget.compareAndSet(current, currentWindow << 32 | (used + 1))) {
+                return true;
+            }
+        }
+    }
+
+    private void count(String outcome) {
+        outcomes.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+    }
+
+    private static boolean isPressure(Throwable error) {
+        if (error instanceof WebClientResponseException response) {
+            return response.getStatusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value()
+                    || response.getStatusCode().is5xxServerError();
+        }
+        return error instanceof TimeoutException || error instanceof WebClientRequestException;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (String outcome : new String[] {"loaded", "failed", "cached", "in_flight", "paused", "busy", "over_budget"}) {
+            LongAdder counter = outcomes.computeIfAbsent(outcome, key -> new LongAdder());
+            FunctionCounter.builder("movie_search.prefetch.requests", counter, LongAdder::sum)
+                    .description("Details prefetch attempts by outcome")
+                    .tag("outcome", outcome)
+                    .register(registry);
+        }
+    }
+}
@@ -1,54 +1,42 @@
 package com.moviesearch.service;
 
-import com.moviesearch.dto.FlagUpdateEvent;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import com.featureflags.client.FeatureFlagClient;
+import com.featureflags.client.FlagHandle;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Flags used by the movie search service, evaluated locally by the shared feature flag client
+ */
 @Service
 public class FeatureFlagService {
 
-    private static final Logger logger = LoggerFactory.getLogger(FeatureFlagService.class);
-    private final Map<String, Boolean> featureFlags = new ConcurrentHashMap<>();
+    private final FeatureFlagClient featureFlagClient;
+    private final FlagHandle maintenanceMode;
 
+    @Autowired
+    public FeatureFlagService(FeatureFlagClient featureFlagClient) {
+        this.featureFlagClient = featureFlagClient;
+        this.maintenanceMode = featureFlagClient.handle("maintenance_mode");
+    }
+
+    /**
+     * Global state of the flag, ignoring its targeting rules
+     */
     public boolean isFlagEnabled(String flagName) {
-        return featureFlags.getOrDefault(flagName, false);
+        return featureFlagClient.isEnabled(flagName);
     }
 
-    @RabbitListener(queues = "feature-flag-updates", returnExceptions = "true")
-    public void handleFlagUpdate(FlagUpdateEvent event) {
-        if (event == null || event.getFlagName() == null) {
-            logger.warn("Received invalid flag update event");
-            return;
-        }
-
-        logger.info("Received flag update: {} = {} ({})", event.getFlagName(), event.isEnabled(), event.getEventType());
-        
-        try {
-            switch (event.getEventType()) {
-                case "DELETED":
-                    featureFlags.remove(event.getFlagName());
-                    logger.info("Removed feature flag: {}", event.getFlagName());
-                    break;
-                case "CREATED":
-                case "UPDATED":
-                case "TOGGLED":
-                    featureFlags.put(event.getFlagName(), event.isEnabled());
-                    logger.info("Updated feature flag: {} = {}", event.getFlagName(), event.isEnabled());
-                    break;
-                default:
-                    logger.warn("Unknown event type: {}", event.getEventType());
-            }
-        } catch (Exception e) {
-            logger.error("Error processing flag update event: {}", event, e);
-        }
+    /**
+     * Evaluate the flag's targeting rules for one user locally, without any network call
+     */
+    public boolean isFlagEnabled(String flagName, String userKey, Map<String, String> attributes) {
+        return featureFlagClient.isEnabled(flagName, userKey, attributes);
     }
 
     public boolean isMaintenanceMode() {
-        return isFlagEnabled("maintenance_mode");
+        return maintenanceMode.isEnabled();
     }
 }
@@ -0,0 +1,118 @@
+package com.moviesearch.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.moviesearch.dto.MovieSearchResponse;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of successful OMDB details responses by IMDB ID.
+ * <p>
+ * Entries loaded by the {@link DetailsPrefetcher} are marked, so the first read of each one is
+ * counted as a prefetch hit and each one evicted or expired unread as unused. Their ratio tells
+ * whether prefetching more or fewer results per search pays off. Details are held as
+ * {@link CompactSearchResult}s and decoded on each read.
+ */
+@Component
+public class MovieDetailsCache implements MeterBinder {
+
+    private final Cache<String, Entry> cache;
+    private final LongAdder prefetched = new LongAdder();
+    private final LongAdder prefetchHits = new LongAdder();
+    private final LongAdder prefetchUnused = new LongAdder();
+
+    @Autowired
+    public MovieDetailsCache(@Value("${omdb.details-cache.max-size:10000}") long maxSize,
+                             @Value("${omdb.details-cache.ttl:1h}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .removalListener((String imdbId, Entry entry, RemovalCause cause) -> {
+                    if (entry != null && cause.wasEvicted() && entry.prefetched && !entry.read.get()) {
+                        prefetchUnused.increment();
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Cached details, or null on a miss
+     */
+    public MovieSearchResponse get(String imdbId) {
+        Entry entry = cache.getIfPresent(imdbId);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.prefetched && entry.read.compareAndSet(false, true)) {
+            prefetchHits.increment();
+        }
+        return entry.details.decode();
+    }
+
+    public void put(String imdbId, MovieSearchResponse details) {
+        cache.put(imdbId, new Entry(details, false));
+    }
+
+    /**
+     * Store prefetched details unless the entry was filled in the meantime
+     */
+    public void putPrefetched(String imdbId, MovieSearchResponse details) {
+        if (cache.asMap().putIfAbsent(imdbId, new Entry(details, true)) == null) {
+            prefetched.increment();
+        }
+    }
+
+    public boolean contains(String imdbId) {
+        return cache.asMap().containsKey(imdbId);
+    }
+
+    long prefetchHits() {
+        return prefetchHits.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "omdb_details");
+        FunctionCounter.builder("movie_search.prefetch.stored", prefetched, LongAdder::sum)
+                .description("Prefetched details stored in the details cache")
+                .register(registry);
+        FunctionCounter.builder("movie_search.prefetch.hits", prefetchHits, LongAdder::sum)
+                .description("Prefetched details that were read at least once")
+                .register(registry);
+        FunctionCounter.builder("movie_search.prefetch.unused", prefetchUnused, LongAdder::sum)
+                .description("Prefetched details evicted or expired without being read")
+                .register(registry);
+        Gauge.builder("movie_search.prefetch.hit_ratio", this,
+                        cache -> cache.prefetched.sum() == 0 ? 0 : (double) cache.prefetchHits.sum() / cache.prefetched.sum())
+                .description("Share of prefetched details that were read")
+                .register(registry);
+    }
+
+    /**
+     * Details with their origin and whether they were read since being stored
+     */
+    private static final class Entry {
+
+        final CompactSearchResult details;
+        final boolean prefetched;
+        final AtomicBoolean read = new AtomicBoolean();
+
+        Entry(MovieSearchResponse details, boolean prefetched) {
+            this.details = CompactSearchResult.encode(details);
+            this.prefetched = prefetched;
+        }
+    }
+}
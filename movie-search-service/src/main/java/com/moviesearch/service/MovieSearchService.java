@@ -1,9 +1,12 @@
 package com.moviesearch.service;
 
+import com.moviesearch.cluster.ClusterCacheRouter;
+import com.moviesearch.diagnostics.PipelineMetrics;
 import com.moviesearch.dto.MovieSearchResponse;
 import com.moviesearch.exception.MaintenanceModeException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -11,6 +14,8 @@ import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+
 @Service
 public class MovieSearchService {
 
@@ -18,14 +23,53 @@ public class MovieSearchService {
 
     private final WebClient webClient;
     private final FeatureFlagService featureFlagService;
+    private final MovieDetailsCache detailsCache;
+    private final SearchResultCache searchResultCache;
+    private final QueryFrequencyTracker queryFrequencyTracker;
+    private final DetailsPrefetcher detailsPrefetcher;
+    private final NegativeResultCache negativeResultCache;
+    private final ClusterCacheRouter clusterCacheRouter;
+    private final PipelineMetrics pipelineMetrics;
 
     @Value("${omdb.api.key:${OMDB_API_KEY:demo_key}}")
     private String apiKey;
 
+    @Value("${omdb.api.timeout:5000ms}")
+    private Duration omdbTimeout = Duration.ofSeconds(5);
+
     @Autowired
-    public MovieSearchService(WebClient webClient, FeatureFlagService featureFlagService) {
+    public MovieSearchService(WebClient webClient, FeatureFlagService featureFlagService,
+                              MovieDetailsCache detailsCache, SearchResultCache searchResultCache,
+                              QueryFrequencyTracker queryFrequencyTracker,
+                              ObjectProvider<DetailsPrefetcher> detailsPrefetcher,
+                              ObjectProvider<NegativeResultCache> negativeResultCache,
+                              ObjectProvider<ClusterCacheRouter> clusterCacheRouter,
+                              ObjectProvider<PipelineMetrics> pipelineMetrics) {
+        this(webClient, featureFlagService, detailsCache, searchResultCache, queryFrequencyTracker,
+                detailsPrefetcher.getIfAvailable(), negativeResultCache.getIfAvailable(),
+                clusterCacheRouter.getIfAvailable(), pipelineMetrics.getIfAvailable());
+    }
+
+    MovieSearchService(WebClient webClient, FeatureFlagService featureFlagService, MovieDetailsCache detailsCache,
+                       SearchResultCache searchResultCache, QueryFrequencyTracker queryFrequencyTracker,
+                       DetailsPrefetcher detailsPrefetcher, NegativeResultCache negativeResultCache,
+                       ClusterCacheRouter clusterCacheRouter, PipelineMetrics pipelineMetrics) {
         this.webClient = webClient;
         this.featureFlagService = featureFlagService;
+        this.detailsCache = detailsCache;
+        this.searchResultCache = searchResultCache;
+        this.queryFrequencyTracker = queryFrequencyTracker;
+        this.detailsPrefetcher = detailsPrefetcher;
+        this.negativeResultCache = negativeResultCache;
+        this.clusterCacheRouter = clusterCacheRouter;
+        this.pipelineMetrics = pipelineMetrics;
+    }
+
+    public MovieSearchService(WebClient webClient, FeatureFlagService featureFlagService) {
+        this(webClient, featureFlagService, new MovieDetailsCache(10000, Duration.ofHours(1)),
+                new SearchResultCache(5000, Duration.ofMinutes(15)), new QueryFrequencyTracker(Duration.ofHours(1), 12, 1000, 100000),
+                (DetailsPrefetcher) null, (NegativeResultCache) null, (ClusterCacheRouter) null,
+                (PipelineMetrics) null);
     }
 
     // Secondary constructor to support tests providing a WebClient.Builder
@@ -34,17 +78,80 @@ public class MovieSearchService {
     }
 
     public Mono<MovieSearchResponse> searchMovies(String title) {
+        return timed(Mono.defer(() -> search(title, true)), "search");
+    }
+
+    /**
+     * Search for a peer that forwarded a title this replica owns, without forwarding again
+     */
+    public Mono<MovieSearchResponse> searchOwned(String title) {
+        return search(title, false);
+    }
+
+    private Mono<MovieSearchResponse> search(String title, boolean mayForward) {
         // Check maintenance mode
         if (featureFlagService.isMaintenanceMode()) {
             logger.warn("Movie search blocked due to maintenance mode");
             return Mono.error(new MaintenanceModeException("Service is currently under maintenance"));
         }
 
-        return webClient.get()
+        queryFrequencyTracker.record(title);
+        MovieSearchResponse cached = searchResultCache.get(title);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        if (negativeResultCache != null) {
+            MovieSearchResponse knownMiss = negativeResultCache.getSearch(title);
+            if (knownMiss != null) {
+                return Mono.just(knownMiss);
+            }
+        }
+        String owner = mayForward && clusterCacheRouter != null ? clusterCacheRouter.searchOwner(title) : null;
+        if (owner != null) {
+            // The owner caches the results; a fallback call here must not put a second copy in this cache
+            return clusterCacheRouter.search(owner, title)
+                    .onErrorResume(error -> {
+                        logger.warn("Forwarding search '{}' to {} failed, calling OMDB: {}", title, owner, error.getMessage());
+                        return fetchSearch(title, false);
+                    });
+        }
+        return fetchSearch(title, true).doOnNext(this::prefetchDetails);
+    }
+
+    /**
+     * Reload the results of a frequent query into the search cache ahead of user requests;
+     * empty in maintenance mode and for titles OMDB recently did not find
+     */
+    public Mono<MovieSearchResponse> refreshSearch(String title) {
+        if (featureFlagService.isMaintenanceMode()
+                || negativeResultCache != null && negativeResultCache.containsSearch(title)) {
+            return Mono.empty();
+        }
+        return fetchSearch(title, true);
+    }
+
+    /**
+     * Search OMDB; the results are cached only when this replica owns the title
+     */
+    private Mono<MovieSearchResponse> fetchSearch(String title, boolean owned) {
+        Mono<MovieSearchResponse> request = webClient.get()
                 .uri("?s={title}&apikey={apiKey}", title, apiKey)
                 .retrieve()
                 .bodyToMono(MovieSearchResponse.class)
+                .timeout(omdbTimeout);
+        return timed(request, "omdb_search")
+                .doOnNext(results -> {
+                    if (!owned) {
+                        return;
+                    }
+                    if (results.isSuccess()) {
+                        searchResultCache.put(title, results);
+                    } else if (negativeResultCache != null) {
+                        negativeResultCache.recordSearch(title, results);
+                    }
+                })
                 .doOnError(error -> {
+                    onOutboundError(error);
                     if (error instanceof WebClientResponseException) {
                         logger.error("OMDB API error for title '{}': {}", title, error.getMessage());
                     } else {
@@ -54,18 +161,104 @@ public class MovieSearchService {
     }
 
     public Mono<MovieSearchResponse> getMovieDetails(String imdbId) {
+        return timed(Mono.defer(() -> details(imdbId, true)), "details");
+    }
+
+    /**
+     * Details for a peer that forwarded an IMDB ID this replica owns, without forwarding again
+     */
+    public Mono<MovieSearchResponse> getOwnedMovieDetails(String imdbId) {
+        return details(imdbId, false);
+    }
+
+    private Mono<MovieSearchResponse> details(String imdbId, boolean mayForward) {
         // Check maintenance mode
         if (featureFlagService.isMaintenanceMode()) {
             logger.warn("Movie details request blocked due to maintenance mode");
             return Mono.error(new MaintenanceModeException("Service is currently under maintenance"));
         }
 
-        return webClient.get()
-                .uri("?i={imdbId}&apikey={apiKey}", imdbId, apiKey)
-                .retrieve()
-                .bodyToMono(MovieSearchResponse.class)
+        MovieSearchResponse cached = detailsCache.get(imdbId);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        if (negativeResultCache != null) {
+            MovieSearchResponse knownMiss = negativeResultCache.getDetails(imdbId);
+            if (knownMiss != null) {
+                return Mono.just(knownMiss);
+            }
+        }
+        String owner = mayForward && clusterCacheRouter != null ? clusterCacheRouter.detailsOwner(imdbId) : null;
+        if (owner != null) {
+            return clusterCacheRouter.details(owner, imdbId)
+                    .onErrorResume(error -> {
+                        logger.warn("Forwarding details '{}' to {} failed, calling OMDB: {}", imdbId, owner, error.getMessage());
+                        return loadDetails(imdbId, false);
+                    });
+        }
+        return loadDetails(imdbId, true);
+    }
+
+    /**
+     * Get details from OMDB; they are cached only when this replica owns the IMDB ID
+     */
+    private Mono<MovieSearchResponse> loadDetails(String imdbId, boolean owned) {
+        return fetchDetails(imdbId)
+                .doOnNext(details -> {
+                    if (!owned) {
+                        return;
+                    }
+                    if (details.isSuccess()) {
+                        detailsCache.put(imdbId, details);
+                    } else if (negativeResultCache != null) {
+                        negativeResultCache.recordDetails(imdbId, details);
+                    }
+                })
                 .doOnError(error -> {
+                    onOutboundError(error);
                     logger.error("Error getting movie details for IMDB ID '{}': {}", imdbId, error.getMessage());
                 });
     }
+
+    private Mono<MovieSearchResponse> fetchDetails(String imdbId) {
+        Mono<MovieSearchResponse> request = webClient.get()
+                .uri("?i={imdbId}&apikey={apiKey}", imdbId, apiKey)
+                .retrieve()
+                .bodyToMono(MovieSearchResponse.class)
+                .timeout(omdbTimeout);
+        return timed(request, "omdb_details");
+    }
+
+    /**
+     * Time a pipeline from subscription to completion, so a stall can be told apart from a slow OMDB call
+     */
+    private <T> Mono<T> timed(Mono<T> pipeline, String name) {
+        return pipelineMetrics != null ? pipelineMetrics.timed(pipeline, name) : pipeline;
+    }
+
+    /**
+     * Prefetch only the details this replica owns, so no details are cached on two replicas
+     */
+    private void prefetchDetails(MovieSearchResponse results) {
+        if (detailsPrefetcher != null) {
+            detailsPrefetcher.prefetch(results, this::ownsDetails, this::fetchDetails);
+        }
+    }
+
+    /**
+     * Whether results for the title are cached on this replica rather than on a peer
+     */
+    public boolean ownsSearch(String title) {
+        return clusterCacheRouter == null || clusterCacheRouter.searchOwner(title) == null;
+    }
+
+    private boolean ownsDetails(String imdbId) {
+        return clusterCacheRouter == null || clusterCacheRouter.detailsOwner(imdbId) == null;
+    }
+
+    private void onOutboundError(Throwable error) {
+        if (detailsPrefetcher != null) {
+            detailsPrefetcher.onOutboundError(error);
+        }
+    }
 }
@@ -0,0 +1,155 @@
+package com.moviesearch.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.moviesearch.dto.MovieSearchResponse;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Remembers titles and IMDB IDs that OMDB did not find, so repeated misses from bots and typos
+ * are answered without an upstream call.
+ * <p>
+ * Recent misses are kept exactly, with the upstream error, in a small bounded tier. Every miss
+ * is also added to a {@link RotatingBloomFilter}, which keeps answering for it in fixed memory
+ * after the exact tier evicted it. Both expire after a TTL shorter than that of found details, so
+ * a title that appears upstream is found again soon. A Bloom false positive turns a real search
+ * into a "not found" for at most that TTL; lookups check every filter of the ring, so each is
+ * sized for the configured rate divided by the number of buckets.
+ */
+@Component
+@ConditionalOnProperty(name = "omdb.negative-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class NegativeResultCache implements MeterBinder {
+
+    static final String NOT_FOUND = "Movie not found!";
+    private static final Set<String> NOT_FOUND_ERRORS = Set.of(NOT_FOUND, "Series not found!", "Incorrect IMDb ID.");
+
+    private final Cache<String, String> exact;
+    private final RotatingBloomFilter bloom;
+    private final LongAdder stored = new LongAdder();
+    private final LongAdder exactHits = new LongAdder();
+    private final LongAdder bloomHits = new LongAdder();
+
+    @Autowired
+    public NegativeResultCache(@Value("${omdb.negative-cache.ttl:10m}") Duration ttl,
+                               @Value("${omdb.negative-cache.exact-size:1000}") int exactSize,
+                               @Value("${omdb.negative-cache.buckets:4}") int buckets,
+                               @Value("${omdb.negative-cache.expected-per-bucket:100000}") int expectedPerBucket,
+                               @Value("${omdb.negative-cache.false-positive-rate:0.001}") double falsePositiveRate) {
+        this(ttl, exactSize, buckets, expectedPerBucket, falsePositiveRate, System::nanoTime);
+    }
+
+    NegativeResultCache(Duration ttl, int exactSize, int buckets, int expectedPerBucket, double falsePositiveRate,
+                        LongSupplier nanoClock) {
+        this.exact = Caffeine.newBuilder()
+                .maximumSize(exactSize)
+                .expireAfterWrite(ttl)
+                .ticker(nanoClock::getAsLong)
+                .build();
+        this.bloom = new RotatingBloomFilter(buckets, ttl, expectedPerBucket, falsePositiveRate, nanoClock);
+    }
+
+    /**
+     * Not-found answer for a search title that missed recently, or null
+     */
+    public MovieSearchResponse getSearch(String title) {
+        return lookup(searchKey(title));
+    }
+
+    /**
+     * Not-found answer for an IMDB ID that missed recently, or null
+     */
+    public MovieSearchResponse getDetails(String imdbId) {
+        return lookup(detailsKey(imdbId));
+    }
+
+    /**
+     * Whether a search title missed recently, without counting a hit
+     */
+    public boolean containsSearch(String title) {
+        String key = searchKey(title);
+        return exact.getIfPresent(key) != null || bloom.mightContain(key);
+    }
+
+    public void recordSearch(String title, MovieSearchResponse response) {
+        record(searchKey(title), response);
+    }
+
+    public void recordDetails(String imdbId, MovieSearchResponse response) {
+        record(detailsKey(imdbId), response);
+    }
+
+    long exactHits() {
+        return exactHits.sum();
+    }
+
+    long bloomHits() {
+        return bloomHits.sum();
+    }
+
+    private MovieSearchResponse lookup(String key) {
+        String error = exact.getIfPresent(key);
+        if (error != null) {
+            exactHits.increment();
+            return notFound(error);
+        }
+        if (bloom.mightContain(key)) {
+            bloomHits.increment();
+            return notFound(NOT_FOUND);
+        }
+        return null;
+    }
+
+    private void record(String key, MovieSearchResponse response) {
+        if (response.isSuccess() || !NOT_FOUND_ERRORS.contains(response.getError())) {
+            return;
+        }
+        exact.put(key, response.getError());
+        bloom.put(key);
+        stored.increment();
+    }
+
+    private static MovieSearchResponse notFound(String error) {
+        MovieSearchResponse response = new MovieSearchResponse(null, null, "False");
+        response.setError(error);
+        return response;
+    }
+
+    private static String searchKey(String title) {
+        return "s:" + title.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String detailsKey(String imdbId) {
+        return "i:" + imdbId.trim().toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("movie_search.negative_cache.stored", stored, LongAdder::sum)
+                .description("Not-found answers from OMDB remembered")
+                .register(registry);
+        FunctionCounter.builder("movie_search.negative_cache.hits", exactHits, LongAdder::sum)
+                .description("Lookups answered as not found without calling OMDB")
+                .tag("tier", "exact")
+                .register(registry);
+        FunctionCounter.builder("movie_search.negative_cache.hits", bloomHits, LongAdder::sum)
+                .description("Lookups answered as not found without calling OMDB")
+                .tag("tier", "bloom")
+                .register(registry);
+        Gauge.builder("movie_search.negative_cache.bloom_bytes", bloom, RotatingBloomFilter::sizeInBytes)
+                .description("Fixed memory of the negative cache Bloom filters")
+                .register(registry);
+    }
+}
@@ -0,0 +1,175 @@
+package com.moviesearch.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Search query frequencies over a sliding window, in fixed memory.
+ * <p>
+ * The window is a ring of time slices, each with its own {@link SpaceSaving} summary; when a
+ * slice ends, the oldest summary is cleared and reused. The top queries are the merged counters
+ * of all slices, so a query that stops being searched drops out once its slices have rotated out.
+ * <p>
+ * {@link #record} runs on the event loop for every search, so it only appends the query to a
+ * lock-free queue; the summaries are updated when the queue is drained, on a scheduler thread
+ * and before each {@link #top}. When searches outpace draining, queries beyond max-pending are
+ * dropped rather than queued without bound.
+ */
+@Component
+public class QueryFrequencyTracker {
+
+    private final SpaceSaving[] slices;
+    private final long sliceNanos;
+    private final LongSupplier nanoClock;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Duration window;
+    private final int maxPending;
+    private final Queue<String> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+
+    private long currentSlice;
+
+    @Autowired
+    public QueryFrequencyTracker(@Value("${omdb.top-queries.window:1h}") Duration window,
+                                 @Value("${omdb.top-queries.slices:12}") int sliceCount,
+                                 @Value("${omdb.top-queries.capacity:1000}") int capacity,
+                                 @Value("${omdb.top-queries.max-pending:100000}") int maxPending) {
+        this(window, sliceCount, capacity, maxPending, System::nanoTime);
+    }
+
+    QueryFrequencyTracker(Duration window, int sliceCount, int capacity, int maxPending, LongSupplier nanoClock) {
+        this.window = window;
+        this.maxPending = maxPending;
+        this.slices = new SpaceSaving[sliceCount];
+        for (int i = 0; i < sliceCount; i++) {
+            slices[i] = new SpaceSaving(capacity);
+        }
+        this.sliceNanos = Math.max(1, window.toNanos() / sliceCount);
+        this.nanoClock = nanoClock;
+        this.currentSlice = Math.floorDiv(nanoClock.getAsLong(), sliceNanos);
+    }
+
+    /**
+     * Count a search; never blocks
+     */
+    public void record(String query) {
+        if (pendingCount.incrementAndGet() > maxPending) {
+            pendingCount.decrementAndGet();
+            return;
+        }
+        pending.offer(SearchResultCache.key(query));
+    }
+
+    /**
+     * Move the recorded queries into the current slice
+     */
+    @Scheduled(fixedDelayString = "${omdb.top-queries.drain-interval-ms:1000}")
+    public void drain() {
+        lock.lock();
+        try {
+            rotate();
+            SpaceSaving slice = slices[(int) Math.floorMod(currentSlice, (long) slices.length)];
+            String key;
+            while ((key = pending.poll()) != null) {
+                pendingCount.decrementAndGet();
+                slice.add(key, 1);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Count a query searched before, e.g. when seeding the top queries of a previous run or a peer
+     */
+    public void seed(String query, long count) {
+        drain();
+        add(SearchResultCache.key(query), count);
+    }
+
+    /**
+     * Most frequent queries of the window, most frequent first
+     */
+    public List<TopQuery> top(int limit) {
+        Map<String, TopQuery> merged = new HashMap<>();
+        drain();
+        lock.lock();
+        try {
+            rotate();
+            for (SpaceSaving slice : slices) {
+                for (SpaceSaving.Counter counter : slice.counters()) {
+                    TopQuery query = merged.computeIfAbsent(counter.key, TopQuery::new);
+                    query.count += counter.count;
+                    query.error += counter.error;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        List<TopQuery> top = new ArrayList<>(merged.values());
+        top.sort(Comparator.comparingLong(TopQuery::getCount).reversed().thenComparing(TopQuery::getQuery));
+        return top.size() > limit ? new ArrayList<>(top.subList(0, limit)) : top;
+    }
+
+    public Duration getWindow() {
+        return window;
+    }
+
+    private void add(String key, long count) {
+        lock.lock();
+        try {
+            rotate();
+            slices[(int) Math.floorMod(currentSlice, (long) slices.length)].add(key, count);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void rotate() {
+        long slice = Math.floorDiv(nanoClock.getAsLong(), sliceNanos);
+        for (long s = currentSlice + 1; s <= slice && s <= currentSlice + slices.length; s++) {
+            slices[(int) Math.floorMod(s, (long) slices.length)].clear();
+        }
+        currentSlice = Math.max(currentSlice, slice);
+    }
+
+    /**
+     * A query with its estimated count in the window; count - error is a lower bound of the true count
+     */
+    public static final class TopQuery {
+
+        private final String query;
+        private long count;
+        private long error;
+
+        TopQuery(String query) {
+            this.query = query;
+        }
+
+        public String getQuery() {
+            return query;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getError() {
+            return error;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.moviesearch.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Bloom filter whose entries expire, in fixed memory.
+ * <p>
+ * The TTL is split into time slices with one filter per slice, in a ring. Keys are added to the
+ * filter of the current slice and looked up in all of them; when a slice ends, the oldest filter
+ * is cleared and reused. A key therefore stays present for between (buckets - 1) / buckets of the
+ * TTL and the full TTL. Bits are set with compare-and-set, so adds and lookups take no lock.
+ * <p>
+ * A lookup checks every filter, so each is sized for falsePositiveRate / buckets to keep the
+ * false positive rate of the ring at the configured one. Adds and lookups run on the event loop:
+ * the thread that notices a slice ended clears the expired filter, and the others do not wait
+ * for it but keep using the ring as it was until the clearing is done.
+ */
+final class RotatingBloomFilter {
+
+    private final AtomicLongArray[] buckets;
+    private final long bitsPerBucket;
+    private final int hashes;
+    private final long sliceNanos;
+    private final LongSupplier nanoClock;
+    private final ReentrantLock rotateLock = new ReentrantLock();
+
+    private volatile long currentSlice;
+
+    RotatingBloomFilter(int bucketCount, Duration ttl, int expectedPerBucket, double falsePositiveRate,
+                        LongSupplier nanoClock) {
+        if (bucketCount < 2) {
+            throw new IllegalArgumentException("At least two buckets are needed to rotate, got " + bucketCount);
+        }
+        double bucketRate = falsePositiveRate / bucketCount;
+        long bits = (long) Math.ceil(-expectedPerBucket * Math.log(bucketRate) / (Math.log(2) * Math.log(2)));
+        this.bitsPerBucket = Math.max(64, (bits + 63) / 64 * 64);
+        this.hashes = Math.max(1, (int) Math.round((double) bitsPerBucket / expectedPerBucket * Math.log(2)));
+        this.buckets = new AtomicLongArray[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            buckets[i] = new AtomicLongArray((int) (bitsPerBucket / 64));
+        }
+        this.sliceNanos = Math.max(1, ttl.toNanos() / bucketCount);
+        this.nanoClock = nanoClock;
+        this.currentSlice = slice();
+    }
+
+    void put(String key) {
+        rotate();
+        AtomicLongArray bucket = buckets[(int) Math.floorMod(currentSlice, (long) buckets.length)];
+        long h1 = hash(key);
+        long h2 = mix(h1 ^ 0x9e3779b97f4a7c15L) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitsPerBucket);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = bucket.get(word);
+            while ((current & mask) == 0 && !bucket.compareAndSet(word, current, current | mask)) {
+                current = bucket.get(word);
+            }
+        }
+    }
+
+    boolean mightContain(String key) {
+        rotate();
+        long h1 = hash(key);
+        long h2 = mix(h1 ^ 0x9e3779b97f4a7c15L) | 1;
+        for (AtomicLongArray bucket : buckets) {
+            if (contains(bucket, h1, h2)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Memory held by the bit sets, which does not grow with the number of keys
+     */
+    long sizeInBytes() {
+        return buckets.length * bitsPerBucket / 8;
+    }
+
+    private boolean contains(AtomicLongArray bucket, long h1, long h2) {
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitsPerBucket);
+            if ((bucket.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rotate() {
+        long slice = slice();
+        if (slice == currentSlice) {
+            return;
+        }
+        if (!rotateLock.tryLock()) {
+            return;
+        }
+        try {
+            long from = currentSlice;
+            // Clear every bucket whose slice ended, at most the whole ring
+            for (long s = from + 1; s <= slice && s <= from + buckets.length; s++) {
+                AtomicLongArray bucket = buckets[(int) Math.floorMod(s, (long) buckets.length)];
+                for (int word = 0; word < bucket.length(); word++) {
+                    bucket.set(word, 0);
+                }
+            }
+            if (slice > currentSlice) {
+                currentSlice = slice;
+            }
+        } finally {
+            rotateLock.unlock();
+        }
+    }
+
+    private long slice() {
+        return Math.floorDiv(nanoClock.getAsLong(), sliceNanos);
+    }
+
+    /**
+     * FNV-1a over the UTF-8 bytes, finished with a 64-bit mixer so both halves of the hash are usable
+     */
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,166 @@
+package com.moviesearch.service;
+
+import com.moviesearch.cluster.ClusterCacheRouter;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps the most frequent search queries in the {@link SearchResultCache}.
+ * <p>
+ * Every refresh reloads the top queries that are not cached or whose entry expires within the
+ * refresh-ahead time, a few at a time, so users of hot queries never wait for OMDB. Refreshes
+ * are skipped while the details prefetcher is paused by OMDB pressure; in cluster mode each
+ * replica only refreshes the queries it owns.
+ * <p>
+ * At startup the tracker is seeded before the first refresh, so a restarted replica warms its
+ * cache before users search: from the snapshot file saved at shutdown when one is set, otherwise
+ * in cluster mode from the top queries of the first peer that answers.
+ */
+@Component
+@ConditionalOnProperty(name = "omdb.top-queries.warmup.enabled", havingValue = "true", matchIfMissing = true)
+public class SearchCacheWarmer {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchCacheWarmer.class);
+
+    private final QueryFrequencyTracker queryFrequencyTracker;
+    private final SearchResultCache searchResultCache;
+    private final MovieSearchService movieSearchService;
+    private final DetailsPrefetcher detailsPrefetcher;
+    private final int topK;
+    private final Duration refreshAhead;
+    private final int concurrency;
+    private final String snapshotFile;
+    private final ClusterCacheRouter clusterCacheRouter;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Autowired
+    public SearchCacheWarmer(QueryFrequencyTracker queryFrequencyTracker, SearchResultCache searchResultCache,
+                             MovieSearchService movieSearchService, ObjectProvider<DetailsPrefetcher> detailsPrefetcher,
+                             @Value("${omdb.top-queries.warmup.top-k:50}") int topK,
+                             @Value("${omdb.top-queries.warmup.refresh-ahead:3m}") Duration refreshAhead,
+                             @Value("${omdb.top-queries.warmup.concurrency:2}") int concurrency,
+                             @Value("${omdb.top-queries.warmup.snapshot-file:}") String snapshotFile,
+                             ObjectProvider<ClusterCacheRouter> clusterCacheRouter) {
+        this.queryFrequencyTracker = queryFrequencyTracker;
+        this.searchResultCache = searchResultCache;
+        this.movieSearchService = movieSearchService;
+        this.detailsPrefetcher = detailsPrefetcher.getIfAvailable();
+        this.topK = topK;
+        this.refreshAhead = refreshAhead;
+        this.concurrency = concurrency;
+        this.snapshotFile = snapshotFile;
+        this.clusterCacheRouter = clusterCacheRouter.getIfAvailable();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmAtStartup() {
+        if (restoreSnapshot() || clusterCacheRouter == null) {
+            refresh();
+            return;
+        }
+        // The tracker takes a lock, so seed it off the event loop the peer answered on
+        clusterCacheRouter.peerTopQueries(topK)
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(top -> {
+                    top.forEach(queryFrequencyTracker::seed);
+                    logger.info("Seeded {} top search queries from a cluster peer", top.size());
+                })
+                .doFinally(signal -> refresh())
+                .subscribe();
+    }
+
+    @Scheduled(fixedDelayString = "${omdb.top-queries.warmup.refresh-interval-ms:60000}",
+            initialDelayString = "${omdb.top-queries.warmup.refresh-interval-ms:60000}")
+    public void refreshTopQueries() {
+        refresh();
+    }
+
+    /**
+     * Start reloading the top queries that are due; returns the number of queries reloaded
+     */
+    int refresh() {
+        if (detailsPrefetcher != null && detailsPrefetcher.isPaused()) {
+            return 0;
+        }
+        List<String> due = new ArrayList<>();
+        for (QueryFrequencyTracker.TopQuery query : queryFrequencyTracker.top(topK)) {
+            if (movieSearchService.ownsSearch(query.getQuery())
+                    && searchResultCache.expiresWithin(query.getQuery(), refreshAhead)) {
+                due.add(query.getQuery());
+            }
+        }
+        if (due.isEmpty() || !running.compareAndSet(false, true)) {
+            return 0;
+        }
+        Flux.fromIterable(due)
+                .flatMap(query -> movieSearchService.refreshSearch(query).onErrorResume(error -> Mono.empty()), concurrency)
+                .doFinally(signal -> running.set(false))
+                .subscribe();
+        logger.debug("Refreshing {} of the top {} search queries", due.size(), topK);
+        return due.size();
+    }
+
+    @PreDestroy
+    public void saveSnapshot() {
+        if (snapshotFile.isEmpty()) {
+            return;
+        }
+        List<String> lines = new ArrayList<>();
+        for (QueryFrequencyTracker.TopQuery query : queryFrequencyTracker.top(topK)) {
+            lines.add(query.getCount() + "\t" + query.getQuery());
+        }
+        try {
+            Path target = Path.of(snapshotFile);
+            Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+            Files.write(temp, lines, StandardCharsets.UTF_8);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not save the top search queries to {}: {}", snapshotFile, e.getMessage());
+        }
+    }
+
+    /**
+     * Seed the tracker from the snapshot file; true when any query was restored
+     */
+    private boolean restoreSnapshot() {
+        if (snapshotFile.isEmpty() || !Files.exists(Path.of(snapshotFile))) {
+            return false;
+        }
+        int restored = 0;
+        try {
+            for (String line : Files.readAllLines(Path.of(snapshotFile), StandardCharsets.UTF_8)) {
+                int tab = line.indexOf('\t');
+                if (tab > 0) {
+                    queryFrequencyTracker.seed(line.substring(tab + 1), Long.parseLong(line.substring(0, tab)));
+                    restored++;
+                }
+            }
+            logger.info("Restored {} top search queries from {}", restored, snapshotFile);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not restore the top search queries from {}: {}", snapshotFile, e.getMessage());
+        }
+        return restored > 0;
+    }
+}
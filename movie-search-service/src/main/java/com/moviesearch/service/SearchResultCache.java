@@ -0,0 +1,70 @@
+package com.moviesearch.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.moviesearch.dto.MovieSearchResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Bounded cache of successful OMDB search results by normalized title, held as
+ * {@link CompactSearchResult}s and decoded on each read
+ */
+@Component
+public class SearchResultCache implements MeterBinder {
+
+    private final Cache<String, CompactSearchResult> cache;
+    private final Duration ttl;
+
+    @Autowired
+    public SearchResultCache(@Value("${omdb.search-cache.max-size:5000}") long maxSize,
+                             @Value("${omdb.search-cache.ttl:15m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.ttl = ttl;
+    }
+
+    /**
+     * Cache key of a search title; also the identity of a query for frequency tracking
+     */
+    public static String key(String title) {
+        return title.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Cached results, or null on a miss
+     */
+    public MovieSearchResponse get(String title) {
+        CompactSearchResult results = cache.getIfPresent(key(title));
+        return results != null ? results.decode() : null;
+    }
+
+    public void put(String title, MovieSearchResponse results) {
+        cache.put(key(title), CompactSearchResult.encode(results));
+    }
+
+    /**
+     * Whether the title is not cached or its entry expires within the given time
+     */
+    public boolean expiresWithin(String title, Duration ahead) {
+        return cache.policy().expireAfterWrite()
+                .flatMap(expiration -> expiration.ageOf(key(title)))
+                .map(age -> age.plus(ahead).compareTo(ttl) >= 0)
+                .orElse(true);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "omdb_search");
+    }
+}
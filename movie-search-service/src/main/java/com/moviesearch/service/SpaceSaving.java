@@ -0,0 +1,76 @@
+package com.moviesearch.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Space-Saving heavy-hitter summary: at most capacity counters, whatever the number of keys.
+ * <p>
+ * A new key takes over the counter with the smallest count and inherits that count as its
+ * overestimation error. Any key seen more than total / capacity times is guaranteed to hold a
+ * counter, and a counter's count minus its error is a lower bound of the key's true count.
+ * Not thread-safe; callers lock.
+ */
+final class SpaceSaving {
+
+    private static final Comparator<Counter> BY_COUNT = Comparator.<Counter>comparingLong(counter -> counter.count)
+            .thenComparing(counter -> counter.key);
+
+    private final int capacity;
+    private final Map<String, Counter> counters = new HashMap<>();
+    private final TreeSet<Counter> byCount = new TreeSet<>(BY_COUNT);
+
+    SpaceSaving(int capacity) {
+        this.capacity = capacity;
+    }
+
+    void add(String key, long increment) {
+        Counter counter = counters.get(key);
+        if (counter != null) {
+            byCount.remove(counter);
+            counter.count += increment;
+        } else if (counters.size() < capacity) {
+            counter = new Counter(key, increment, 0);
+            counters.put(key, counter);
+        } else {
+            Counter smallest = byCount.pollFirst();
+            counters.remove(smallest.key);
+            counter = new Counter(key, smallest.count + increment, smallest.count);
+            counters.put(key, counter);
+        }
+        byCount.add(counter);
+    }
+
+    void clear() {
+        counters.clear();
+        byCount.clear();
+    }
+
+    /**
+     * Snapshot of all counters, largest count first
+     */
+    List<Counter> counters() {
+        List<Counter> snapshot = new ArrayList<>(counters.size());
+        for (Counter counter : byCount.descendingSet()) {
+            snapshot.add(new Counter(counter.key, counter.count, counter.error));
+        }
+        return snapshot;
+    }
+
+    static final class Counter {
+
+        final String key;
+        long count;
+        final long error;
+
+        Counter(String key, long count, long error) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+        }
+    }
+}
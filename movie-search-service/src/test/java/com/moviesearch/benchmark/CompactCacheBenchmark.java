@@ -0,0 +1,114 @@
+package com.moviesearch.benchmark;
+
+import com.moviesearch.dto.Movie;
+import com.moviesearch.dto.MovieSearchResponse;
+import com.moviesearch.service.CompactSearchResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jol.info.GraphLayout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the retained heap of cache values held as DTOs and as {@link CompactSearchResult}s,
+ * for OMDB-shaped search pages (10 results) and details (1 result), and the CPU time to decode a
+ * page. Sizes are measured with JOL; the shared poster prefix dictionary is not counted, as it
+ * holds a handful of strings for the whole JVM. Not part of the regular build, run with:
+ * mvn test -Dtest=CompactCacheBenchmark -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class CompactCacheBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompactCacheBenchmark.class);
+    private static final int ENTRIES = 2_000;
+    private static final int DECODE_ITERATIONS = 200_000;
+    private static final String[] TYPES = {"movie", "movie", "movie", "series", "episode", "game"};
+    private static final String[] WORDS = {"The", "Star", "Night", "Return", "of", "Lost", "City", "Dark",
+            "Knight", "Love", "Story", "Alien", "War", "Last", "Man", "Dream", "Time", "Kingdom"};
+
+    private final Random random = new Random(42);
+
+    @Test
+    void compareEntrySizes() {
+        for (int resultsPerEntry : new int[] {10, 1}) {
+            List<MovieSearchResponse> plain = new ArrayList<>();
+            List<CompactSearchResult> compact = new ArrayList<>();
+            for (int i = 0; i < ENTRIES; i++) {
+                MovieSearchResponse entry = entry(resultsPerEntry);
+                plain.add(entry);
+                compact.add(CompactSearchResult.encode(entry));
+            }
+            long plainBytes = GraphLayout.parseInstance(plain).totalSize();
+            long compactBytes = GraphLayout.parseInstance(compact).totalSize();
+            assertEquals(plain.get(0).getSearch().get(0).getPoster(),
+                    compact.get(0).decode().getSearch().get(0).getPoster());
+            assertTrue(compactBytes < plainBytes);
+
+            logger.info(String.format("%2d results per entry: %6d bytes as DTOs, %6d compact (%.0f%% smaller)",
+                    resultsPerEntry, plainBytes / ENTRIES, compactBytes / ENTRIES,
+                    100.0 * (plainBytes - compactBytes) / plainBytes));
+        }
+    }
+
+    @Test
+    void measureDecodeTime() {
+        CompactSearchResult compact = CompactSearchResult.encode(entry(10));
+        long checksum = 0;
+        for (int i = 0; i < DECODE_ITERATIONS; i++) {
+            checksum += compact.decode().getSearch().size();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < DECODE_ITERATIONS; i++) {
+            checksum += compact.decode().getSearch().size();
+        }
+        double micros = (System.nanoTime() - start) / 1000.0 / DECODE_ITERATIONS;
+        assertEquals(20L * DECODE_ITERATIONS, checksum);
+
+        logger.info(String.format("decode of a 10 result page: %.2f us", micros));
+    }
+
+    private MovieSearchResponse entry(int results) {
+        List<Movie> movies = new ArrayList<>();
+        for (int i = 0; i < results; i++) {
+            movies.add(new Movie(title(), year(), String.format("tt%07d", random.nextInt(9_999_999)),
+                    TYPES[random.nextInt(TYPES.length)], poster()));
+        }
+        return new MovieSearchResponse(movies, Integer.toString(results * (1 + random.nextInt(50))), "True");
+    }
+
+    private String title() {
+        StringBuilder title = new StringBuilder(WORDS[random.nextInt(WORDS.length)]);
+        for (int words = 1 + random.nextInt(4); words > 0; words--) {
+            title.append(' ').append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return title.toString();
+    }
+
+    private String year() {
+        int start = 1930 + random.nextInt(95);
+        return switch (random.nextInt(6)) {
+            case 0 -> start + "–" + (start + 1 + random.nextInt(10));
+            case 1 -> start + "–";
+            default -> Integer.toString(start);
+        };
+    }
+
+    private String poster() {
+        if (random.nextInt(8) == 0) {
+            return "N/A";
+        }
+        StringBuilder id = new StringBuilder("MV5B");
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+        for (int i = 0; i < 60; i++) {
+            id.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return "https://m.media-amazon.com/images/M/" + id + "@._V1_SX300.jpg";
+    }
+}
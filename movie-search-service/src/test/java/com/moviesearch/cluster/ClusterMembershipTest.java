@@ -0,0 +1,98 @@
+package com.moviesearch.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClusterMembershipTest {
+
+    private long now;
+
+    @Test
+    void hashRing_WhenMemberJoins_ShouldOnlyMoveItsShareOfKeysToIt() {
+        HashRing three = new HashRing(List.of("http://a", "http://b", "http://c"), 128);
+        HashRing four = new HashRing(List.of("http://a", "http://b", "http://c", "http://d"), 128);
+
+        Map<String, Integer> owned = new HashMap<>();
+        int moved = 0;
+        for (int i = 0; i < 20000; i++) {
+            String key = "s:title " + i;
+            String before = three.owner(key);
+            String after = four.owner(key);
+            owned.merge(after, 1, Integer::sum);
+            if (!before.equals(after)) {
+                assertEquals("http://d", after);
+                moved++;
+            }
+        }
+
+        assertTrue(moved > 20000 * 0.18 && moved < 20000 * 0.32, "moved " + moved);
+        owned.values().forEach(count -> assertTrue(count > 20000 / 4 * 0.75, "unbalanced " + owned));
+    }
+
+    @Test
+    void ownerOf_ShouldFollowHeartbeatsLeavesAndExpiry() {
+        ClusterMembership membership = new ClusterMembership("http://self:8081/", new String[] {"http://static:8081"},
+                64, 15000, 3, 30000, () -> now);
+        assertEquals(Set.of("http://self:8081", "http://static:8081"), membership.members());
+
+        membership.onHeartbeat("http://joined:8081", false);
+        membership.onHeartbeat("http://self:8081", false);
+        assertEquals(3, membership.members().size());
+        String key = ownedBy(membership, "http://joined:8081");
+
+        membership.onHeartbeat("http://joined:8081", true);
+        assertNotEquals("http://joined:8081", membership.ownerOf(key));
+
+        membership.onHeartbeat("http://joined:8081", false);
+        now += 10_000_000_000L;
+        membership.expireMembers();
+        assertEquals(3, membership.members().size());
+        now += 10_000_000_000L;
+        membership.expireMembers();
+        assertEquals(Set.of("http://self:8081", "http://static:8081"), membership.members());
+    }
+
+    @Test
+    void ownerOf_WhenSelfOwnsKey_ShouldReturnNull() {
+        ClusterMembership membership = new ClusterMembership("http://self:8081", new String[0], 64, 15000, 3, 30000, () -> now);
+
+        assertNull(membership.ownerOf("s:alien"));
+        assertNull(membership.ownerOf("i:tt0078748"));
+    }
+
+    @Test
+    void ownerOf_WhenStaticPeerKeepsFailing_ShouldServeItsKeysLocallyUntilEjectionEnds() {
+        ClusterMembership membership = new ClusterMembership("http://self:8081", new String[] {"http://static:8081"},
+                64, 15000, 3, 30000, () -> now);
+        String key = ownedBy(membership, "http://static:8081");
+
+        membership.onForwardFailure("http://static:8081");
+        membership.onForwardFailure("http://static:8081");
+        membership.onForwardSuccess("http://static:8081");
+        membership.onForwardFailure("http://static:8081");
+        membership.onForwardFailure("http://static:8081");
+        assertEquals("http://static:8081", membership.ownerOf(key));
+
+        membership.onForwardFailure("http://static:8081");
+        assertNull(membership.ownerOf(key));
+
+        now += 30_000_000_000L;
+        assertEquals("http://static:8081", membership.ownerOf(key));
+        membership.onForwardFailure("http://static:8081");
+        assertNull(membership.ownerOf(key));
+    }
+
+    private static String ownedBy(ClusterMembership membership, String member) {
+        for (int i = 0; ; i++) {
+            if (member.equals(membership.ownerOf("s:title " + i))) {
+                return "s:title " + i;
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.moviesearch.diagnostics;
+
+import com.moviesearch.dto.Movie;
+import com.moviesearch.dto.MovieSearchResponse;
+import com.moviesearch.service.FeatureFlagService;
+import com.moviesearch.service.MovieSearchService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.blockhound.BlockingOperationError;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BlockingCallDetectorTest {
+
+    @BeforeAll
+    static void install() {
+        // Spring Boot tests in the same JVM may have installed it already, with the fail mode of the test profile
+        BlockingCallDetector.install(BlockingCallDetector.Mode.FAIL);
+        assertTrue(BlockingCallDetector.isInstalled());
+    }
+
+    @Test
+    void blockingCallOnParallelScheduler_ShouldFail() {
+        long detected = BlockingCallDetector.detected();
+
+        StepVerifier.create(Mono.fromCallable(() -> {
+                    Thread.sleep(1);
+                    return "slept";
+                }).subscribeOn(Schedulers.parallel()))
+                .expectError(BlockingOperationError.class)
+                .verify();
+
+        assertEquals(detected + 1, BlockingCallDetector.detected());
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void searchAndDetailsPipelines_ShouldNotBlock() {
+        WebClient webClient = mock(WebClient.class);
+        WebClient.RequestHeadersUriSpec uriSpec = mock(WebClient.RequestHeadersUriSpec.class);
+        WebClient.RequestHeadersSpec headersSpec = mock(WebClient.RequestHeadersSpec.class);
+        WebClient.ResponseSpec responseSpec = mock(WebClient.ResponseSpec.class);
+        FeatureFlagService featureFlagService = mock(FeatureFlagService.class);
+        when(webClient.get()).thenReturn(uriSpec);
+        when(uriSpec.uri(anyString(), any(), any())).thenReturn(headersSpec);
+        when(headersSpec.retrieve()).thenReturn(responseSpec);
+        when(responseSpec.bodyToMono(MovieSearchResponse.class)).thenReturn(Mono.just(new MovieSearchResponse(
+                Collections.singletonList(new Movie("Heat", "1995", "tt0113277", "movie", "N/A")), "1", "True")));
+        MovieSearchService movieSearchService = new MovieSearchService(webClient, featureFlagService);
+
+        // The second round is served by the caches
+        for (int round = 0; round < 2; round++) {
+            StepVerifier.create(Mono.defer(() -> movieSearchService.searchMovies("Heat")).subscribeOn(Schedulers.parallel()))
+                    .expectNextCount(1)
+                    .verifyComplete();
+            StepVerifier.create(Mono.defer(() -> movieSearchService.getMovieDetails("tt0113277")).subscribeOn(Schedulers.parallel()))
+                    .expectNextCount(1)
+                    .verifyComplete();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.moviesearch.diagnostics;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PipelineMetricsTest {
+
+    @Test
+    void timed_ShouldRecordEachSubscriptionByPipelineAndStatus() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PipelineMetrics pipelineMetrics = new PipelineMetrics(registry);
+
+        StepVerifier.create(pipelineMetrics.timed(Mono.just("ok"), "search")).expectNext("ok").verifyComplete();
+        StepVerifier.create(pipelineMetrics.timed(Mono.just("ok"), "search")).expectNext("ok").verifyComplete();
+        StepVerifier.create(pipelineMetrics.timed(Mono.error(new IllegalStateException()), "details"))
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        Timer search = registry.get(PipelineMetrics.METRIC_PREFIX + ".flow.duration")
+                .tags("pipeline", "search", "status", "completed").timer();
+        Timer details = registry.get(PipelineMetrics.METRIC_PREFIX + ".flow.duration")
+                .tags("pipeline", "details", "status", "error").timer();
+        assertEquals(2, search.count());
+        assertEquals(1, details.count());
+    }
+}
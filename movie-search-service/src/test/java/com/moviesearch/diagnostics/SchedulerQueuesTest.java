@@ -0,0 +1,59 @@
+package com.moviesearch.diagnostics;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SchedulerQueuesTest {
+
+    @Test
+    void queued_ShouldCountDueTasksWaitingForTheThread() throws InterruptedException {
+        SchedulerQueues.track();
+        // Bounded elastic, as blocking a parallel thread fails once blocking call detection is installed
+        Scheduler scheduler = Schedulers.newBoundedElastic(1, 100, "queue-test");
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            scheduler.schedule(() -> {
+                running.countDown();
+                awaitQuietly(release);
+            });
+            running.await(5, TimeUnit.SECONDS);
+            for (int i = 0; i < 3; i++) {
+                scheduler.schedule(() -> { });
+            }
+            scheduler.schedule(() -> { }, 1, TimeUnit.HOURS);
+
+            assertEquals(3, SchedulerQueues.queued("queue-test"));
+        } finally {
+            release.countDown();
+            scheduler.dispose();
+        }
+    }
+
+    @Test
+    void nameOf_ShouldGiveTheNameTheSchedulerWasCreatedWith() {
+        Scheduler parallel = Schedulers.newParallel("parallel", 2);
+        Scheduler boundedElastic = Schedulers.newBoundedElastic(2, 10, "boundedElastic");
+        try {
+            assertEquals("parallel", SchedulerQueues.nameOf(parallel));
+            assertEquals("boundedElastic", SchedulerQueues.nameOf(boundedElastic));
+        } finally {
+            parallel.dispose();
+            boundedElastic.dispose();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,21 +1,28 @@
 package com.moviesearch.integration;
 
-import com.moviesearch.dto.FlagUpdateEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.featureflags.client.FeatureFlagClient;
+import com.featureflags.client.model.FlagUpdateEvent;
 import com.moviesearch.dto.Movie;
 import com.moviesearch.dto.MovieSearchResponse;
-import com.moviesearch.service.FeatureFlagService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
@@ -32,7 +39,7 @@ public class MovieSearchIntegrationTest {
     private WebTestClient webTestClient;
 
     @Autowired
-    private FeatureFlagService featureFlagService;
+    private FeatureFlagClient featureFlagClient;
 
     @MockBean
     private WebClient.Builder webClientBuilder;
@@ -50,6 +57,7 @@ public class MovieSearchIntegrationTest {
         when(webClientBuilder.build()).thenReturn(webClient);
         when(webClient.get()).thenReturn(requestHeadersUriSpec);
         when(requestHeadersUriSpec.uri(anyString())).thenReturn(requestHeadersSpec);
+        when(requestHeadersUriSpec.uri(anyString(), any(), any())).thenReturn(requestHeadersSpec);
         when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
 
         MovieSearchResponse mockResponse = new MovieSearchResponse();
@@ -75,7 +83,7 @@ public class MovieSearchIntegrationTest {
         // Enable maintenance mode flag
         FlagUpdateEvent event = new FlagUpdateEvent("maintenance_mode", true, "CREATED");
         event.setTimestamp(LocalDateTime.now());
-        featureFlagService.handleFlagUpdate(event);
+        featureFlagClient.onUpdate(event);
     }
 
     @Test
@@ -112,6 +120,98 @@ public class MovieSearchIntegrationTest {
                 .expectBody(Boolean.class).isEqualTo(true);
     }
 
+    @Test
+    void searchMovies_WhenCborAccepted_ShouldReturnCbor() throws Exception {
+        featureFlagClient.onUpdate(new FlagUpdateEvent("maintenance_mode", false, "TOGGLED"));
+
+        byte[] body = webTestClient.get()
+                .uri("/api/movies/search?title=test")
+                .accept(MediaType.APPLICATION_CBOR)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_CBOR)
+                .expectBody(byte[].class).returnResult().getResponseBody();
+
+        JsonNode response = new ObjectMapper(new CBORFactory()).readTree(body);
+        assertEquals("Test Movie", response.at("/Search/0/Title").asText());
+    }
+
+    @Test
+    void getFlagStatus_WhenSmileAccepted_ShouldReturnSmile() throws Exception {
+        byte[] body = webTestClient.get()
+                .uri("/api/flags/maintenance_mode")
+                .accept(MediaType.parseMediaType("application/x-jackson-smile"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType("application/x-jackson-smile")
+                .expectBody(byte[].class).returnResult().getResponseBody();
+
+        assertTrue(new ObjectMapper(new SmileFactory()).readValue(body, Boolean.class));
+    }
+
+    @Test
+    void flagSyncEndpoint_ShouldReportAppliedVersionAndLastEvent() {
+        FlagUpdateEvent event = new FlagUpdateEvent("dark_mode", true, "TOGGLED");
+        event.setVersion(42L);
+        event.setPublishedAtMicros(System.currentTimeMillis() * 1000);
+        featureFlagClient.onUpdate(event);
+
+        webTestClient.get()
+                .uri("/actuator/flagsync")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.appliedVersion").isEqualTo(42)
+                .jsonPath("$.flags").isNumber()
+                .jsonPath("$.lastEvent.version").isEqualTo(42)
+                .jsonPath("$.lastEvent.publishToApplyMillis").exists();
+    }
+
+    @Test
+    void topQueriesEndpoint_ShouldRankSearchedTitles() {
+        featureFlagClient.onUpdate(new FlagUpdateEvent("maintenance_mode", false, "TOGGLED"));
+        for (String title : new String[] {"Alien", "alien ", "Heat", "ALIEN"}) {
+            webTestClient.get()
+                    .uri("/api/movies/search?title={title}", title)
+                    .exchange()
+                    .expectStatus().isOk();
+        }
+
+        webTestClient.get()
+                .uri("/actuator/topqueries?limit=2")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.window").isEqualTo("PT1H")
+                .jsonPath("$.queries[0].query").isEqualTo("alien")
+                .jsonPath("$.queries[0].count").isEqualTo(3)
+                .jsonPath("$.queries.length()").isEqualTo(2);
+    }
+
+    @Test
+    void searchMovies_ShouldReportPipelineAndEventLoopMetrics() {
+        featureFlagClient.onUpdate(new FlagUpdateEvent("maintenance_mode", false, "TOGGLED"));
+        webTestClient.get()
+                .uri("/api/movies/search?title=Heat")
+                .exchange()
+                .expectStatus().isOk();
+
+        webTestClient.get()
+                .uri("/actuator/metrics/movie_search.pipeline.flow.duration?tag=pipeline:search")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.measurements[?(@.statistic == 'COUNT')].value").isNotEmpty();
+        webTestClient.get()
+                .uri("/actuator/metrics/movie_search.event_loop.pending_tasks")
+                .exchange()
+                .expectStatus().isOk();
+        webTestClient.get()
+                .uri("/actuator/metrics/movie_search.scheduler.queued_tasks?tag=scheduler:parallel")
+                .exchange()
+                .expectStatus().isOk();
+    }
+
     @Test
     void healthCheck_ShouldReturnOk() {
         webTestClient.get()
@@ -0,0 +1,58 @@
+package com.moviesearch.service;
+
+import com.moviesearch.dto.Movie;
+import com.moviesearch.dto.MovieSearchResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CompactSearchResultTest {
+
+    @Test
+    void decode_ShouldGiveBackEveryField() {
+        List<Movie> movies = Arrays.asList(
+                new Movie("The Matrix", "1999", "tt0133093", "movie",
+                        "https://m.media-amazon.com/images/M/MV5BNzQzOTk3OTAtNDQ0Zi00ZTVkLWI0MTEtMDllZjNkYzNjNTc4L2ltYWdlXkEyXkFqcGdeQXVyNjU0OTQ0OTY@._V1_SX300.jpg"),
+                new Movie("Breaking Bad", "2008–2013", "tt0903747", "series", "N/A"),
+                new Movie("Doctor Who", "2005–", "tt0436992", "series", null),
+                new Movie("Amélie – 天使", "2001-2002", "tt12345678901", "short", "poster.jpg"),
+                new Movie(null, "1990–1990", null, null, "https://img.example.com/x/"),
+                new Movie("", "", "nm0000206", "game", "https://img.example.com/x/cover.png"));
+        MovieSearchResponse original = new MovieSearchResponse(movies, "6", "True");
+
+        MovieSearchResponse decoded = CompactSearchResult.encode(original).decode();
+
+        assertEquals(original.getTotalResults(), decoded.getTotalResults());
+        assertEquals(original.getResponse(), decoded.getResponse());
+        assertNull(decoded.getError());
+        assertEquals(movies.size(), decoded.getSearch().size());
+        for (int i = 0; i < movies.size(); i++) {
+            Movie expected = movies.get(i);
+            Movie actual = decoded.getSearch().get(i);
+            assertEquals(expected.getTitle(), actual.getTitle());
+            assertEquals(expected.getYear(), actual.getYear());
+            assertEquals(expected.getImdbId(), actual.getImdbId());
+            assertEquals(expected.getType(), actual.getType());
+            assertEquals(expected.getPoster(), actual.getPoster());
+        }
+    }
+
+    @Test
+    void decode_ShouldReturnFreshDtosWithoutResults() {
+        MovieSearchResponse original = new MovieSearchResponse(null, null, "False");
+        original.setError("Movie not found!");
+        CompactSearchResult compact = CompactSearchResult.encode(original);
+
+        MovieSearchResponse decoded = compact.decode();
+
+        assertNull(decoded.getSearch());
+        assertEquals("False", decoded.getResponse());
+        assertEquals("Movie not found!", decoded.getError());
+        assertNotSame(decoded, compact.decode());
+    }
+}
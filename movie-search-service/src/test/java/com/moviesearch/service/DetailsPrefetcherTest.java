@@ -0,0 +1,103 @@
+package com.moviesearch.service;
+
+import com.moviesearch.dto.Movie;
+import com.moviesearch.dto.MovieSearchResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DetailsPrefetcherTest {
+
+    private MovieDetailsCache detailsCache;
+    private long now;
+    private final List<String> loaded = new ArrayList<>();
+    private final Function<String, Mono<MovieSearchResponse>> loader = imdbId -> {
+        loaded.add(imdbId);
+        return Mono.just(details(imdbId));
+    };
+
+    @BeforeEach
+    void setUp() {
+        detailsCache = new MovieDetailsCache(100, Duration.ofHours(1));
+    }
+
+    @Test
+    void prefetch_ShouldLoadTopResultsThatAreNotCached() {
+        DetailsPrefetcher prefetcher = prefetcher(2, 2, 60);
+        detailsCache.put("tt1", details("tt1"));
+
+        prefetcher.prefetch(results("tt1", "tt2", "tt3", "tt4"), loader);
+
+        assertEquals(List.of("tt2"), loaded);
+        assertEquals("tt2", detailsCache.get("tt2").getSearch().get(0).getImdbId());
+        assertNotNull(detailsCache.get("tt2"));
+        assertEquals(1, detailsCache.prefetchHits());
+        assertEquals(1, prefetcher.outcome("cached"));
+        assertEquals(1, prefetcher.outcome("loaded"));
+    }
+
+    @Test
+    void prefetch_ShouldSkipWithoutFreeSlotOrBudget() {
+        DetailsPrefetcher prefetcher = prefetcher(3, 1, 2);
+        Sinks.One<MovieSearchResponse> pending = Sinks.one();
+
+        prefetcher.prefetch(results("tt1", "tt2"), imdbId -> pending.asMono());
+        assertEquals(1, prefetcher.outcome("busy"));
+        prefetcher.prefetch(results("tt1"), loader);
+        assertEquals(1, prefetcher.outcome("in_flight"));
+        assertEquals(0, prefetcher.outcome("cached"));
+        assertTrue(loaded.isEmpty());
+
+        pending.tryEmitValue(details("tt1"));
+        prefetcher.prefetch(results("tt3", "tt4"), loader);
+        assertEquals(List.of("tt3"), loaded);
+        assertEquals(1, prefetcher.outcome("over_budget"));
+
+        now += Duration.ofMinutes(1).toNanos();
+        prefetcher.prefetch(results("tt4"), loader);
+        assertEquals(List.of("tt3", "tt4"), loaded);
+    }
+
+    @Test
+    void onOutboundError_WhenOmdbThrottles_ShouldPausePrefetching() {
+        DetailsPrefetcher prefetcher = prefetcher(3, 2, 60);
+
+        prefetcher.onOutboundError(WebClientResponseException.create(HttpStatus.NOT_FOUND.value(), "Not Found", null, null, null));
+        assertFalse(prefetcher.isPaused());
+
+        prefetcher.onOutboundError(WebClientResponseException.create(HttpStatus.TOO_MANY_REQUESTS.value(), "Too Many Requests", null, null, null));
+        prefetcher.prefetch(results("tt1"), loader);
+        assertTrue(loaded.isEmpty());
+        assertEquals(1, prefetcher.outcome("paused"));
+
+        now += Duration.ofSeconds(30).toNanos();
+        prefetcher.prefetch(results("tt1"), loader);
+        assertEquals(List.of("tt1"), loaded);
+    }
+
+    private DetailsPrefetcher prefetcher(int topN, int maxInFlight, int budgetPerMinute) {
+        return new DetailsPrefetcher(detailsCache, topN, maxInFlight, budgetPerMinute, Duration.ofSeconds(30), () -> now);
+    }
+
+    private static MovieSearchResponse results(String... imdbIds) {
+        List<Movie> movies = new ArrayList<>();
+        for (String imdbId : imdbIds) {
+            movies.add(new Movie("Movie " + imdbId, "2000", imdbId, "movie", null));
+        }
+        return new MovieSearchResponse(movies, String.valueOf(imdbIds.length), "True");
+    }
+
+    private static MovieSearchResponse details(String imdbId) {
+        return results(imdbId);
+    }
+}
@@ -1,23 +1,26 @@
 package com.moviesearch.service;
 
-import com.moviesearch.dto.FlagUpdateEvent;
+import com.featureflags.client.FeatureFlagClient;
+import com.featureflags.client.model.AttributeMatch;
+import com.featureflags.client.model.FlagUpdateEvent;
+import com.featureflags.client.model.TargetingRules;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
-@ExtendWith(MockitoExtension.class)
 class FeatureFlagServiceTest {
 
+    private FeatureFlagClient featureFlagClient;
     private FeatureFlagService featureFlagService;
 
     @BeforeEach
     void setUp() {
-        featureFlagService = new FeatureFlagService();
+        featureFlagClient = new FeatureFlagClient();
+        featureFlagService = new FeatureFlagService(featureFlagClient);
     }
 
     @Test
@@ -26,82 +29,37 @@ class FeatureFlagServiceTest {
     }
 
     @Test
-    void handleFlagUpdate_WhenFlagCreated_ShouldSetFlag() {
-        FlagUpdateEvent event = new FlagUpdateEvent("test_flag", true, "CREATED");
-        event.setTimestamp(LocalDateTime.now());
-
-        featureFlagService.handleFlagUpdate(event);
-
+    void isFlagEnabled_ShouldFollowClientUpdates() {
+        featureFlagClient.onUpdate(new FlagUpdateEvent("test_flag", true, "CREATED"));
         assertTrue(featureFlagService.isFlagEnabled("test_flag"));
-    }
-
-    @Test
-    void handleFlagUpdate_WhenFlagUpdated_ShouldUpdateFlag() {
-        FlagUpdateEvent createEvent = new FlagUpdateEvent("test_flag", true, "CREATED");
-        FlagUpdateEvent updateEvent = new FlagUpdateEvent("test_flag", false, "UPDATED");
-        createEvent.setTimestamp(LocalDateTime.now());
-        updateEvent.setTimestamp(LocalDateTime.now());
-
-        featureFlagService.handleFlagUpdate(createEvent);
-        featureFlagService.handleFlagUpdate(updateEvent);
 
+        featureFlagClient.onUpdate(new FlagUpdateEvent("test_flag", false, "TOGGLED"));
         assertFalse(featureFlagService.isFlagEnabled("test_flag"));
     }
 
     @Test
-    void handleFlagUpdate_WhenFlagToggled_ShouldToggleFlag() {
-        FlagUpdateEvent createEvent = new FlagUpdateEvent("test_flag", true, "CREATED");
-        FlagUpdateEvent toggleEvent = new FlagUpdateEvent("test_flag", false, "TOGGLED");
-        createEvent.setTimestamp(LocalDateTime.now());
-        toggleEvent.setTimestamp(LocalDateTime.now());
-
-        featureFlagService.handleFlagUpdate(createEvent);
-        featureFlagService.handleFlagUpdate(toggleEvent);
-
-        assertFalse(featureFlagService.isFlagEnabled("test_flag"));
-    }
-
-    @Test
-    void handleFlagUpdate_WhenFlagDeleted_ShouldRemoveFlag() {
-        FlagUpdateEvent createEvent = new FlagUpdateEvent("test_flag", true, "CREATED");
-        FlagUpdateEvent deleteEvent = new FlagUpdateEvent("test_flag", true, "DELETED");
-        createEvent.setTimestamp(LocalDateTime.now());
-        deleteEvent.setTimestamp(LocalDateTime.now());
-
-        featureFlagService.handleFlagUpdate(createEvent);
-        featureFlagService.handleFlagUpdate(deleteEvent);
-
-        assertFalse(featureFlagService.isFlagEnabled("test_flag"));
-    }
+    void isMaintenanceMode_WhenMaintenanceFlagEnabled_ShouldReturnTrue() {
+        featureFlagClient.onUpdate(new FlagUpdateEvent("maintenance_mode", true, "CREATED"));
 
-    @Test
-    void handleFlagUpdate_WithInvalidEvent_ShouldNotThrowException() {
-        FlagUpdateEvent nullEvent = null;
-        FlagUpdateEvent invalidEvent = new FlagUpdateEvent(null, true, "INVALID");
-
-        assertDoesNotThrow(() -> {
-            featureFlagService.handleFlagUpdate(nullEvent);
-            featureFlagService.handleFlagUpdate(invalidEvent);
-        });
+        assertTrue(featureFlagService.isMaintenanceMode());
     }
 
     @Test
-    void isMaintenanceMode_WhenMaintenanceFlagEnabled_ShouldReturnTrue() {
-        FlagUpdateEvent event = new FlagUpdateEvent("maintenance_mode", true, "CREATED");
-        event.setTimestamp(LocalDateTime.now());
-
-        featureFlagService.handleFlagUpdate(event);
+    void isMaintenanceMode_WhenMaintenanceFlagDisabled_ShouldReturnFalse() {
+        featureFlagClient.onUpdate(new FlagUpdateEvent("maintenance_mode", false, "CREATED"));
 
-        assertTrue(featureFlagService.isMaintenanceMode());
+        assertFalse(featureFlagService.isMaintenanceMode());
     }
 
     @Test
-    void isMaintenanceMode_WhenMaintenanceFlagDisabled_ShouldReturnFalse() {
-        FlagUpdateEvent event = new FlagUpdateEvent("maintenance_mode", false, "CREATED");
-        event.setTimestamp(LocalDateTime.now());
+    void isFlagEnabled_WithTargetingRules_ShouldEvaluatePerUser() {
+        FlagUpdateEvent event = new FlagUpdateEvent("beta_search", true, "CREATED");
+        event.setTargeting(new TargetingRules(List.of("tester"), null,
+                List.of(new AttributeMatch("country", List.of("DE"), false)), null));
 
-        featureFlagService.handleFlagUpdate(event);
+        featureFlagClient.onUpdate(event);
 
-        assertFalse(featureFlagService.isMaintenanceMode());
+        assertTrue(featureFlagService.isFlagEnabled("beta_search", "tester", Map.of()));
+        assertFalse(featureFlagService.isFlagEnabled("beta_search", "someone", Map.of("country", "US")));
     }
 }
@@ -1,5 +1,6 @@
 package com.moviesearch.service;
 
+import com.moviesearch.cluster.ClusterCacheRouter;
 import com.moviesearch.dto.Movie;
 import com.moviesearch.dto.MovieSearchResponse;
 import com.moviesearch.exception.MaintenanceModeException;
@@ -9,11 +10,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
+import java.time.Duration;
 import java.util.Collections;
 
 @ExtendWith(MockitoExtension.class)
@@ -80,4 +86,84 @@ class MovieSearchServiceTest {
         verify(featureFlagService).isMaintenanceMode();
         verifyNoInteractions(responseSpec);
     }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getMovieDetails_WhenCalledAgain_ShouldServeFromCache() {
+        MovieSearchResponse details = new MovieSearchResponse(
+                Collections.singletonList(new Movie("Test Movie", "2000", "tt1234567", "movie", null)), "1", "True");
+        when(featureFlagService.isMaintenanceMode()).thenReturn(false);
+        when(webClient.get()).thenReturn(requestHeadersUriSpec);
+        when(requestHeadersUriSpec.uri(anyString(), any(), any())).thenReturn(requestHeadersSpec);
+        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
+        when(responseSpec.bodyToMono(MovieSearchResponse.class)).thenReturn(Mono.just(details));
+
+        StepVerifier.create(movieSearchService.getMovieDetails("tt1234567")).expectNext(details).verifyComplete();
+        StepVerifier.create(movieSearchService.getMovieDetails("tt1234567"))
+                .assertNext(cached -> assertEquals("tt1234567", cached.getSearch().get(0).getImdbId()))
+                .verifyComplete();
+
+        verify(webClient, times(1)).get();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void refreshSearch_WhenHotQueryWasNotFound_ShouldNotCallOmdbAgain() {
+        MovieSearchService withNegativeCache = new MovieSearchService(webClient, featureFlagService,
+                new MovieDetailsCache(100, Duration.ofHours(1)), new SearchResultCache(100, Duration.ofMinutes(15)),
+                new QueryFrequencyTracker(Duration.ofHours(1), 12, 100, 1000), null,
+                new NegativeResultCache(Duration.ofMinutes(10), 100, 4, 1000, 0.001, System::nanoTime), null, null);
+        MovieSearchResponse notFound = new MovieSearchResponse(null, null, "False");
+        notFound.setError("Movie not found!");
+        when(featureFlagService.isMaintenanceMode()).thenReturn(false);
+        when(webClient.get()).thenReturn(requestHeadersUriSpec);
+        when(requestHeadersUriSpec.uri(anyString(), any(), any())).thenReturn(requestHeadersSpec);
+        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
+        when(responseSpec.bodyToMono(MovieSearchResponse.class)).thenReturn(Mono.just(notFound));
+
+        StepVerifier.create(withNegativeCache.searchMovies("Teh Matrx")).expectNext(notFound).verifyComplete();
+        for (int refresh = 0; refresh < 3; refresh++) {
+            StepVerifier.create(withNegativeCache.refreshSearch("teh matrx")).verifyComplete();
+        }
+
+        verify(webClient, times(1)).get();
+    }
+
+    @Test
+    void searchMovies_WhenPeerOwnsTitle_ShouldForwardInsteadOfCallingOmdb() {
+        ClusterCacheRouter router = mock(ClusterCacheRouter.class);
+        MovieSearchService clustered = new MovieSearchService(webClient, featureFlagService,
+                new MovieDetailsCache(100, Duration.ofHours(1)), new SearchResultCache(100, Duration.ofMinutes(15)),
+                new QueryFrequencyTracker(Duration.ofHours(1), 12, 100, 1000), null, null, router, null);
+        MovieSearchResponse fromPeer = new MovieSearchResponse(Collections.emptyList(), "0", "True");
+        when(featureFlagService.isMaintenanceMode()).thenReturn(false);
+        when(router.searchOwner("Alien")).thenReturn("http://peer:8081");
+        when(router.search("http://peer:8081", "Alien")).thenReturn(Mono.just(fromPeer));
+
+        StepVerifier.create(clustered.searchMovies("Alien")).expectNext(fromPeer).verifyComplete();
+
+        verifyNoInteractions(webClient);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void searchMovies_WhenForwardToOwnerFails_ShouldNotCacheFallbackResults() {
+        ClusterCacheRouter router = mock(ClusterCacheRouter.class);
+        SearchResultCache searchResultCache = new SearchResultCache(100, Duration.ofMinutes(15));
+        MovieSearchService clustered = new MovieSearchService(webClient, featureFlagService,
+                new MovieDetailsCache(100, Duration.ofHours(1)), searchResultCache,
+                new QueryFrequencyTracker(Duration.ofHours(1), 12, 100, 1000), null, null, router, null);
+        MovieSearchResponse fromOmdb = new MovieSearchResponse(Collections.emptyList(), "0", "True");
+        when(featureFlagService.isMaintenanceMode()).thenReturn(false);
+        when(router.searchOwner("Alien")).thenReturn("http://peer:8081");
+        when(router.search("http://peer:8081", "Alien")).thenReturn(Mono.error(new IllegalStateException("peer down")));
+        when(webClient.get()).thenReturn(requestHeadersUriSpec);
+        when(requestHeadersUriSpec.uri(anyString(), any(), any())).thenReturn(requestHeadersSpec);
+        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
+        when(responseSpec.bodyToMono(MovieSearchResponse.class)).thenReturn(Mono.just(fromOmdb));
+
+        StepVerifier.create(clustered.searchMovies("Alien")).expectNext(fromOmdb).verifyComplete();
+
+        assertNull(searchResultCache.get("Alien"));
+    }
 }
@@ -0,0 +1,96 @@
+package com.moviesearch.service;
+
+import com.moviesearch.dto.MovieSearchResponse;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NegativeResultCacheTest {
+
+    private long now;
+
+    @Test
+    void recordSearch_WhenNotFound_ShouldAnswerRepeatsUntilTtl() {
+        NegativeResultCache cache = new NegativeResultCache(Duration.ofMinutes(10), 100, 4, 1000, 0.001, () -> now);
+
+        cache.recordSearch("Teh Matrx", notFound("Movie not found!"));
+        cache.recordDetails("tt0000000", notFound("Incorrect IMDb ID."));
+
+        MovieSearchResponse search = cache.getSearch("  teh matrx ");
+        assertFalse(search.isSuccess());
+        assertEquals("Movie not found!", search.getError());
+        assertEquals("Incorrect IMDb ID.", cache.getDetails("tt0000000").getError());
+        assertNull(cache.getSearch("The Matrix"));
+
+        now += Duration.ofMinutes(10).toNanos();
+        assertNull(cache.getSearch("Teh Matrx"));
+        assertNull(cache.getDetails("tt0000000"));
+    }
+
+    @Test
+    void recordSearch_ShouldIgnoreFoundAndOtherErrors() {
+        NegativeResultCache cache = new NegativeResultCache(Duration.ofMinutes(10), 100, 4, 1000, 0.001, () -> now);
+
+        cache.recordSearch("a", notFound("Too many results."));
+        cache.recordSearch("invalid key", notFound("Invalid API key!"));
+        cache.recordSearch("found", new MovieSearchResponse(null, "1", "True"));
+
+        assertNull(cache.getSearch("a"));
+        assertNull(cache.getSearch("invalid key"));
+        assertNull(cache.getSearch("found"));
+    }
+
+    @Test
+    void getSearch_BeyondExactTier_ShouldStillAnswerEveryMiss() {
+        NegativeResultCache cache = new NegativeResultCache(Duration.ofMinutes(10), 10, 4, 10000, 0.001, () -> now);
+
+        for (int i = 0; i < 2000; i++) {
+            cache.recordSearch("typo " + i, notFound("Movie not found!"));
+        }
+        for (int i = 0; i < 2000; i++) {
+            assertNotNull(cache.getSearch("typo " + i));
+        }
+        assertEquals(2000, cache.exactHits() + cache.bloomHits());
+    }
+
+    @Test
+    void bloomFilter_ShouldHaveNoFalseNegativesAndBoundedFalsePositives() {
+        RotatingBloomFilter filter = new RotatingBloomFilter(4, Duration.ofMinutes(10), 10000, 0.001, () -> now);
+        for (int i = 0; i < 10000; i++) {
+            filter.put("miss-" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100000; i++) {
+            assertTrue(i >= 10000 || filter.mightContain("miss-" + i));
+            if (filter.mightContain("other-" + i)) {
+                falsePositives++;
+            }
+        }
+        // 0.1% of the lookups, although they check all four filters
+        assertTrue(falsePositives < 100, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void bloomFilter_ShouldForgetKeysBucketByBucket() {
+        RotatingBloomFilter filter = new RotatingBloomFilter(4, Duration.ofMinutes(4), 1000, 0.001, () -> now);
+        filter.put("early");
+        now += Duration.ofMinutes(2).toNanos();
+        filter.put("late");
+
+        now += Duration.ofMinutes(2).toNanos();
+        assertFalse(filter.mightContain("early"));
+        assertTrue(filter.mightContain("late"));
+
+        now += Duration.ofMinutes(2).toNanos();
+        assertFalse(filter.mightContain("late"));
+    }
+
+    private static MovieSearchResponse notFound(String error) {
+        MovieSearchResponse response = new MovieSearchResponse(null, null, "False");
+        response.setError(error);
+        return response;
+    }
+}
@@ -0,0 +1,69 @@
+package com.moviesearch.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryFrequencyTrackerTest {
+
+    private long now;
+
+    @Test
+    void top_ShouldFindHeavyHittersAmongManyRareQueries() {
+        QueryFrequencyTracker tracker = new QueryFrequencyTracker(Duration.ofHours(1), 12, 100, 100000, () -> now);
+        Random random = new Random(7);
+        for (int i = 0; i < 20000; i++) {
+            int roll = random.nextInt(100);
+            if (roll < 20) {
+                tracker.record("The Matrix");
+            } else if (roll < 30) {
+                tracker.record("Alien");
+            } else {
+                tracker.record("rare query " + random.nextInt(50000));
+            }
+        }
+
+        List<QueryFrequencyTracker.TopQuery> top = tracker.top(2);
+
+        assertEquals(List.of("the matrix", "alien"), top.stream().map(QueryFrequencyTracker.TopQuery::getQuery).toList());
+        QueryFrequencyTracker.TopQuery matrix = top.get(0);
+        assertTrue(matrix.getCount() - matrix.getError() <= 4200 && matrix.getCount() >= 3800,
+                "count " + matrix.getCount() + " error " + matrix.getError());
+    }
+
+    @Test
+    void top_ShouldForgetQueriesOnceTheirSlicesRotateOut() {
+        QueryFrequencyTracker tracker = new QueryFrequencyTracker(Duration.ofMinutes(12), 12, 100, 100000, () -> now);
+        tracker.record("Old Movie");
+        tracker.record("Old Movie");
+        tracker.drain();
+        now += Duration.ofMinutes(6).toNanos();
+        tracker.record("New Movie");
+        tracker.drain();
+
+        assertEquals("old movie", tracker.top(1).get(0).getQuery());
+
+        now += Duration.ofMinutes(6).toNanos();
+        tracker.seed("New Movie", 1);
+        List<QueryFrequencyTracker.TopQuery> top = tracker.top(10);
+        assertEquals(1, top.size());
+        assertEquals("new movie", top.get(0).getQuery());
+        assertEquals(2, top.get(0).getCount());
+    }
+
+    @Test
+    void record_ShouldDropQueriesBeyondMaxPendingUntilDrained() {
+        QueryFrequencyTracker tracker = new QueryFrequencyTracker(Duration.ofHours(1), 12, 100, 3, () -> now);
+        for (int i = 0; i < 5; i++) {
+            tracker.record("Alien");
+        }
+        tracker.drain();
+        tracker.record("Alien");
+
+        assertEquals(4, tracker.top(1).get(0).getCount());
+    }
+}
@@ -0,0 +1,93 @@
+package com.moviesearch.service;
+
+import com.moviesearch.cluster.ClusterCacheRouter;
+import com.moviesearch.dto.MovieSearchResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SearchCacheWarmerTest {
+
+    @Mock
+    private MovieSearchService movieSearchService;
+
+    @Mock
+    private ObjectProvider<DetailsPrefetcher> detailsPrefetcher;
+
+    @Mock
+    private ObjectProvider<ClusterCacheRouter> clusterCacheRouterProvider;
+
+    @Mock
+    private ClusterCacheRouter clusterCacheRouter;
+
+    @TempDir
+    private Path tempDir;
+
+    private final SearchResultCache searchResultCache = new SearchResultCache(100, Duration.ofMinutes(15));
+
+    @Test
+    void refresh_ShouldReloadOnlyTopQueriesThatAreDue() {
+        QueryFrequencyTracker tracker = new QueryFrequencyTracker(Duration.ofHours(1), 12, 100, 1000);
+        tracker.seed("Alien", 5);
+        tracker.seed("Heat", 3);
+        tracker.seed("Rare", 1);
+        searchResultCache.put("heat", new MovieSearchResponse(null, "1", "True"));
+        when(movieSearchService.ownsSearch(anyString())).thenReturn(true);
+        when(movieSearchService.refreshSearch(anyString())).thenReturn(Mono.empty());
+
+        int refreshed = warmer(tracker, "").refresh();
+
+        assertEquals(1, refreshed);
+        verify(movieSearchService).refreshSearch("alien");
+        verify(movieSearchService, never()).refreshSearch("heat");
+    }
+
+    @Test
+    void saveSnapshot_ShouldBeRestoredAndWarmedAtStartup() {
+        String file = tempDir.resolve("top-queries.txt").toString();
+        QueryFrequencyTracker before = new QueryFrequencyTracker(Duration.ofHours(1), 12, 100, 1000);
+        before.seed("Alien", 5);
+        before.seed("Heat", 3);
+        warmer(before, file).saveSnapshot();
+
+        QueryFrequencyTracker after = new QueryFrequencyTracker(Duration.ofHours(1), 12, 100, 1000);
+        when(movieSearchService.ownsSearch(anyString())).thenReturn(true);
+        when(movieSearchService.refreshSearch(anyString())).thenReturn(Mono.empty());
+        warmer(after, file).warmAtStartup();
+
+        assertEquals(5, after.top(1).get(0).getCount());
+        verify(movieSearchService).refreshSearch("alien");
+        verify(movieSearchService).refreshSearch("heat");
+    }
+
+    @Test
+    void warmAtStartup_WithoutSnapshotInCluster_ShouldSeedFromPeer() {
+        QueryFrequencyTracker tracker = new QueryFrequencyTracker(Duration.ofHours(1), 12, 100, 1000);
+        when(clusterCacheRouterProvider.getIfAvailable()).thenReturn(clusterCacheRouter);
+        when(clusterCacheRouter.peerTopQueries(2)).thenReturn(Mono.just(Map.of("alien", 7L)));
+        when(movieSearchService.ownsSearch(anyString())).thenReturn(true);
+        when(movieSearchService.refreshSearch(anyString())).thenReturn(Mono.empty());
+
+        warmer(tracker, "").warmAtStartup();
+
+        verify(movieSearchService, timeout(1000)).refreshSearch("alien");
+        assertEquals(7, tracker.top(1).get(0).getCount());
+    }
+
+    private SearchCacheWarmer warmer(QueryFrequencyTracker tracker, String snapshotFile) {
+        return new SearchCacheWarmer(tracker, searchResultCache, movieSearchService, detailsPrefetcher,
+                2, Duration.ofMinutes(3), 2, snapshotFile, clusterCacheRouterProvider);
+    }
+}
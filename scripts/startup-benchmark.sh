@@ -0,0 +1,68 @@
+#!/usr/bin/env bash
+# Compares the startup time of a service's regular jar with its fast-startup layout
+# (Spring AOT + AppCDS archive + lazy initialization).
+#
+# Usage: scripts/startup-benchmark.sh <feature-flag-service|movie-search-service> [runs]
+#   Build first with: (cd <service> && mvn -Pfast-startup package -DskipTests)
+#   BENCHMARK_PROFILES selects the profiles of both runs (default: local). For feature-flag-service
+#   without PostgreSQL use BENCHMARK_PROFILES=cds-training, which runs on the bundled H2.
+#
+# Each run starts a fresh JVM and reads the "process running for" time Spring Boot logs once
+# the application has started; the median of the runs is reported.
+set -euo pipefail
+
+service=${1:?usage: $0 <service-directory> [runs]}
+runs=${2:-10}
+profiles=${BENCHMARK_PROFILES:-local}
+root=$(cd "$(dirname "$0")/.." && pwd)
+target="$root/$service/target"
+jar="$target/$service-1.0.0.jar"
+cds_dir="$target/cds"
+
+if [[ ! -f "$jar" || ! -f "$cds_dir/app.jsa" ]]; then
+    echo "Build $service with -Pfast-startup first" >&2
+    exit 1
+fi
+
+# Start the JVM given as arguments in the working directory $1, print its startup seconds and stop it
+measure() {
+    local dir=$1
+    shift
+    local log
+    log=$(mktemp)
+    (cd "$dir" && exec java "$@" >"$log" 2>&1) &
+    local pid=$!
+    local seconds=""
+    for _ in $(seq 1 600); do
+        seconds=$(sed -n 's/.*Started .* (process running for \([0-9.]*\)).*/\1/p' "$log")
+        if [[ -n "$seconds" ]] || ! kill -0 "$pid" 2>/dev/null; then
+            break
+        fi
+        sleep 0.1
+    done
+    kill "$pid" 2>/dev/null || true
+    wait "$pid" 2>/dev/null || true
+    if [[ -z "$seconds" ]]; then
+        echo "Startup failed, see $log" >&2
+        exit 1
+    fi
+    rm -f "$log"
+    echo "$seconds"
+}
+
+median() {
+    sort -n | awk '{ values[NR] = $1 } END { print (NR % 2) ? values[(NR + 1) / 2] : (values[NR / 2] + values[NR / 2 + 1]) / 2 }'
+}
+
+regular=()
+fast=()
+for run in $(seq 1 "$runs"); do
+    regular+=("$(measure "$target" -Dspring.profiles.active="$profiles" -jar "$jar")")
+    fast+=("$(measure "$cds_dir" -XX:SharedArchiveFile=app.jsa -Dspring.aot.enabled=true \
+        -Dspring.profiles.active="$profiles,fast-startup" -jar "$service-1.0.0-cds.jar")")
+    echo "run $run: regular ${regular[-1]}s, fast-startup ${fast[-1]}s"
+done
+
+echo "$service median startup over $runs runs ($profiles):" \
+    "regular $(printf '%s\n' "${regular[@]}" | median)s," \
+    "fast-startup $(printf '%s\n' "${fast[@]}" | median)s"